@@ -0,0 +1,157 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.eventusermodel.examples;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactory;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.util.IOUtils;
+
+/**
+ * Measures the time needed to turn the records of a workbook stream into
+ * {@link Record} instances, once with {@link RecordFactory#createRecords(InputStream)}
+ * and once with the {@link HSSFEventFactory}.
+ * <p>
+ * The workbook is either an existing .xls file or a generated one with the given
+ * number of rows, each with numbers and strings in 10 columns. Rows beyond the
+ * limit of a sheet are added to further sheets. The workbook stream is kept in
+ * memory, so only the record parsing is measured.
+ * The first half of the iterations is used as a warm-up.
+ */
+public class RecordFactoryPerformanceTest {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            usage("need two command arguments");
+        }
+
+        byte[] stream = getWorkbookStream(args[0]);
+        int iterations = parseInt(args[1], "Failed to parse iterations value as integer");
+
+        int warmup = iterations / 2;
+        long factoryTime = 0;
+        long eventTime = 0;
+        int records = 0;
+        int events = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            records = RecordFactory.createRecords(new ByteArrayInputStream(stream)).size();
+            long middle = System.nanoTime();
+            events = countEvents(stream);
+            long end = System.nanoTime();
+            if (i >= warmup) {
+                factoryTime += middle - start;
+                eventTime += end - middle;
+            }
+        }
+        int measured = Math.max(1, iterations - warmup);
+        System.out.println("Read " + records + " records and " + events + " events from " + stream.length + " bytes");
+        System.out.println("RecordFactory.createRecords: " + (factoryTime / 1000000 / measured) + " ms per iteration");
+        System.out.println("HSSFEventFactory.processEvents: " + (eventTime / 1000000 / measured) + " ms per iteration");
+    }
+
+    private static int countEvents(byte[] stream) {
+        final int[] count = { 0 };
+        HSSFRequest req = new HSSFRequest();
+        req.addListenerForAllRecords(new HSSFListener() {
+            public void processRecord(Record record) {
+                count[0]++;
+            }
+        });
+        new HSSFEventFactory().processEvents(req, new ByteArrayInputStream(stream));
+        return count[0];
+    }
+
+    /**
+     * @param source a .xls file or the number of rows to generate
+     * @return the contents of the workbook stream
+     */
+    private static byte[] getWorkbookStream(String source) throws IOException {
+        NPOIFSFileSystem fs;
+        File file = new File(source);
+        if (file.exists()) {
+            fs = new NPOIFSFileSystem(file);
+        } else {
+            int rows = parseInt(source, "Failed to parse rows value as integer");
+            HSSFWorkbook wb = createWorkbook(rows);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            wb.write(out);
+            wb.close();
+            fs = new NPOIFSFileSystem(new ByteArrayInputStream(out.toByteArray()));
+        }
+        try {
+            String name = HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot());
+            InputStream in = fs.createDocumentInputStream(name);
+            try {
+                return IOUtils.toByteArray(in);
+            } finally {
+                in.close();
+            }
+        } finally {
+            fs.close();
+        }
+    }
+
+    private static HSSFWorkbook createWorkbook(int rows) {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = null;
+        int rowsPerSheet = SpreadsheetVersion.EXCEL97.getMaxRows();
+        for (int r = 0; r < rows; r++) {
+            // spread large workbooks over several sheets
+            if (r % rowsPerSheet == 0) {
+                sheet = wb.createSheet("Records" + (r / rowsPerSheet + 1));
+            }
+            HSSFRow row = sheet.createRow(r % rowsPerSheet);
+            for (int c = 0; c < 10; c++) {
+                if (c % 2 == 0) {
+                    row.createCell(c).setCellValue(r * 10.5 + c);
+                } else {
+                    row.createCell(c).setCellValue("text" + (r % 1000));
+                }
+            }
+        }
+        return wb;
+    }
+
+    static void usage(String message) {
+        System.err.println(message);
+        System.err.println("usage: java RecordFactoryPerformanceTest rows|file.xls iterations");
+        System.exit(1);
+    }
+
+    static int parseInt(String value, String msg) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            usage(msg);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,147 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.examples.formula;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+/**
+ * Measures the time and the memory needed to evaluate the formulas of existing workbooks,
+ * e.g. the formula test data of POI:
+ * <pre>
+ * java FormulaEvaluationPerformanceTest 200 test-data/spreadsheet/FormulaEvalTestData.xls \
+ *      test-data/spreadsheet/FormulaEvalTestData_Copy.xlsx test-data/spreadsheet/LookupFunctionsTestCaseData.xls
+ * </pre>
+ * Each iteration discards the cached results and evaluates all formula cells again.
+ * Cells, which can't be evaluated, e.g. because of unsupported functions, are skipped.
+ * The first half of the iterations is used as a warm-up.<p>
+ *
+ * The allocated bytes of the evaluating thread are reported, if the JVM provides them
+ * via {@code com.sun.management.ThreadMXBean}.
+ */
+public class FormulaEvaluationPerformanceTest {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            usage("need the iterations and at least one workbook");
+        }
+
+        int iterations = parseInt(args[0], "Failed to parse iterations value as integer");
+        for (int i = 1; i < args.length; i++) {
+            Workbook wb = WorkbookFactory.create(new File(args[i]), null, true);
+            try {
+                measure(args[i], wb, iterations);
+            } finally {
+                wb.close();
+            }
+        }
+    }
+
+    private static void measure(String name, Workbook wb, int iterations) {
+        FormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+        List<Cell> cells = getEvaluableFormulaCells(wb, fe);
+
+        int warmup = iterations / 2;
+        long timeStarted = 0;
+        long bytesStarted = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (i == warmup) {
+                timeStarted = System.nanoTime();
+                bytesStarted = getAllocatedBytes();
+            }
+            fe.clearAllCachedResultValues();
+            for (Cell cell : cells) {
+                fe.evaluate(cell);
+            }
+        }
+        long elapsed = System.nanoTime() - timeStarted;
+        long allocated = getAllocatedBytes() - bytesStarted;
+        int measured = Math.max(1, iterations - warmup);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(name).append(": evaluated ").append(cells.size()).append(" formulas ")
+          .append(measured).append(" times, ")
+          .append(elapsed / 1000 / measured).append(" us");
+        if (bytesStarted >= 0) {
+            sb.append(", ").append(allocated / 1024 / measured).append(" KB allocated");
+        }
+        System.out.println(sb.append(" per iteration"));
+    }
+
+    /**
+     * @return the formula cells of the workbook, which can be evaluated
+     */
+    private static List<Cell> getEvaluableFormulaCells(Workbook wb, FormulaEvaluator fe) {
+        List<Cell> cells = new ArrayList<Cell>();
+        for (Sheet sheet : wb) {
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    if (cell.getCellTypeEnum() != CellType.FORMULA) {
+                        continue;
+                    }
+                    try {
+                        fe.evaluate(cell);
+                        cells.add(cell);
+                    } catch (RuntimeException e) {
+                        // e.g. an unsupported function or a reference to another workbook
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the JVM doesn't track them
+     */
+    private static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    static void usage(String message) {
+        System.err.println(message);
+        System.err.println("usage: java FormulaEvaluationPerformanceTest iterations workbook...");
+        System.exit(1);
+    }
+
+    static int parseInt(String value, String msg) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            usage(msg);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,84 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.usermodel.examples;
+
+import java.io.IOException;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Measures the time needed to create a large number of distinct cell styles,
+ * i.e. the lookup of existing fills, borders and fonts in the styles table.
+ * <p>
+ * Each style gets its own fill color and one of a few border colors, and every
+ * 100th style its own font. The styles are applied to the cells of one column.
+ */
+public class CellStylePerformanceTest {
+    public static void main(String[] args) throws IOException {
+        int styles = 60000;
+        if (args.length > 1) {
+            usage("need at most one command argument");
+        } else if (args.length == 1) {
+            try {
+                styles = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                usage("Failed to parse styles value as integer");
+            }
+        }
+
+        XSSFWorkbook wb = new XSSFWorkbook();
+        try {
+            XSSFSheet sheet = wb.createSheet("Styles");
+            long timeStarted = System.nanoTime();
+            for (int i = 0; i < styles; i++) {
+                XSSFCellStyle style = wb.createCellStyle();
+                style.setFillForegroundColor(new XSSFColor(new byte[] {
+                        (byte)(i >> 16), (byte)(i >> 8), (byte)i }));
+                style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+                style.setBorderBottom(BorderStyle.THIN);
+                style.setBottomBorderColor(new XSSFColor(new byte[] { 0, 0, (byte)(i % 16) }));
+                if (i % 100 == 0) {
+                    style.setFont(wb.createFont());
+                    style.getFont().setFontHeightInPoints((short)(8 + i / 100 % 20));
+                }
+
+                XSSFRow row = sheet.createRow(i);
+                row.createCell(0).setCellStyle(style);
+            }
+            long elapsed = System.nanoTime() - timeStarted;
+            System.out.println("Created " + styles + " cell styles with "
+                    + wb.getStylesSource().getFills().size() + " fills, "
+                    + wb.getStylesSource().getBorders().size() + " borders and "
+                    + wb.getNumberOfFonts() + " fonts in " + (elapsed / 1000000) + " ms");
+        } finally {
+            wb.close();
+        }
+    }
+
+    static void usage(String message) {
+        System.err.println(message);
+        System.err.println("usage: java CellStylePerformanceTest [styles]");
+        System.exit(1);
+    }
+}
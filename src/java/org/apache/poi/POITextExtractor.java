@@ -42,6 +42,22 @@ public abstract class POITextExtractor implements Closeable {
 	 * @return All the text from the document
 	 */
 	public abstract String getText();
+
+	/**
+	 * Writes all the text from the document to the given target.
+	 * Extractors which walk through the document append the text
+	 *  while they go, e.g. per paragraph, row or slide, so the
+	 *  complete text doesn't need to be held in memory.
+	 * The default implementation appends the result of {@link #getText()}.
+	 *
+	 * @param out the target of the text
+	 * @throws IOException if the text can't be appended
+	 *
+	 * @since POI 3.16 beta 2
+	 */
+	public void writeText(Appendable out) throws IOException {
+	    out.append(getText());
+	}
 	
 	/**
 	 * Returns another text extractor, which is able to
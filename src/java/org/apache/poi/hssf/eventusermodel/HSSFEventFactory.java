@@ -37,9 +37,26 @@ import static org.apache.poi.hssf.model.InternalWorkbook.WORKBOOK_DIR_ENTRY_NAME
  * to your associated HSSFListener.
  */
 public class HSSFEventFactory {
+	private boolean _lazySSTStringDecoding;
+
 	/** Creates a new instance of HSSFEventFactory */
 	public HSSFEventFactory() {
-		// no instance fields
+		// no instance fields to initialize
+	}
+
+	/**
+	 * Sets whether the strings of the {@link SSTRecord} are decoded only when a listener
+	 * requests them by {@link SSTRecord#getString(int)}. This saves time and memory,
+	 * if only some of the strings of a large workbook are looked up.
+	 *
+	 * @param lazy <code>true</code> to decode the strings on demand,
+	 *  <code>false</code> (the default) to decode all strings when the record is read
+	 *
+	 * @see SSTRecord#SSTRecord(RecordInputStream, boolean)
+	 * @since POI 3.16 beta 2
+	 */
+	public void setLazySSTStringDecoding(boolean lazy) {
+		_lazySSTStringDecoding = lazy;
 	}
 
 	/**
@@ -169,6 +186,7 @@ public class HSSFEventFactory {
 
 		// Create a new RecordStream and use that
 		RecordFactoryInputStream recordStream = new RecordFactoryInputStream(in, false);
+		recordStream.setLazySSTStringDecoding(_lazySSTStringDecoding);
 
 		// Process each record as they come in
 		while(true) {
@@ -0,0 +1,322 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.record;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.hssf.record.common.UnicodeString;
+import org.apache.poi.util.IntMapper;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+/**
+ * The strings of an {@link SSTRecord}, which are decoded only when they're requested.<p/>
+ *
+ * The data of the SST record and its continue records is kept as it is, together with
+ * the offset of each string within the data. A bounded number of recently used strings
+ * is kept decoded.
+ *
+ * @see SSTRecord#SSTRecord(RecordInputStream, boolean)
+ */
+final class LazySSTStrings {
+    private static final POILogger logger = POILogFactory.getLogger(LazySSTStrings.class);
+
+    /** the maximum number of decoded strings which are kept */
+    private static final int MAX_DECODED_STRINGS = 1024;
+
+    private static final UnicodeString EMPTY_STRING = new UnicodeString("");
+
+    /** the data of the SST record and all of its continue records, without the record headers */
+    private final byte[] _data;
+    /** the offsets in {@link #_data} where the data of each record ends */
+    private final int[] _recordEnds;
+    /** the offset in {@link #_data} of each string, -1 for the missing ones */
+    private final int[] _stringOffsets;
+
+    private final Map<Integer, UnicodeString> _decodedStrings =
+            new LinkedHashMap<Integer, UnicodeString>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, UnicodeString> eldest) {
+            return size() > MAX_DECODED_STRINGS;
+        }
+    };
+
+    /**
+     * Reads the remaining data of the SST record and its continue records and
+     * finds the start of each string.
+     */
+    public LazySSTStrings(int stringCount, RecordInputStream in) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(in.remaining());
+        List<Integer> recordEnds = new ArrayList<Integer>();
+        while (true) {
+            byte[] b = in.readRemainder();
+            data.write(b, 0, b.length);
+            recordEnds.add(Integer.valueOf(data.size()));
+            if (!in.hasNextRecord() || in.getNextSid() != ContinueRecord.sid) {
+                break;
+            }
+            in.nextRecord();
+        }
+        _data = data.toByteArray();
+        _recordEnds = new int[recordEnds.size()];
+        for (int i = 0; i < _recordEnds.length; i++) {
+            _recordEnds[i] = recordEnds.get(i).intValue();
+        }
+
+        _stringOffsets = new int[stringCount];
+        int offset = 0;
+        for (int i = 0; i < stringCount; i++) {
+            // same check as the SSTDeserializer
+            if (offset >= _data.length) {
+                logger.log( POILogger.ERROR, "Ran out of data before creating all the strings! String at index " + i + "");
+                for (int j = i; j < stringCount; j++) {
+                    _stringOffsets[j] = -1;
+                }
+                break;
+            }
+            _stringOffsets[i] = offset;
+            offset = skipString(offset);
+        }
+    }
+
+    /**
+     * @return the number of strings
+     */
+    public int size() {
+        return _stringOffsets.length;
+    }
+
+    public UnicodeString getString(int index) {
+        if (index < 0 || index >= _stringOffsets.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _stringOffsets.length);
+        }
+        Integer key = Integer.valueOf(index);
+        UnicodeString result = _decodedStrings.get(key);
+        if (result == null) {
+            result = decodeString(index);
+            _decodedStrings.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes all strings and adds them to the given table
+     */
+    public void decodeAll(IntMapper<UnicodeString> strings) {
+        for (int i = 0; i < _stringOffsets.length; i++) {
+            UnicodeString str = _decodedStrings.get(Integer.valueOf(i));
+            SSTDeserializer.addToStringTable(strings, str != null ? str : decodeString(i));
+        }
+    }
+
+    private UnicodeString decodeString(int index) {
+        int offset = _stringOffsets[index];
+        if (offset < 0) {
+            return EMPTY_STRING;
+        }
+        return new UnicodeString(new DataInputStream(offset).openRecordInputStream());
+    }
+
+    /**
+     * Finds the end of a string in the same way as {@link UnicodeString#UnicodeString(RecordInputStream)}
+     * reads it, but without decoding the characters.
+     *
+     * @return the offset of the next string
+     */
+    private int skipString(int offset) {
+        int record = getRecord(offset);
+        int pos = offset;
+        // the character count and the option flags aren't split by continue records
+        if (record >= _recordEnds.length || pos + 3 > _recordEnds[record]) {
+            return skipStringSlow(offset);
+        }
+        int charCount = (_data[pos] & 0xFF) + ((_data[pos + 1] & 0xFF) << 8);
+        byte optionFlags = _data[pos + 2];
+        pos += 3;
+        if ((optionFlags & 0x04) != 0) {
+            // the extended data is read by ExtRst, which copes with several kinds of broken data
+            return skipStringSlow(offset);
+        }
+        int runCount = 0;
+        if ((optionFlags & 0x08) != 0) {
+            record = getRecord(pos);
+            if (record >= _recordEnds.length || pos + 2 > _recordEnds[record]) {
+                return skipStringSlow(offset);
+            }
+            runCount = (_data[pos] & 0xFF) + ((_data[pos + 1] & 0xFF) << 8);
+            pos += 2;
+        }
+
+        // same as RecordInputStream.readStringCommon()
+        boolean isCompressed = (optionFlags & 0x01) == 0;
+        int remainingChars = charCount;
+        while (true) {
+            int available = _recordEnds[record] - pos;
+            int availableChars = isCompressed ? available : available / 2;
+            if (remainingChars <= availableChars) {
+                pos += isCompressed ? remainingChars : remainingChars * 2;
+                break;
+            }
+            pos += isCompressed ? availableChars : availableChars * 2;
+            remainingChars -= availableChars;
+            if (pos != _recordEnds[record] || record + 1 >= _recordEnds.length || pos == _recordEnds[record + 1]) {
+                // let the decoding report the broken data
+                return skipStringSlow(offset);
+            }
+            record++;
+            // note - the compressed flag may change on the fly
+            isCompressed = (_data[pos++] == 0);
+        }
+
+        // the format runs consist of two shorts each
+        for (int i = 0; i < runCount * 2; i++) {
+            record = getRecord(pos);
+            if (record >= _recordEnds.length || pos + 2 > _recordEnds[record]) {
+                return skipStringSlow(offset);
+            }
+            pos += 2;
+        }
+        return pos;
+    }
+
+    /**
+     * Finds the end of a string by decoding it
+     *
+     * @return the offset of the next string
+     */
+    private int skipStringSlow(int offset) {
+        DataInputStream dis = new DataInputStream(offset);
+        new UnicodeString(dis.openRecordInputStream());
+        return dis.getDataOffset();
+    }
+
+    /**
+     * @return the index of the record containing the given offset, the records ending at
+     *  the offset are skipped like by {@link RecordInputStream}
+     */
+    private int getRecord(int offset) {
+        int index = Arrays.binarySearch(_recordEnds, offset);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // empty continue records
+        while (index < _recordEnds.length && _recordEnds[index] <= offset) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Provides the kept data as records from a given data offset on. The record
+     * containing the offset is shortened to start at the offset.
+     */
+    private final class DataInputStream extends InputStream {
+        private int _record;
+        private int _position;
+        private int _headerPosition;
+        private final byte[] _header = new byte[4];
+
+        DataInputStream(int offset) {
+            _record = getRecord(offset);
+            _position = offset;
+            // the current record starts at the offset
+            setHeader(SSTRecord.sid, _record < _recordEnds.length ? _recordEnds[_record] - offset : 0);
+        }
+
+        RecordInputStream openRecordInputStream() {
+            RecordInputStream in = new RecordInputStream(this);
+            if (in.hasNextRecord()) {
+                in.nextRecord();
+            }
+            return in;
+        }
+
+        /**
+         * @return the offset in the kept data of the next data byte
+         */
+        int getDataOffset() {
+            return _position;
+        }
+
+        private void setHeader(int sid, int length) {
+            _header[0] = (byte) sid;
+            _header[1] = (byte) (sid >> 8);
+            _header[2] = (byte) length;
+            _header[3] = (byte) (length >> 8);
+            _headerPosition = 0;
+        }
+
+        @Override
+        public int read() {
+            if (_record >= _recordEnds.length) {
+                return -1;
+            }
+            if (_headerPosition < _header.length) {
+                return _header[_headerPosition++] & 0xFF;
+            }
+            if (_position == _recordEnds[_record]) {
+                _record++;
+                if (_record >= _recordEnds.length) {
+                    return -1;
+                }
+                setHeader(ContinueRecord.sid, _recordEnds[_record] - _position);
+                return read();
+            }
+            return _data[_position++] & 0xFF;
+        }
+
+        /**
+         * Fills the whole buffer, unless the end of the data is reached, as
+         * expected by {@link org.apache.poi.util.LittleEndianInputStream}
+         */
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int count = 0;
+            while (count < len && _record < _recordEnds.length) {
+                if (_headerPosition < _header.length || _position == _recordEnds[_record]) {
+                    int c = read();
+                    if (c == -1) {
+                        break;
+                    }
+                    b[off + count++] = (byte) c;
+                } else {
+                    int n = Math.min(len - count, _recordEnds[_record] - _position);
+                    System.arraycopy(_data, _position, b, off + count, n);
+                    _position += n;
+                    count += n;
+                }
+            }
+            return count == 0 && len > 0 ? -1 : count;
+        }
+
+        @Override
+        public int available() {
+            if (_record >= _recordEnds.length) {
+                return 0;
+            }
+            return (_header.length - _headerPosition) + (_data.length - _position)
+                    + (_recordEnds.length - _record - 1) * _header.length;
+        }
+    }
+}
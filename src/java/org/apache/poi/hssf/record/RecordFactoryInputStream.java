@@ -172,6 +172,11 @@ public final class RecordFactoryInputStream {
 
 	private boolean _lastRecordWasEOFLevelZero;
 
+	/**
+	 * whether the strings of the {@link SSTRecord} are decoded on demand
+	 */
+	private boolean _lazySSTStringDecoding;
+
 
 	/**
 	 * @param in the InputStream to read from
@@ -220,6 +225,20 @@ public final class RecordFactoryInputStream {
 		_lastRecordWasEOFLevelZero = false;
 	}
 
+	/**
+	 * Sets whether the strings of the {@link SSTRecord}s which are read afterwards are
+	 * decoded only when they are requested by {@link SSTRecord#getString(int)}.
+	 *
+	 * @param lazy <code>true</code> to decode the strings on demand,
+	 *  <code>false</code> (the default) to decode all strings when the record is read
+	 *
+	 * @see SSTRecord#SSTRecord(RecordInputStream, boolean)
+	 * @since POI 3.16 beta 2
+	 */
+	public void setLazySSTStringDecoding(boolean lazy) {
+		_lazySSTStringDecoding = lazy;
+	}
+
 	/**
 	 * @return the next (complete) record from the stream, or null if there are no more.
 	 */
@@ -285,7 +304,12 @@ public final class RecordFactoryInputStream {
 	 */
 	private Record readNextRecord() {
 
-		Record record = RecordFactory.createSingleRecord(_recStream);
+		Record record;
+		if (_lazySSTStringDecoding && _recStream.getSid() == SSTRecord.sid) {
+			record = new SSTRecord(_recStream, true);
+		} else {
+			record = RecordFactory.createSingleRecord(_recStream);
+		}
 		_lastRecordWasEOFLevelZero = false;
 
 		if (record instanceof BOFRecord) {
@@ -59,6 +59,9 @@ public final class SSTRecord extends ContinuableRecord {
 
     private SSTDeserializer deserializer;
 
+    /** the strings which aren't decoded yet, <code>null</code> once all strings are decoded */
+    private LazySSTStrings lazyStrings;
+
     /** Offsets from the beginning of the SST record (even across continuations) */
     int[] bucketAbsoluteOffsets;
     /** Offsets relative the start of the current SST or continue record */
@@ -81,6 +84,7 @@ public final class SSTRecord extends ContinuableRecord {
      */
     public int addString(UnicodeString string)
     {
+        decodeAllStrings();
         field_1_num_strings++;
         UnicodeString ucs = ( string == null ) ? EMPTY_STRING
                 : string;
@@ -125,9 +129,22 @@ public final class SSTRecord extends ContinuableRecord {
      */
     public UnicodeString getString(int id )
     {
+        if (lazyStrings != null) {
+            return lazyStrings.getString( id );
+        }
         return field_3_strings.get( id );
     }
 
+    /**
+     * Decodes the strings which haven't been decoded yet
+     */
+    private void decodeAllStrings() {
+        if (lazyStrings != null) {
+            lazyStrings.decodeAll( field_3_strings );
+            lazyStrings = null;
+        }
+    }
+
 
     /**
      * Return a debugging string representation
@@ -135,6 +152,7 @@ public final class SSTRecord extends ContinuableRecord {
      * @return string representation
      */
     public String toString() {
+        decodeAllStrings();
         StringBuffer buffer = new StringBuffer();
 
         buffer.append( "[SST]\n" );
@@ -235,6 +253,28 @@ public final class SSTRecord extends ContinuableRecord {
      * @param in the RecordInputstream to read the record from
      */
     public SSTRecord(RecordInputStream in) {
+        this(in, false);
+    }
+
+    /**
+     * Reads the record and optionally decodes its strings only when they are requested
+     * by {@link #getString(int)}.<p/>
+     *
+     * In the lazy mode the record data is kept and only a limited number of recently used
+     * strings is kept decoded. This reduces the memory needed for workbooks with many
+     * strings, if only some of them are read, e.g. by an
+     * {@link org.apache.poi.hssf.eventusermodel.HSSFListener HSSFListener} which looks up
+     * the strings of some {@link LabelSSTRecord}s. All strings are decoded, once the record
+     * is modified or written.
+     *
+     * @param in the RecordInputstream to read the record from
+     * @param lazyStringDecoding <code>true</code> to decode the strings on demand,
+     *  <code>false</code> to decode all strings now
+     *
+     * @see RecordFactoryInputStream#setLazySSTStringDecoding(boolean)
+     * @since POI 3.16 beta 2
+     */
+    public SSTRecord(RecordInputStream in, boolean lazyStringDecoding) {
         // this method is ALWAYS called after construction -- using
         // the nontrivial constructor, of course -- so this is where
         // we initialize our fields
@@ -249,6 +289,10 @@ public final class SSTRecord extends ContinuableRecord {
             field_2_num_unique_strings = 0;
             return;
         }
+        if (lazyStringDecoding) {
+            lazyStrings = new LazySSTStrings( field_2_num_unique_strings, in );
+            return;
+        }
         deserializer.manufactureStrings( field_2_num_unique_strings, in );
     }
 
@@ -259,6 +303,7 @@ public final class SSTRecord extends ContinuableRecord {
      */
     Iterator<UnicodeString> getStrings()
     {
+        decodeAllStrings();
         return field_3_strings.iterator();
     }
 
@@ -266,10 +311,14 @@ public final class SSTRecord extends ContinuableRecord {
      * @return count of the strings we hold.
      */
     int countStrings() {
+        if (lazyStrings != null) {
+            return lazyStrings.size();
+        }
         return field_3_strings.size();
     }
 
     protected void serialize(ContinuableRecordOutput out) {
+        decodeAllStrings();
         SSTSerializer serializer = new SSTSerializer(field_3_strings, getNumStrings(), getNumUniqueStrings() );
         serializer.serialize(out);
         bucketAbsoluteOffsets = serializer.getBucketAbsoluteOffsets();
@@ -316,6 +365,6 @@ public final class SSTRecord extends ContinuableRecord {
      * @return  The size of the ExtSST record in bytes.
      */
     public int calcExtSSTRecordSize() {
-      return ExtSSTRecord.getRecordSizeForStrings(field_3_strings.size());
+      return ExtSSTRecord.getRecordSizeForStrings(countStrings());
     }
 }
@@ -0,0 +1,169 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.record.aggregates;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.aggregates.RecordAggregate.RecordVisitor;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.apache.poi.util.TempFile;
+
+/**
+ * The serialized row blocks (ROW records, their cell records and the DBCELL record)
+ * which were flushed from a {@link RowRecordsAggregate} to a temporary file.<p/>
+ *
+ * The blocks are read back from the file when the sheet is serialized.
+ */
+final class FlushedRowBlocks {
+    private static final POILogger log = POILogFactory.getLogger(FlushedRowBlocks.class);
+
+    private File _tempFile;
+    private RandomAccessFile _raf;
+    private long _length;
+
+    private int _blockCount;
+    /** the file offset of each block */
+    private long[] _blockOffsets = new long[16];
+    /** the size of each block including its DBCELL record */
+    private int[] _blockSizes = new int[16];
+    /** the offset of the DBCELL record from the start of each block */
+    private int[] _dbCellOffsets = new int[16];
+
+    FlushedRowBlocks() throws IOException {
+        _tempFile = TempFile.createTempFile("poi-hssf-rows", ".tmp");
+        _raf = new RandomAccessFile(_tempFile, "rw");
+    }
+
+    /**
+     * @param data the serialized block
+     * @param dbCellOffset the offset of the DBCELL record within <tt>data</tt>
+     */
+    public void appendBlock(byte[] data, int dbCellOffset) throws IOException {
+        checkNotDisposed();
+        if (_blockCount == _blockSizes.length) {
+            int newSize = _blockCount * 2;
+            long[] blockOffsets = new long[newSize];
+            int[] blockSizes = new int[newSize];
+            int[] dbCellOffsets = new int[newSize];
+            System.arraycopy(_blockOffsets, 0, blockOffsets, 0, _blockCount);
+            System.arraycopy(_blockSizes, 0, blockSizes, 0, _blockCount);
+            System.arraycopy(_dbCellOffsets, 0, dbCellOffsets, 0, _blockCount);
+            _blockOffsets = blockOffsets;
+            _blockSizes = blockSizes;
+            _dbCellOffsets = dbCellOffsets;
+        }
+        _raf.seek(_length);
+        _raf.write(data);
+        _blockOffsets[_blockCount] = _length;
+        _blockSizes[_blockCount] = data.length;
+        _dbCellOffsets[_blockCount] = dbCellOffset;
+        _blockCount++;
+        _length += data.length;
+    }
+
+    public int getBlockCount() {
+        return _blockCount;
+    }
+
+    public int getBlockSize(int block) {
+        return _blockSizes[block];
+    }
+
+    public int getDbCellOffset(int block) {
+        return _dbCellOffsets[block];
+    }
+
+    public void visitBlocks(RecordVisitor rv) {
+        checkNotDisposed();
+        for (int block = 0; block < _blockCount; block++) {
+            rv.visitRecord(new FlushedBlockRecord(block));
+        }
+    }
+
+    /**
+     * Deletes the temporary file
+     *
+     * @return <code>true</code> if the file was deleted
+     */
+    public boolean dispose() {
+        if (_tempFile == null) {
+            return true;
+        }
+        try {
+            _raf.close();
+        } catch (IOException e) {
+            log.log(POILogger.WARN, "Failed to close the temporary file " + _tempFile, e);
+        }
+        boolean deleted = _tempFile.delete();
+        if (!deleted) {
+            log.log(POILogger.WARN, "Failed to delete the temporary file " + _tempFile);
+        }
+        _tempFile = null;
+        _raf = null;
+        return deleted;
+    }
+
+    private void checkNotDisposed() {
+        if (_tempFile == null) {
+            throw new IllegalStateException("The flushed rows have already been disposed");
+        }
+    }
+
+    /**
+     * Stands for all records of a flushed block, which are copied from the temporary file
+     * on serialization
+     */
+    private final class FlushedBlockRecord extends Record {
+        private final int _block;
+
+        public FlushedBlockRecord(int block) {
+            _block = block;
+        }
+
+        /**
+         * @return the sid of the first record of the block
+         */
+        @Override
+        public short getSid() {
+            return RowRecord.sid;
+        }
+
+        @Override
+        public int getRecordSize() {
+            return _blockSizes[_block];
+        }
+
+        @Override
+        public int serialize(int offset, byte[] data) {
+            checkNotDisposed();
+            int size = _blockSizes[_block];
+            try {
+                _raf.seek(_blockOffsets[_block]);
+                _raf.readFully(data, offset, size);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read the flushed rows from " + _tempFile, e);
+            }
+            return size;
+        }
+    }
+}
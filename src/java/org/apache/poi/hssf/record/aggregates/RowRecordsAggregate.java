@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.record.aggregates;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -45,6 +46,11 @@ public final class RowRecordsAggregate extends RecordAggregate {
     // getStartRowNumberForBlock / getEndRowNumberForBlock, see Bugzilla 47405
     private RowRecord[] _rowRecordValues = null;
 
+    /** the row blocks written to a temporary file by {@link #flushRowBlocks(int)}, if any */
+    private FlushedRowBlocks _flushedBlocks;
+    private int _flushedRowCount;
+    private int _lastFlushedRowNumber = -1;
+
     /** Creates a new instance of ValueRecordsAggregate */
     public RowRecordsAggregate() {
         this(SharedValueManager.createEmpty());
@@ -113,6 +119,10 @@ public final class RowRecordsAggregate extends RecordAggregate {
         _unknownRecords.add(rec);
     }
     public void insertRow(RowRecord row) {
+        if (row.getRowNumber() <= _lastFlushedRowNumber) {
+            throw new IllegalArgumentException("Row " + row.getRowNumber()
+                    + " can't be inserted before the last flushed row " + _lastFlushedRowNumber);
+        }
         // Integer integer = Integer.valueOf(row.getRowNumber());
         _rowRecords.put(Integer.valueOf(row.getRowNumber()), row);
         // Clear the cached values
@@ -246,42 +256,130 @@ public final class RowRecordsAggregate extends RecordAggregate {
 
     @Override
     public void visitContainedRecords(RecordVisitor rv) {
+        if (_flushedBlocks != null) {
+            _flushedBlocks.visitBlocks(rv);
+        }
+        final int blockCount = getRowBlockCount();
+        for (int blockIndex = 0; blockIndex < blockCount; blockIndex++) {
+            visitRowBlock(blockIndex, rv);
+        }
+        for (Record _unknownRecord : _unknownRecords) {
+            // Potentially breaking the file here since we don't know exactly where to write these records
+            rv.visitRecord(_unknownRecord);
+        }
+    }
 
+    /**
+     * Visits the row records of a block, the cell records for those rows and the DBCELL record
+     */
+    private void visitRowBlock(int blockIndex, RecordVisitor rv) {
         PositionTrackingVisitor stv = new PositionTrackingVisitor(rv, 0);
         //DBCells are serialized before row records.
-        final int blockCount = getRowBlockCount();
+        // Serialize a block of rows.
+        // Hold onto the position of the first row in the block
+        int pos=0;
+        // Hold onto the size of this block that was serialized
+        final int rowBlockSize = visitRowRecordsForBlock(blockIndex, rv);
+        pos += rowBlockSize;
+        // Serialize a block of cells for those rows
+        final int startRowNumber = getStartRowNumberForBlock(blockIndex);
+        final int endRowNumber = getEndRowNumberForBlock(blockIndex);
+        DBCellRecord.Builder dbcrBuilder = new DBCellRecord.Builder();
+        // Note: Cell references start from the second row...
+        int cellRefOffset = (rowBlockSize - RowRecord.ENCODED_SIZE);
+        for (int row = startRowNumber; row <= endRowNumber; row++) {
+            if (_valuesAgg.rowHasCells(row)) {
+                stv.setPosition(0);
+                _valuesAgg.visitCellsForRow(row, stv);
+                int rowCellSize = stv.getPosition();
+                pos += rowCellSize;
+                // Add the offset to the first cell for the row into the
+                // DBCellRecord.
+                dbcrBuilder.addCellOffset(cellRefOffset);
+                cellRefOffset = rowCellSize;
+            }
+        }
+        // Calculate Offset from the start of a DBCellRecord to the first Row
+        rv.visitRecord(dbcrBuilder.build(pos));
+    }
+
+    /**
+     * Serializes the first row blocks (of {@link DBCellRecord#BLOCK_SIZE} rows each) to a
+     * temporary file and removes their rows and cells from this aggregate. The flushed blocks
+     * are copied from the file when the sheet is serialized, so rows can't be inserted before
+     * the last flushed row anymore.
+     *
+     * @param blockCount the number of row blocks to flush, starting with the first block
+     * @throws IOException if the blocks can't be written to the temporary file
+     */
+    public void flushRowBlocks(int blockCount) throws IOException {
+        if (blockCount > getRowBlockCount()) {
+            throw new IllegalArgumentException("Can't flush " + blockCount
+                    + " row blocks, only " + getRowBlockCount() + " are available");
+        }
+        if (blockCount <= 0) {
+            return;
+        }
+        if (_flushedBlocks == null) {
+            _flushedBlocks = new FlushedRowBlocks();
+        }
         for (int blockIndex = 0; blockIndex < blockCount; blockIndex++) {
-            // Serialize a block of rows.
-            // Hold onto the position of the first row in the block
-            int pos=0;
-            // Hold onto the size of this block that was serialized
-            final int rowBlockSize = visitRowRecordsForBlock(blockIndex, rv);
-            pos += rowBlockSize;
-            // Serialize a block of cells for those rows
-            final int startRowNumber = getStartRowNumberForBlock(blockIndex);
-            final int endRowNumber = getEndRowNumberForBlock(blockIndex);
-            DBCellRecord.Builder dbcrBuilder = new DBCellRecord.Builder();
-            // Note: Cell references start from the second row...
-            int cellRefOffset = (rowBlockSize - RowRecord.ENCODED_SIZE);
-            for (int row = startRowNumber; row <= endRowNumber; row++) {
-                if (_valuesAgg.rowHasCells(row)) {
-                    stv.setPosition(0);
-                    _valuesAgg.visitCellsForRow(row, stv);
-                    int rowCellSize = stv.getPosition();
-                    pos += rowCellSize;
-                    // Add the offset to the first cell for the row into the
-                    // DBCellRecord.
-                    dbcrBuilder.addCellOffset(cellRefOffset);
-                    cellRefOffset = rowCellSize;
+            final List<Record> records = new ArrayList<Record>();
+            visitRowBlock(blockIndex, new RecordVisitor() {
+                @Override
+                public void visitRecord(Record r) {
+                    records.add(r);
                 }
+            });
+            int size = 0;
+            for (Record rec : records) {
+                size += rec.getRecordSize();
+            }
+            byte[] data = new byte[size];
+            int pos = 0;
+            for (Record rec : records) {
+                pos += rec.serialize(pos, data);
             }
-            // Calculate Offset from the start of a DBCellRecord to the first Row
-            rv.visitRecord(dbcrBuilder.build(pos));
+            // the DBCELL record is the last record of the block
+            int dbCellOffset = size - records.get(records.size() - 1).getRecordSize();
+            _flushedBlocks.appendBlock(data, dbCellOffset);
         }
-        for (Record _unknownRecord : _unknownRecords) {
-            // Potentially breaking the file here since we don't know exactly where to write these records
-            rv.visitRecord(_unknownRecord);
+
+        // the first/last row numbers are kept for the INDEX and DIMENSIONS records
+        Iterator<RowRecord> rowIterator = _rowRecords.values().iterator();
+        int rowCount = Math.min(blockCount * DBCellRecord.BLOCK_SIZE, _rowRecords.size());
+        for (int i = 0; i < rowCount; i++) {
+            RowRecord row = rowIterator.next();
+            _valuesAgg.removeAllCellsValuesForRow(row.getRowNumber());
+            _lastFlushedRowNumber = row.getRowNumber();
+            rowIterator.remove();
         }
+        _flushedRowCount += rowCount;
+        // Clear the cached values
+        _rowRecordValues = null;
+    }
+
+    /**
+     * @return the number of rows flushed by {@link #flushRowBlocks(int)}
+     */
+    public int getFlushedRowCount() {
+        return _flushedRowCount;
+    }
+
+    /**
+     * @return the number of the last row flushed by {@link #flushRowBlocks(int)}, -1 if no rows were flushed
+     */
+    public int getLastFlushedRowNumber() {
+        return _lastFlushedRowNumber;
+    }
+
+    /**
+     * Deletes the temporary file of the flushed rows. The sheet can't be serialized afterwards.
+     *
+     * @return <code>true</code> if there were no flushed rows or their temporary file was deleted
+     */
+    public boolean disposeFlushedRowBlocks() {
+        return _flushedBlocks == null || _flushedBlocks.dispose();
     }
 
     public Iterator<RowRecord> getIterator() {
@@ -454,11 +552,18 @@ public final class RowRecordsAggregate extends RecordAggregate {
         // 0 for now.....
 
         int blockCount = getRowBlockCount();
+        int flushedBlockCount = _flushedBlocks == null ? 0 : _flushedBlocks.getBlockCount();
         // Calculate the size of this IndexRecord
-        int indexRecSize = IndexRecord.getRecordSizeForBlockCount(blockCount);
+        int indexRecSize = IndexRecord.getRecordSizeForBlockCount(flushedBlockCount + blockCount);
 
         int currentOffset = indexRecordOffset + indexRecSize + sizeOfInitialSheetRecords;
 
+        // the flushed row-blocks come first
+        for (int block = 0; block < flushedBlockCount; block++) {
+            result.addDbcell(currentOffset + _flushedBlocks.getDbCellOffset(block));
+            currentOffset += _flushedBlocks.getBlockSize(block);
+        }
+
         for (int block = 0; block < blockCount; block++) {
             // each row-block has a DBCELL record.
             // The offset of each DBCELL record needs to be updated in the INDEX record
@@ -0,0 +1,153 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.streaming;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.util.NotImplemented;
+
+/**
+ * Streaming version of HSSFWorkbook, the counterpart of
+ * <code>SXSSFWorkbook</code> for XLS files.<p/>
+ *
+ * Only a configurable number of rows of each sheet are kept in memory. When more rows
+ * are created, the oldest rows are serialized with their cells to a temporary file in
+ * blocks of 32 rows, see {@link HSSFSheet#flushRows(int)}. When the workbook is written,
+ * the flushed blocks are copied from the temporary files into the Workbook stream.<p/>
+ *
+ * Limitations:
+ * <ul>
+ *   <li>Only a limited number of rows are accessible at a point in time.</li>
+ *   <li>Rows have to be created in ascending order, no rows can be created before
+ *    the last flushed row.</li>
+ *   <li>Flushed cells can't be changed anymore, e.g. by shifting rows or renaming and
+ *    removing sheets that are referenced by formulas.</li>
+ *   <li>Sheets can't be cloned.</li>
+ * </ul>
+ *
+ * The temporary files are deleted by {@link #dispose()} or {@link #close()}.
+ *
+ * @since POI 3.16 beta 2
+ */
+public class SHSSFWorkbook extends HSSFWorkbook {
+    /**
+     * Specifies how many rows can be accessed at most via {@link HSSFSheet#getRow}.
+     * When a new row is created via {@link HSSFSheet#createRow} and the total number
+     * of rows in memory would exceed the specified value, the complete blocks of the
+     * rows with the lowest index values are flushed and cannot be accessed
+     * via {@link HSSFSheet#getRow} anymore.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+
+    private final int _randomAccessWindowSize;
+
+    /**
+     * Construct a new workbook with the default row window size
+     */
+    public SHSSFWorkbook() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Construct an empty workbook and specify the window for row access.
+     * <p>
+     * A value of <code>-1</code> indicates unlimited access. In this case all
+     * records that have not been flushed by a call to {@link HSSFSheet#flushRows()}
+     * are available for random access.
+     * </p>
+     * <p>
+     * A value of <code>0</code> is not allowed because it would flush any newly created row
+     * without having a chance to specify any cells.
+     * </p>
+     *
+     * @param rowAccessWindowSize the number of rows that are kept in memory until flushed out, see above.
+     */
+    public SHSSFWorkbook(int rowAccessWindowSize) {
+        if (rowAccessWindowSize == 0 || rowAccessWindowSize < -1) {
+            throw new IllegalArgumentException("rowAccessWindowSize must be greater than 0 or -1");
+        }
+        _randomAccessWindowSize = rowAccessWindowSize;
+    }
+
+    /**
+     * @return the number of rows of each sheet that are kept in memory
+     */
+    public int getRandomAccessWindowSize() {
+        return _randomAccessWindowSize;
+    }
+
+    @Override
+    public HSSFSheet createSheet() {
+        HSSFSheet sheet = super.createSheet();
+        sheet.setRandomAccessWindowSize(_randomAccessWindowSize);
+        return sheet;
+    }
+
+    @Override
+    public HSSFSheet createSheet(String sheetname) {
+        HSSFSheet sheet = super.createSheet(sheetname);
+        sheet.setRandomAccessWindowSize(_randomAccessWindowSize);
+        return sheet;
+    }
+
+    /**
+     * Not implemented for SHSSFWorkbook
+     */
+    @Override
+    @NotImplemented
+    public HSSFSheet cloneSheet(int sheetNum) {
+        throw new RuntimeException("NotImplemented");
+    }
+
+    /**
+     * Removes the sheet and deletes the temporary file of its flushed rows
+     */
+    @Override
+    public void removeSheetAt(int index) {
+        HSSFSheet sheet = getSheetAt(index);
+        super.removeSheetAt(index);
+        sheet.disposeFlushedRows();
+    }
+
+    /**
+     * Dispose of temporary files backing this workbook on disk.
+     * Calling this method will render the workbook unusable.
+     * @return true if all temporary files were deleted successfully.
+     */
+    public boolean dispose() {
+        boolean success = true;
+        for (int i = 0; i < getNumberOfSheets(); i++) {
+            success = getSheetAt(i).disposeFlushedRows() && success;
+        }
+        return success;
+    }
+
+    /**
+     * Deletes the temporary files, see {@link #dispose()}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            dispose();
+        }
+    }
+}
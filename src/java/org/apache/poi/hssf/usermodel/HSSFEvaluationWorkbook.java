@@ -67,6 +67,14 @@ public final class HSSFEvaluationWorkbook implements FormulaRenderingWorkbook, E
     public void clearAllCachedResultValues() {
         // nothing to do
     }
+
+    /* (non-JavaDoc), inherit JavaDoc from EvaluationWorkbook
+     * @since POI 3.16 beta 2
+     */
+    @Override
+    public void notifyUpdateCell(EvaluationCell cell) {
+        // nothing to do - the formula tokens are kept by the records
+    }
     
     @Override
     public HSSFName createName() {
@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.usermodel;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,6 +34,7 @@ import org.apache.poi.hssf.model.InternalSheet;
 import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.record.AutoFilterInfoRecord;
 import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DBCellRecord;
 import org.apache.poi.hssf.record.DVRecord;
 import org.apache.poi.hssf.record.DimensionsRecord;
 import org.apache.poi.hssf.record.DrawingRecord;
@@ -114,6 +116,8 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
     private HSSFPatriarch _patriarch;
     private int _firstrow;
     private int _lastrow;
+    /** the number of rows kept in memory by {@link #createRow(int)}, -1 to keep all rows */
+    private int _randomAccessWindowSize = -1;
 
     /**
      * Creates new HSSFSheet   - called by HSSFWorkbook to create a sheet from
@@ -146,6 +150,9 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
     }
 
     HSSFSheet cloneSheet(HSSFWorkbook workbook) {
+        if (getLastFlushedRowNum() >= 0) {
+            throw new IllegalStateException("Sheets with flushed rows can't be cloned");
+        }
         this.getDrawingPatriarch();/**Aggregate drawing records**/
         HSSFSheet sheet = new HSSFSheet(workbook, _sheet.cloneSheet());
         int pos = sheet._sheet.findFirstRecordLocBySid(DrawingRecord.sid);
@@ -256,15 +263,98 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
      */
     @Override
     public HSSFRow createRow(int rownum) {
+        int lastFlushedRowNum = getLastFlushedRowNum();
+        if (lastFlushedRowNum >= 0 && rownum <= lastFlushedRowNum) {
+            throw new IllegalArgumentException("Attempting to write a row[" + rownum + "] " +
+                    "in the range [0," + lastFlushedRowNum + "] that is already written to disk.");
+        }
         HSSFRow row = new HSSFRow(_workbook, this, rownum);
         // new rows inherit default height from the sheet
         row.setHeight(getDefaultRowHeight());
         row.getRowRecord().setBadFontHeight(false);
 
         addRow(row, true);
+        if (_randomAccessWindowSize >= 0 && _rows.size() > _randomAccessWindowSize) {
+            try {
+                flushRows(_randomAccessWindowSize);
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+        }
         return row;
     }
 
+    /**
+     * Sets the number of rows that are kept in memory by {@link #createRow(int)}.
+     * Older rows are flushed with {@link #flushRows(int)} when more rows are created.
+     *
+     * @param value the number of rows to keep in memory, -1 to keep all rows
+     * @see org.apache.poi.hssf.streaming.SHSSFWorkbook
+     * @since POI 3.16 beta 2
+     */
+    public void setRandomAccessWindowSize(int value) {
+        if (value == 0 || value < -1) {
+            throw new IllegalArgumentException("RandomAccessWindowSize must be either -1 or a positive integer");
+        }
+        _randomAccessWindowSize = value;
+    }
+
+    /**
+     * Writes the oldest rows to a temporary file, so that at most <code>remaining</code> rows
+     * and the rows of an incomplete row block stay in memory. Rows are flushed in blocks of 32,
+     * like they are grouped in the file.<p/>
+     *
+     * Flushed rows can't be accessed anymore, i.e. {@link #getRow(int)} returns <code>null</code>
+     * for them, and no rows can be created before the last flushed row. The temporary file is
+     * copied into the workbook when it is written.
+     *
+     * @param remaining the number of rows to keep in memory
+     * @throws IOException if the rows can't be written to the temporary file
+     * @since POI 3.16 beta 2
+     */
+    public void flushRows(int remaining) throws IOException {
+        int blockCount = (_rows.size() - remaining) / DBCellRecord.BLOCK_SIZE;
+        if (blockCount <= 0) {
+            return;
+        }
+        _sheet.getRowsAggregate().flushRowBlocks(blockCount);
+        Iterator<HSSFRow> rowIterator = _rows.values().iterator();
+        for (int i = blockCount * DBCellRecord.BLOCK_SIZE; i > 0; i--) {
+            rowIterator.next();
+            rowIterator.remove();
+        }
+    }
+
+    /**
+     * Writes all complete row blocks to a temporary file, see {@link #flushRows(int)}
+     *
+     * @throws IOException if the rows can't be written to the temporary file
+     * @since POI 3.16 beta 2
+     */
+    public void flushRows() throws IOException {
+        flushRows(0);
+    }
+
+    /**
+     * @return the number of the last row written to a temporary file by {@link #flushRows(int)},
+     *  -1 if no rows were flushed
+     * @since POI 3.16 beta 2
+     */
+    public int getLastFlushedRowNum() {
+        return _sheet.getRowsAggregate().getLastFlushedRowNumber();
+    }
+
+    /**
+     * Deletes the temporary file of the rows flushed by {@link #flushRows(int)}.
+     * The sheet can't be written afterwards.
+     *
+     * @return <code>true</code> if there were no flushed rows or their temporary file was deleted
+     * @since POI 3.16 beta 2
+     */
+    public boolean disposeFlushedRows() {
+        return _sheet.getRowsAggregate().disposeFlushedRowBlocks();
+    }
+
     /**
      * Used internally to create a high level Row object from a low level row object.
      * USed when reading an existing file
@@ -364,7 +454,7 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
         if (addLow) {
             _sheet.addRow(row.getRowRecord());
         }
-        boolean firstRow = _rows.size() == 1;
+        boolean firstRow = _rows.size() == 1 && getLastFlushedRowNum() < 0;
         if (row.getRowNum() > getLastRowNum() || firstRow) {
             _lastrow = row.getRowNum();
         }
@@ -386,11 +476,12 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
     }
 
     /**
-     * Returns the number of physically defined rows (NOT the number of rows in the sheet)
+     * Returns the number of physically defined rows (NOT the number of rows in the sheet),
+     * including the rows flushed by {@link #flushRows(int)}
      */
     @Override
     public int getPhysicalNumberOfRows() {
-        return _rows.size();
+        return _rows.size() + _sheet.getRowsAggregate().getFlushedRowCount();
     }
 
     /**
@@ -72,6 +72,7 @@ import org.apache.poi.hssf.record.NameRecord;
 import org.apache.poi.hssf.record.RecalcIdRecord;
 import org.apache.poi.hssf.record.Record;
 import org.apache.poi.hssf.record.RecordFactory;
+import org.apache.poi.hssf.record.RecordInputStream;
 import org.apache.poi.hssf.record.SSTRecord;
 import org.apache.poi.hssf.record.UnknownRecord;
 import org.apache.poi.hssf.record.aggregates.RecordAggregate.RecordVisitor;
@@ -90,6 +91,8 @@ import org.apache.poi.poifs.filesystem.NPOIFSDocument;
 import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.poifs.filesystem.Ole10Native;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.poifs.filesystem.POIFSWriterEvent;
+import org.apache.poi.poifs.filesystem.POIFSWriterListener;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.FormulaShifter;
 import org.apache.poi.ss.formula.FormulaType;
@@ -120,7 +123,7 @@ import org.apache.poi.util.Removal;
  * @see org.apache.poi.hssf.model.InternalWorkbook
  * @see org.apache.poi.hssf.usermodel.HSSFSheet
  */
-public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss.usermodel.Workbook {
+public class HSSFWorkbook extends POIDocument implements org.apache.poi.ss.usermodel.Workbook {
     private static final Pattern COMMA_PATTERN = Pattern.compile(",");
 
     /**
@@ -1450,7 +1453,7 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
         List<String> excepts = new ArrayList<String>(1);
 
         // Write out the Workbook stream
-        fs.createDocument(new ByteArrayInputStream(getBytes()), "Workbook");
+        writeWorkbookStream(fs);
 
         // Write out our HPFS properties, if we have them
         writeProperties(fs, excepts);
@@ -1501,22 +1504,98 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
             }
             return result;
         }
+        /**
+         * Serializes the records one at a time and writes them to the stream
+         *
+         * @param buf the buffer for the records, larger records get their own buffer
+         */
+        public int serialize(OutputStream os, byte[] buf) throws IOException {
+            int result = 0;
+            for (Record rec : _list) {
+                int recSize = rec.getRecordSize();
+                byte[] data = (recSize <= buf.length) ? buf : new byte[recSize];
+                int len = rec.serialize(0, data);
+                os.write(data, 0, len);
+                result += len;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Writes the Workbook stream to the POIFS. The records of the sheets are written one at a time,
+     * instead of serializing the whole stream into one array, unless the workbook is encrypted.
+     */
+    private void writeWorkbookStream(NPOIFSFileSystem fs) throws IOException {
+        if (getFilePassRecord() != null) {
+            fs.createDocument(new ByteArrayInputStream(getBytes()), "Workbook");
+            return;
+        }
+
+        SheetRecordCollector[] srCollectors = new SheetRecordCollector[getNumberOfSheets()];
+        int totalsize = collectSheetRecords(srCollectors);
+        WorkbookStreamWriter writer = new WorkbookStreamWriter(srCollectors, totalsize);
+        fs.createDocument("Workbook", totalsize, writer);
+        if (writer._exception != null) {
+            throw writer._exception;
+        }
+    }
+
+    private final class WorkbookStreamWriter implements POIFSWriterListener {
+        private final SheetRecordCollector[] _srCollectors;
+        private final int _totalSize;
+        private IOException _exception;
+
+        public WorkbookStreamWriter(SheetRecordCollector[] srCollectors, int totalSize) {
+            _srCollectors = srCollectors;
+            _totalSize = totalSize;
+        }
+
+        @Override
+        public void processPOIFSWriterEvent(POIFSWriterEvent event) {
+            try {
+                OutputStream os = event.getStream();
+                int workbookSize = _totalSize;
+                for (SheetRecordCollector src : _srCollectors) {
+                    workbookSize -= src.getTotalSize();
+                }
+                // the workbook globals are small compared to the sheets, apart from the SST
+                byte[] buf = new byte[workbookSize];
+                int pos = workbook.serialize(0, buf);
+                os.write(buf, 0, pos);
+
+                byte[] recBuf = new byte[RecordInputStream.MAX_RECORD_DATA_SIZE + 4];
+                for (int k = 0; k < _srCollectors.length; k++) {
+                    SheetRecordCollector src = _srCollectors[k];
+                    int serializedSize = src.serialize(os, recBuf);
+                    checkSerializedSize(k, src, serializedSize);
+                }
+            } catch (IOException e) {
+                _exception = e;
+            }
+        }
     }
 
+    private static void checkSerializedSize(int sheetIndex, SheetRecordCollector src, int serializedSize) {
+        if (serializedSize != src.getTotalSize()) {
+            // Wrong offset values have been passed in the call to setSheetBof() above.
+            // For books with more than one sheet, this discrepancy would cause excel
+            // to report errors and loose data while reading the workbook
+            throw new IllegalStateException("Actual serialized sheet size (" + serializedSize
+                    + ") differs from pre-calculated size (" + src.getTotalSize()
+                    + ") for sheet (" + sheetIndex + ")");
+            // TODO - add similar sanity check to ensure that Sheet.serializeIndexRecord() does not write mis-aligned offsets either
+        }
+    }
 
     /**
-     * Method getBytes - get the bytes of just the HSSF portions of the XLS file.
-     * Use this to construct a POI POIFSFileSystem yourself.
+     * Tells the workbook and the sheets that serialization is about to occur,
+     * collects the records of the sheets and sets the BOF offsets of the sheets.
      *
-     *
-     * @return byte[] array containing the binary representation of this workbook and all contained
-     *         sheets, rows, cells, etc.
+     * @param srCollectors receives the records of each sheet
+     * @return the total size of the Workbook stream
      */
-    public byte[] getBytes() {
-        if (log.check( POILogger.DEBUG )) {
-            log.log(DEBUG, "HSSFWorkbook.getBytes()");
-        }
-        
+    private int collectSheetRecords(SheetRecordCollector[] srCollectors) {
         HSSFSheet[] sheets = getSheets();
         int nSheets = sheets.length;
 
@@ -1532,7 +1611,6 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
         int totalsize = workbook.getSize();
 
         // pre-calculate all the sheet sizes and set BOF indexes
-        SheetRecordCollector[] srCollectors = new SheetRecordCollector[nSheets];
         for (int k = 0; k < nSheets; k++) {
             workbook.setSheetBof(k, totalsize);
             SheetRecordCollector src = new SheetRecordCollector();
@@ -1540,22 +1618,33 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
             totalsize += src.getTotalSize();
             srCollectors[k] = src;
         }
+        return totalsize;
+    }
+
+
+    /**
+     * Method getBytes - get the bytes of just the HSSF portions of the XLS file.
+     * Use this to construct a POI POIFSFileSystem yourself.
+     *
+     *
+     * @return byte[] array containing the binary representation of this workbook and all contained
+     *         sheets, rows, cells, etc.
+     */
+    public byte[] getBytes() {
+        if (log.check( POILogger.DEBUG )) {
+            log.log(DEBUG, "HSSFWorkbook.getBytes()");
+        }
+        
+        SheetRecordCollector[] srCollectors = new SheetRecordCollector[getNumberOfSheets()];
+        int totalsize = collectSheetRecords(srCollectors);
 
         byte[] retval = new byte[totalsize];
         int pos = workbook.serialize(0, retval);
 
-        for (int k = 0; k < nSheets; k++) {
+        for (int k = 0; k < srCollectors.length; k++) {
             SheetRecordCollector src = srCollectors[k];
             int serializedSize = src.serialize(pos, retval);
-            if (serializedSize != src.getTotalSize()) {
-                // Wrong offset values have been passed in the call to setSheetBof() above.
-                // For books with more than one sheet, this discrepancy would cause excel
-                // to report errors and loose data while reading the workbook
-                throw new IllegalStateException("Actual serialized sheet size (" + serializedSize
-                        + ") differs from pre-calculated size (" + src.getTotalSize()
-                        + ") for sheet (" + k + ")");
-                // TODO - add similar sanity check to ensure that Sheet.serializeIndexRecord() does not write mis-aligned offsets either
-            }
+            checkSerializedSize(k, src, serializedSize);
             pos += serializedSize;
         }
 
@@ -1564,6 +1653,15 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
         return retval;
     }
 
+    private FilePassRecord getFilePassRecord() {
+        for (Record r : workbook.getRecords()) {
+            if (r instanceof FilePassRecord) {
+                return (FilePassRecord)r;
+            }
+        }
+        return null;
+    }
+
     @SuppressWarnings("resource")
     protected void encryptBytes(byte buf[]) {
         int initialOffset = 0;
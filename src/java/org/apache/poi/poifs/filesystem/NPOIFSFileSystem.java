@@ -165,7 +165,31 @@ public class NPOIFSFileSystem extends BlockStore
     public NPOIFSFileSystem(File file, boolean readOnly)
          throws IOException
     {
-       this(null, file, readOnly, true);
+       this(null, file, readOnly, false, true);
+    }
+
+    /**
+     * <p>Creates a POIFSFileSystem from a <tt>File</tt>, optionally memory mapping
+     *  the file in read-only mode. Mapped files are read without copying their
+     *  blocks onto the heap, which is faster and uses less memory for large files.</p>
+     *  
+     * <p>Note that with this constructor, you will need to call {@link #close()}
+     *  when you're done to have the underlying file closed and unmapped. Buffers
+     *  obtained from the file system must not be used after it has been closed.</p> 
+     *  
+     * @param file the File from which to read or read/write the data
+     * @param readOnly whether the POIFileSystem will only be used in read-only mode
+     * @param memoryMapped whether a read-only file is memory mapped,
+     *  read/write files are always memory mapped
+     *
+     * @exception IOException on errors reading, or on invalid data
+     *
+     * @since POI 3.16 beta 2
+     */
+    public NPOIFSFileSystem(File file, boolean readOnly, boolean memoryMapped)
+         throws IOException
+    {
+       this(null, file, readOnly, memoryMapped, true);
     }
     
     /**
@@ -203,10 +227,10 @@ public class NPOIFSFileSystem extends BlockStore
     public NPOIFSFileSystem(FileChannel channel, boolean readOnly)
          throws IOException
     {
-       this(channel, null, readOnly, false);
+       this(channel, null, readOnly, false, false);
     }
     
-    private NPOIFSFileSystem(FileChannel channel, File srcFile, boolean readOnly, boolean closeChannelOnError)
+    private NPOIFSFileSystem(FileChannel channel, File srcFile, boolean readOnly, boolean memoryMapped, boolean closeChannelOnError)
          throws IOException
     {
        this(false);
@@ -217,11 +241,11 @@ public class NPOIFSFileSystem extends BlockStore
               if (srcFile.length() == 0)
                   throw new EmptyFileException();
               
-              FileBackedDataSource d = new FileBackedDataSource(srcFile, readOnly);
+              FileBackedDataSource d = new FileBackedDataSource(srcFile, readOnly, memoryMapped);
               channel = d.getChannel();
               _data = d;
           } else {
-              _data = new FileBackedDataSource(channel, readOnly);
+              _data = new FileBackedDataSource(channel, readOnly, memoryMapped);
           }
            
           // Get the header
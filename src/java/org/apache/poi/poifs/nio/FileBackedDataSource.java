@@ -38,13 +38,26 @@ import org.apache.poi.util.POILogger;
 import org.apache.poi.util.SuppressForbidden;
 
 /**
- * A POIFS {@link DataSource} backed by a File
+ * A POIFS {@link DataSource} backed by a File.<p/>
+ *
+ * Read/write sources map the requested parts of the file into memory. Read-only
+ * sources copy the requested parts onto the heap, unless they are created as
+ * memory mapped, in which case the file is mapped once in large windows and
+ * {@link #read(int, long)} returns read-only slices of these windows.
  */
 public class FileBackedDataSource extends DataSource {
    private final static POILogger logger = POILogFactory.getLogger( FileBackedDataSource.class );
    
+   /**
+    * The size of the windows of memory mapped read-only sources, a multiple of all block sizes
+    */
+   private static final long MAPPED_WINDOW_SIZE = 1L << 28;
+
    private FileChannel channel;
    private boolean writable;
+   private boolean memoryMapped;
+   // the windows of memory mapped read-only sources, created on demand
+   private ByteBuffer[] mappedWindows;
    // remember file base, which needs to be closed too
    private RandomAccessFile srcFile;
    
@@ -61,22 +74,58 @@ public class FileBackedDataSource extends DataSource {
    }
 
    public FileBackedDataSource(File file, boolean readOnly) throws FileNotFoundException {
-       this(newSrcFile(file, readOnly ? "r" : "rw"), readOnly);
+       this(file, readOnly, false);
+   }
+
+   /**
+    * @param file the file to read or read/write
+    * @param readOnly whether the file is only read
+    * @param memoryMapped whether a read-only file is memory mapped instead of being
+    *  read onto the heap. Read/write files are always memory mapped.
+    *
+    * @since POI 3.16 beta 2
+    */
+   public FileBackedDataSource(File file, boolean readOnly, boolean memoryMapped) throws FileNotFoundException {
+       this(newSrcFile(file, readOnly ? "r" : "rw"), readOnly, memoryMapped);
    }
 
    public FileBackedDataSource(RandomAccessFile srcFile, boolean readOnly) {
-       this(srcFile.getChannel(), readOnly);
+       this(srcFile, readOnly, false);
+   }
+
+   /**
+    * @since POI 3.16 beta 2
+    */
+   public FileBackedDataSource(RandomAccessFile srcFile, boolean readOnly, boolean memoryMapped) {
+       this(srcFile.getChannel(), readOnly, memoryMapped);
        this.srcFile = srcFile;
    }   
    
    public FileBackedDataSource(FileChannel channel, boolean readOnly) {
+      this(channel, readOnly, false);
+   }
+
+   /**
+    * @since POI 3.16 beta 2
+    */
+   public FileBackedDataSource(FileChannel channel, boolean readOnly, boolean memoryMapped) {
       this.channel = channel;
       this.writable = !readOnly;
+      this.memoryMapped = readOnly && memoryMapped;
    }
    
    public boolean isWriteable() {
        return this.writable;
    }
+
+   /**
+    * @return whether the blocks of a read-only file are memory mapped instead of being copied onto the heap
+    *
+    * @since POI 3.16 beta 2
+    */
+   public boolean isMemoryMapped() {
+       return this.memoryMapped;
+   }
    
    public FileChannel getChannel() {
        return this.channel;
@@ -88,8 +137,15 @@ public class FileBackedDataSource extends DataSource {
          throw new IndexOutOfBoundsException("Position " + position + " past the end of the file");
       }
       
-      // Do we read or map (for read/write)?
       ByteBuffer dst;
+      if (memoryMapped) {
+          dst = readMapped(length, position);
+          if (dst != null) {
+              return dst;
+          }
+      }
+
+      // Do we read or map (for read/write)?
       if (writable) {
           dst = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
 
@@ -114,6 +170,45 @@ public class FileBackedDataSource extends DataSource {
       return dst;
    }
 
+   /**
+    * @return a read-only slice of the window containing the requested range,
+    *  <code>null</code> if the range spans two windows or isn't completely within the file
+    */
+   private ByteBuffer readMapped(int length, long position) throws IOException {
+      int windowIndex = (int)(position / MAPPED_WINDOW_SIZE);
+      long windowStart = windowIndex * MAPPED_WINDOW_SIZE;
+      if (position + length > windowStart + MAPPED_WINDOW_SIZE || position + length > size()) {
+         return null;
+      }
+
+      if (mappedWindows == null || windowIndex >= mappedWindows.length) {
+         int windowCount = (int)((size() + MAPPED_WINDOW_SIZE - 1) / MAPPED_WINDOW_SIZE);
+         ByteBuffer[] windows = new ByteBuffer[Math.max(windowCount, windowIndex + 1)];
+         if (mappedWindows != null) {
+            System.arraycopy(mappedWindows, 0, windows, 0, mappedWindows.length);
+         }
+         mappedWindows = windows;
+      }
+      ByteBuffer window = mappedWindows[windowIndex];
+      if (window == null) {
+         long windowSize = Math.min(MAPPED_WINDOW_SIZE, size() - windowStart);
+         window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+         mappedWindows[windowIndex] = window;
+
+         // remember this buffer for cleanup
+         buffersToClean.add(window);
+      } else if (position + length > windowStart + window.capacity()) {
+         // the file has grown since the window was mapped
+         return null;
+      }
+
+      ByteBuffer dst = window.duplicate();
+      int offset = (int)(position - windowStart);
+      dst.position(offset);
+      dst.limit(offset + length);
+      return dst.slice();
+   }
+
    @Override
    public void write(ByteBuffer src, long position) throws IOException {
       channel.write(src, position);
@@ -140,6 +235,7 @@ public class FileBackedDataSource extends DataSource {
            unmap(buffer);
        }
        buffersToClean.clear();
+       mappedWindows = null;
 
        if (srcFile != null) {
           // see http://bugs.java.com/bugdatabase/view_bug.do?bug_id=4796385
@@ -40,6 +40,7 @@ import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.MemoryCacheImageInputStream;
 
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.POILogFactory;
 import org.apache.poi.util.POILogger;
 
@@ -51,14 +52,48 @@ public class BitmapImageRenderer implements ImageRenderer {
 
     protected BufferedImage img;
 
+    private final ImageCache cache;
+    private ImageCache.Key cacheKey;
+
+    public BitmapImageRenderer() {
+        this(null);
+    }
+
+    /**
+     * @param cache the cache for the decoded images, or {@code null} to decode
+     *  the images each time they are loaded
+     *
+     * @since POI 3.16 beta 2
+     */
+    public BitmapImageRenderer(ImageCache cache) {
+        this.cache = cache;
+    }
+
     @Override
     public void loadImage(InputStream data, String contentType) throws IOException {
-        img = readImage(data, contentType);
+        if (cache == null) {
+            img = readImage(data, contentType);
+        } else {
+            // the checksum of the data is needed for the lookup
+            loadImage(IOUtils.toByteArray(data), contentType);
+        }
     }
 
     @Override
     public void loadImage(byte data[], String contentType) throws IOException {
-        img = readImage(new ByteArrayInputStream(data), contentType);
+        if (cache == null) {
+            img = readImage(new ByteArrayInputStream(data), contentType);
+            return;
+        }
+
+        cacheKey = ImageCache.createKey(data, contentType);
+        img = cache.get(cacheKey);
+        if (img == null) {
+            img = readImage(new ByteArrayInputStream(data), contentType);
+            if (img != null) {
+                cache.put(cacheKey, img);
+            }
+        }
     }
     
     /**
@@ -229,6 +264,20 @@ public class BitmapImageRenderer implements ImageRenderer {
 
     @Override
     public BufferedImage getImage(Dimension dim) {
+        if (cache == null || cacheKey == null) {
+            return scaleImage(dim);
+        }
+
+        ImageCache.Key key = cacheKey.withDimension(dim);
+        BufferedImage scaled = cache.get(key);
+        if (scaled == null) {
+            scaled = scaleImage(dim);
+            cache.put(key, scaled);
+        }
+        return scaled;
+    }
+
+    private BufferedImage scaleImage(Dimension dim) {
         double w_old = img.getWidth();
         double h_old = img.getHeight();
         BufferedImage scaled = new BufferedImage((int)w_old, (int)h_old, BufferedImage.TYPE_INT_ARGB);
@@ -260,6 +309,8 @@ public class BitmapImageRenderer implements ImageRenderer {
         g.dispose();
 
         img = newImg;
+        // the image doesn't match the cached picture data anymore
+        cacheKey = null;
     }
 
 
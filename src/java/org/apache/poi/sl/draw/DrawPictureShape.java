@@ -81,7 +81,7 @@ public class DrawPictureShape extends DrawSimpleShape {
             }
         }
         
-        return new BitmapImageRenderer();
+        return new BitmapImageRenderer((ImageCache)graphics.getRenderingHint(Drawable.IMAGE_CACHE));
     }
     
     @Override
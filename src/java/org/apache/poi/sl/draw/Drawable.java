@@ -46,6 +46,7 @@ public interface Drawable {
             case 9: return "FONT_MAP";
             case 10: return "GSAVE";
             case 11: return "GRESTORE";
+            case 12: return "IMAGE_CACHE";
             default: return "UNKNOWN_ID "+intKey();
             }
         }
@@ -129,6 +130,15 @@ public interface Drawable {
     
     DrawableHint GSAVE = new DrawableHint(10);
     DrawableHint GRESTORE = new DrawableHint(11);
+
+    /**
+     * Key for a {@link ImageCache}, which is used to look up decoded images
+     * instead of decoding the picture data each time it's drawn.
+     * The cache can be shared by several graphics contexts.
+     *
+     * @since POI 3.16 beta 2
+     */
+    DrawableHint IMAGE_CACHE = new DrawableHint(12);
     
     
     
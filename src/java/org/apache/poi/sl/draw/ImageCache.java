@@ -0,0 +1,231 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.sl.draw;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.poi.util.IOUtils;
+
+/**
+ * A bounded cache of decoded images, which is used by {@link BitmapImageRenderer}
+ * to avoid decoding the same picture data again, e.g. a logo on a master slide
+ * which is drawn on each slide.<p>
+ *
+ * The images are keyed by the checksum of the picture data and the requested
+ * dimension. The least recently used images are evicted, when the total size of
+ * the cached images exceeds the limit.<p>
+ *
+ * The cache is enabled by setting it as {@link Drawable#IMAGE_CACHE} rendering hint.
+ * It can be shared by several graphics contexts, which are drawn by concurrent threads:
+ *
+ * <pre>
+ * <code>
+ * ImageCache cache = new ImageCache();
+ * for (Slide&lt;?,?&gt; slide : ppt.getSlides()) {
+ *     Graphics2D graphics = ...;
+ *     graphics.setRenderingHint(Drawable.IMAGE_CACHE, cache);
+ *     slide.draw(graphics);
+ * }
+ * </code>
+ * </pre>
+ *
+ * The cached images are shared and must not be modified.
+ *
+ * @since POI 3.16 beta 2
+ */
+public class ImageCache {
+    /**
+     * The default limit of the cached pixel data: 64 MB
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L*1024*1024;
+
+    private final long maxBytes;
+    private final Map<Key,BufferedImage> images = new LinkedHashMap<Key,BufferedImage>(16, 0.75f, true);
+    private long size;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache with the default limit of {@link #DEFAULT_MAX_BYTES}
+     */
+    public ImageCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes the maximum size of the pixel data of the cached images
+     */
+    public ImageCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates the key for picture data in its original dimension
+     *
+     * @param data the raw picture data
+     * @param contentType the content type of the picture data
+     * @return the key
+     */
+    public static Key createKey(byte[] data, String contentType) {
+        return new Key(IOUtils.calculateChecksum(data), data.length, contentType, null);
+    }
+
+    /**
+     * Looks up the image and updates the hit/miss counters
+     *
+     * @param key the key of the image
+     * @return the cached image or {@code null}
+     */
+    public synchronized BufferedImage get(Key key) {
+        BufferedImage img = images.get(key);
+        if (img == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return img;
+    }
+
+    /**
+     * Adds the image to the cache and evicts the least recently used images
+     * if the size limit is exceeded. Images which are bigger than the limit
+     * are not cached.
+     *
+     * @param key the key of the image
+     * @param img the decoded image
+     */
+    public synchronized void put(Key key, BufferedImage img) {
+        long imgSize = sizeOf(img);
+        if (imgSize > maxBytes) {
+            return;
+        }
+
+        BufferedImage old = images.put(key, img);
+        if (old != null) {
+            size -= sizeOf(old);
+        }
+        size += imgSize;
+
+        Iterator<BufferedImage> iter = images.values().iterator();
+        while (size > maxBytes && iter.hasNext()) {
+            size -= sizeOf(iter.next());
+            iter.remove();
+        }
+    }
+
+    /**
+     * Removes all images from the cache, the counters aren't reset
+     */
+    public synchronized void clear() {
+        images.clear();
+        size = 0;
+    }
+
+    /**
+     * @return the number of cached images
+     */
+    public synchronized int getImageCount() {
+        return images.size();
+    }
+
+    /**
+     * @return the size of the pixel data of the cached images in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the maximum size of the pixel data of the cached images in bytes
+     */
+    public long getMaxSize() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the number of lookups which returned a cached image
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups which didn't find a cached image
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    private static long sizeOf(BufferedImage img) {
+        // the images are converted to TYPE_INT_ARGB
+        return 4L * img.getWidth() * img.getHeight();
+    }
+
+    /**
+     * The key of a cached image - the checksum of the picture data and the
+     * dimension of the image, which is {@code null} for the original dimension
+     */
+    public static final class Key {
+        private final long checksum;
+        private final int length;
+        private final String contentType;
+        private final Dimension dim;
+
+        private Key(long checksum, int length, String contentType, Dimension dim) {
+            this.checksum = checksum;
+            this.length = length;
+            this.contentType = contentType;
+            this.dim = (dim == null) ? null : new Dimension(dim);
+        }
+
+        /**
+         * @param dim the dimension of the scaled image
+         * @return the key of the same picture data scaled to the given dimension
+         */
+        public Key withDimension(Dimension dim) {
+            return new Key(checksum, length, contentType, dim);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key)o;
+            return checksum == other.checksum
+                && length == other.length
+                && (contentType == null ? other.contentType == null : contentType.equals(other.contentType))
+                && (dim == null ? other.dim == null : dim.equals(other.dim));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = (int)(checksum ^ (checksum >>> 32));
+            hash = 31*hash + length;
+            hash = 31*hash + (contentType == null ? 0 : contentType.hashCode());
+            hash = 31*hash + (dim == null ? 0 : dim.hashCode());
+            return hash;
+        }
+    }
+}
@@ -45,7 +45,7 @@ public class PresetGeometries extends LinkedHashMap<String, CustomGeometry> {
     private final static POILogger LOG = POILogFactory.getLogger(PresetGeometries.class);
     protected final static String BINDING_PACKAGE = "org.apache.poi.sl.draw.binding";
     
-    protected static PresetGeometries _inst;
+    protected static volatile PresetGeometries _inst;
 
     protected PresetGeometries(){}
 
@@ -98,25 +98,35 @@ public class PresetGeometries extends LinkedHashMap<String, CustomGeometry> {
         }
     }
 
-    public static synchronized PresetGeometries getInstance(){
-        if(_inst == null) {
-            // use a local object first to not assign a partly constructed object
-            // in case of failure
-            PresetGeometries lInst = new PresetGeometries();
-            try {
-                InputStream is = PresetGeometries.class.
-                    getResourceAsStream("presetShapeDefinitions.xml");
+    /**
+     * Returns the preset geometries, which are loaded on the first call.
+     * The instance isn't modified afterwards, so it can be read by concurrent threads,
+     * e.g. when slides are rendered in parallel.
+     */
+    public static PresetGeometries getInstance(){
+        PresetGeometries inst = _inst;
+        if (inst != null) {
+            return inst;
+        }
+        synchronized (PresetGeometries.class) {
+            if(_inst == null) {
+                // use a local object first to not assign a partly constructed object
+                // in case of failure
+                PresetGeometries lInst = new PresetGeometries();
                 try {
-                    lInst.init(is);
-                } finally {
-                    is.close();
+                    InputStream is = PresetGeometries.class.
+                        getResourceAsStream("presetShapeDefinitions.xml");
+                    try {
+                        lInst.init(is);
+                    } finally {
+                        is.close();
+                    }
+                } catch (Exception e){
+                    throw new RuntimeException(e);
                 }
-            } catch (Exception e){
-                throw new RuntimeException(e);
+                _inst = lInst;
             }
-            _inst = lInst;
+            return _inst;
         }
-
-        return _inst;
     }
 }
@@ -158,16 +158,25 @@ public class CellDateFormatter extends CellFormatter {
             Number num = (Number) value;
             long v = num.longValue();
             if (v == 0L) {
-                value = EXCEL_EPOCH_CAL.getTime();
+                synchronized (EXCEL_EPOCH_CAL) {
+                    value = EXCEL_EPOCH_CAL.getTime();
+                }
             } else {
-                Calendar c = (Calendar)EXCEL_EPOCH_CAL.clone();
+                Calendar c;
+                synchronized (EXCEL_EPOCH_CAL) {
+                    c = (Calendar)EXCEL_EPOCH_CAL.clone();
+                }
                 c.add(Calendar.SECOND, (int)(v / 1000));
                 c.add(Calendar.MILLISECOND, (int)(v % 1000));
                 value = c.getTime();
             }
         }
 
-        AttributedCharacterIterator it = dateFmt.formatToCharacterIterator(value);
+        // the format is shared by all threads, which use the cached CellFormat
+        AttributedCharacterIterator it;
+        synchronized (dateFmt) {
+            it = dateFmt.formatToCharacterIterator(value);
+        }
         boolean doneAm = false;
         boolean doneMillis = false;
 
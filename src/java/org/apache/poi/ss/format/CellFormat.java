@@ -20,8 +20,8 @@ package org.apache.poi.ss.format;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Locale;
+import java.util.TimeZone;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -35,6 +35,7 @@ import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.util.DateFormatConverter;
+import org.apache.poi.util.LocaleUtil;
 
 /**
  * Format a value according to the standard Excel behavior.  This "standard" is
@@ -130,30 +131,65 @@ public class CellFormat {
         }
     };
 
-    /** Maps a format string to its parsed version for efficiencies sake. */
-    private static final Map<String, CellFormat> formatCache =
-            new WeakHashMap<String, CellFormat>();
+    /**
+     * Maps a format string to its parsed version for efficiencies sake.
+     * The parsed formats depend on the user locale and time zone.
+     */
+    private static final FormatCache<FormatKey, CellFormat> formatCache =
+            new FormatCache<FormatKey, CellFormat>(FormatCache.DEFAULT_MAX_SIZE);
 
     /**
      * Returns a {@link CellFormat} that applies the given format.  Two calls
      * with the same format may or may not return the same object.
+     * <p/>
+     * The parsed formats are cached per format, user locale and user time zone,
+     * see {@link LocaleUtil}, and can be applied from several threads.
      *
      * @param format The format.
      *
      * @return A {@link CellFormat} that applies the given format.
      */
     public static CellFormat getInstance(String format) {
-        CellFormat fmt = formatCache.get(format);
+        FormatKey key = new FormatKey(format, LocaleUtil.getUserLocale(), LocaleUtil.getUserTimeZone());
+        CellFormat fmt = formatCache.get(key);
         if (fmt == null) {
             if (format.equals("General") || format.equals("@"))
                 fmt = GENERAL_FORMAT;
             else
                 fmt = new CellFormat(format);
-            formatCache.put(format, fmt);
+            fmt = formatCache.putIfAbsent(key, fmt);
         }
         return fmt;
     }
 
+    private static final class FormatKey {
+        private final String format;
+        private final Locale locale;
+        private final TimeZone timeZone;
+
+        FormatKey(String format, Locale locale, TimeZone timeZone) {
+            this.format = format;
+            this.locale = locale;
+            this.timeZone = timeZone;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey other = (FormatKey)o;
+            return format.equals(other.format)
+                && locale.equals(other.locale)
+                && timeZone.equals(other.timeZone);
+        }
+
+        @Override
+        public int hashCode() {
+            return format.hashCode() * 31 + locale.hashCode();
+        }
+    }
+
     /**
      * Creates a new object.
      *
@@ -544,7 +544,10 @@ public class CellNumberFormatter extends CellFormatter {
 
         StringBuffer result = new StringBuffer();
         FieldPosition fractionPos = new FieldPosition(DecimalFormat.FRACTION_FIELD);
-        decimalFmt.format(value, result, fractionPos);
+        // the format is shared by all threads, which use the cached CellFormat
+        synchronized (decimalFmt) {
+            decimalFmt.format(value, result, fractionPos);
+        }
         writeInteger(result, output, integerSpecials, mods, integerCommas);
         writeFractional(result, output);
 
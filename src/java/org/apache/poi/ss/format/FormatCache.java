@@ -0,0 +1,99 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.format;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+
+/**
+ * A thread-safe cache of compiled number formats, which keeps the most recently
+ * used formats up to a maximum size.<p>
+ *
+ * {@link CellFormat} and {@link DataFormatter} use it to share their parsed formats
+ * between all threads and formatter instances, so a format string is only compiled
+ * once. The cached formats must either be safe to use from several threads, like the
+ * {@link CellFormat}s, or be prototypes, which are cloned before they are used, like
+ * the java.text formats of {@link DataFormatter}.
+ *
+ * @param <K> the key, the format string and the settings it was compiled with
+ * @param <V> the compiled format
+ *
+ * @since POI 3.16 beta 2
+ */
+public final class FormatCache<K,V> {
+    /** The default number of formats kept by the shared caches */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final Map<K,V> cache;
+
+    /**
+     * @param maxSize the number of formats, from which on the least recently used
+     *  formats are evicted
+     */
+    public FormatCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive, but was " + maxSize);
+        }
+        cache = new LinkedHashMap<K,V>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K,V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param key the key of the format
+     * @return the cached format or {@code null}, if it isn't cached
+     */
+    public synchronized V get(K key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Adds a format, unless another thread has cached one for the key in the meantime.
+     *
+     * @param key the key of the format
+     * @param format the compiled format
+     * @return the format, which is cached for the key
+     */
+    public synchronized V putIfAbsent(K key, V format) {
+        V cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        cache.put(key, format);
+        return format;
+    }
+
+    /**
+     * @return the number of cached formats
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all cached formats
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,93 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+/**
+ * Stores an index built by an {@link IndexableEval.IndexBuilder} for one area.<p/>
+ *
+ * The cells read while building the index are tracked like the inputs of a formula
+ * cell, by a {@link FormulaCellCacheEntry} which has no cell of its own. The formulas
+ * using the index consume that entry, so they are cleared together with the index when
+ * one of the cells changes.
+ */
+final class AreaIndexCacheEntry {
+
+	public static final class Key {
+		private final long _bookSheetColumn;
+		private final int _firstRow;
+		private final int _lastRow;
+		private final int _lastColumn;
+		private final Object _builder;
+
+		public Key(int bookIndex, int sheetIndex, int firstRow, int firstColumn,
+				int lastRow, int lastColumn, Object builder) {
+			_bookSheetColumn = PlainCellCache.Loc.toBookSheetColumn(bookIndex, sheetIndex, firstColumn);
+			_firstRow = firstRow;
+			_lastRow = lastRow;
+			_lastColumn = lastColumn;
+			_builder = builder;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = (int)(_bookSheetColumn ^ (_bookSheetColumn >>> 32));
+			result = 31 * result + _firstRow;
+			result = 31 * result + _lastRow;
+			result = 31 * result + _lastColumn;
+			return 31 * result + System.identityHashCode(_builder);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return _bookSheetColumn == other._bookSheetColumn
+					&& _firstRow == other._firstRow
+					&& _lastRow == other._lastRow
+					&& _lastColumn == other._lastColumn
+					&& _builder == other._builder;
+		}
+	}
+
+	private final FormulaCellCacheEntry _inputs;
+	private Object _index;
+
+	public AreaIndexCacheEntry() {
+		_inputs = new FormulaCellCacheEntry();
+	}
+
+	/**
+	 * @return the entry which collects the cells used by the index
+	 */
+	public FormulaCellCacheEntry getInputs() {
+		return _inputs;
+	}
+
+	/**
+	 * @return <code>null</code> if the index hasn't been built yet or has been cleared
+	 */
+	public Object getIndex() {
+		return _inputs.getValue() == null ? null : _index;
+	}
+
+	public void setIndex(Object index) {
+		_index = index;
+	}
+}
@@ -17,6 +17,10 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.poi.ss.formula.FormulaCellCache.IEntryOperation;
 import org.apache.poi.ss.formula.FormulaUsedBlankCellSet.BookSheetKey;
 import org.apache.poi.ss.formula.PlainCellCache.Loc;
@@ -36,9 +40,14 @@ import org.apache.poi.ss.usermodel.CellType;
  * @author Josh Micich
  */
 final class EvaluationCache {
+	/** the number of areas, which are remembered as requested once */
+	private static final int MAX_AREA_INDEX_REQUESTS = 10000;
 
 	private final PlainCellCache _plainCellCache;
 	private final FormulaCellCache _formulaCellCache;
+	private final Map<AreaIndexCacheEntry.Key, AreaIndexCacheEntry> _areaIndexCache;
+	/** areas which were requested once, but aren't indexed yet */
+	private final Map<AreaIndexCacheEntry.Key, Boolean> _areaIndexRequests;
 	/** only used for testing. <code>null</code> otherwise */
 	final IEvaluationListener _evaluationListener;
 
@@ -46,6 +55,13 @@ final class EvaluationCache {
 		_evaluationListener = evaluationListener;
 		_plainCellCache = new PlainCellCache();
 		_formulaCellCache = new FormulaCellCache();
+		_areaIndexCache = new HashMap<AreaIndexCacheEntry.Key, AreaIndexCacheEntry>();
+		_areaIndexRequests = new LinkedHashMap<AreaIndexCacheEntry.Key, Boolean>(64, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<AreaIndexCacheEntry.Key, Boolean> eldest) {
+				return size() > MAX_AREA_INDEX_REQUESTS;
+			}
+		};
 	}
 
 	public void notifyUpdateCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
@@ -124,6 +140,9 @@ final class EvaluationCache {
 				entry.notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener);
 			}
 		});
+		for (AreaIndexCacheEntry entry : _areaIndexCache.values()) {
+			entry.getInputs().notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener);
+		}
 	}
 
 	public PlainValueCellCacheEntry getPlainValueEntry(int bookIndex, int sheetIndex,
@@ -185,6 +204,29 @@ final class EvaluationCache {
 		return result;
 	}
 
+	/**
+	 * Returns the index entry of an area. The index is only created, when the area is requested
+	 * the second time. Areas which are searched only once, e.g. the expanding range of
+	 * <code>MATCH(x,$A$1:A1,0)</code> filled down, aren't worth a snapshot of all their cells.
+	 *
+	 * @return <code>null</code> if the area is requested the first time
+	 */
+	public AreaIndexCacheEntry getAreaIndexEntry(int bookIndex, int sheetIndex,
+			int firstRow, int firstColumn, int lastRow, int lastColumn, Object builder) {
+		AreaIndexCacheEntry.Key key = new AreaIndexCacheEntry.Key(bookIndex, sheetIndex,
+				firstRow, firstColumn, lastRow, lastColumn, builder);
+		AreaIndexCacheEntry result = _areaIndexCache.get(key);
+		if (result == null) {
+			if (_areaIndexRequests.remove(key) == null) {
+				_areaIndexRequests.put(key, Boolean.TRUE);
+				return null;
+			}
+			result = new AreaIndexCacheEntry();
+			_areaIndexCache.put(key, result);
+		}
+		return result;
+	}
+
 	/**
 	 * Should be called whenever there are changes to input cells in the evaluated workbook.
 	 */
@@ -194,6 +236,8 @@ final class EvaluationCache {
 		}
 		_plainCellCache.clear();
 		_formulaCellCache.clear();
+		_areaIndexCache.clear();
+		_areaIndexRequests.clear();
 	}
 	public void notifyDeleteCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
 
@@ -0,0 +1,161 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+import org.apache.poi.ss.formula.eval.ValueEval;
+
+/**
+ * Unsynchronized, array-backed operand stack used by {@link WorkbookEvaluator}
+ * to evaluate the RPN tokens of formulas.<p/>
+ *
+ * One instance is shared by all (possibly nested) formula evaluations of an evaluator.
+ * Each call to <tt>evaluateFormula()</tt> opens a frame with {@link #mark()} and
+ * restores it with {@link #reset(int)}, so the values of the outer evaluation
+ * are never seen by the inner one.<p/>
+ *
+ * The operand arrays handed to the functions are pooled per arity. They are
+ * borrowed by {@link #popOperands(int, int)} and have to be given back with
+ * {@link #releaseOperands(ValueEval[])} after the function has returned. As the
+ * function may trigger the evaluation of other cells, several arrays of the same
+ * arity can be in use at the same time.
+ */
+final class EvaluationStack {
+	private static final int INITIAL_CAPACITY = 32;
+	/** operand arrays for functions with more arguments are not pooled */
+	private static final int MAX_POOLED_ARITY = 32;
+	/** number of free arrays kept per arity */
+	private static final int MAX_POOLED_PER_ARITY = 16;
+	private static final ValueEval[] EMPTY_OPERANDS = { };
+
+	private ValueEval[] _values;
+	private int _size;
+
+	private final ValueEval[][][] _freeOperands;
+	private final int[] _freeCounts;
+
+	public EvaluationStack() {
+		_values = new ValueEval[INITIAL_CAPACITY];
+		_freeOperands = new ValueEval[MAX_POOLED_ARITY + 1][][];
+		_freeCounts = new int[MAX_POOLED_ARITY + 1];
+	}
+
+	/**
+	 * @return the current stack height, to be passed to {@link #reset(int)}
+	 * and used as the bottom of the current evaluation frame
+	 */
+	public int mark() {
+		return _size;
+	}
+
+	/**
+	 * Discards all values above the given mark, e.g. when an evaluation ended abruptly
+	 */
+	public void reset(int mark) {
+		if (_size > mark) {
+			Arrays.fill(_values, mark, _size, null);
+			_size = mark;
+		}
+	}
+
+	/**
+	 * @return the number of values above the given frame bottom
+	 */
+	public int size(int base) {
+		return _size - base;
+	}
+
+	public void push(ValueEval value) {
+		if (_size == _values.length) {
+			_values = Arrays.copyOf(_values, _size * 2);
+		}
+		_values[_size++] = value;
+	}
+
+	/**
+	 * @param base the bottom of the current evaluation frame
+	 */
+	public ValueEval pop(int base) {
+		if (_size <= base) {
+			throw new EmptyStackException();
+		}
+		ValueEval result = _values[--_size];
+		_values[_size] = null;
+		return result;
+	}
+
+	/**
+	 * @param base the bottom of the current evaluation frame
+	 */
+	public ValueEval peek(int base) {
+		if (_size <= base) {
+			throw new EmptyStackException();
+		}
+		return _values[_size - 1];
+	}
+
+	/**
+	 * Removes the topmost <tt>count</tt> values.
+	 *
+	 * @param base the bottom of the current evaluation frame
+	 * @return the removed values in push order - i.e. the operands in the order
+	 * of the function arguments. The array must not be kept by the caller and
+	 * is to be returned by {@link #releaseOperands(ValueEval[])}.
+	 */
+	public ValueEval[] popOperands(int count, int base) {
+		if (count == 0) {
+			return EMPTY_OPERANDS;
+		}
+		if (_size - base < count) {
+			throw new EmptyStackException();
+		}
+		ValueEval[] result;
+		if (count <= MAX_POOLED_ARITY && _freeCounts[count] > 0) {
+			ValueEval[][] free = _freeOperands[count];
+			int ix = --_freeCounts[count];
+			result = free[ix];
+			free[ix] = null;
+		} else {
+			result = new ValueEval[count];
+		}
+		_size -= count;
+		System.arraycopy(_values, _size, result, 0, count);
+		Arrays.fill(_values, _size, _size + count, null);
+		return result;
+	}
+
+	/**
+	 * Gives back an operand array obtained from {@link #popOperands(int, int)}
+	 */
+	public void releaseOperands(ValueEval[] operands) {
+		int count = operands.length;
+		if (count == 0 || count > MAX_POOLED_ARITY || _freeCounts[count] == MAX_POOLED_PER_ARITY) {
+			return;
+		}
+		// don't keep the operands alive
+		Arrays.fill(operands, null);
+		ValueEval[][] free = _freeOperands[count];
+		if (free == null) {
+			free = new ValueEval[MAX_POOLED_PER_ARITY][];
+			_freeOperands[count] = free;
+		}
+		free[_freeCounts[count]++] = operands;
+	}
+}
@@ -85,6 +85,16 @@ public interface EvaluationWorkbook {
      */
     public void clearAllCachedResultValues();
 
+    /**
+     * Propagated from {@link WorkbookEvaluator#notifyUpdateCell(EvaluationCell)} and
+     * {@link WorkbookEvaluator#notifyDeleteCell(EvaluationCell)} to drop locally cached data
+     * of the given cell, e.g. its parsed formula tokens.
+     * @see WorkbookEvaluator#notifyUpdateCell(EvaluationCell)
+     *
+     * @since POI 3.16 beta 2
+     */
+    public void notifyUpdateCell(EvaluationCell cell);
+
     class ExternalSheet {
         private final String _workbookName;
         private final String _sheetName;
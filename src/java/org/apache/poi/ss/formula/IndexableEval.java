@@ -0,0 +1,55 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import org.apache.poi.util.Internal;
+
+/**
+ * Optional extension of {@link TwoDEval} for areas whose values can be condensed
+ * into an index, e.g. for the lookup functions.<p/>
+ *
+ * The index is kept in the evaluation cache and is reused by all formulas referring
+ * to the same area, until one of the cells of the area changes. An area is only indexed,
+ * when it is requested the second time.
+ * Formulas using the index depend on all cells of the area.
+ *
+ * @since POI 3.16 beta 2
+ */
+@Internal
+public interface IndexableEval extends TwoDEval {
+
+	/**
+	 * Creates an index from the current values of an area
+	 */
+	interface IndexBuilder<T> {
+		/**
+		 * @param area the area to be indexed, its values are read with {@link TwoDEval#getValue(int, int)}
+		 * @return never <code>null</code>
+		 */
+		T build(TwoDEval area);
+	}
+
+	/**
+	 * @param builder creates the index if there's no valid cached one.
+	 *  The builder instance is part of the cache key.
+	 * @return the cached or a newly built index, or <code>null</code> if the area isn't
+	 *  indexed, e.g. when it's requested the first time or it's a 3D area. Every caller must read
+	 *  the area directly then.
+	 */
+	<T> T getIndex(IndexBuilder<T> builder);
+}
@@ -27,7 +27,7 @@ import org.apache.poi.ss.util.CellReference;
 /**
  * Provides Lazy Evaluation to 3D Ranges
  */
-final class LazyAreaEval extends AreaEvalBase {
+final class LazyAreaEval extends AreaEvalBase implements IndexableEval {
 	private final SheetRangeEvaluator _evaluator;
 
 	LazyAreaEval(AreaI ptg, SheetRangeEvaluator evaluator) {
@@ -86,6 +86,15 @@ final class LazyAreaEval extends AreaEvalBase {
 				"]";
 	}
 
+    public <T> T getIndex(IndexBuilder<T> builder) {
+        if (getFirstSheetIndex() != getLastSheetIndex()) {
+            // 3D areas are not cached
+            return null;
+        }
+        SheetRefEvaluator sre = _evaluator.getSheetEvaluator(getFirstSheetIndex());
+        return sre.getAreaIndex(this, builder);
+    }
+
     /**
      * @return  whether cell at rowIndex and columnIndex is a subtotal
     */
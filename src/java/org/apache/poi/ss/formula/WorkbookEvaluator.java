@@ -22,11 +22,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Stack;
 import java.util.TreeSet;
 
 import org.apache.poi.ss.formula.CollaboratingWorkbooksEnvironment.WorkbookNotFoundException;
 import org.apache.poi.ss.formula.atp.AnalysisToolPak;
+import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
@@ -110,6 +110,8 @@ public final class WorkbookEvaluator {
     private CollaboratingWorkbooksEnvironment _collaboratingWorkbookEnvironment;
     private final IStabilityClassifier _stabilityClassifier;
     private final AggregatingUDFFinder _udfFinder;
+    /** reused by all formula evaluations, see {@link EvaluationStack} */
+    private final EvaluationStack _stack = new EvaluationStack();
 
     private boolean _ignoreMissingWorkbooks = false;
 
@@ -230,6 +232,7 @@ public final class WorkbookEvaluator {
      */
     public void notifyUpdateCell(EvaluationCell cell) {
         int sheetIndex = getSheetIndex(cell.getSheet());
+        _workbook.notifyUpdateCell(cell);
         _cache.notifyUpdateCell(_workbookIx, sheetIndex, cell);
     }
     /**
@@ -238,6 +241,7 @@ public final class WorkbookEvaluator {
      */
     public void notifyDeleteCell(EvaluationCell cell) {
         int sheetIndex = getSheetIndex(cell.getSheet());
+        _workbook.notifyUpdateCell(cell);
         _cache.notifyDeleteCell(_workbookIx, sheetIndex, cell);
     }
     
@@ -440,7 +444,18 @@ public final class WorkbookEvaluator {
             dbgEvaluationOutputIndent++;
         }
 
-        Stack<ValueEval> stack = new Stack<ValueEval>();
+        // the operand stack is shared with nested evaluations, only the values above 'base' belong to this formula
+        EvaluationStack stack = _stack;
+        int base = stack.mark();
+        try {
+            return evaluateFormula(ec, ptgs, stack, base, dbgIndentStr);
+        } finally {
+            stack.reset(base);
+        }
+    }
+
+    private ValueEval evaluateFormula(OperationEvaluationContext ec, Ptg[] ptgs,
+            EvaluationStack stack, int base, String dbgIndentStr) {
         for (int i = 0, iSize = ptgs.length; i < iSize; i++) {
 
             // since we don't know how to handle these yet :(
@@ -456,7 +471,7 @@ public final class WorkbookEvaluator {
                     ptg = FuncVarPtg.SUM;
                 }
                 if (attrPtg.isOptimizedChoose()) {
-                    ValueEval arg0 = stack.pop();
+                    ValueEval arg0 = stack.pop(base);
                     int[] jumpTable = attrPtg.getJumpTable();
                     int dist;
                     int nChoices = jumpTable.length;
@@ -479,7 +494,7 @@ public final class WorkbookEvaluator {
                     continue;
                 }
                 if (attrPtg.isOptimizedIf()) {
-                    ValueEval arg0 = stack.pop();
+                    ValueEval arg0 = stack.pop(base);
                     boolean evaluatedPredicate;
                     try {
                         evaluatedPredicate = IfFunc.evaluateFirstArg(arg0, ec.getRowIndex(), ec.getColumnIndex());
@@ -512,8 +527,8 @@ public final class WorkbookEvaluator {
                 if (attrPtg.isSkip()) {
                     int dist = attrPtg.getData()+1;
                     i+= countTokensToBeSkipped(ptgs, i, dist);
-                    if (stack.peek() == MissingArgEval.instance) {
-                        stack.pop();
+                    if (stack.peek(base) == MissingArgEval.instance) {
+                        stack.pop(base);
                         stack.push(BlankEval.instance);
                     }
                     continue;
@@ -539,15 +554,14 @@ public final class WorkbookEvaluator {
 
 
                 int numops = optg.getNumberOfOperands();
-                ValueEval[] ops = new ValueEval[numops];
-
-                // storing the ops in reverse order since they are popping
-                for (int j = numops - 1; j >= 0; j--) {
-                    ValueEval p = stack.pop();
-                    ops[j] = p;
-                }
+                // pooled array, the ops are already in argument order
+                ValueEval[] ops = stack.popOperands(numops, base);
 //                logDebug("invoke " + operation + " (nAgs=" + numops + ")");
-                opResult = OperationEvaluatorFactory.evaluate(optg, ops, ec);
+                try {
+                    opResult = OperationEvaluatorFactory.evaluate(optg, ops, ec);
+                } finally {
+                    stack.releaseOperands(ops);
+                }
             } else {
                 opResult = getEvalForPtg(ptg, ec);
             }
@@ -561,8 +575,8 @@ public final class WorkbookEvaluator {
             }
         }
 
-        ValueEval value = stack.pop();
-        if (!stack.isEmpty()) {
+        ValueEval value = stack.pop(base);
+        if (stack.size(base) != 0) {
             throw new IllegalStateException("evaluation stack not empty");
         }
         ValueEval result = dereferenceResult(value, ec.getRowIndex(), ec.getColumnIndex());
@@ -749,6 +763,41 @@ public final class WorkbookEvaluator {
         EvaluationCell cell = sheet.getCell(rowIndex, columnIndex);
         return evaluateAny(cell, sheetIndex, rowIndex, columnIndex, tracker);
     }
+
+    /**
+     * Returns the cached index of the given area, or builds it if the cached index was
+     * cleared due to a changed cell. The currently evaluated formula becomes dependent
+     * on all cells of the area. Areas are only indexed, when they are requested repeatedly.
+     *
+     * @return <code>null</code> if the area isn't indexed
+     */
+    @SuppressWarnings("unchecked")
+    /* package */ <T> T getAreaIndex(int sheetIndex, AreaEval area,
+            IndexableEval.IndexBuilder<T> builder, EvaluationTracker tracker) {
+        AreaIndexCacheEntry entry = _cache.getAreaIndexEntry(_workbookIx, sheetIndex,
+                area.getFirstRow(), area.getFirstColumn(), area.getLastRow(), area.getLastColumn(), builder);
+        if (entry == null) {
+            return null;
+        }
+        FormulaCellCacheEntry inputs = entry.getInputs();
+        Object index = entry.getIndex();
+        if (index == null) {
+            if (!tracker.startEvaluate(inputs)) {
+                // the area is already being indexed further up the stack (circular reference)
+                return null;
+            }
+            try {
+                index = builder.build(area);
+                // any value marks the index as valid
+                tracker.updateCacheResult(BoolEval.TRUE);
+                entry.setIndex(index);
+            } finally {
+                tracker.endEvaluate(inputs);
+            }
+        }
+        tracker.acceptFormulaDependency(inputs);
+        return (T) index;
+    }
     public FreeRefFunction findUserDefinedFunction(String functionName) {
         return _udfFinder.findFunction(functionName);
     }
@@ -22,6 +22,7 @@ import org.apache.poi.ss.formula.eval.NotImplementedFunctionException;
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.function.FunctionMetadata;
 import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.functions.Averageifs;
 import org.apache.poi.ss.formula.functions.Bin2Dec;
 import org.apache.poi.ss.formula.functions.Complex;
 import org.apache.poi.ss.formula.functions.Countifs;
@@ -85,7 +86,7 @@ public final class AnalysisToolPak implements UDFFinder {
         r(m, "AMORDEGRC", null);
         r(m, "AMORLINC", null);
         r(m, "AVERAGEIF", null);
-        r(m, "AVERAGEIFS", null);
+        r(m, "AVERAGEIFS", Averageifs.instance);
         r(m, "BAHTTEXT", null);
         r(m, "BESSELI", null);
         r(m, "BESSELJ", null);
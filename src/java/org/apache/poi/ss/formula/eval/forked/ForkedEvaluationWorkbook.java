@@ -165,4 +165,15 @@ final class ForkedEvaluationWorkbook implements EvaluationWorkbook {
     public void clearAllCachedResultValues() {
         _masterBook.clearAllCachedResultValues();
     }
+
+    /* (non-Javadoc)
+     * the forked cells only hold values, the formulas of the master book are unchanged
+     * @see org.apache.poi.ss.formula.EvaluationWorkbook#notifyUpdateCell(EvaluationCell)
+     *
+     * @since POI 3.16 beta 2
+     */
+    @Override
+    public void notifyUpdateCell(EvaluationCell cell) {
+        // nothing to do
+    }
 }
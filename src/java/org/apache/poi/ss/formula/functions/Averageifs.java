@@ -0,0 +1,59 @@
+/*
+ *  ====================================================================
+ *    Licensed to the Apache Software Foundation (ASF) under one or more
+ *    contributor license agreements.  See the NOTICE file distributed with
+ *    this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0
+ *    (the "License"); you may not use this file except in compliance with
+ *    the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * ====================================================================
+ */
+
+package org.apache.poi.ss.formula.functions;
+
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+
+/**
+ * Implementation for the Excel function AVERAGEIFS<p>
+ *
+ * Syntax : <br/>
+ *  AVERAGEIFS ( <b>average_range</b>, <b>criteria_range1</b>, <b>criteria1</b>,
+ *  [<b>criteria_range2</b>,  <b>criteria2</b>], ...) <br/>
+ *    <ul>
+ *      <li><b>average_range</b> Required. One or more cells to average, blank and text values are ignored.</li>
+ *      <li><b>criteria1_range</b> Required. The first range in which
+ *      to evaluate the associated criteria.</li>
+ *      <li><b>criteria1</b> Required. The criteria in the form of a number, expression,
+ *        cell reference, or text that define which cells in the average_range will be averaged</li>
+ *      <li><b> criteria_range2, criteria2, ...</b>    Optional. Additional ranges and their associated criteria.
+ *      Up to 127 range/criteria pairs are allowed.
+ *    </ul>
+ * </p>
+ * Returns #DIV/0! if no numeric cell matches all criteria.
+ */
+public final class Averageifs extends Baseifs {
+    public static final FreeRefFunction instance = new Averageifs();
+
+    @Override
+    protected boolean hasInitialRange() {
+        return true;
+    }
+
+    @Override
+    protected ValueEval aggregate(double sum, int numberCount, int matchCount) {
+        if (numberCount == 0) {
+            return ErrorEval.DIV_ZERO;
+        }
+        return new NumberEval(sum / numberCount);
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ *  ====================================================================
+ *    Licensed to the Apache Software Foundation (ASF) under one or more
+ *    contributor license agreements.  See the NOTICE file distributed with
+ *    this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0
+ *    (the "License"); you may not use this file except in compliance with
+ *    the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * ====================================================================
+ */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.Arrays;
+
+import org.apache.poi.ss.formula.IndexableEval;
+import org.apache.poi.ss.formula.OperationEvaluationContext;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.EvaluationException;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.RefEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.CountUtils.I_MatchColumnarPredicate;
+import org.apache.poi.ss.formula.functions.CountUtils.I_MatchPredicate;
+import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
+
+/**
+ * Base class for SUMIFS, COUNTIFS and AVERAGEIFS.<p>
+ *
+ * The arguments are an optional range to aggregate, followed by pairs of criteria ranges
+ * and criteria. A cell is aggregated if the cells at the same position of all criteria
+ * ranges match their criteria.<p>
+ *
+ * If all ranges are evaluated by the workbook evaluator, their values are read once into
+ * {@link ColumnarAreaValues}, which are shared by all formulas referring to the same ranges
+ * until one of their cells changes. The criteria are then tested for one range at a time.
+ */
+/*package*/ abstract class Baseifs implements FreeRefFunction {
+
+    /**
+     * @return <code>true</code> if the first argument is the range to aggregate,
+     *  <code>false</code> if there are only criteria ranges and criteria
+     */
+    protected abstract boolean hasInitialRange();
+
+    /**
+     * @param sum the sum of the numbers in the aggregated range whose cells match all criteria
+     * @param numberCount the number of cells added to <code>sum</code>
+     * @param matchCount the number of cells which match all criteria
+     * @return the result of the function
+     */
+    protected abstract ValueEval aggregate(double sum, int numberCount, int matchCount);
+
+    public ValueEval evaluate(ValueEval[] args, OperationEvaluationContext ec) {
+        final boolean hasInitialRange = hasInitialRange();
+        final int firstCriteria = hasInitialRange ? 1 : 0;
+
+        // need at least one pair of criteria range and criteria, plus the optional range to aggregate
+        if (args.length < (2 + firstCriteria) || (args.length - firstCriteria) % 2 != 0) {
+            return ErrorEval.VALUE_INVALID;
+        }
+
+        try {
+            AreaEval sumRange = null;
+            if (hasInitialRange) {
+                sumRange = convertRangeArg(args[0]);
+            }
+
+            // collect pairs of ranges and criteria
+            AreaEval[] ae = new AreaEval[(args.length - firstCriteria) / 2];
+            I_MatchPredicate[] mp = new I_MatchPredicate[ae.length];
+            for (int i = firstCriteria, k = 0; i < args.length; i += 2, k++) {
+                ae[k] = convertRangeArg(args[i]);
+                mp[k] = Countif.createCriteriaPredicate(args[i + 1], ec.getRowIndex(), ec.getColumnIndex());
+            }
+
+            validateCriteriaRanges(sumRange != null ? sumRange : ae[0], ae);
+            if (hasInitialRange) {
+                validateCriteria(mp);
+            }
+            for (I_MatchPredicate predicate : mp) {
+                if (predicate == null) {
+                    // a reference to a blank cell as criteria never matches anything
+                    return aggregate(0, 0, 0);
+                }
+            }
+
+            if (isColumnar(sumRange, ae, mp)) {
+                ValueEval result = aggregateColumnar(sumRange, ae, mp);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return aggregateMatchingCells(sumRange, ae, mp);
+        } catch (EvaluationException e) {
+            return e.getErrorEval();
+        }
+    }
+
+    /**
+     * Verify that each <code>criteriaRanges</code> argument contains the same number of rows and columns
+     * as the <code>sumRange</code> argument
+     *
+     * @throws EvaluationException if the ranges do not match.
+     */
+    private static void validateCriteriaRanges(AreaEval sumRange, AreaEval[] criteriaRanges) throws EvaluationException {
+        for (AreaEval r : criteriaRanges) {
+            if (r.getHeight() != sumRange.getHeight() ||
+                r.getWidth() != sumRange.getWidth()) {
+                throw EvaluationException.invalidValue();
+            }
+        }
+    }
+
+    /**
+     * Verify that each <code>criteria</code> predicate is valid, i.e. not an error
+     *
+     * @throws EvaluationException if there are criteria which resulted in Errors.
+     */
+    private static void validateCriteria(I_MatchPredicate[] criteria) throws EvaluationException {
+        for (I_MatchPredicate predicate : criteria) {
+            // check for errors in predicate and return immediately using this error code
+            if (predicate instanceof ErrorMatcher) {
+                throw new EvaluationException(ErrorEval.valueOf(((ErrorMatcher) predicate).getValue()));
+            }
+        }
+    }
+
+    private static boolean isColumnar(AreaEval sumRange, AreaEval[] ranges, I_MatchPredicate[] predicates) {
+        if (sumRange != null && !(sumRange instanceof IndexableEval)) {
+            return false;
+        }
+        for (int i = 0; i < ranges.length; i++) {
+            if (!(ranges[i] instanceof IndexableEval) || !(predicates[i] instanceof I_MatchColumnarPredicate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Like {@link #aggregateMatchingCells(AreaEval, AreaEval[], I_MatchPredicate[])}, but matches
+     * the criteria against the cached {@link ColumnarAreaValues} of the ranges.
+     *
+     * @return the computed value, or <code>null</code> if one of the ranges isn't indexed (yet)
+     */
+    private ValueEval aggregateColumnar(AreaEval sumRange, AreaEval[] ranges, I_MatchPredicate[] predicates) {
+        // request all indexes, so each range is indexed on its next evaluation
+        boolean indexed = true;
+        ColumnarAreaValues[] values = new ColumnarAreaValues[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            values[i] = ((IndexableEval) ranges[i]).getIndex(ColumnarAreaValues.BUILDER);
+            indexed &= values[i] != null;
+        }
+        ColumnarAreaValues sumValues = null;
+        if (sumRange != null) {
+            sumValues = ((IndexableEval) sumRange).getIndex(ColumnarAreaValues.BUILDER);
+            indexed &= sumValues != null;
+        }
+        if (!indexed) {
+            return null;
+        }
+
+        boolean[] flags = new boolean[values[0].getSize()];
+        Arrays.fill(flags, true);
+        for (int i = 0; i < ranges.length; i++) {
+            ((I_MatchColumnarPredicate) predicates[i]).retainMatches(values[i], flags);
+        }
+
+        double sum = 0.0;
+        int numberCount = 0;
+        int matchCount = 0;
+        for (int i = 0; i < flags.length; i++) {
+            if (!flags[i]) {
+                continue;
+            }
+            matchCount++;
+            // everything else (including string and boolean values) is ignored
+            if (sumValues != null && sumValues.getType(i) == ColumnarAreaValues.NUMBER) {
+                sum += sumValues.getNumber(i);
+                numberCount++;
+            }
+        }
+        return aggregate(sum, numberCount, matchCount);
+    }
+
+    /**
+     * @param sumRange the range to aggregate, <code>null</code> if there is none
+     * @param ranges  criteria ranges, each range must be of the same dimensions as <code>sumRange</code>
+     * @param predicates  array of predicates, a predicate for each value in <code>ranges</code>
+     *
+     * @return the computed value
+     */
+    private ValueEval aggregateMatchingCells(AreaEval sumRange, AreaEval[] ranges, I_MatchPredicate[] predicates) {
+        int height = ranges[0].getHeight();
+        int width = ranges[0].getWidth();
+
+        double sum = 0.0;
+        int numberCount = 0;
+        int matchCount = 0;
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+
+                boolean matches = true;
+                for (int i = 0; i < ranges.length; i++) {
+                    if (!predicates[i].matches(ranges[i].getRelativeValue(r, c))) {
+                        matches = false;
+                        break;
+                    }
+                }
+
+                if (!matches) {
+                    continue;
+                }
+                // aggregate only if all of the corresponding criteria specified are true for that cell.
+                matchCount++;
+                if (sumRange != null) {
+                    ValueEval addend = sumRange.getRelativeValue(r, c);
+                    // everything else (including string and boolean values) is ignored
+                    if (addend instanceof NumberEval) {
+                        sum += ((NumberEval) addend).getNumberValue();
+                        numberCount++;
+                    }
+                }
+            }
+        }
+        return aggregate(sum, numberCount, matchCount);
+    }
+
+    private static AreaEval convertRangeArg(ValueEval eval) throws EvaluationException {
+        if (eval instanceof AreaEval) {
+            return (AreaEval) eval;
+        }
+        if (eval instanceof RefEval) {
+            return ((RefEval) eval).offset(0, 0, 0, 0);
+        }
+        throw new EvaluationException(ErrorEval.VALUE_INVALID);
+    }
+}
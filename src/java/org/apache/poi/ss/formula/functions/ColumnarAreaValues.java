@@ -0,0 +1,150 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import org.apache.poi.ss.formula.IndexableEval;
+import org.apache.poi.ss.formula.IndexableEval.IndexBuilder;
+import org.apache.poi.ss.formula.TwoDEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.OperandResolver;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+
+/**
+ * The values of an area, split into primitive arrays, as used by SUMIFS, COUNTIFS and AVERAGEIFS.<p/>
+ *
+ * Instances are cached by {@link IndexableEval#getIndex(IndexBuilder)}, so the cells of
+ * an area are evaluated once per recalculation, no matter how many formulas refer to it.
+ * The cells are stored row by row, i.e. the cell at the relative position (r, c) has
+ * the index <code>r * width + c</code>.
+ */
+final class ColumnarAreaValues {
+
+	public static final byte BLANK = 0;
+	public static final byte NUMBER = 1;
+	public static final byte STRING = 2;
+	public static final byte BOOLEAN = 3;
+	public static final byte ERROR = 4;
+	/** any other kind of value, which never matches a criteria */
+	public static final byte OTHER = 5;
+
+	public static final IndexBuilder<ColumnarAreaValues> BUILDER = new IndexBuilder<ColumnarAreaValues>() {
+		public ColumnarAreaValues build(TwoDEval area) {
+			return new ColumnarAreaValues(area);
+		}
+	};
+
+	private final int _width;
+	private final byte[] _types;
+	/** number values, 0/1 for booleans and the codes of errors */
+	private final double[] _numbers;
+	/** <code>null</code> if the area doesn't contain any strings */
+	private final String[] _strings;
+	/** the strings parsed as numbers, {@link Double#NaN} for the ones which aren't numeric */
+	private double[] _parsedNumbers;
+
+	private ColumnarAreaValues(TwoDEval area) {
+		int height = area.getHeight();
+		_width = area.getWidth();
+		int size = height * _width;
+		_types = new byte[size];
+		_numbers = new double[size];
+		String[] strings = null;
+		for (int r = 0, i = 0; r < height; r++) {
+			for (int c = 0; c < _width; c++, i++) {
+				ValueEval ve = area.getValue(r, c);
+				if (ve instanceof NumberEval) {
+					_types[i] = NUMBER;
+					_numbers[i] = ((NumberEval) ve).getNumberValue();
+				} else if (ve instanceof StringEval) {
+					if (strings == null) {
+						strings = new String[size];
+					}
+					_types[i] = STRING;
+					strings[i] = ((StringEval) ve).getStringValue();
+				} else if (ve instanceof BlankEval) {
+					_types[i] = BLANK;
+				} else if (ve instanceof BoolEval) {
+					_types[i] = BOOLEAN;
+					_numbers[i] = ((BoolEval) ve).getBooleanValue() ? 1 : 0;
+				} else if (ve instanceof ErrorEval) {
+					_types[i] = ERROR;
+					_numbers[i] = ((ErrorEval) ve).getErrorCode();
+				} else {
+					_types[i] = OTHER;
+				}
+			}
+		}
+		_strings = strings;
+	}
+
+	/**
+	 * @return the number of cells
+	 */
+	public int getSize() {
+		return _types.length;
+	}
+
+	public int getWidth() {
+		return _width;
+	}
+
+	/**
+	 * @return one of {@link #BLANK}, {@link #NUMBER}, {@link #STRING}, {@link #BOOLEAN},
+	 *  {@link #ERROR} or {@link #OTHER}
+	 */
+	public byte getType(int index) {
+		return _types[index];
+	}
+
+	public double getNumber(int index) {
+		return _numbers[index];
+	}
+
+	public boolean getBoolean(int index) {
+		return _numbers[index] != 0;
+	}
+
+	public int getErrorCode(int index) {
+		return (int) _numbers[index];
+	}
+
+	public String getString(int index) {
+		return _strings[index];
+	}
+
+	/**
+	 * @return the string value parsed by {@link OperandResolver#parseDouble(String)},
+	 *  {@link Double#NaN} if the string isn't numeric
+	 */
+	public double getParsedNumber(int index) {
+		if (_parsedNumbers == null) {
+			double[] parsedNumbers = new double[_types.length];
+			for (int i = 0; i < parsedNumbers.length; i++) {
+				Double d = _types[i] == STRING ? OperandResolver.parseDouble(_strings[i]) : null;
+				// parseDouble() never returns NaN
+				parsedNumbers[i] = d == null ? Double.NaN : d.doubleValue();
+			}
+			_parsedNumbers = parsedNumbers;
+		}
+		return _parsedNumbers[index];
+	}
+}
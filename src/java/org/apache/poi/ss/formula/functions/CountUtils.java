@@ -42,6 +42,17 @@ final class CountUtils {
     public interface I_MatchAreaPredicate extends I_MatchPredicate {
         boolean matches(TwoDEval x, int rowIndex, int columnIndex);
     }
+    /**
+     * Criteria which can be tested against all cells of an area in a single pass
+     */
+    public interface I_MatchColumnarPredicate extends I_MatchPredicate {
+        /**
+         * Clears the flags of the cells which don't match, cleared flags are left alone.
+         *
+         * @param flags one flag for each cell of <code>values</code>
+         */
+        void retainMatches(ColumnarAreaValues values, boolean[] flags);
+    }
 
     /**
      * @return the number of evaluated cells in the range that match the specified criteria
@@ -29,6 +29,7 @@ import org.apache.poi.ss.formula.eval.OperandResolver;
 import org.apache.poi.ss.formula.eval.RefEval;
 import org.apache.poi.ss.formula.eval.StringEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.CountUtils.I_MatchColumnarPredicate;
 import org.apache.poi.ss.formula.functions.CountUtils.I_MatchPredicate;
 import org.apache.poi.ss.usermodel.FormulaError;
 
@@ -148,7 +149,7 @@ public final class Countif extends Fixed2ArgFunction {
         }
     }
 
-    private static abstract class MatcherBase implements I_MatchPredicate {
+    private static abstract class MatcherBase implements I_MatchColumnarPredicate {
         private final CmpOp _operator;
 
         MatcherBase(CmpOp operator) {
@@ -173,6 +174,69 @@ public final class Countif extends Fixed2ArgFunction {
             return sb.toString();
         }
         protected abstract String getValueText();
+
+        public final boolean matches(ValueEval x) {
+            if (x instanceof NumberEval) {
+                return matchesNumber(((NumberEval) x).getNumberValue());
+            } else if (x instanceof StringEval) {
+                return matchesString(((StringEval) x).getStringValue());
+            } else if (x instanceof BlankEval) {
+                return matchesBlank();
+            } else if (x instanceof BoolEval) {
+                return matchesBoolean(((BoolEval) x).getBooleanValue());
+            } else if (x instanceof ErrorEval) {
+                return matchesError(((ErrorEval) x).getErrorCode());
+            }
+            return false;
+        }
+        public final void retainMatches(ColumnarAreaValues values, boolean[] flags) {
+            boolean blankMatches = matchesBlank();
+            for (int i = 0; i < flags.length; i++) {
+                if (!flags[i]) {
+                    continue;
+                }
+                switch (values.getType(i)) {
+                    case ColumnarAreaValues.NUMBER:
+                        flags[i] = matchesNumber(values.getNumber(i));
+                        break;
+                    case ColumnarAreaValues.STRING:
+                        flags[i] = matchesString(values, i);
+                        break;
+                    case ColumnarAreaValues.BLANK:
+                        flags[i] = blankMatches;
+                        break;
+                    case ColumnarAreaValues.BOOLEAN:
+                        flags[i] = matchesBoolean(values.getBoolean(i));
+                        break;
+                    case ColumnarAreaValues.ERROR:
+                        flags[i] = matchesError(values.getErrorCode(i));
+                        break;
+                    default:
+                        flags[i] = false;
+                }
+            }
+        }
+        protected boolean matchesNumber(double value) {
+            return false;
+        }
+        protected boolean matchesString(String value) {
+            return false;
+        }
+        /**
+         * Overridden by matchers which can make use of the values cached by {@link ColumnarAreaValues}
+         */
+        protected boolean matchesString(ColumnarAreaValues values, int index) {
+            return matchesString(values.getString(index));
+        }
+        protected boolean matchesBlank() {
+            return false;
+        }
+        protected boolean matchesBoolean(boolean value) {
+            return false;
+        }
+        protected boolean matchesError(int errorCode) {
+            return false;
+        }
     }
 
     private static final class NumberMatcher extends MatcherBase {
@@ -189,46 +253,50 @@ public final class Countif extends Fixed2ArgFunction {
         }
 
         @Override
-        public boolean matches(ValueEval x) {
-            double testValue;
-            if(x instanceof StringEval) {
-                // if the target(x) is a string, but parses as a number
-                // it may still count as a match, only for the equality operator
-                switch (getCode()) {
-                    case CmpOp.EQ:
-                    case CmpOp.NONE:
-                        break;
-                    case CmpOp.NE:
-                        // Always matches (inconsistent with above two cases).
-                        // for example '<>123' matches '123', '4', 'abc', etc
-                        return true;
-                    default:
-                        // never matches (also inconsistent with above three cases).
-                        // for example '>5' does not match '6',
-                        return false;
-                }
-                StringEval se = (StringEval)x;
-                Double val = OperandResolver.parseDouble(se.getStringValue());
-                if(val == null) {
-                    // x is text that is not a number
-                    return false;
-                }
-                return _value == val.doubleValue();
-            } else if((x instanceof NumberEval)) {
-                NumberEval ne = (NumberEval) x;
-                testValue = ne.getNumberValue();
-            } else if((x instanceof BlankEval)) {
-                switch (getCode()) {
-                    case CmpOp.NE:
-                        // Excel counts blank values in range as not equal to any value. See Bugzilla 51498
-                        return true;
-                    default:
-                        return false;
-                }
-            } else {
+        protected boolean matchesNumber(double value) {
+            return evaluate(Double.compare(value, _value));
+        }
+        @Override
+        protected boolean matchesString(String value) {
+            if (!isStringComparison()) {
+                return getCode() == CmpOp.NE;
+            }
+            Double val = OperandResolver.parseDouble(value);
+            if(val == null) {
+                // x is text that is not a number
                 return false;
             }
-            return evaluate(Double.compare(testValue, _value));
+            return _value == val.doubleValue();
+        }
+        @Override
+        protected boolean matchesString(ColumnarAreaValues values, int index) {
+            if (!isStringComparison()) {
+                return getCode() == CmpOp.NE;
+            }
+            // NaN for text that is not a number, which never equals
+            return _value == values.getParsedNumber(index);
+        }
+        /**
+         * If the target is a string, but parses as a number it may still count as a match,
+         * only for the equality operator.<p/>
+         *
+         * The operator '<>' always matches (inconsistent with the equality),
+         * for example '<>123' matches '123', '4', 'abc', etc.
+         * All other operators never match, for example '>5' does not match '6'.
+         */
+        private boolean isStringComparison() {
+            switch (getCode()) {
+                case CmpOp.EQ:
+                case CmpOp.NONE:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        @Override
+        protected boolean matchesBlank() {
+            // Excel counts blank values in range as not equal to any value. See Bugzilla 51498
+            return getCode() == CmpOp.NE;
         }
     }
     private static final class BooleanMatcher extends MatcherBase {
@@ -249,43 +317,31 @@ public final class Countif extends Fixed2ArgFunction {
         }
 
         @Override
-        public boolean matches(ValueEval x) {
-            int testValue;
-            if(x instanceof StringEval) {
-                // Note - Unlike with numbers, it seems that COUNTIF never matches
-                // boolean values when the target(x) is a string
-                return false;
-                // uncomment to observe more intuitive behaviour
-                // StringEval se = (StringEval)x;
-                // Boolean val = parseBoolean(se.getStringValue());
-                // if(val == null) {
-                //     // x is text that is not a boolean
-                //     return false;
-                // }
-                // testValue = boolToInt(val.booleanValue());
-            } else if((x instanceof BoolEval)) {
-                BoolEval be = (BoolEval) x;
-                testValue = boolToInt(be.getBooleanValue());
-            } else if((x instanceof BlankEval)) {
-                switch (getCode()) {
-                    case CmpOp.NE:
-                        // Excel counts blank values in range as not equal to any value. See Bugzilla 51498
-                        return true;
-                    default:
-                        return false;
-                }
-            } else if((x instanceof NumberEval)) {
-                switch (getCode()) {
-                    case CmpOp.NE:
-                        // not-equals comparison of a number to boolean always returnes false
-                        return true;
-                    default:
-                        return false;
-                }
-            } else {
-                return false;
-            }
-            return evaluate(testValue - _value);
+        protected boolean matchesString(String value) {
+            // Note - Unlike with numbers, it seems that COUNTIF never matches
+            // boolean values when the target(x) is a string
+            return false;
+            // uncomment to observe more intuitive behaviour
+            // Boolean val = parseBoolean(value);
+            // if(val == null) {
+            //     // x is text that is not a boolean
+            //     return false;
+            // }
+            // return evaluate(boolToInt(val.booleanValue()) - _value);
+        }
+        @Override
+        protected boolean matchesBoolean(boolean value) {
+            return evaluate(boolToInt(value) - _value);
+        }
+        @Override
+        protected boolean matchesBlank() {
+            // Excel counts blank values in range as not equal to any value. See Bugzilla 51498
+            return getCode() == CmpOp.NE;
+        }
+        @Override
+        protected boolean matchesNumber(double value) {
+            // not-equals comparison of a number to boolean always returnes false
+            return getCode() == CmpOp.NE;
         }
     }
     public static final class ErrorMatcher extends MatcherBase {
@@ -302,12 +358,8 @@ public final class Countif extends Fixed2ArgFunction {
         }
 
         @Override
-        public boolean matches(ValueEval x) {
-            if(x instanceof ErrorEval) {
-                int testValue = ((ErrorEval)x).getErrorCode();
-                return evaluate(testValue - _value);
-            }
-            return false;
+        protected boolean matchesError(int errorCode) {
+            return evaluate(errorCode - _value);
         }
         
         public int getValue() {
@@ -342,27 +394,24 @@ public final class Countif extends Fixed2ArgFunction {
         }
 
         @Override
-        public boolean matches(ValueEval x) {
-            if (x instanceof BlankEval) {
-                switch(getCode()) {
-                    case CmpOp.NONE:
-                    case CmpOp.EQ:
-                        return _value.length() == 0;
-                    case CmpOp.NE:
-                        // pred '<>' matches empty string but not blank cell
-                        // pred '<>ABC'  matches blank and 'not ABC'
-                        return _value.length() != 0;
-                }
-                // no other criteria matches a blank cell
-                return false;
-            }
-            if(!(x instanceof StringEval)) {
-                // must always be string
-                // even if match str is wild, but contains only digits
-                // e.g. '4*7', NumberEval(4567) does not match
-                return false;
+        protected boolean matchesBlank() {
+            switch(getCode()) {
+                case CmpOp.NONE:
+                case CmpOp.EQ:
+                    return _value.length() == 0;
+                case CmpOp.NE:
+                    // pred '<>' matches empty string but not blank cell
+                    // pred '<>ABC'  matches blank and 'not ABC'
+                    return _value.length() != 0;
             }
-            String testedValue = ((StringEval) x).getStringValue();
+            // no other criteria matches a blank cell
+            return false;
+        }
+        // all other values must always be string
+        // even if match str is wild, but contains only digits
+        // e.g. '4*7', NumberEval(4567) does not match
+        @Override
+        protected boolean matchesString(String testedValue) {
             if (testedValue.length() < 1 && _value.length() < 1) {
                 // odd case: criteria '=' behaves differently to criteria ''
 
@@ -18,8 +18,6 @@
 
 package org.apache.poi.ss.formula.functions;
 
-import org.apache.poi.ss.formula.OperationEvaluationContext;
-import org.apache.poi.ss.formula.eval.ErrorEval;
 import org.apache.poi.ss.formula.eval.NumberEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
 
@@ -28,35 +26,22 @@ import org.apache.poi.ss.formula.eval.ValueEval;
  * <p>
  * Syntax: COUNTIFS(criteria_range1, criteria1, [criteria_range2, criteria2])
  * </p>
+ * Counts the cells for which the cells at the same position of all criteria ranges
+ * match their criteria.
  */
 
-public class Countifs implements FreeRefFunction {
+public class Countifs extends Baseifs {
     public static final FreeRefFunction instance = new Countifs();
 
-    public ValueEval evaluate(ValueEval[] args, OperationEvaluationContext ec) {
-        // https://support.office.com/en-us/article/COUNTIFS-function-dda3dc6e-f74e-4aee-88bc-aa8c2a866842?ui=en-US&rs=en-US&ad=US
-        // COUNTIFS(criteria_range1, criteria1, [criteria_range2, criteria2]...)
-        // need at least 2 arguments and need to have an even number of arguments (criteria_range1, criteria1 plus x*(criteria_range, criteria))
-        if (args.length < 2 || args.length % 2 != 0) {
-            return ErrorEval.VALUE_INVALID;
-        }
-        
-        Double result = null;
-        // for each (criteria_range, criteria) pair
-        for (int i = 0; i < args.length; i += 2) {
-            ValueEval firstArg = args[i];
-            ValueEval secondArg = args[i + 1];
-            NumberEval evaluate = (NumberEval) new Countif().evaluate(
-                    new ValueEval[] {firstArg, secondArg},
-                    ec.getRowIndex(),
-                    ec.getColumnIndex());
-            if (result == null) {
-                result = evaluate.getNumberValue();
-            } else if (evaluate.getNumberValue() < result) {
-                result = evaluate.getNumberValue();
-            }
-        }
-        return new NumberEval(result == null ? 0 : result);
+    // https://support.office.com/en-us/article/COUNTIFS-function-dda3dc6e-f74e-4aee-88bc-aa8c2a866842?ui=en-US&rs=en-US&ad=US
+    // COUNTIFS(criteria_range1, criteria1, [criteria_range2, criteria2]...)
+    @Override
+    protected boolean hasInitialRange() {
+        return false;
     }
-}
 
+    @Override
+    protected ValueEval aggregate(double sum, int numberCount, int matchCount) {
+        return new NumberEval(matchCount);
+    }
+}
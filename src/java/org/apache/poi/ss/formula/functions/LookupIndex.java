@@ -0,0 +1,157 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.IndexableEval;
+import org.apache.poi.ss.formula.IndexableEval.IndexBuilder;
+import org.apache.poi.ss.formula.TwoDEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.LookupUtils.ValueVector;
+
+/**
+ * The values of a single row or column, as used by VLOOKUP, HLOOKUP, LOOKUP and MATCH.<p/>
+ *
+ * Instances are cached by {@link IndexableEval#getIndex(IndexBuilder)}, so repeated lookups
+ * in the same area neither evaluate the cells again nor scan them linearly:
+ * <ul>
+ * <li>the binary search of the approximate lookups runs directly on the snapshot of the values</li>
+ * <li>exact lookups of numbers, strings and booleans are answered by a hash index, which
+ *  is built on the first exact lookup</li>
+ * </ul>
+ */
+final class LookupIndex implements ValueVector {
+
+	public static final IndexBuilder<LookupIndex> BUILDER = new IndexBuilder<LookupIndex>() {
+		public LookupIndex build(TwoDEval area) {
+			return new LookupIndex(area);
+		}
+	};
+
+	private final ValueEval[] _values;
+
+	/** first index of each value, keyed by {@link #toKey(ValueEval)} */
+	private Map<Object, Integer> _firstIndexes;
+
+	/**
+	 * @param vector a single row or column
+	 */
+	private LookupIndex(TwoDEval vector) {
+		if (vector.isColumn()) {
+			int height = vector.getHeight();
+			_values = new ValueEval[height];
+			for (int i = 0; i < height; i++) {
+				_values[i] = vector.getValue(i, 0);
+			}
+		} else if (vector.isRow()) {
+			int width = vector.getWidth();
+			_values = new ValueEval[width];
+			for (int i = 0; i < width; i++) {
+				_values[i] = vector.getValue(0, i);
+			}
+		} else {
+			throw new IllegalArgumentException("Only single rows or columns can be indexed");
+		}
+	}
+
+	public ValueEval getItem(int index) {
+		if (index >= _values.length) {
+			throw new ArrayIndexOutOfBoundsException("Specified index (" + index
+					+ ") is outside the allowed range (0.." + (_values.length - 1) + ")");
+		}
+		return _values[index];
+	}
+
+	public int getSize() {
+		return _values.length;
+	}
+
+	/**
+	 * Finds the first item which an exact, non-wildcard
+	 * {@link LookupUtils.LookupValueComparer} would consider equal.
+	 *
+	 * @param lookupValue a {@link NumberEval}, {@link StringEval}, {@link BoolEval}
+	 *  or {@link BlankEval} (which matches zero)
+	 * @return zero based index, -1 if the value can't be found
+	 */
+	public int indexOfExactValue(ValueEval lookupValue) {
+		if (_firstIndexes == null) {
+			Map<Object, Integer> firstIndexes = new HashMap<Object, Integer>(_values.length * 4 / 3 + 1);
+			for (int i = _values.length - 1; i >= 0; i--) {
+				Object key = toKey(_values[i]);
+				if (key != null) {
+					firstIndexes.put(key, Integer.valueOf(i));
+				}
+			}
+			_firstIndexes = firstIndexes;
+		}
+		Object key = toKey(lookupValue == BlankEval.instance ? NumberEval.ZERO : lookupValue);
+		if (key == null) {
+			throw new IllegalArgumentException("Bad lookup value type (" + lookupValue.getClass().getName() + ")");
+		}
+		Integer result = _firstIndexes.get(key);
+		return result == null ? -1 : result.intValue();
+	}
+
+	/**
+	 * The lookup comparers only match values of the same class, so the keys are
+	 * {@link Double}, {@link String} and {@link Boolean} objects which never equal each other.
+	 *
+	 * @return <code>null</code> for values which never match a lookup value
+	 */
+	private static Object toKey(ValueEval value) {
+		Class<?> cls = value.getClass();
+		if (cls == NumberEval.class) {
+			// same equality as Double.compare()
+			return Double.valueOf(((NumberEval) value).getNumberValue());
+		}
+		if (cls == StringEval.class) {
+			return toCaseInsensitiveKey(((StringEval) value).getStringValue());
+		}
+		if (cls == BoolEval.class) {
+			return Boolean.valueOf(((BoolEval) value).getBooleanValue());
+		}
+		return null;
+	}
+
+	/**
+	 * @return a string which equals the ones of all strings for which
+	 *  {@link String#compareToIgnoreCase(String)} returns 0
+	 */
+	private static String toCaseInsensitiveKey(String str) {
+		int len = str.length();
+		char[] chars = null;
+		for (int i = 0; i < len; i++) {
+			char c = str.charAt(i);
+			char folded = Character.toLowerCase(Character.toUpperCase(c));
+			if (folded != c && chars == null) {
+				chars = str.toCharArray();
+			}
+			if (chars != null) {
+				chars[i] = folded;
+			}
+		}
+		return chars == null ? str : new String(chars);
+	}
+}
@@ -20,6 +20,7 @@ package org.apache.poi.ss.formula.functions;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.poi.ss.formula.IndexableEval;
 import org.apache.poi.ss.formula.TwoDEval;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
@@ -149,6 +150,53 @@ final class LookupUtils {
 	    return new SheetVector(re);
 	}
 
+	/**
+	 * Like {@link #createColumnVector(TwoDEval, int)}, but uses the cached {@link LookupIndex}
+	 * if the area supports it. To be used for the vector which is searched.
+	 */
+	public static ValueVector createLookupColumnVector(TwoDEval tableArray, int relativeColumnIndex) {
+		if (tableArray instanceof IndexableEval && relativeColumnIndex < tableArray.getWidth()) {
+			TwoDEval column = tableArray.getColumn(relativeColumnIndex);
+			if (column instanceof IndexableEval) {
+				ValueVector index = ((IndexableEval)column).getIndex(LookupIndex.BUILDER);
+				if (index != null) {
+					return index;
+				}
+			}
+		}
+		return createColumnVector(tableArray, relativeColumnIndex);
+	}
+	/**
+	 * Like {@link #createRowVector(TwoDEval, int)}, but uses the cached {@link LookupIndex}
+	 * if the area supports it. To be used for the vector which is searched.
+	 */
+	public static ValueVector createLookupRowVector(TwoDEval tableArray, int relativeRowIndex) {
+		if (tableArray instanceof IndexableEval && relativeRowIndex < tableArray.getHeight()) {
+			TwoDEval row = tableArray.getRow(relativeRowIndex);
+			if (row instanceof IndexableEval) {
+				ValueVector index = ((IndexableEval)row).getIndex(LookupIndex.BUILDER);
+				if (index != null) {
+					return index;
+				}
+			}
+		}
+		return createRowVector(tableArray, relativeRowIndex);
+	}
+	/**
+	 * Like {@link #createVector(TwoDEval)}, but uses the cached {@link LookupIndex}
+	 * if the area supports it.
+	 * @return <code>null</code> if the supplied area is neither a single row nor a single colum
+	 */
+	public static ValueVector createLookupVector(TwoDEval ae) {
+		if (ae instanceof IndexableEval && (ae.isColumn() || ae.isRow())) {
+			ValueVector index = ((IndexableEval)ae).getIndex(LookupIndex.BUILDER);
+			if (index != null) {
+				return index;
+			}
+		}
+		return createVector(ae);
+	}
+
 	/**
 	 * Enumeration to support <b>4</b> valued comparison results.<p/>
 	 * Excel lookup functions have complex behaviour in the case where the lookup array has mixed
@@ -294,6 +342,13 @@ final class LookupUtils {
             _isMatchFunction = isMatchFunction;
 		}
 
+		/**
+		 * @return <code>true</code> if the lookup value contains wildcards which are used for the comparison
+		 */
+		public boolean isWildCardMatch() {
+			return _wildCardPattern != null && (_isMatchFunction || !_matchExact);
+		}
+
 		protected CompareResult compareSameType(ValueEval other) {
             StringEval se = (StringEval) other;
 
@@ -484,7 +539,7 @@ final class LookupUtils {
 		if(isRangeLookup) {
 			result = performBinarySearch(vector, lookupComparer);
 		} else {
-			result = lookupIndexOfExactValue(lookupComparer, vector);
+			result = lookupIndexOfExactValue(lookupValue, lookupComparer, vector);
 		}
 		if(result < 0) {
 			throw new EvaluationException(ErrorEval.NA);
@@ -495,12 +550,18 @@ final class LookupUtils {
 
 	/**
 	 * Finds first (lowest index) exact occurrence of specified value.
+	 * @param lookupValue the value to be found, as passed to {@link #createLookupComparer(ValueEval, boolean, boolean)}
 	 * @param lookupComparer the value to be found in column or row vector
 	 * @param vector the values to be searched. For VLOOKUP this is the first column of the
 	 * 	tableArray. For HLOOKUP this is the first row of the tableArray.
 	 * @return zero based index into the vector, -1 if value cannot be found
 	 */
-	private static int lookupIndexOfExactValue(LookupValueComparer lookupComparer, ValueVector vector) {
+	static int lookupIndexOfExactValue(ValueEval lookupValue, LookupValueComparer lookupComparer, ValueVector vector) {
+
+		if (vector instanceof LookupIndex && !(lookupComparer instanceof StringLookupComparer
+				&& ((StringLookupComparer)lookupComparer).isWildCardMatch())) {
+			return ((LookupIndex)vector).indexOfExactValue(lookupValue);
+		}
 
 		// find first occurrence of lookup value
 		int size = vector.getSize();
@@ -132,7 +132,7 @@ public final class Match extends Var2or3ArgFunction {
 			}
 		}
 		if (eval instanceof TwoDEval) {
-			ValueVector result = LookupUtils.createVector((TwoDEval)eval);
+			ValueVector result = LookupUtils.createLookupVector((TwoDEval)eval);
 			if (result == null) {
 				throw new EvaluationException(ErrorEval.NA);
 			}
@@ -192,12 +192,11 @@ public final class Match extends Var2or3ArgFunction {
 
 		int size = lookupRange.getSize();
 		if(matchExact) {
-			for (int i = 0; i < size; i++) {
-				if(lookupComparer.compareTo(lookupRange.getItem(i)).isEqual()) {
-					return i;
-				}
+			int index = LookupUtils.lookupIndexOfExactValue(lookupValue, lookupComparer, lookupRange);
+			if(index < 0) {
+				throw new EvaluationException(ErrorEval.NA);
 			}
-			throw new EvaluationException(ErrorEval.NA);
+			return index;
 		}
 
 		if(findLargestLessThanOrEqual) {
@@ -38,11 +38,13 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.poi.ss.format.CellFormat;
 import org.apache.poi.ss.format.CellFormatResult;
+import org.apache.poi.ss.format.FormatCache;
 import org.apache.poi.ss.util.DateFormatConverter;
 import org.apache.poi.ss.util.NumberToTextConverter;
 import org.apache.poi.util.LocaleUtil;
@@ -200,6 +202,15 @@ public class DataFormatter implements Observer {
      */
     private final Map<String,Format> formats = new HashMap<String,Format>();
 
+    /**
+     * The formats compiled by all formatters, so each thread and instance doesn't
+     *  need to parse the format strings again. The cached formats are prototypes,
+     *  which are never used for formatting. Each instance works on its own clone,
+     *  as the java.text formats aren't thread-safe.
+     */
+    private static final FormatCache<FormatKey,Format> sharedFormats =
+            new FormatCache<FormatKey,Format>(FormatCache.DEFAULT_MAX_SIZE);
+
     private final boolean emulateCSV;
 
     /** stores the locale valid it the last formatting call */
@@ -353,8 +364,19 @@ public class DataFormatter implements Observer {
             return generalNumberFormat;
         }
         
-        // Build a formatter, and cache it
-        format = createFormat(cellValue, formatIndex, formatStr);
+        // Has another formatter with the same settings built it already?
+        FormatKey key = new FormatKey(locale, LocaleUtil.getUserTimeZone(), emulateCSV, formatStr);
+        Format prototype = sharedFormats.get(key);
+        if (prototype != null) {
+            format = (Format)prototype.clone();
+        } else {
+            // Build a formatter, and cache it
+            format = createFormat(cellValue, formatIndex, formatStr);
+            // the default formats depend on the settings of this instance
+            if (format != null && format != generalNumberFormat && format != defaultNumFormat) {
+                sharedFormats.putIfAbsent(key, (Format)format.clone());
+            }
+        }
         formats.put(formatStr, format);
         return format;
     }
@@ -1150,6 +1172,41 @@ public class DataFormatter implements Observer {
 
     
     
+    /**
+     * The key of the shared formats, as the compiled formats depend on the
+     * locale, the time zone and the CSV emulation of the formatter.
+     */
+    private static final class FormatKey {
+        private final Locale locale;
+        private final TimeZone timeZone;
+        private final boolean emulateCSV;
+        private final String formatStr;
+
+        FormatKey(Locale locale, TimeZone timeZone, boolean emulateCSV, String formatStr) {
+            this.locale = locale;
+            this.timeZone = timeZone;
+            this.emulateCSV = emulateCSV;
+            this.formatStr = formatStr;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey other = (FormatKey)o;
+            return emulateCSV == other.emulateCSV
+                && formatStr.equals(other.formatStr)
+                && locale.equals(other.locale)
+                && timeZone.equals(other.timeZone);
+        }
+
+        @Override
+        public int hashCode() {
+            return (formatStr.hashCode() * 31 + locale.hashCode()) * 31 + (emulateCSV ? 1 : 0);
+        }
+    }
+
     /**
      * Format class that does nothing and always returns a constant string.
      *
@@ -105,11 +105,22 @@ public abstract class POIXMLTextExtractor extends POITextExtractor {
 	}
 
 	protected void checkMaxTextSize(StringBuffer text, String string) {
+        checkMaxTextSize(text.length(), string);
+    }
+
+    /**
+     * @param length the length of the text, which was already extracted
+     * @param string the text to add
+     * @throws IllegalStateException if the text would exceed {@link ZipSecureFile#getMaxTextSize()}
+     *
+     * @since POI 3.16 beta 2
+     */
+    protected void checkMaxTextSize(long length, String string) {
         if(string == null) {
             return;
         }
 
-        int size = text.length() + string.length();
+        long size = length + string.length();
         if(size > ZipSecureFile.getMaxTextSize()) {
             throw new IllegalStateException("The text would exceed the max allowed overall size of extracted text. "
                     + "By default this is prevented as some documents may exhaust available memory and it may indicate that the file is used to inflate memory usage and thus could pose a security risk. "
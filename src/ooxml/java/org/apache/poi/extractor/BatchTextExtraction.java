@@ -0,0 +1,180 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.extractor;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.poi.POIOLE2TextExtractor;
+import org.apache.poi.POITextExtractor;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+/**
+ * Extracts the text of a batch of documents and their embedded documents in parallel,
+ * see {@link ExtractorFactory#extractText(java.util.Collection, ExecutorService, DocumentTextSink)}.<p>
+ *
+ * Each main document is a separate task. The embedded documents are read from the
+ * file system of their parent, which doesn't support concurrent reads, so they are
+ * extracted one after the other by the task of their parent. A document is closed
+ * when its embedded documents are finished. The tasks don't wait for each other, so
+ * the executor can have any size.
+ */
+final class BatchTextExtraction<S> {
+    private static final POILogger LOG = POILogFactory.getLogger(BatchTextExtraction.class);
+
+    /**
+     * Opens the text extractor of a main document
+     */
+    interface Opener<S> {
+        POITextExtractor open(S source) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final DocumentTextSink<S> sink;
+    private final Opener<S> opener;
+    // the setting of the calling thread, which is used by the workers
+    private final boolean preferEventExtractors;
+    private int pending;
+
+    BatchTextExtraction(ExecutorService executor, DocumentTextSink<S> sink, Opener<S> opener) {
+        this.executor = executor;
+        this.sink = sink;
+        this.opener = opener;
+        this.preferEventExtractors = ExtractorFactory.getPreferEventExtractor();
+    }
+
+    /**
+     * Waits until all documents and their embedded documents are processed
+     */
+    synchronized void await() throws InterruptedException {
+        while (pending > 0) {
+            wait();
+        }
+    }
+
+    void submit(final S source) {
+        synchronized (this) {
+            pending++;
+        }
+        Runnable task = new Runnable() {
+            public void run() {
+                boolean threadPrefers = ExtractorFactory.getThreadPrefersEventExtractors();
+                ExtractorFactory.setThreadPrefersEventExtractors(preferEventExtractors);
+                try {
+                    process(source, "", null);
+                } finally {
+                    ExtractorFactory.setThreadPrefersEventExtractors(threadPrefers);
+                    done();
+                }
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // e.g. a shutdown executor - process the document in the calling thread
+            task.run();
+        }
+    }
+
+    private synchronized void done() {
+        pending--;
+        if (pending == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Extracts the text of a document and then of its embedded documents
+     *
+     * @param extractor the extractor of an embedded document, {@code null} for a main document
+     */
+    private void process(S source, String path, POITextExtractor extractor) {
+        POITextExtractor[] embedded = new POITextExtractor[0];
+        try {
+            long start = System.nanoTime();
+            CountingAppendable out = null;
+            Exception exception = null;
+            try {
+                if (extractor == null) {
+                    extractor = opener.open(source);
+                }
+
+                out = new CountingAppendable(sink.startDocument(source, path));
+                extractor.writeText(out);
+
+                if (extractor instanceof POIOLE2TextExtractor) {
+                    embedded = ExtractorFactory.getEmbededDocsTextExtractors((POIOLE2TextExtractor)extractor);
+                }
+            } catch (Exception e) {
+                exception = e;
+            }
+
+            ExtractionResult<S> result = new ExtractionResult<S>(source, path,
+                System.nanoTime() - start, (out == null) ? 0 : out.length, embedded.length, exception);
+            try {
+                sink.endDocument(result);
+            } catch (IOException e) {
+                LOG.log(POILogger.WARN, "Unable to end the document " + result, e);
+            } catch (RuntimeException e) {
+                LOG.log(POILogger.WARN, "Unable to end the document " + result, e);
+            }
+
+            for (int i = 0; i < embedded.length; i++) {
+                POITextExtractor child = embedded[i];
+                embedded[i] = null;
+                process(source, path + "/" + i, child);
+            }
+        } finally {
+            // close the remaining embedded documents before their parent
+            for (POITextExtractor child : embedded) {
+                IOUtils.closeQuietly(child);
+            }
+            IOUtils.closeQuietly(extractor);
+        }
+    }
+
+    private static final class CountingAppendable implements Appendable {
+        private final Appendable out;
+        long length;
+
+        CountingAppendable(Appendable out) {
+            this.out = out;
+        }
+
+        public Appendable append(CharSequence csq) throws IOException {
+            out.append(csq);
+            length += (csq == null) ? 4 : csq.length();
+            return this;
+        }
+
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            out.append(csq, start, end);
+            length += end - start;
+            return this;
+        }
+
+        public Appendable append(char c) throws IOException {
+            out.append(c);
+            length++;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.extractor;
+
+import java.io.IOException;
+
+/**
+ * Receives the text of the documents, which are extracted by
+ * {@link ExtractorFactory#extractText(java.util.Collection, java.util.concurrent.ExecutorService, DocumentTextSink)}.<p>
+ *
+ * The main documents and each of their embedded documents are passed separately.
+ * A document is identified by its source and its path: the path of the main document
+ * is the empty string, the embedded documents have the path of their parent followed
+ * by "/" and their 0-based index, e.g. "/0" or "/2/1".<p>
+ *
+ * The methods are called by the threads of the executor, i.e. concurrently for different
+ * documents, so implementations need to be thread-safe. The calls for one document
+ * are done by the same thread.
+ *
+ * @param <S> the type of the document sources
+ *
+ * @since POI 3.16 beta 2
+ */
+public interface DocumentTextSink<S> {
+    /**
+     * Called before the text of a document is extracted
+     *
+     * @param source the file or stream of the main document
+     * @param path the path of the document within the main document
+     * @return the target of the text of this document
+     * @throws IOException if the target can't be opened
+     */
+    Appendable startDocument(S source, String path) throws IOException;
+
+    /**
+     * Called after a document was processed, also if the extraction failed.
+     * The embedded documents of this document are processed afterwards.
+     *
+     * @param result the metrics and the error of the extraction
+     * @throws IOException if the target can't be closed
+     */
+    void endDocument(ExtractionResult<S> result) throws IOException;
+}
@@ -0,0 +1,110 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.extractor;
+
+/**
+ * The outcome and the timing of the text extraction of a single main or embedded document,
+ * see {@link DocumentTextSink}
+ *
+ * @param <S> the type of the document sources
+ *
+ * @since POI 3.16 beta 2
+ */
+public class ExtractionResult<S> {
+    private final S source;
+    private final String path;
+    private final long elapsedNanos;
+    private final long textLength;
+    private final int embeddedCount;
+    private final Exception exception;
+
+    ExtractionResult(S source, String path, long elapsedNanos, long textLength, int embeddedCount, Exception exception) {
+        this.source = source;
+        this.path = path;
+        this.elapsedNanos = elapsedNanos;
+        this.textLength = textLength;
+        this.embeddedCount = embeddedCount;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the file or stream of the main document
+     */
+    public S getSource() {
+        return source;
+    }
+
+    /**
+     * @return the path of the document, the empty string for the main document
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return true, if this is an embedded document
+     */
+    public boolean isEmbedded() {
+        return path.length() > 0;
+    }
+
+    /**
+     * @return the time needed for the extraction in nanoseconds. For main documents
+     *  this includes opening the document and finding the embedded documents, the
+     *  embedded documents are opened by their parent.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of characters written to the sink
+     */
+    public long getTextLength() {
+        return textLength;
+    }
+
+    /**
+     * @return the number of the direct embedded documents, which are processed afterwards
+     */
+    public int getEmbeddedCount() {
+        return embeddedCount;
+    }
+
+    /**
+     * @return the exception, if the extraction failed, otherwise {@code null}
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * @return true, if the extraction didn't fail
+     */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    @Override
+    public String toString() {
+        return source + (isEmbedded() ? " [" + path + "]" : "")
+            + ": " + textLength + " chars, " + embeddedCount + " embedded, "
+            + (elapsedNanos / 1000000) + " ms"
+            + (exception == null ? "" : ", failed: " + exception);
+    }
+}
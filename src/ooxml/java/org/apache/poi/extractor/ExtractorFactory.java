@@ -23,7 +23,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.poi.POIOLE2TextExtractor;
 import org.apache.poi.POITextExtractor;
@@ -377,6 +379,65 @@ public class ExtractorFactory {
         return textExtractors.toArray(new POITextExtractor[textExtractors.size()]);
     }
 
+    /**
+     * Extracts the text of the files and of their embedded documents in parallel.
+     * The files are processed concurrently, the embedded documents of a file are
+     * extracted one after the other by the task of that file. The text of each main
+     * and embedded document is passed separately to the sink, together with its
+     * timing and the error, if its extraction failed. A failed document doesn't
+     * stop the processing of the other documents.<p>
+     *
+     * The event extractor preference of the calling thread is used by the workers.
+     * The executor isn't shut down, if it rejects a task, the task is run by the
+     * submitting thread.
+     *
+     * @param files the files to extract
+     * @param executor the executor to run the extraction tasks
+     * @param sink the receiver of the text, which is called concurrently
+     * @throws InterruptedException if the thread is interrupted while waiting for the tasks
+     *
+     * @since POI 3.16 beta 2
+     */
+    public static void extractText(Collection<File> files, ExecutorService executor, DocumentTextSink<File> sink)
+    throws InterruptedException {
+        BatchTextExtraction<File> batch = new BatchTextExtraction<File>(executor, sink,
+            new BatchTextExtraction.Opener<File>() {
+                public POITextExtractor open(File file) throws Exception {
+                    return createExtractor(file);
+                }
+            });
+        for (File file : files) {
+            batch.submit(file);
+        }
+        batch.await();
+    }
+
+    /**
+     * Extracts the text of the streams and of their embedded documents, one task per stream,
+     * see {@link #extractText(Collection, ExecutorService, DocumentTextSink)}.
+     * The streams are read by the worker threads.
+     *
+     * @param streams the streams to extract
+     * @param executor the executor to run the extraction tasks
+     * @param sink the receiver of the text, which is called concurrently
+     * @throws InterruptedException if the thread is interrupted while waiting for the tasks
+     *
+     * @since POI 3.16 beta 2
+     */
+    public static <T extends InputStream> void extractTextFromStreams(Collection<T> streams, ExecutorService executor, DocumentTextSink<T> sink)
+    throws InterruptedException {
+        BatchTextExtraction<T> batch = new BatchTextExtraction<T>(executor, sink,
+            new BatchTextExtraction.Opener<T>() {
+                public POITextExtractor open(T stream) throws Exception {
+                    return createExtractor(stream);
+                }
+            });
+        for (T stream : streams) {
+            batch.submit(stream);
+        }
+        batch.await();
+    }
+
     /**
      * Returns an array of text extractors, one for each of
      *  the embedded documents in the file (if there are any).
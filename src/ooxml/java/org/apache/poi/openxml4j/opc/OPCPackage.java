@@ -313,7 +313,8 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
 	 *
 	 * Note - uses quite a bit more memory than {@link #open(String)}, which
 	 * doesn't need to hold the whole zip file in memory, and can take advantage
-	 * of native methods
+	 * of native methods. Large streams can be spooled to a temporary file
+	 * instead, see {@link org.apache.poi.openxml4j.util.TempFileZipEntrySource#setThresholdBytes(long)}.
 	 *
 	 * @param in
 	 *            The InputStream to read the package from
@@ -481,6 +482,10 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
 			} else if (this.output != null) {
 				save(this.output);
 				output.close();
+			} else {
+				// opened from a stream, there's nowhere to save to, but the source,
+				// e.g. a spooled temporary file, must be released
+				revertImpl();
 			}
 		} finally {
 			l.writeLock().unlock();
@@ -95,13 +95,7 @@ public final class ZipPackage extends OPCPackage {
      */
     ZipPackage(InputStream in, PackageAccess access) throws IOException {
         super(access);
-        ThresholdInputStream zis = ZipHelper.openZipStream(in);
-        try {
-            this.zipArchive = new ZipInputStreamZipEntrySource(zis);
-        } catch (final IOException e) {
-            IOUtils.closeQuietly(zis);
-            throw new IOException("Failed to read zip entry source", e);
-        }
+        this.zipArchive = ZipHelper.openZipEntrySource(in);
     }
 
     /**
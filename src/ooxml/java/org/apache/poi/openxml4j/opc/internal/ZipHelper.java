@@ -17,12 +17,15 @@
 
 package org.apache.poi.openxml4j.opc.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Enumeration;
@@ -36,6 +39,9 @@ import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.openxml4j.opc.PackageRelationship;
 import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
 import org.apache.poi.openxml4j.opc.ZipPackage;
+import org.apache.poi.openxml4j.util.TempFileZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipInputStreamZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
 import org.apache.poi.openxml4j.util.ZipSecureFile.ThresholdInputStream;
 import org.apache.poi.poifs.common.POIFSConstants;
@@ -233,6 +239,81 @@ public final class ZipHelper {
         return ZipSecureFile.addThreshold(zis);
     }
 
+    /**
+     * Opens the specified stream as a zip entry source. By default, all entries
+     *  are decompressed into memory. If a threshold is set via
+     *  {@link TempFileZipEntrySource#setThresholdBytes(long)}, streams up to the
+     *  threshold are still kept in memory, while larger streams are spooled to a
+     *  temporary file and read from there on demand.
+     * The stream is closed.
+     *
+     * @param stream
+     *            The stream to open.
+     * @return The zip entry source freshly open.
+     * @throws IOException if the stream can't be read or isn't a valid zip
+     * @throws NotOfficeXmlFileException if stream does not start with zip header signature
+     */
+    public static ZipEntrySource openZipEntrySource(InputStream stream) throws IOException {
+        long threshold = TempFileZipEntrySource.getThresholdBytes();
+        if (threshold < 0) {
+            return openZipEntrySourceInMemory(openZipStream(stream));
+        }
+
+        // Peek at the first few bytes to sanity check
+        InputStream checkedStream = prepareToCheckHeader(stream);
+        verifyZipHeader(checkedStream);
+
+        // Read the stream into memory up to the threshold
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        boolean exceedsThreshold;
+        try {
+            exceedsThreshold = readUpTo(checkedStream, head, threshold);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(checkedStream);
+            throw e;
+        }
+
+        if (!exceedsThreshold) {
+            checkedStream.close();
+            InputStream zis = new ZipInputStream(new ByteArrayInputStream(head.toByteArray()));
+            return openZipEntrySourceInMemory(ZipSecureFile.addThreshold(zis));
+        }
+
+        InputStream fullStream = new SequenceInputStream(
+                new ByteArrayInputStream(head.toByteArray()), checkedStream);
+        try {
+            return TempFileZipEntrySource.createZipEntrySource(fullStream);
+        } catch (IOException e) {
+            throw new IOException("Failed to read zip entry source", e);
+        }
+    }
+
+    private static ZipEntrySource openZipEntrySourceInMemory(ThresholdInputStream zis) throws IOException {
+        try {
+            return new ZipInputStreamZipEntrySource(zis);
+        } catch (final IOException e) {
+            IOUtils.closeQuietly(zis);
+            throw new IOException("Failed to read zip entry source", e);
+        }
+    }
+
+    /**
+     * Copies the stream until it ends or more than limit bytes are copied
+     *
+     * @return true, if the stream has more than limit bytes
+     */
+    private static boolean readUpTo(InputStream stream, ByteArrayOutputStream out, long limit) throws IOException {
+        byte[] buff = new byte[READ_WRITE_FILE_BUFFER_SIZE];
+        while (out.size() <= limit) {
+            int resultRead = stream.read(buff);
+            if (resultRead == -1) {
+                return false;
+            }
+            out.write(buff, 0, resultRead);
+        }
+        return true;
+    }
+
     /**
      * Opens the specified file as a secure zip, or returns null if no 
      *  such file exists
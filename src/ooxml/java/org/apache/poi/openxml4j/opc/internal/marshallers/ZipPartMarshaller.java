@@ -25,6 +25,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.ContentTypes;
 import org.apache.poi.openxml4j.opc.PackageNamespaces;
 import org.apache.poi.openxml4j.opc.PackagePart;
 import org.apache.poi.openxml4j.opc.PackagePartName;
@@ -33,6 +34,7 @@ import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
 import org.apache.poi.openxml4j.opc.PackagingURIHelper;
 import org.apache.poi.openxml4j.opc.StreamHelper;
 import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.openxml4j.opc.ZipPackagePart;
 import org.apache.poi.openxml4j.opc.internal.PartMarshaller;
 import org.apache.poi.openxml4j.opc.internal.ZipHelper;
 import org.apache.poi.util.DocumentHelper;
@@ -75,6 +77,11 @@ public final class ZipPartMarshaller implements PartMarshaller {
 		ZipEntry partEntry = new ZipEntry(ZipHelper
 				.getZipItemNameFromOPCName(part.getPartName().getURI()
 						.getPath()));
+		if (part instanceof ZipPackagePart) {
+			// a ZipPackagePart is replaced by a MemoryPackagePart when it's written to,
+			// so its content is still the one of the source archive
+			prepareUnmodifiedEntry((ZipPackagePart)part, partEntry);
+		}
 		try {
 			// Create next zip entry
 			zos.putNextEntry(partEntry);
@@ -109,6 +116,32 @@ public final class ZipPartMarshaller implements PartMarshaller {
 		return true;
 	}
 
+	/**
+	 * Unmodified parts are stored without compressing them again, if they are
+	 * uncompressed in the source archive or their content is already compressed,
+	 * e.g. JPEG or PNG images. java.util.zip can't copy the compressed bytes of
+	 * an entry, so the entry is stored with the CRC and the size of the source entry.
+	 */
+	private static void prepareUnmodifiedEntry(ZipPackagePart part, ZipEntry partEntry) {
+		ZipEntry source = part.getZipArchive();
+		if (source == null || source.getCrc() == -1 || source.getSize() == -1) {
+			return;
+		}
+		if (source.getMethod() != ZipEntry.STORED && !isCompressedContentType(part.getContentType())) {
+			return;
+		}
+		partEntry.setMethod(ZipEntry.STORED);
+		partEntry.setSize(source.getSize());
+		partEntry.setCompressedSize(source.getSize());
+		partEntry.setCrc(source.getCrc());
+	}
+
+	private static boolean isCompressedContentType(String contentType) {
+		return ContentTypes.IMAGE_JPEG.equals(contentType)
+			|| ContentTypes.IMAGE_PNG.equals(contentType)
+			|| ContentTypes.IMAGE_GIF.equals(contentType);
+	}
+
 	/**
 	 * Save relationships into the part.
 	 *
@@ -0,0 +1,159 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.apache.poi.util.TempFile;
+
+/**
+ * A ZipEntrySource, which spools a zip stream to a temporary file and
+ *  reads the entries from there on demand.
+ * In contrast to {@link ZipInputStreamZipEntrySource}, the decompressed
+ *  entries aren't kept in memory, which matters for large packages.
+ * The temporary file is deleted on {@link #close()}.
+ *
+ * {@link org.apache.poi.openxml4j.opc.OPCPackage#open(InputStream)} uses
+ *  this source for streams, which are larger than the threshold set via
+ *  {@link #setThresholdBytes(long)}.
+ *
+ * @since POI 3.16 beta 2
+ */
+public class TempFileZipEntrySource implements ZipEntrySource {
+    private static final POILogger LOG = POILogFactory.getLogger(TempFileZipEntrySource.class);
+
+    private static long THRESHOLD_BYTES = -1;
+
+    private final File tmpFile;
+    private final ZipFile zipFile;
+    private boolean closed;
+
+    /**
+     * Opens a temporary file, which contains a zip archive
+     *
+     * @param tmpFile the temporary file, which is deleted on close
+     */
+    public TempFileZipEntrySource(File tmpFile) throws IOException {
+        this.tmpFile = tmpFile;
+        this.zipFile = new ZipSecureFile(tmpFile);
+    }
+
+    /**
+     * Sets the size of package streams, from which on they are spooled to a temporary
+     *  file instead of being decompressed into memory. A stream is read into memory up
+     *  to the threshold, so smaller packages don't need a temporary file.
+     *
+     * @param thresholdBytes the size of the compressed stream in bytes, 0 to spool all
+     *  streams or -1 (the default) to keep all packages in memory
+     */
+    public static void setThresholdBytes(long thresholdBytes) {
+        THRESHOLD_BYTES = thresholdBytes;
+    }
+
+    /**
+     * @return the size of package streams, from which on they are spooled to a temporary
+     *  file, -1 if they are always kept in memory
+     *
+     * @see #setThresholdBytes(long)
+     */
+    public static long getThresholdBytes() {
+        return THRESHOLD_BYTES;
+    }
+
+    /**
+     * Copies the stream into a temporary file and opens it. The stream is closed.
+     *
+     * @param is the zip stream
+     * @return the entry source, which deletes the temporary file on close
+     */
+    public static TempFileZipEntrySource createZipEntrySource(InputStream is) throws IOException {
+        final File tmpFile = TempFile.createTempFile("poi-package", ".zip");
+        boolean success = false;
+        try {
+            FileOutputStream fos = new FileOutputStream(tmpFile);
+            try {
+                IOUtils.copy(is, fos);
+            } finally {
+                fos.close();
+            }
+            TempFileZipEntrySource source = new TempFileZipEntrySource(tmpFile);
+            success = true;
+            return source;
+        } finally {
+            IOUtils.closeQuietly(is);
+            if (!success) {
+                deleteTmpFile(tmpFile);
+            }
+        }
+    }
+
+    @Override
+    public Enumeration<? extends ZipEntry> getEntries() {
+        if (closed) {
+            throw new IllegalStateException("Zip File is closed");
+        }
+        return zipFile.entries();
+    }
+
+    @Override
+    public InputStream getInputStream(ZipEntry entry) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Zip File is closed");
+        }
+        return zipFile.getInputStream(entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                zipFile.close();
+            } finally {
+                deleteTmpFile(tmpFile);
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the temporary file
+     */
+    public File getTmpFile() {
+        return tmpFile;
+    }
+
+    private static void deleteTmpFile(File tmpFile) {
+        if (!tmpFile.delete()) {
+            LOG.log(POILogger.WARN, tmpFile.getAbsolutePath()+" can't be removed (or was already removed).");
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 
 import org.apache.poi.openxml4j.util.ZipSecureFile.ThresholdInputStream;
@@ -134,6 +135,12 @@ public class ZipInputStreamZipEntrySource implements ZipEntrySource {
 			}
 			
 			data = baos.toByteArray();
+
+			// the size and the CRC allow to copy the unmodified entry without compressing it
+			CRC32 crc = new CRC32();
+			crc.update(data);
+			setSize(data.length);
+			setCrc(crc.getValue());
 		}
 		
 		public InputStream getInputStream() {
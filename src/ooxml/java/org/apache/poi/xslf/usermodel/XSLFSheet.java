@@ -162,9 +162,11 @@ implements XSLFShapeContainer, Sheet<XSLFShape,XSLFTextParagraph> {
      * Helper method for initializing drawing and shapes in one go.
      * If they are initialized separately, there's a risk that shapes
      * get added twice, e.g. a shape is added to the drawing, then
-     * buildShapes is called and at last the shape is added to shape list
+     * buildShapes is called and at last the shape is added to shape list.
+     * It's synchronized, as master sheets are shared by slides which may be rendered
+     * concurrently.
      */
-    private void initDrawingAndShapes() {
+    private synchronized void initDrawingAndShapes() {
         CTGroupShape cgs = getSpTree();
         if(_drawing == null) {
             _drawing = new XSLFDrawing(this, cgs);
@@ -450,28 +452,33 @@ implements XSLFShapeContainer, Sheet<XSLFShape,XSLFTextParagraph> {
         return shape;
     }
 
-    void initPlaceholders() {
+    synchronized void initPlaceholders() {
         if(_placeholders == null) {
-            _placeholders = new ArrayList<XSLFTextShape>();
-            _placeholderByIdMap = new HashMap<Integer, XSLFSimpleShape>();
-            _placeholderByTypeMap = new HashMap<Integer, XSLFSimpleShape>();
+            // the lists are assigned after they are filled, to not expose them partly filled
+            List<XSLFTextShape> placeholders = new ArrayList<XSLFTextShape>();
+            Map<Integer, XSLFSimpleShape> placeholderByIdMap = new HashMap<Integer, XSLFSimpleShape>();
+            Map<Integer, XSLFSimpleShape> placeholderByTypeMap = new HashMap<Integer, XSLFSimpleShape>();
 
             for(XSLFShape sh : getShapes()){
                 if(sh instanceof XSLFTextShape){
                     XSLFTextShape sShape = (XSLFTextShape)sh;
                     CTPlaceholder ph = sShape.getCTPlaceholder();
                     if(ph != null) {
-                        _placeholders.add(sShape);
+                        placeholders.add(sShape);
                         if(ph.isSetIdx()) {
                             int idx = (int)ph.getIdx();
-                            _placeholderByIdMap.put(idx, sShape);
+                            placeholderByIdMap.put(idx, sShape);
                         }
                         if(ph.isSetType()){
-                            _placeholderByTypeMap.put(ph.getType().intValue(), sShape);
+                            placeholderByTypeMap.put(ph.getType().intValue(), sShape);
                         }
                     }
                 }
             }
+
+            _placeholderByIdMap = placeholderByIdMap;
+            _placeholderByTypeMap = placeholderByTypeMap;
+            _placeholders = placeholders;
         }
     }
 
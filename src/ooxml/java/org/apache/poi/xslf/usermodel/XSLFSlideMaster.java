@@ -94,15 +94,16 @@ import org.openxmlformats.schemas.presentationml.x2006.main.SldMasterDocument;
         return null;
     }
 
-    private Map<String, XSLFSlideLayout> getLayouts(){
+    private synchronized Map<String, XSLFSlideLayout> getLayouts(){
         if(_layouts == null){
-            _layouts = new HashMap<String, XSLFSlideLayout>();
+            Map<String, XSLFSlideLayout> layouts = new HashMap<String, XSLFSlideLayout>();
             for (POIXMLDocumentPart p : getRelations()) {
                 if (p instanceof XSLFSlideLayout){
                     XSLFSlideLayout layout = (XSLFSlideLayout)p;
-                    _layouts.put(layout.getName().toLowerCase(Locale.ROOT), layout);
+                    layouts.put(layout.getName().toLowerCase(Locale.ROOT), layout);
                 }
             }
+            _layouts = layouts;
         }
         return _layouts;
     }
@@ -112,7 +113,8 @@ import org.openxmlformats.schemas.presentationml.x2006.main.SldMasterDocument;
      * @return all slide layouts referencing this master
      */
     public XSLFSlideLayout[] getSlideLayouts() {
-        return getLayouts().values().toArray(new XSLFSlideLayout[_layouts.size()]);
+        Map<String, XSLFSlideLayout> layouts = getLayouts();
+        return layouts.values().toArray(new XSLFSlideLayout[layouts.size()]);
     }
 
     /**
@@ -144,15 +146,16 @@ import org.openxmlformats.schemas.presentationml.x2006.main.SldMasterDocument;
 
 
     @Override
-    public XSLFTheme getTheme(){
+    public synchronized XSLFTheme getTheme(){
         if(_theme == null){
             for (POIXMLDocumentPart p : getRelations()) {
                 if (p instanceof XSLFTheme){
-                    _theme = (XSLFTheme)p;
+                    XSLFTheme theme = (XSLFTheme)p;
                     CTColorMapping cmap = _slide.getClrMap();
                     if(cmap != null){
-                        _theme.initColorMap(cmap);
+                        theme.initColorMap(cmap);
                     }
+                    _theme = theme;
                     break;
                 }
             }
@@ -24,20 +24,31 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.imageio.ImageIO;
 
 import org.apache.poi.sl.draw.DrawFactory;
+import org.apache.poi.sl.draw.Drawable;
+import org.apache.poi.sl.draw.ImageCache;
 import org.apache.poi.sl.usermodel.Slide;
 import org.apache.poi.sl.usermodel.SlideShow;
 import org.apache.poi.sl.usermodel.SlideShowFactory;
 
 /**
- * An utility to convert slides of a .pptx slide show to a PNG image
+ * An utility to convert slides of a .pptx slide show to a PNG image.
+ * With the <code>-threads</code> option, the slides are rendered concurrently -
+ * each slide is drawn on its own image, the slide show is only read.
  *
  * @author Yegor Kozlov
  */
@@ -50,8 +61,9 @@ public class PPTX2PNG {
             "Options:\n" +
             "    -scale <float>   scale factor\n" +
             "    -slide <integer> 1-based index of a slide to render\n" +
-            "    -format <type>   png,gif,jpg (,null for testing)" +
-            "    -outdir <dir>    output directory, defaults to origin of the ppt/pptx file" +
+            "    -format <type>   png,gif,jpg (,null for testing)\n" +
+            "    -outdir <dir>    output directory, defaults to origin of the ppt/pptx file\n" +
+            "    -threads <int>   number of slides rendered in parallel, defaults to 1\n" +
             "    -quiet           do not write to console (for normal processing)";
 
         System.out.println(msg);
@@ -70,6 +82,7 @@ public class PPTX2PNG {
         String format = "png";
         File outdir = null;
         boolean quiet = false;
+        int threads = 1;
 
         for (int i = 0; i < args.length; i++) {
             if (args[i].startsWith("-")) {
@@ -81,6 +94,8 @@ public class PPTX2PNG {
                     format = args[++i];
                 } else if ("-outdir".equals(args[i])) {
                     outdir = new File(args[++i]);
+                } else if ("-threads".equals(args[i])) {
+                    threads = Integer.parseInt(args[++i]);
                 } else if ("-quiet".equals(args[i])) {
                     quiet = true;
                 }
@@ -112,6 +127,11 @@ public class PPTX2PNG {
             usage("Invalid scale given");
             return;
         }
+
+        if (threads < 1) {
+            usage("Invalid number of threads given");
+            return;
+        }
         
         if (!quiet) {
             System.out.println("Processing " + file);
@@ -130,39 +150,20 @@ public class PPTX2PNG {
             Dimension pgsize = ss.getPageSize();
             int width = (int) (pgsize.width * scale);
             int height = (int) (pgsize.height * scale);
+            String outname = file.getName().replaceFirst(".pptx?", "");
+            // pictures of the masters are only decoded once
+            ImageCache imageCache = new ImageCache();
 
-            for (Integer slideNo : slidenum) {
-                Slide<?, ?> slide = slides.get(slideNo);
-                String title = slide.getTitle();
-                if (!quiet) {
-                    System.out.println("Rendering slide " + slideNo + (title == null ? "" : ": " + title));
+            if (threads == 1) {
+                for (Integer slideNo : slidenum) {
+                    renderSlide(slides.get(slideNo), slideNo, width, height, scale, format, outdir, outname, quiet, imageCache);
                 }
+            } else {
+                renderSlides(slides, slidenum, width, height, scale, format, outdir, outname, quiet, threads, imageCache);
+            }
 
-                BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-                Graphics2D graphics = img.createGraphics();
-                DrawFactory.getInstance(graphics).fixFonts(graphics);
-
-                // default rendering options
-                graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-                graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-
-                graphics.scale(scale, scale);
-
-                // draw stuff
-                slide.draw(graphics);
-
-                // save the result
-                if (!"null".equals(format)) {
-                    String outname = file.getName().replaceFirst(".pptx?", "");
-                    outname = String.format(Locale.ROOT, "%1$s-%2$04d.%3$s", outname, slideNo, format);
-                    File outfile = new File(outdir, outname);
-                    ImageIO.write(img, format, outfile);
-                }
-                
-                graphics.dispose();
-                img.flush();
+            if (!quiet) {
+                System.out.println("Image cache: " + imageCache.getHitCount() + " hits, " + imageCache.getMissCount() + " misses");
             }
         } finally {
             ss.close();
@@ -173,6 +174,87 @@ public class PPTX2PNG {
         }
     }
     
+    /**
+     * Renders the slides on a pool of the given size. The slides are only read while
+     * they are drawn, each worker draws on its own image.
+     */
+    private static void renderSlides(final List<? extends Slide<?, ?>> slides, Set<Integer> slidenum,
+        final int width, final int height, final float scale, final String format,
+        final File outdir, final String outname, final boolean quiet, int threads, final ImageCache imageCache)
+    throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, slidenum.size()));
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (final Integer slideNo : slidenum) {
+                results.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        renderSlide(slides.get(slideNo), slideNo, width, height, scale, format, outdir, outname, quiet, imageCache);
+                        return null;
+                    }
+                }));
+            }
+
+            // wait for all slides, failures are reported in slide order
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Rendering was interrupted", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException)cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw new IOException(cause);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void renderSlide(Slide<?, ?> slide, int slideNo, int width, int height, float scale,
+        String format, File outdir, String outname, boolean quiet, ImageCache imageCache)
+    throws IOException {
+        String title = slide.getTitle();
+        if (!quiet) {
+            System.out.println("Rendering slide " + slideNo + (title == null ? "" : ": " + title));
+        }
+
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = img.createGraphics();
+        try {
+            DrawFactory.getInstance(graphics).fixFonts(graphics);
+
+            // default rendering options
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            graphics.setRenderingHint(Drawable.IMAGE_CACHE, imageCache);
+
+            graphics.scale(scale, scale);
+
+            // draw stuff
+            slide.draw(graphics);
+
+            // save the result
+            if (!"null".equals(format)) {
+                String filename = String.format(Locale.ROOT, "%1$s-%2$04d.%3$s", outname, slideNo, format);
+                File outfile = new File(outdir, filename);
+                ImageIO.write(img, format, outfile);
+            }
+        } finally {
+            graphics.dispose();
+            img.flush();
+        }
+    }
+
     private static Set<Integer> slideIndexes(final int slideCount, String range) {
         Set<Integer> slideIdx = new TreeSet<Integer>();
         if ("-1".equals(range)) {
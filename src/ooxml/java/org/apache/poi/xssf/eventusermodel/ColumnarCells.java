@@ -0,0 +1,314 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+/**
+ * The values of cells read from the sheet XML, which are kept in parallel arrays
+ * for {@link ColumnarSheet} and {@link XSSFRowCursor}.<p>
+ *
+ * Each cell has a type code with flags, a number (the numeric, boolean or error value),
+ * a string index and a style index. Shared strings are only looked up, and values are
+ * only formatted, when they are requested. The column and the formula of the cells are
+ * kept by the owner.
+ */
+abstract class ColumnarCells {
+    // the type of the value (or cached formula result) and the flags
+    private static final int TYPE_MASK = 0x0f;
+    private static final byte TYPE_NUMERIC = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_ERROR = 3;
+    private static final byte TYPE_BLANK = 4;
+    // the cell types by the type codes above
+    private static final CellType[] CELL_TYPES = {
+        CellType.NUMERIC, CellType.STRING, CellType.BOOLEAN, CellType.ERROR, CellType.BLANK
+    };
+    private static final int FORMULA_FLAG = 0x10;
+    // the string is stored in localStrings instead of the shared strings table
+    private static final int LOCAL_STRING_FLAG = 0x20;
+
+    private final ReadOnlySharedStringsTable strings;
+    private final StylesTable styles;
+    private final boolean date1904;
+
+    private int count;
+    private byte[] types;
+    private double[] numbers;
+    private int[] stringIndexes;
+    private int[] styleIndexes;
+
+    // the inline strings and string results of formulas
+    private final List<String> localStrings = new ArrayList<String>();
+
+    /**
+     * @param strings the shared strings table
+     * @param styles the styles table, may be {@code null}
+     * @param date1904 true, if the workbook uses the 1904 date system
+     * @param capacity the initial number of cells
+     */
+    ColumnarCells(ReadOnlySharedStringsTable strings, StylesTable styles, boolean date1904, int capacity) {
+        this.strings = strings;
+        this.styles = styles;
+        this.date1904 = date1904;
+        types = new byte[capacity];
+        numbers = new double[capacity];
+        stringIndexes = new int[capacity];
+        styleIndexes = new int[capacity];
+    }
+
+    /**
+     * @return the reference of the cell, e.g. "A1", for error messages
+     */
+    abstract String getReference(int idx);
+
+    /**
+     * @return true, if the workbook uses the 1904 date system
+     */
+    boolean isDate1904() {
+        return date1904;
+    }
+
+    /**
+     * @return the number of cells
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Adds a cell with a numeric value of 0
+     *
+     * @return the index of the new cell
+     */
+    int add(int styleIndex) {
+        if (count == types.length) {
+            int capacity = count * 2;
+            types = Arrays.copyOf(types, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            stringIndexes = Arrays.copyOf(stringIndexes, capacity);
+            styleIndexes = Arrays.copyOf(styleIndexes, capacity);
+        }
+        types[count] = TYPE_NUMERIC;
+        numbers[count] = 0;
+        styleIndexes[count] = styleIndex;
+        return count++;
+    }
+
+    /**
+     * Removes all cells, but keeps the arrays for reuse
+     */
+    void clear() {
+        count = 0;
+        localStrings.clear();
+    }
+
+    /**
+     * Shrinks the arrays to the number of cells
+     */
+    void trim() {
+        types = Arrays.copyOf(types, count);
+        numbers = Arrays.copyOf(numbers, count);
+        stringIndexes = Arrays.copyOf(stringIndexes, count);
+        styleIndexes = Arrays.copyOf(styleIndexes, count);
+    }
+
+    /**
+     * Marks the cell as formula cell, the formula itself is kept by the owner
+     */
+    void setFormula(int idx) {
+        types[idx] |= FORMULA_FLAG;
+    }
+
+    /**
+     * Sets the value of the v element of the cell
+     *
+     * @param cellType the t attribute of the cell, may be {@code null}
+     * @param value the text of the v element
+     */
+    void setValue(int idx, String cellType, String value) {
+        int type;
+        if (cellType == null || "n".equals(cellType)) {
+            type = TYPE_NUMERIC;
+            numbers[idx] = value.length() == 0 ? 0 : Double.parseDouble(value);
+        } else if ("s".equals(cellType)) {
+            type = TYPE_STRING;
+            stringIndexes[idx] = Integer.parseInt(value);
+        } else if ("b".equals(cellType)) {
+            type = TYPE_BOOLEAN;
+            numbers[idx] = "1".equals(value) || "true".equals(value) ? 1 : 0;
+        } else if ("e".equals(cellType)) {
+            type = TYPE_ERROR;
+            numbers[idx] = FormulaError.forString(value).getCode();
+        } else {
+            // str, inlineStr with a value or d (ISO 8601 date)
+            type = TYPE_STRING | LOCAL_STRING_FLAG;
+            stringIndexes[idx] = addLocalString(value);
+        }
+        setType(idx, type);
+    }
+
+    /**
+     * Sets the text of the is element of a cell without v element
+     */
+    void setInlineString(int idx, String value) {
+        stringIndexes[idx] = addLocalString(value);
+        setType(idx, TYPE_STRING | LOCAL_STRING_FLAG);
+    }
+
+    /**
+     * Sets the type of a cell without v and is element, i.e. of a blank cell
+     * or a formula cell without cached result
+     *
+     * @param cellType the t attribute of the cell, may be {@code null}
+     */
+    void setNoValue(int idx, String cellType) {
+        int type;
+        if (isFormula(idx)) {
+            if ("str".equals(cellType)) {
+                type = TYPE_STRING | LOCAL_STRING_FLAG;
+                stringIndexes[idx] = addLocalString("");
+            } else if ("b".equals(cellType)) {
+                type = TYPE_BOOLEAN;
+            } else {
+                type = TYPE_NUMERIC;
+            }
+        } else {
+            type = TYPE_BLANK;
+        }
+        setType(idx, type);
+    }
+
+    boolean isFormula(int idx) {
+        return (types[idx] & FORMULA_FLAG) != 0;
+    }
+
+    CellType getCellTypeEnum(int idx) {
+        return isFormula(idx) ? CellType.FORMULA : getCachedFormulaResultTypeEnum(idx);
+    }
+
+    CellType getCachedFormulaResultTypeEnum(int idx) {
+        return CELL_TYPES[types[idx] & TYPE_MASK];
+    }
+
+    double getNumericCellValue(int idx) {
+        CellType type = getCachedFormulaResultTypeEnum(idx);
+        if (type != CellType.NUMERIC && type != CellType.BLANK) {
+            throw typeMismatch(idx, CellType.NUMERIC);
+        }
+        return numbers[idx];
+    }
+
+    Date getDateCellValue(int idx) {
+        if (getCachedFormulaResultTypeEnum(idx) == CellType.BLANK) {
+            return null;
+        }
+        return DateUtil.getJavaDate(getNumericCellValue(idx), date1904);
+    }
+
+    String getStringCellValue(int idx) {
+        switch (getCachedFormulaResultTypeEnum(idx)) {
+            case BLANK:
+                return "";
+            case STRING:
+                int sIdx = stringIndexes[idx];
+                return ((types[idx] & LOCAL_STRING_FLAG) != 0)
+                    ? localStrings.get(sIdx) : strings.getEntryAt(sIdx);
+            default:
+                throw typeMismatch(idx, CellType.STRING);
+        }
+    }
+
+    int getSharedStringIndex(int idx) {
+        if (getCachedFormulaResultTypeEnum(idx) != CellType.STRING || (types[idx] & LOCAL_STRING_FLAG) != 0) {
+            return -1;
+        }
+        return stringIndexes[idx];
+    }
+
+    boolean getBooleanCellValue(int idx) {
+        switch (getCachedFormulaResultTypeEnum(idx)) {
+            case BLANK:
+                return false;
+            case BOOLEAN:
+                return numbers[idx] != 0;
+            default:
+                throw typeMismatch(idx, CellType.BOOLEAN);
+        }
+    }
+
+    byte getErrorCellValue(int idx) {
+        if (getCachedFormulaResultTypeEnum(idx) != CellType.ERROR) {
+            throw typeMismatch(idx, CellType.ERROR);
+        }
+        return (byte)numbers[idx];
+    }
+
+    int getStyleIndex(int idx) {
+        return styleIndexes[idx];
+    }
+
+    XSSFCellStyle getCellStyle(int idx) {
+        return (styles == null) ? null : styles.getStyleAt(styleIndexes[idx]);
+    }
+
+    String getFormattedValue(int idx, DataFormatter formatter) {
+        switch (getCachedFormulaResultTypeEnum(idx)) {
+            case NUMERIC:
+                XSSFCellStyle style = getCellStyle(idx);
+                if (style == null) {
+                    return formatter.formatRawCellContents(numbers[idx], 0, "General", date1904);
+                }
+                return formatter.formatRawCellContents(numbers[idx],
+                    style.getDataFormat(), style.getDataFormatString(), date1904);
+            case STRING:
+                return getStringCellValue(idx);
+            case BOOLEAN:
+                return getBooleanCellValue(idx) ? "TRUE" : "FALSE";
+            case ERROR:
+                return FormulaError.forInt(getErrorCellValue(idx)).getString();
+            default:
+                return "";
+        }
+    }
+
+    private void setType(int idx, int type) {
+        types[idx] = (byte)((types[idx] & FORMULA_FLAG) | type);
+    }
+
+    private int addLocalString(String str) {
+        localStrings.add(str);
+        return localStrings.size()-1;
+    }
+
+    private IllegalStateException typeMismatch(int idx, CellType expected) {
+        return new IllegalStateException("Cannot get a " + expected + " value from a "
+            + getCachedFormulaResultTypeEnum(idx) + " cell " + getReference(idx));
+    }
+}
@@ -0,0 +1,588 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A read-only sheet, which keeps the cell values in compact arrays instead of
+ * {@link org.apache.poi.xssf.usermodel.XSSFRow XSSFRow}s and
+ * {@link org.apache.poi.xssf.usermodel.XSSFCell XSSFCell}s backed by XmlBeans.<p>
+ *
+ * The sheet XML is parsed via SAX. Per cell only the column, the type, the numeric
+ * value, the index of the string and the style index are stored, which needs about
+ * 20 bytes per cell. The strings are looked up in the shared strings table when
+ * they are accessed. {@link Row} and {@link Cell} are lightweight views on the arrays.<p>
+ *
+ * Limitations:
+ * <ul>
+ *   <li>Only the cell contents are read, e.g. no merged regions, comments or row heights.</li>
+ *   <li>For cells which are part of a shared formula, only the first cell has the formula
+ *    text. The formula isn't translated for the other cells, as there is no workbook to
+ *    parse it, their formula is {@code null}.</li>
+ * </ul>
+ *
+ * @see ColumnarWorkbook
+ * @since POI 3.16 beta 2
+ */
+public class ColumnarSheet implements Iterable<ColumnarSheet.Row> {
+    private final String sheetName;
+
+    // rows
+    private int rowCount;
+    private int[] rowNums = new int[16];
+    private int[] rowStarts = new int[16];
+
+    // cells, ordered by row and column
+    private int cellCount;
+    private short[] columns = new short[64];
+    private final ColumnarCells cells;
+
+    // sparse data
+    private final Map<Integer,String> formulas = new HashMap<Integer,String>();
+
+    /**
+     * Reads the cells of a sheet
+     *
+     * @param sheetName the name of the sheet
+     * @param sheetXml the stream of the sheet XML, it's not closed
+     * @param strings the shared strings table
+     * @param styles the styles table, may be {@code null}
+     * @param date1904 true, if the workbook uses the 1904 date system
+     * @throws IOException if the stream can't be read
+     * @throws SAXException if the sheet XML is invalid
+     */
+    public ColumnarSheet(String sheetName, InputStream sheetXml, ReadOnlySharedStringsTable strings,
+            StylesTable styles, boolean date1904) throws IOException, SAXException {
+        this.sheetName = sheetName;
+        this.cells = new ColumnarCells(strings, styles, date1904, columns.length) {
+            @Override
+            String getReference(int idx) {
+                return ColumnarSheet.this.getReference(idx);
+            }
+        };
+
+        try {
+            XMLReader sheetParser = SAXHelper.newXMLReader();
+            sheetParser.setContentHandler(new SheetHandler());
+            sheetParser.parse(new InputSource(sheetXml));
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        }
+        trim();
+    }
+
+    /**
+     * @return the name of the sheet
+     */
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return the number of the rows with cells or other row properties in the file
+     */
+    public int getPhysicalNumberOfRows() {
+        return rowCount;
+    }
+
+    /**
+     * @return the number of the cells
+     */
+    public int getPhysicalNumberOfCells() {
+        return cellCount;
+    }
+
+    /**
+     * @return the 0-based index of the first row, 0 if the sheet is empty
+     */
+    public int getFirstRowNum() {
+        return (rowCount == 0) ? 0 : rowNums[0];
+    }
+
+    /**
+     * @return the 0-based index of the last row, 0 if the sheet is empty
+     */
+    public int getLastRowNum() {
+        return (rowCount == 0) ? 0 : rowNums[rowCount-1];
+    }
+
+    /**
+     * @param rownum the 0-based row index
+     * @return the row or {@code null}, if it isn't defined
+     */
+    public Row getRow(int rownum) {
+        int pos = Arrays.binarySearch(rowNums, 0, rowCount, rownum);
+        return (pos < 0) ? null : new Row(pos);
+    }
+
+    /**
+     * @return an iterator over the defined rows in ascending order
+     */
+    public Iterator<Row> rowIterator() {
+        return new Iterator<Row>() {
+            private int pos = 0;
+
+            public boolean hasNext() {
+                return pos < rowCount;
+            }
+
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new Row(pos++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException("read-only");
+            }
+        };
+    }
+
+    /**
+     * Alias for {@link #rowIterator()} to allow foreach loops
+     */
+    public Iterator<Row> iterator() {
+        return rowIterator();
+    }
+
+    /**
+     * @return true, if the workbook uses the 1904 date system
+     */
+    public boolean isDate1904() {
+        return cells.isDate1904();
+    }
+
+    /**
+     * A row of the sheet, which is a view on the arrays of the sheet
+     */
+    public final class Row implements Iterable<Cell> {
+        private final int pos;
+
+        private Row(int pos) {
+            this.pos = pos;
+        }
+
+        /**
+         * @return the 0-based row index
+         */
+        public int getRowNum() {
+            return rowNums[pos];
+        }
+
+        /**
+         * @return the 0-based index of the first cell, -1 if the row has no cells
+         */
+        public short getFirstCellNum() {
+            return (start() == end()) ? -1 : columns[start()];
+        }
+
+        /**
+         * @return the index of the last cell plus one, -1 if the row has no cells
+         */
+        public short getLastCellNum() {
+            return (start() == end()) ? -1 : (short)(columns[end()-1] + 1);
+        }
+
+        /**
+         * @return the number of the defined cells
+         */
+        public int getPhysicalNumberOfCells() {
+            return end() - start();
+        }
+
+        /**
+         * @param cellnum the 0-based column index
+         * @return the cell or {@code null}, if it isn't defined
+         */
+        public Cell getCell(int cellnum) {
+            if (cellnum < 0 || cellnum > Short.MAX_VALUE) {
+                return null;
+            }
+            int idx = Arrays.binarySearch(columns, start(), end(), (short)cellnum);
+            return (idx < 0) ? null : new Cell(idx, getRowNum());
+        }
+
+        /**
+         * @return an iterator over the defined cells in ascending order
+         */
+        public Iterator<Cell> cellIterator() {
+            return new Iterator<Cell>() {
+                private int idx = start();
+
+                public boolean hasNext() {
+                    return idx < end();
+                }
+
+                public Cell next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new Cell(idx++, getRowNum());
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException("read-only");
+                }
+            };
+        }
+
+        /**
+         * Alias for {@link #cellIterator()} to allow foreach loops
+         */
+        public Iterator<Cell> iterator() {
+            return cellIterator();
+        }
+
+        private int start() {
+            return rowStarts[pos];
+        }
+
+        private int end() {
+            return (pos+1 < rowCount) ? rowStarts[pos+1] : cellCount;
+        }
+    }
+
+    /**
+     * A cell of the sheet, which is a view on the arrays of the sheet
+     */
+    public final class Cell {
+        private final int idx;
+        private final int rowNum;
+
+        private Cell(int idx, int rowNum) {
+            this.idx = idx;
+            this.rowNum = rowNum;
+        }
+
+        /**
+         * @return the 0-based row index
+         */
+        public int getRowIndex() {
+            return rowNum;
+        }
+
+        /**
+         * @return the 0-based column index
+         */
+        public int getColumnIndex() {
+            return columns[idx];
+        }
+
+        /**
+         * @return the type of the cell, {@link CellType#FORMULA} for formula cells
+         */
+        public CellType getCellTypeEnum() {
+            return cells.getCellTypeEnum(idx);
+        }
+
+        /**
+         * @return the type of the value, for formula cells the type of the cached result
+         */
+        public CellType getCachedFormulaResultTypeEnum() {
+            return cells.getCachedFormulaResultTypeEnum(idx);
+        }
+
+        /**
+         * @return the formula, without the leading '=', or {@code null}
+         */
+        public String getCellFormula() {
+            return cells.isFormula(idx) ? formulas.get(idx) : null;
+        }
+
+        /**
+         * @return the numeric value, 0 for cells without a numeric value
+         * @throws IllegalStateException if the value is a string, boolean or error
+         */
+        public double getNumericCellValue() {
+            return cells.getNumericCellValue(idx);
+        }
+
+        /**
+         * @return the numeric value as date, {@code null} for blank cells
+         */
+        public Date getDateCellValue() {
+            return cells.getDateCellValue(idx);
+        }
+
+        /**
+         * @return the string value, the empty string for blank cells
+         * @throws IllegalStateException if the value is numeric, boolean or error
+         */
+        public String getStringCellValue() {
+            return cells.getStringCellValue(idx);
+        }
+
+        /**
+         * @return the boolean value, false for blank cells
+         * @throws IllegalStateException if the value is numeric, string or error
+         */
+        public boolean getBooleanCellValue() {
+            return cells.getBooleanCellValue(idx);
+        }
+
+        /**
+         * @return the error code, see {@link FormulaError}
+         * @throws IllegalStateException if the value isn't an error
+         */
+        public byte getErrorCellValue() {
+            return cells.getErrorCellValue(idx);
+        }
+
+        /**
+         * @return the index of the cell style
+         */
+        public int getStyleIndex() {
+            return cells.getStyleIndex(idx);
+        }
+
+        /**
+         * @return the cell style or {@code null}, if no styles table is available
+         */
+        public XSSFCellStyle getCellStyle() {
+            return cells.getCellStyle(idx);
+        }
+
+        /**
+         * Formats the value like {@link DataFormatter#formatCellValue(org.apache.poi.ss.usermodel.Cell)}
+         * without evaluating formulas, i.e. the cached result is formatted
+         *
+         * @param formatter the formatter for numeric values
+         * @return the formatted value
+         */
+        public String getFormattedValue(DataFormatter formatter) {
+            return cells.getFormattedValue(idx, formatter);
+        }
+
+        /**
+         * @return the reference of the cell, e.g. "A1"
+         */
+        public String getReference() {
+            return new CellReference(rowNum, getColumnIndex()).formatAsString();
+        }
+
+        @Override
+        public String toString() {
+            return getReference();
+        }
+    }
+
+    private void addRow(int rownum) {
+        if (rowCount > 0 && rownum <= rowNums[rowCount-1]) {
+            throw new IllegalArgumentException("Rows must be in ascending order, found row "
+                + (rownum+1) + " after row " + (rowNums[rowCount-1]+1) + " in sheet " + sheetName);
+        }
+        if (rowCount == rowNums.length) {
+            int capacity = rowCount * 2;
+            rowNums = Arrays.copyOf(rowNums, capacity);
+            rowStarts = Arrays.copyOf(rowStarts, capacity);
+        }
+        rowNums[rowCount] = rownum;
+        rowStarts[rowCount] = cellCount;
+        rowCount++;
+    }
+
+    private int addCell(int column, int styleIndex) {
+        if (cellCount > rowStarts[rowCount-1] && column <= columns[cellCount-1]) {
+            throw new IllegalArgumentException("Cells must be in ascending order, found column "
+                + column + " after column " + columns[cellCount-1] + " in row " + (rowNums[rowCount-1]+1));
+        }
+        if (cellCount == columns.length) {
+            columns = Arrays.copyOf(columns, cellCount * 2);
+        }
+        columns[cellCount] = (short)column;
+        cells.add(styleIndex);
+        return cellCount++;
+    }
+
+    private void trim() {
+        rowNums = Arrays.copyOf(rowNums, rowCount);
+        rowStarts = Arrays.copyOf(rowStarts, rowCount);
+        columns = Arrays.copyOf(columns, cellCount);
+        cells.trim();
+    }
+
+    /**
+     * @return the reference of the cell at the given index of the cell arrays
+     */
+    private String getReference(int idx) {
+        // the last row starting at or before the cell - rows without cells start at the same index
+        int low = 0;
+        int high = rowCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (rowStarts[mid] <= idx) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return new CellReference(rowNums[low], columns[idx]).formatAsString();
+    }
+
+    /**
+     * Parses the sheetData element into the arrays
+     */
+    private class SheetHandler extends DefaultHandler {
+        private final StringBuilder text = new StringBuilder();
+        private boolean collect;
+        private boolean inInlineString;
+        private boolean inPhonetic;
+
+        private int nextRow;
+        private int nextColumn;
+
+        // the current cell
+        private int cellIdx = -1;
+        private String cellType;
+        private boolean hasValue;
+        private String inlineString;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            if ("row".equals(localName)) {
+                String r = attributes.getValue("r");
+                int rownum = (r == null) ? nextRow : Integer.parseInt(r) - 1;
+                addRow(rownum);
+                nextRow = rownum + 1;
+                nextColumn = 0;
+            } else if ("c".equals(localName)) {
+                String ref = attributes.getValue("r");
+                int column = (ref == null) ? nextColumn : parseColumn(ref);
+                nextColumn = column + 1;
+                String s = attributes.getValue("s");
+                cellIdx = addCell(column, (s == null) ? 0 : Integer.parseInt(s));
+                cellType = attributes.getValue("t");
+                hasValue = false;
+                inlineString = null;
+            } else if (cellIdx >= 0) {
+                if ("v".equals(localName)) {
+                    startText();
+                } else if ("f".equals(localName)) {
+                    cells.setFormula(cellIdx);
+                    startText();
+                } else if ("is".equals(localName)) {
+                    inInlineString = true;
+                    text.setLength(0);
+                } else if ("rPh".equals(localName)) {
+                    inPhonetic = true;
+                } else if ("t".equals(localName) && inInlineString && !inPhonetic) {
+                    collect = true;
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            if ("c".equals(localName)) {
+                endCell();
+                cellIdx = -1;
+            } else if (cellIdx >= 0) {
+                if ("v".equals(localName)) {
+                    setValue(text.toString());
+                    collect = false;
+                } else if ("f".equals(localName)) {
+                    if (text.length() > 0) {
+                        formulas.put(cellIdx, text.toString());
+                    }
+                    collect = false;
+                } else if ("is".equals(localName)) {
+                    inlineString = text.toString();
+                    inInlineString = false;
+                } else if ("rPh".equals(localName)) {
+                    inPhonetic = false;
+                } else if ("t".equals(localName)) {
+                    collect = false;
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collect) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void startText() {
+            text.setLength(0);
+            collect = true;
+        }
+
+        private void setValue(String value) {
+            hasValue = true;
+            cells.setValue(cellIdx, cellType, value);
+        }
+
+        private void endCell() {
+            if (hasValue) {
+                return;
+            }
+            if (inlineString != null) {
+                cells.setInlineString(cellIdx, inlineString);
+            } else {
+                cells.setNoValue(cellIdx, cellType);
+            }
+        }
+
+        private int parseColumn(String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char c = ref.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.POIXMLTypeLoader.DEFAULT_XML_OPTIONS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.SAXException;
+
+/**
+ * A read-only workbook, which loads the cells of all sheets into {@link ColumnarSheet}s.<p>
+ *
+ * This is an alternative to {@link XSSFWorkbook} for reading the cell values of
+ * large workbooks: the cells need a fraction of the memory of the XmlBeans based
+ * usermodel, while they can still be accessed randomly. Only the shared strings,
+ * the styles and the cell contents are read, the workbook can't be modified.<p>
+ *
+ * The package isn't closed by this class.
+ *
+ * @since POI 3.16 beta 2
+ */
+public class ColumnarWorkbook {
+    private final ReadOnlySharedStringsTable strings;
+    private final StylesTable styles;
+    private final boolean date1904;
+    private final List<ColumnarSheet> sheets = new ArrayList<ColumnarSheet>();
+
+    /**
+     * Reads the cells of all sheets of the package
+     *
+     * @param pkg the package of the workbook
+     */
+    public ColumnarWorkbook(OPCPackage pkg) throws IOException, OpenXML4JException, SAXException {
+        this(pkg, new ReadOnlySharedStringsTable(pkg));
+    }
+
+    /**
+     * Reads the cells of all sheets of the package
+     *
+     * @param pkg the package of the workbook
+     * @param strings the shared strings table, e.g. an {@link OffHeapSharedStringsTable}
+     */
+    public ColumnarWorkbook(OPCPackage pkg, ReadOnlySharedStringsTable strings)
+    throws IOException, OpenXML4JException, SAXException {
+        XSSFReader reader = new XSSFReader(pkg);
+        this.strings = strings;
+        this.styles = reader.getStylesTable();
+        this.date1904 = readDate1904(reader);
+
+        XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator)reader.getSheetsData();
+        while (iter.hasNext()) {
+            InputStream stream = iter.next();
+            try {
+                sheets.add(new ColumnarSheet(iter.getSheetName(), stream, strings, styles, date1904));
+            } finally {
+                stream.close();
+            }
+        }
+    }
+
+    private static boolean readDate1904(XSSFReader reader) throws IOException, OpenXML4JException {
+        InputStream is = reader.getWorkbookData();
+        try {
+            CTWorkbookPr workbookPr = WorkbookDocument.Factory.parse(is, DEFAULT_XML_OPTIONS).getWorkbook().getWorkbookPr();
+            return workbookPr != null && workbookPr.getDate1904();
+        } catch (XmlException e) {
+            throw new IOException(e.getLocalizedMessage(), e);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * @return the number of sheets
+     */
+    public int getNumberOfSheets() {
+        return sheets.size();
+    }
+
+    /**
+     * @param index the 0-based index of the sheet
+     * @return the sheet
+     */
+    public ColumnarSheet getSheetAt(int index) {
+        return sheets.get(index);
+    }
+
+    /**
+     * @param name the name of the sheet, case-insensitive
+     * @return the sheet or {@code null}, if there's no sheet with this name
+     */
+    public ColumnarSheet getSheet(String name) {
+        for (ColumnarSheet sheet : sheets) {
+            if (sheet.getSheetName().equalsIgnoreCase(name)) {
+                return sheet;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param index the 0-based index of the sheet
+     * @return the name of the sheet
+     */
+    public String getSheetName(int index) {
+        return sheets.get(index).getSheetName();
+    }
+
+    /**
+     * @return the sheets in workbook order
+     */
+    public List<ColumnarSheet> getSheets() {
+        return Collections.unmodifiableList(sheets);
+    }
+
+    /**
+     * @return the shared strings table
+     */
+    public ReadOnlySharedStringsTable getSharedStringsTable() {
+        return strings;
+    }
+
+    /**
+     * @return the styles table
+     */
+    public StylesTable getStylesTable() {
+        return styles;
+    }
+
+    /**
+     * @return true, if the workbook uses the 1904 date system
+     */
+    public boolean isDate1904() {
+        return date1904;
+    }
+}
@@ -0,0 +1,311 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.poifs.nio.FileBackedDataSource;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.apache.poi.util.StringUtil;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.SAXException;
+
+/**
+ * A {@link ReadOnlySharedStringsTable} which keeps the strings outside of the Java heap,
+ * for workbooks whose shared strings don't fit into the heap. It can be passed to
+ * {@link XSSFSheetXMLHandler} like any other {@link ReadOnlySharedStringsTable}.<p/>
+ *
+ * The strings are stored as UTF-8 bytes, either in direct buffers or in a temporary
+ * file which is memory mapped for reading. Only the offsets of the strings are kept
+ * on the heap, and {@link #getEntryAt(int)} decodes the requested string on each call.<p/>
+ *
+ * The table has to be closed to release the buffers or delete the temporary file.
+ *
+ * @since POI 3.16 beta 2
+ */
+public class OffHeapSharedStringsTable extends ReadOnlySharedStringsTable implements Closeable {
+    private final StringStore store;
+
+    /**
+     * @param pkg The {@link OPCPackage} to use as basis for the shared-strings table.
+     * @param useTempFile <code>true</code> to store the strings in a temporary file,
+     *  <code>false</code> to store them in direct buffers
+     * @throws IOException If reading the data from the package fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public OffHeapSharedStringsTable(OPCPackage pkg, boolean useTempFile)
+            throws IOException, SAXException {
+        this(new StringStore(useTempFile));
+        boolean read = false;
+        try {
+            ArrayList<PackagePart> parts =
+                    pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            // Some workbooks have no shared strings table.
+            if (parts.size() > 0) {
+                readFrom(parts.get(0).getInputStream());
+            }
+            read = true;
+        } finally {
+            if (!read) {
+                // release the buffers or the temporary file of the partially read strings
+                IOUtils.closeQuietly(store);
+            }
+        }
+    }
+
+    /**
+     * @param part the shared strings part
+     * @param useTempFile <code>true</code> to store the strings in a temporary file,
+     *  <code>false</code> to store them in direct buffers
+     * @throws IOException If reading the data from the package fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public OffHeapSharedStringsTable(PackagePart part, boolean useTempFile)
+            throws IOException, SAXException {
+        this(new StringStore(useTempFile));
+        boolean read = false;
+        try {
+            readFrom(part.getInputStream());
+            read = true;
+        } finally {
+            if (!read) {
+                IOUtils.closeQuietly(store);
+            }
+        }
+    }
+
+    private OffHeapSharedStringsTable(StringStore store) {
+        super(store);
+        this.store = store;
+    }
+
+    /**
+     * @return whether the strings are stored in a temporary file
+     */
+    public boolean isTempFileBacked() {
+        return store.useTempFile;
+    }
+
+    /**
+     * Releases the buffers or deletes the temporary file. The strings can't be read afterwards.
+     */
+    public void close() throws IOException {
+        store.close();
+    }
+
+    /**
+     * The strings as UTF-8 bytes in fixed size direct buffers or in a temporary file,
+     * and the offsets where each string ends
+     */
+    private static final class StringStore extends AbstractList<String> implements Closeable {
+        private static final POILogger logger = POILogFactory.getLogger(StringStore.class);
+
+        /** the size of the direct buffers */
+        private static final int CHUNK_SIZE = 1 << 20;
+        /** the size of the buffer for the bytes which aren't written to the temporary file yet */
+        private static final int PENDING_SIZE = 1 << 16;
+
+        private final boolean useTempFile;
+
+        private long[] ends = new long[64];
+        private int size;
+        /** the total number of bytes */
+        private long length;
+
+        /** the direct buffers, if no temporary file is used */
+        private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+
+        private File tempFile;
+        private RandomAccessFile raf;
+        /** the memory mapped view of the temporary file, created when the first string is read */
+        private FileBackedDataSource source;
+        private final byte[] pending;
+        private int pendingCount;
+
+        StringStore(boolean useTempFile) {
+            this.useTempFile = useTempFile;
+            this.pending = useTempFile ? new byte[PENDING_SIZE] : null;
+        }
+
+        @Override
+        public boolean add(String s) {
+            byte[] bytes = s.getBytes(StringUtil.UTF8);
+            try {
+                if (useTempFile) {
+                    appendToFile(bytes);
+                } else {
+                    appendToChunks(bytes);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to store the shared strings in a temporary file", e);
+            }
+            if (size == ends.length) {
+                long[] newEnds = new long[size * 2];
+                System.arraycopy(ends, 0, newEnds, 0, size);
+                ends = newEnds;
+            }
+            ends[size++] = length;
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            long start = index == 0 ? 0 : ends[index - 1];
+            byte[] bytes = new byte[(int) (ends[index] - start)];
+            try {
+                if (useTempFile) {
+                    readFromFile(start, bytes);
+                } else {
+                    readFromChunks(start, bytes);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read the shared strings from a temporary file", e);
+            }
+            return new String(bytes, StringUtil.UTF8);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to delete the temporary file", e);
+            }
+            modCount++;
+        }
+
+        private void appendToChunks(byte[] bytes) {
+            int done = 0;
+            while (done < bytes.length) {
+                int chunkIndex = (int) (length / CHUNK_SIZE);
+                int offset = (int) (length % CHUNK_SIZE);
+                if (chunkIndex == chunks.size()) {
+                    chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+                }
+                int count = Math.min(bytes.length - done, CHUNK_SIZE - offset);
+                ByteBuffer chunk = chunks.get(chunkIndex).duplicate();
+                chunk.position(offset);
+                chunk.put(bytes, done, count);
+                done += count;
+                length += count;
+            }
+        }
+
+        private void readFromChunks(long start, byte[] bytes) {
+            int done = 0;
+            long position = start;
+            while (done < bytes.length) {
+                int offset = (int) (position % CHUNK_SIZE);
+                int count = Math.min(bytes.length - done, CHUNK_SIZE - offset);
+                ByteBuffer chunk = chunks.get((int) (position / CHUNK_SIZE)).duplicate();
+                chunk.position(offset);
+                chunk.get(bytes, done, count);
+                done += count;
+                position += count;
+            }
+        }
+
+        private void appendToFile(byte[] bytes) throws IOException {
+            if (pendingCount + bytes.length > pending.length) {
+                flush();
+            }
+            if (bytes.length > pending.length) {
+                writeToFile(ByteBuffer.wrap(bytes));
+            } else {
+                System.arraycopy(bytes, 0, pending, pendingCount, bytes.length);
+                pendingCount += bytes.length;
+            }
+            length += bytes.length;
+        }
+
+        private void readFromFile(long start, byte[] bytes) throws IOException {
+            if (bytes.length == 0) {
+                return;
+            }
+            if (start + bytes.length > length - pendingCount) {
+                flush();
+            }
+            if (source == null) {
+                source = new FileBackedDataSource(raf.getChannel(), true, true);
+            }
+            // a mapped slice, unless the string spans two windows or was added after mapping
+            source.read(bytes.length, start).get(bytes);
+        }
+
+        private void flush() throws IOException {
+            if (pendingCount > 0) {
+                writeToFile(ByteBuffer.wrap(pending, 0, pendingCount));
+                pendingCount = 0;
+            }
+        }
+
+        private void writeToFile(ByteBuffer bytes) throws IOException {
+            if (raf == null) {
+                tempFile = TempFile.createTempFile("poi-sharedstrings", ".tmp");
+                raf = new RandomAccessFile(tempFile, "rw");
+            }
+            long position = length - pendingCount;
+            while (bytes.hasRemaining()) {
+                position += raf.getChannel().write(bytes, position);
+            }
+        }
+
+        public void close() throws IOException {
+            size = 0;
+            length = 0;
+            pendingCount = 0;
+            // direct buffers are released by the garbage collector
+            chunks.clear();
+            if (source != null) {
+                // unmaps the file and closes the channel
+                source.close();
+                source = null;
+            }
+            if (raf != null) {
+                raf.close();
+                raf = null;
+            }
+            if (tempFile != null) {
+                if (!tempFile.delete()) {
+                    logger.log(POILogger.WARN, "Failed to delete the temporary file " + tempFile);
+                }
+                tempFile = null;
+            }
+        }
+    }
+}
@@ -95,6 +95,11 @@ public class ReadOnlySharedStringsTable extends DefaultHandler {
      */
     private List<String> strings;
 
+    /**
+     * The list the strings are stored in, <code>null</code> to store them in an {@link ArrayList}
+     */
+    private final List<String> stringStore;
+
     /**
      * @param pkg The {@link OPCPackage} to use as basis for the shared-strings table.
      * @throws IOException If reading the data from the package fails.
@@ -102,6 +107,7 @@ public class ReadOnlySharedStringsTable extends DefaultHandler {
      */
     public ReadOnlySharedStringsTable(OPCPackage pkg)
             throws IOException, SAXException {
+        this.stringStore = null;
         ArrayList<PackagePart> parts =
                 pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
 
@@ -118,8 +124,21 @@ public class ReadOnlySharedStringsTable extends DefaultHandler {
      * @since POI 3.14-Beta1
      */
     public ReadOnlySharedStringsTable(PackagePart part) throws IOException, SAXException {
+        this.stringStore = null;
         readFrom(part.getInputStream());
     }
+
+    /**
+     * Allows subclasses to choose how the strings are stored. Nothing is read,
+     * the subclass reads the strings with {@link #readFrom(InputStream)}.
+     *
+     * @param stringStore the list to store the strings in, <code>null</code> to use an {@link ArrayList}
+     *
+     * @since POI 3.16 beta 2
+     */
+    protected ReadOnlySharedStringsTable(List<String> stringStore) {
+        this.stringStore = stringStore;
+    }
     
     /**
      * Read this shared strings table from an XML file.
@@ -198,7 +217,12 @@ public class ReadOnlySharedStringsTable extends DefaultHandler {
             String uniqueCount = attributes.getValue("uniqueCount");
             if(uniqueCount != null) this.uniqueCount = Integer.parseInt(uniqueCount);
 
-            this.strings = new ArrayList<String>(this.uniqueCount);
+            if (stringStore != null) {
+                stringStore.clear();
+                this.strings = stringStore;
+            } else {
+                this.strings = new ArrayList<String>(this.uniqueCount);
+            }
 
             characters = new StringBuffer();
         } else if ("si".equals(localName)) {
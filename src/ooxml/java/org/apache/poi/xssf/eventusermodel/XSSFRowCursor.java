@@ -0,0 +1,431 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+/**
+ * A pull parser for the rows of a sheet, which is an alternative to pushing the cells
+ * via {@link XSSFSheetXMLHandler} for consumers of raw values.<p>
+ *
+ * Each call of {@link #nextRow()} reads the next row into buffers, which are reused
+ * for all rows. The cells of the row are accessed by their position in the row, i.e.
+ * {@code 0} to {@code getCellCount()-1}, and their column, type, numeric value and style
+ * index are kept as primitives. Strings are only looked up in the shared strings table,
+ * and values are only formatted, when they are requested. The values of the current
+ * row are overwritten by the next call of {@link #nextRow()}.<p>
+ *
+ * <pre>
+ * XSSFReader reader = new XSSFReader(pkg);
+ * ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+ * XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator)reader.getSheetsData();
+ * while (iter.hasNext()) {
+ *     XSSFRowCursor cursor = new XSSFRowCursor(iter.next(), strings, reader.getStylesTable(), false);
+ *     try {
+ *         while (cursor.nextRow()) {
+ *             for (int i = 0; i &lt; cursor.getCellCount(); i++) {
+ *                 if (cursor.getCachedFormulaResultTypeEnum(i) == CellType.NUMERIC) {
+ *                     sum[cursor.getColumnIndex(i)] += cursor.getNumericCellValue(i);
+ *                 }
+ *             }
+ *         }
+ *     } finally {
+ *         cursor.close();
+ *     }
+ * }
+ * </pre>
+ *
+ * For cells which are part of a shared formula, only the first cell has the formula
+ * text, the formula of the other cells is {@code null}.
+ *
+ * @see ColumnarSheet
+ * @since POI 3.16 beta 2
+ */
+public class XSSFRowCursor implements Closeable {
+    private static final XMLInputFactory INPUT_FACTORY = StaxHelper.newXMLInputFactory();
+
+    private final InputStream sheetXml;
+    private final XMLStreamReader reader;
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean done;
+    private int rowNum = -1;
+
+    // the cells of the current row
+    private final ColumnarCells cells;
+    private int[] columns = new int[16];
+    private String[] formulas = new String[16];
+
+    /**
+     * Opens a cursor before the first row of the sheet
+     *
+     * @param sheetXml the stream of the sheet XML, e.g. from {@link XSSFReader#getSheetsData()},
+     *  it's closed by {@link #close()}
+     * @param strings the shared strings table
+     * @param styles the styles table, may be {@code null}
+     * @param date1904 true, if the workbook uses the 1904 date system
+     * @throws XMLStreamException if the sheet XML can't be parsed
+     */
+    public XSSFRowCursor(InputStream sheetXml, ReadOnlySharedStringsTable strings,
+            StylesTable styles, boolean date1904) throws XMLStreamException {
+        this.sheetXml = sheetXml;
+        this.reader = INPUT_FACTORY.createXMLStreamReader(sheetXml);
+        this.cells = new ColumnarCells(strings, styles, date1904, columns.length) {
+            @Override
+            String getReference(int idx) {
+                return XSSFRowCursor.this.getReference(idx);
+            }
+        };
+    }
+
+    /**
+     * Reads the next row, which has at least a row element in the sheet XML
+     *
+     * @return false, if there are no more rows
+     * @throws XMLStreamException if the sheet XML can't be parsed
+     */
+    public boolean nextRow() throws XMLStreamException {
+        cells.clear();
+        while (!done && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && isElement("row")) {
+                String r = reader.getAttributeValue(null, "r");
+                rowNum = (r == null) ? rowNum + 1 : Integer.parseInt(r) - 1;
+                readCells();
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT && isElement("sheetData")) {
+                // the rest of the sheet isn't needed
+                done = true;
+            }
+        }
+        done = true;
+        return false;
+    }
+
+    /**
+     * @return the 0-based index of the current row
+     */
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * @return the number of cells of the current row
+     */
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the 0-based column index
+     */
+    public int getColumnIndex(int i) {
+        checkCell(i);
+        return columns[i];
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the type of the cell, {@link CellType#FORMULA} for formula cells
+     */
+    public CellType getCellTypeEnum(int i) {
+        checkCell(i);
+        return cells.getCellTypeEnum(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the type of the value, for formula cells the type of the cached result
+     */
+    public CellType getCachedFormulaResultTypeEnum(int i) {
+        checkCell(i);
+        return cells.getCachedFormulaResultTypeEnum(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the formula, without the leading '=', or {@code null}
+     */
+    public String getCellFormula(int i) {
+        checkCell(i);
+        return cells.isFormula(i) ? formulas[i] : null;
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the numeric value, 0 for cells without a numeric value
+     * @throws IllegalStateException if the value is a string, boolean or error
+     */
+    public double getNumericCellValue(int i) {
+        checkCell(i);
+        return cells.getNumericCellValue(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the numeric value as date, {@code null} for blank cells
+     */
+    public Date getDateCellValue(int i) {
+        checkCell(i);
+        return cells.getDateCellValue(i);
+    }
+
+    /**
+     * Returns the string value, which is looked up in the shared strings table
+     * for shared strings
+     *
+     * @param i the position of the cell in the current row
+     * @return the string value, the empty string for blank cells
+     * @throws IllegalStateException if the value is numeric, boolean or error
+     */
+    public String getStringCellValue(int i) {
+        checkCell(i);
+        return cells.getStringCellValue(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the index of the shared string or -1, if the cell has no shared string
+     */
+    public int getSharedStringIndex(int i) {
+        checkCell(i);
+        return cells.getSharedStringIndex(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the boolean value, false for blank cells
+     * @throws IllegalStateException if the value is numeric, string or error
+     */
+    public boolean getBooleanCellValue(int i) {
+        checkCell(i);
+        return cells.getBooleanCellValue(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the error code, see {@link FormulaError}
+     * @throws IllegalStateException if the value isn't an error
+     */
+    public byte getErrorCellValue(int i) {
+        checkCell(i);
+        return cells.getErrorCellValue(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the index of the cell style
+     */
+    public int getStyleIndex(int i) {
+        checkCell(i);
+        return cells.getStyleIndex(i);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the cell style or {@code null}, if no styles table is available
+     */
+    public XSSFCellStyle getCellStyle(int i) {
+        checkCell(i);
+        return cells.getCellStyle(i);
+    }
+
+    /**
+     * Formats the value like {@link DataFormatter#formatCellValue(org.apache.poi.ss.usermodel.Cell)}
+     * without evaluating formulas, i.e. the cached result is formatted
+     *
+     * @param i the position of the cell in the current row
+     * @param formatter the formatter for numeric values
+     * @return the formatted value
+     */
+    public String getFormattedValue(int i, DataFormatter formatter) {
+        checkCell(i);
+        return cells.getFormattedValue(i, formatter);
+    }
+
+    /**
+     * @param i the position of the cell in the current row
+     * @return the reference of the cell, e.g. "A1"
+     */
+    public String getReference(int i) {
+        return new CellReference(rowNum, getColumnIndex(i)).formatAsString();
+    }
+
+    /**
+     * Closes the parser and the stream of the sheet XML
+     */
+    @Override
+    public void close() throws IOException {
+        done = true;
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getLocalizedMessage(), e);
+        } finally {
+            sheetXml.close();
+        }
+    }
+
+    private void checkCell(int i) {
+        if (i < 0 || i >= cells.size()) {
+            throw new IndexOutOfBoundsException("Cell " + i + " doesn't exist, row "
+                + (rowNum+1) + " has " + cells.size() + " cells");
+        }
+    }
+
+    private boolean isElement(String localName) {
+        return localName.equals(reader.getLocalName()) && NS_SPREADSHEETML.equals(reader.getNamespaceURI());
+    }
+
+    /**
+     * Reads the cells up to the end of the current row element
+     */
+    private void readCells() throws XMLStreamException {
+        int nextColumn = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && isElement("c")) {
+                String ref = reader.getAttributeValue(null, "r");
+                int column = (ref == null) ? nextColumn : parseColumn(ref);
+                nextColumn = column + 1;
+                readCell(column);
+            } else if (event == XMLStreamConstants.END_ELEMENT && isElement("row")) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads a cell up to the end of its c element
+     */
+    private void readCell(int column) throws XMLStreamException {
+        String s = reader.getAttributeValue(null, "s");
+        String cellType = reader.getAttributeValue(null, "t");
+        int idx = addCell(column, (s == null) ? 0 : Integer.parseInt(s));
+        String value = null;
+        String inlineString = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (isElement("v")) {
+                    value = reader.getElementText();
+                } else if (isElement("f")) {
+                    cells.setFormula(idx);
+                    String formula = reader.getElementText();
+                    formulas[idx] = (formula.length() == 0) ? null : formula;
+                } else if (isElement("is")) {
+                    inlineString = readInlineString();
+                } else {
+                    skipElement();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                // the end of the c element
+                break;
+            }
+        }
+
+        if (value != null) {
+            cells.setValue(idx, cellType, value);
+        } else if (inlineString != null) {
+            cells.setInlineString(idx, inlineString);
+        } else {
+            cells.setNoValue(idx, cellType);
+        }
+    }
+
+    /**
+     * Reads the text runs of an inline string without the phonetic runs
+     */
+    private String readInlineString() throws XMLStreamException {
+        text.setLength(0);
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (isElement("rPh")) {
+                    skipElement();
+                } else if (isElement("t")) {
+                    text.append(reader.getElementText());
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return text.toString();
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private int addCell(int column, int styleIndex) {
+        int idx = cells.add(styleIndex);
+        if (idx == columns.length) {
+            int capacity = idx * 2;
+            columns = Arrays.copyOf(columns, capacity);
+            formulas = Arrays.copyOf(formulas, capacity);
+        }
+        columns[idx] = column;
+        formulas[idx] = null;
+        return idx;
+    }
+
+    private static int parseColumn(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+}
@@ -188,14 +188,31 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
     * Processes the file and returns the text
     */
    public String getText() {
+       StringBuilder text = new StringBuilder();
+       try {
+          writeText(text);
+       } catch(IOException e) {
+          System.err.println(e.getCause() != null ? e.getCause() : e);
+          return null;
+       }
+       return text.toString();
+   }
+
+   /**
+    * Processes the file and writes the text row by row.
+    * If headers and footers are included, the cells of a sheet are buffered,
+    * as the headers are only found after the cells, but are written before them.
+    */
+   @Override
+   public void writeText(Appendable out) throws IOException {
        try {
           ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(container);
           XSSFReader xssfReader = new XSSFReader(container);
           StylesTable styles = xssfReader.getStylesTable();
           XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
    
-          StringBuffer text = new StringBuffer();
           SheetTextExtractor sheetExtractor = new SheetTextExtractor();
+          TextCounter text = new TextCounter(out);
           
           while (iter.hasNext()) {
               InputStream stream = iter.next();
@@ -204,7 +221,12 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
                  text.append('\n');
               }
               CommentsTable comments = includeCellComments ? iter.getSheetComments() : null;
-              processSheet(sheetExtractor, styles, comments, strings, stream);
+              sheetExtractor.target = includeHeadersFooters ? null : text;
+              try {
+                  processSheet(sheetExtractor, styles, comments, strings, stream);
+              } catch (TextWriteException e) {
+                  throw e.getCause();
+              }
               if (includeHeadersFooters) {
                   sheetExtractor.appendHeaderText(text);
               }
@@ -218,21 +240,14 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
               sheetExtractor.reset();
               stream.close();
           }
-          
-          return text.toString();
-       } catch(IOException e) {
-          System.err.println(e);
-          return null;
        } catch(SAXException se) {
-          System.err.println(se);
-          return null;
+          throw new IOException(se);
        } catch(OpenXML4JException o4je) {
-          System.err.println(o4je);
-          return null;
+          throw new IOException(o4je);
        }
    }
    
-    private void processShapes(List<XSSFShape> shapes, StringBuffer text) {
+    private void processShapes(List<XSSFShape> shapes, TextCounter text) throws IOException {
         if (shapes == null){
             return;
         }
@@ -258,6 +273,8 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
         private final StringBuffer output;
         private boolean firstCellOfRow;
         private final Map<String, String> headerFooterMap;
+        // the target of the rows, which are written directly - null to collect the rows in output
+        private TextCounter target;
 
         protected SheetTextExtractor() {
             this.output = new StringBuffer();
@@ -273,6 +290,14 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
         @Override
         public void endRow(int rowNum) {
             output.append('\n');
+            if (target != null) {
+                try {
+                    appendCellText(target);
+                } catch (IOException e) {
+                    throw new TextWriteException(e);
+                }
+                output.setLength(0);
+            }
         }
 
         @Override
@@ -283,13 +308,13 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
                 output.append('\t');
             }
             if (formattedValue != null) {
-                checkMaxTextSize(output, formattedValue);
+                checkMaxTextSize(textLength() + output.length(), formattedValue);
                 output.append(formattedValue);
             }
             if (includeCellComments && comment != null) {
                 String commentText = comment.getString().getString().replace('\n', ' ');
                 output.append(formattedValue != null ? " Comment by " : "Comment by ");
-                checkMaxTextSize(output, commentText);
+                checkMaxTextSize(textLength() + output.length(), commentText);
                 if (commentText.startsWith(comment.getAuthor() + ": ")) {
                     output.append(commentText);
                 } else {
@@ -308,7 +333,7 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
         /**
          * Append the text for the named header or footer if found.
          */
-        private void appendHeaderFooterText(StringBuffer buffer, String name) {
+        private void appendHeaderFooterText(TextCounter buffer, String name) throws IOException {
             String text = headerFooterMap.get(name);
             if (text != null && text.length() > 0) {
                 // this is a naive way of handling the left, center, and right
@@ -341,7 +366,7 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
          * @see XSSFExcelExtractor#getText()
          * @see org.apache.poi.hssf.extractor.ExcelExtractor#_extractHeaderFooter(org.apache.poi.ss.usermodel.HeaderFooter)
          */
-        private void appendHeaderText(StringBuffer buffer) {
+        private void appendHeaderText(TextCounter buffer) throws IOException {
             appendHeaderFooterText(buffer, "firstHeader");
             appendHeaderFooterText(buffer, "oddHeader");
             appendHeaderFooterText(buffer, "evenHeader");
@@ -353,7 +378,7 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
          * @see XSSFExcelExtractor#getText()
          * @see org.apache.poi.hssf.extractor.ExcelExtractor#_extractHeaderFooter(org.apache.poi.ss.usermodel.HeaderFooter)
          */
-        private void appendFooterText(StringBuffer buffer) {
+        private void appendFooterText(TextCounter buffer) throws IOException {
             // append the text for each footer type in the same order
             // they are appended in XSSFExcelExtractor
             appendHeaderFooterText(buffer, "firstFooter");
@@ -364,9 +389,14 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
         /**
          * Append the cell contents we have collected.
          */
-        private void appendCellText(StringBuffer buffer) {
-            checkMaxTextSize(buffer, output.toString());
-            buffer.append(output);
+        private void appendCellText(TextCounter buffer) throws IOException {
+            String cells = output.toString();
+            checkMaxTextSize(buffer.length, cells);
+            buffer.append(cells);
+        }
+
+        private long textLength() {
+            return (target == null) ? 0 : target.length;
         }
 
         /**
@@ -380,4 +410,45 @@ public class XSSFEventBasedExcelExtractor extends POIXMLTextExtractor
             }
         }
     }
+
+    /**
+     * Appends to the target and counts the written characters,
+     * which are checked against the max text size
+     */
+    private static final class TextCounter {
+        private final Appendable out;
+        private long length;
+
+        TextCounter(Appendable out) {
+            this.out = out;
+        }
+
+        TextCounter append(CharSequence text) throws IOException {
+            out.append(text);
+            length += text.length();
+            return this;
+        }
+
+        TextCounter append(char c) throws IOException {
+            out.append(c);
+            length++;
+            return this;
+        }
+    }
+
+    /**
+     * Transports an IOException of the target through the SAX parser
+     */
+    private static final class TextWriteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TextWriteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException)super.getCause();
+        }
+    }
 }
@@ -31,6 +31,7 @@ import java.util.Map;
 
 import org.apache.poi.POIXMLDocumentPart;
 import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.apache.xmlbeans.XmlException;
 import org.apache.xmlbeans.XmlOptions;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
@@ -66,10 +67,23 @@ public class SharedStringsTable extends POIXMLDocumentPart {
     private final List<CTRst> strings = new ArrayList<CTRst>();
 
     /**
-     *  Maps strings and their indexes in the <code>strings</code> arrays
+     *  Plain strings which were added after the items in <code>strings</code>, but which don't
+     *  have a <code>CTRst</code> bean yet. The beans are created when they are requested
+     *  or when the table is written.
+     */
+    private final List<String> pendingStrings = new ArrayList<String>();
+
+    /**
+     *  Maps the text of plain strings, i.e. strings without formatting runs or phonetic properties,
+     *  to their indexes in the <code>strings</code> and <code>pendingStrings</code> arrays
      */
     private final Map<String, Integer> stmap = new HashMap<String, Integer>();
 
+    /**
+     *  Maps the XML of rich strings to their indexes in the <code>strings</code> arrays
+     */
+    private final Map<String, Integer> richmap = new HashMap<String, Integer>();
+
     /**
      * An integer representing the total count of strings in the workbook. This count does not
      * include any numbers, it counts only the total of text strings in the workbook.
@@ -121,7 +135,11 @@ public class SharedStringsTable extends POIXMLDocumentPart {
             count = (int)sst.getCount();
             uniqueCount = (int)sst.getUniqueCount();
             for (CTRst st : sst.getSiArray()) {
-                stmap.put(getKey(st), cnt);
+                if (isPlain(st)) {
+                    stmap.put(st.getT(), cnt);
+                } else {
+                    richmap.put(getKey(st), cnt);
+                }
                 strings.add(st);
                 cnt++;
             }
@@ -134,6 +152,31 @@ public class SharedStringsTable extends POIXMLDocumentPart {
         return st.xmlText(options);
     }
 
+    /**
+     * @return whether the string has only a text, which can then be used as its key
+     */
+    private static boolean isPlain(CTRst st) {
+        return st.isSetT() && st.sizeOfRArray() == 0 && st.sizeOfRPhArray() == 0 && !st.isSetPhoneticPr();
+    }
+
+    /**
+     * Creates the <code>CTRst</code> beans of the pending plain strings up to the given index
+     */
+    private void createPendingItems(int idx) {
+        if (idx < strings.size() || pendingStrings.isEmpty()) {
+            return;
+        }
+        CTSst sst = _sstDoc.getSst();
+        int pendingCount = Math.min(idx - strings.size(), pendingStrings.size() - 1) + 1;
+        for (int i = 0; i < pendingCount; i++) {
+            CTRst st = sst.addNewSi();
+            st.setT(pendingStrings.get(i));
+            XSSFRichTextString.preserveSpaces(st.xgetT());
+            strings.add(st);
+        }
+        pendingStrings.subList(0, pendingCount).clear();
+    }
+
     /**
      * Return a string item by index
      *
@@ -141,6 +184,7 @@ public class SharedStringsTable extends POIXMLDocumentPart {
      * @return the item at the specified position in this Shared String table.
      */
     public CTRst getEntryAt(int idx) {
+        createPendingItems(idx);
         return strings.get(idx);
     }
 
@@ -177,27 +221,63 @@ public class SharedStringsTable extends POIXMLDocumentPart {
      * @return index the index of added entry
      */
     public int addEntry(CTRst st) {
+        if (isPlain(st)) {
+            return addEntry(st.getT());
+        }
+
         String s = getKey(st);
         count++;
-        if (stmap.containsKey(s)) {
-            return stmap.get(s);
+        Integer existing = richmap.get(s);
+        if (existing != null) {
+            return existing;
         }
 
         uniqueCount++;
+        // keep the order of the items
+        createPendingItems(Integer.MAX_VALUE);
         //create a CTRst bean attached to this SstDocument and copy the argument CTRst into it
         CTRst newSt = _sstDoc.getSst().addNewSi();
         newSt.set(st);
         int idx = strings.size();
-        stmap.put(s, idx);
+        richmap.put(s, idx);
         strings.add(newSt);
         return idx;
     }
+
+    /**
+     * Add a plain string without formatting to this Shared String table.
+     *
+     * <p>
+     * If the Shared String table already contains this string without formatting, its index is returned.
+     * Otherwise a new entry is added, whose <code>CTRst</code> bean is only created when it is
+     * requested or when the table is written.
+     * </p>
+     *
+     * @param text the string to add
+     * @return index the index of added entry
+     * @since POI 3.16 beta 2
+     */
+    public int addEntry(String text) {
+        count++;
+        Integer existing = stmap.get(text);
+        if (existing != null) {
+            return existing;
+        }
+
+        uniqueCount++;
+        int idx = strings.size() + pendingStrings.size();
+        stmap.put(text, idx);
+        pendingStrings.add(text);
+        return idx;
+    }
+
     /**
      * Provide low-level access to the underlying array of CTRst beans
      *
      * @return array of CTRst beans
      */
     public List<CTRst> getItems() {
+        createPendingItems(Integer.MAX_VALUE);
         return Collections.unmodifiableList(strings);
     }
 
@@ -214,6 +294,8 @@ public class SharedStringsTable extends POIXMLDocumentPart {
         xmlOptions.setSaveCDataLengthThreshold(1000000);
         xmlOptions.setSaveCDataEntityCountThreshold(-1);
 
+        createPendingItems(Integer.MAX_VALUE);
+
         //re-create the sst table every time saving a workbook
         CTSst sst = _sstDoc.getSst();
         sst.setCount(count);
@@ -25,6 +25,8 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -76,6 +78,34 @@ public class StylesTable extends POIXMLDocumentPart {
 
     private final List<CTDxf> dxfs = new ArrayList<CTDxf>();
 
+    // hash indexes to find existing entries without scanning the lists above
+    // fonts may be customised after their registration, so a miss rebuilds their index
+    private final ListIndex<XSSFFont> fontIndex = new ListIndex<XSSFFont>(fonts, new HashMap<Object,Integer>(), true) {
+        @Override
+        protected Object getKey(XSSFFont font) {
+            return font.getCTFont().toString();
+        }
+    };
+    private final ListIndex<XSSFCellFill> fillIndex = new ListIndex<XSSFCellFill>(fills, new HashMap<Object,Integer>(), false) {
+        @Override
+        protected Object getKey(XSSFCellFill fill) {
+            return fill.getCTFill().toString();
+        }
+    };
+    private final ListIndex<XSSFCellBorder> borderIndex = new ListIndex<XSSFCellBorder>(borders, new HashMap<Object,Integer>(), false) {
+        @Override
+        protected Object getKey(XSSFCellBorder border) {
+            return border.getCTBorder().toString();
+        }
+    };
+    // the xfs are matched by identity, as xfs.indexOf() did before
+    private final ListIndex<CTXf> xfIndex = new ListIndex<CTXf>(xfs, new IdentityHashMap<Object,Integer>(), false) {
+        @Override
+        protected Object getKey(CTXf xf) {
+            return xf;
+        }
+    };
+
     /**
      * The first style id available for use as a custom style
      */
@@ -372,14 +402,15 @@ public class StylesTable extends POIXMLDocumentPart {
      *  font matches another, EXCEPT if forced
      *  registration is requested.
      * This allows people to create several fonts
-     *  then customise them later.
+     *  then customise them later. Such fonts are
+     *  matched by their current values.
      * Note - End Users probably want to call
      *  {@link XSSFFont#registerTo(StylesTable)}
      */
     public int putFont(XSSFFont font, boolean forceRegistration) {
         int idx = -1;
         if(!forceRegistration) {
-            idx = fonts.indexOf(font);
+            idx = fontIndex.indexOf(font);
         }
 
         if (idx != -1) {
@@ -416,10 +447,12 @@ public class StylesTable extends POIXMLDocumentPart {
     public int putStyle(XSSFCellStyle style) {
         CTXf mainXF = style.getCoreXf();
 
-        if(! xfs.contains(mainXF)) {
-            xfs.add(mainXF);
+        int idx = xfIndex.indexOf(mainXF);
+        if (idx != -1) {
+            return idx;
         }
-        return xfs.indexOf(mainXF);
+        xfs.add(mainXF);
+        return xfs.size() - 1;
     }
 
     public XSSFCellBorder getBorderAt(int idx) {
@@ -434,7 +467,7 @@ public class StylesTable extends POIXMLDocumentPart {
      * @return the index of the added border
      */
     public int putBorder(XSSFCellBorder border) {
-        int idx = borders.indexOf(border);
+        int idx = borderIndex.indexOf(border);
         if (idx != -1) {
             return idx;
         }
@@ -471,7 +504,7 @@ public class StylesTable extends POIXMLDocumentPart {
      * @return the index of the added fill
      */
     public int putFill(XSSFCellFill fill) {
-        int idx = fills.indexOf(fill);
+        int idx = fillIndex.indexOf(fill);
         if (idx != -1) {
             return idx;
         }
@@ -500,6 +533,7 @@ public class StylesTable extends POIXMLDocumentPart {
     @Internal
     public void replaceCellXfAt(int idx, CTXf cellXf) {
         xfs.set(idx, cellXf);
+        xfIndex.clear();
     }
 
     @Internal
@@ -830,4 +864,68 @@ public class StylesTable extends POIXMLDocumentPart {
         }
         return null;
     }
+
+    /**
+     * Maps the keys of the items of one of the style lists to their position in the list,
+     * so that {@link #indexOf(Object)} doesn't need to compare against each item.
+     * Items appended to the list are indexed on the next lookup. Equal items map to the
+     * first position, like {@link List#indexOf(Object)}.<p/>
+     *
+     * Registered items can still be modified, e.g. fonts after
+     * {@link XSSFFont#registerTo(StylesTable)}, so a match is verified against the
+     * current key of the item. A stale entry is replaced by the current key of the item.
+     */
+    private abstract static class ListIndex<T> {
+        private final List<T> items;
+        private final Map<Object,Integer> positions;
+        private final boolean rebuildOnMiss;
+        private int indexedCount;
+
+        /**
+         * @param rebuildOnMiss if {@code true}, the index is rebuilt before an item is reported
+         *  as missing, so items which were modified after they were indexed are found by their
+         *  current key. Otherwise only a modified item, which is hit by its old key, is noticed.
+         */
+        ListIndex(List<T> items, Map<Object,Integer> positions, boolean rebuildOnMiss) {
+            this.items = items;
+            this.positions = positions;
+            this.rebuildOnMiss = rebuildOnMiss;
+        }
+
+        protected abstract Object getKey(T item);
+
+        /**
+         * @return the position of the first item with the same key or -1 if there's none
+         */
+        int indexOf(T item) {
+            Object key = getKey(item);
+            indexNewItems();
+            Integer idx = positions.get(key);
+            boolean stale = (idx != null) && !key.equals(getKey(items.get(idx)));
+            if (stale || (idx == null && rebuildOnMiss)) {
+                // an item was modified after it was indexed
+                clear();
+                indexNewItems();
+                idx = positions.get(key);
+            }
+            return (idx == null) ? -1 : idx;
+        }
+
+        private void indexNewItems() {
+            for (; indexedCount < items.size(); indexedCount++) {
+                Object key = getKey(items.get(indexedCount));
+                if (!positions.containsKey(key)) {
+                    positions.put(key, indexedCount);
+                }
+            }
+        }
+
+        /**
+         * Drops the index, e.g. after an item was replaced, it's rebuilt on the next lookup
+         */
+        void clear() {
+            positions.clear();
+            indexedCount = 0;
+        }
+    }
 }
@@ -0,0 +1,316 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndianByteArrayOutputStream;
+
+/**
+ * Assembles a zip archive out of entries which have been deflated beforehand,
+ * possibly on other threads.
+ * <p>
+ * {@link java.util.zip.ZipOutputStream} always compresses the data itself,
+ * so this class writes the zip structures on its own. Zip64 extensions are added
+ * when sizes or offsets exceed the 32-bit limits.
+ */
+class DeflatedZipWriter implements Closeable {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int END_SIG = 0x06054b50;
+
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    /** bit 11 - the entry names are UTF-8 encoded, same as ZipOutputStream */
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP32_MAX = 0xFFFFFFFFL;
+    private static final int ZIP16_MAX = 0xFFFF;
+
+    /**
+     * A zip entry whose data has been compressed with a raw (nowrap) deflater
+     * into a temp file.
+     * <p>
+     * The temp file is created and accessed through a {@link SheetDataWriter}, so
+     * the compressed data is stored in the same way (e.g. encrypted) as the sheet data.
+     */
+    static class Entry {
+        private final String _name;
+        private final SheetDataWriter _spool;
+        private long _crc;
+        private long _size;
+        private long _compressedSize;
+
+        /**
+         * @param name the name of the entry
+         * @param spool the writer, whose temp file and stream decorators hold the compressed data
+         */
+        Entry(String name, SheetDataWriter spool) throws IOException {
+            _name = name;
+            _spool = spool;
+            // the writer has opened its temp file for sheet data, which isn't used here
+            _spool.close();
+        }
+
+        String getName() {
+            return _name;
+        }
+
+        /**
+         * @return a stream which compresses the uncompressed entry data written to it.
+         *  The checksum and sizes are available after the stream has been closed.
+         */
+        OutputStream openStream() throws IOException {
+            final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            final CRC32 crc = new CRC32();
+            final DeflaterOutputStream dos = new DeflaterOutputStream(
+                    new BufferedOutputStream(_spool.createOutputStream(_spool.getTempFile())), deflater, 8192);
+            return new FilterOutputStream(dos) {
+                private boolean closed;
+
+                @Override
+                public void write(int b) throws IOException {
+                    crc.update(b);
+                    _size++;
+                    dos.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    crc.update(b, off, len);
+                    _size += len;
+                    dos.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (closed) {
+                        return;
+                    }
+                    closed = true;
+                    try {
+                        dos.finish();
+                        _compressedSize = deflater.getBytesWritten();
+                        _crc = crc.getValue();
+                    } finally {
+                        deflater.end();
+                        dos.close();
+                    }
+                }
+            };
+        }
+
+        /**
+         * Deletes the temp file with the compressed data
+         *
+         * @return true if the file was deleted
+         */
+        boolean dispose() {
+            return _spool.getTempFile().delete();
+        }
+    }
+
+    private static class CentralEntry {
+        final byte[] name;
+        final long crc, size, compressedSize, offset;
+
+        CentralEntry(byte[] name, long crc, long size, long compressedSize, long offset) {
+            this.name = name;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.offset = offset;
+        }
+    }
+
+    private final OutputStream _out;
+    private final List<CentralEntry> _entries = new ArrayList<CentralEntry>();
+    private final int _dosTime;
+    private final int _dosDate;
+    private long _written;
+    private boolean _closed;
+
+    DeflatedZipWriter(OutputStream out) {
+        _out = out;
+        Calendar cal = Calendar.getInstance();
+        _dosTime = (cal.get(Calendar.HOUR_OF_DAY) << 11) | (cal.get(Calendar.MINUTE) << 5) | (cal.get(Calendar.SECOND) >> 1);
+        _dosDate = ((cal.get(Calendar.YEAR) - 1980) << 9) | ((cal.get(Calendar.MONTH) + 1) << 5) | cal.get(Calendar.DAY_OF_MONTH);
+    }
+
+    /**
+     * Appends the entry - its stream needs to be closed before.
+     */
+    void putEntry(Entry entry) throws IOException {
+        byte[] name = entry.getName().getBytes(UTF8);
+        boolean zip64 = entry._size >= ZIP32_MAX || entry._compressedSize >= ZIP32_MAX;
+
+        byte[] buf = new byte[30 + name.length + 20];
+        LittleEndianByteArrayOutputStream header = new LittleEndianByteArrayOutputStream(buf, 0);
+        header.writeInt(LOCAL_HEADER_SIG);
+        header.writeShort(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        header.writeShort(FLAG_UTF8);
+        header.writeShort(METHOD_DEFLATED);
+        header.writeShort(_dosTime);
+        header.writeShort(_dosDate);
+        header.writeInt((int)entry._crc);
+        header.writeInt((int)(zip64 ? ZIP32_MAX : entry._compressedSize));
+        header.writeInt((int)(zip64 ? ZIP32_MAX : entry._size));
+        header.writeShort(name.length);
+        header.writeShort(zip64 ? 20 : 0);
+        header.write(name);
+        if (zip64) {
+            header.writeShort(ZIP64_EXTRA_ID);
+            header.writeShort(16);
+            header.writeLong(entry._size);
+            header.writeLong(entry._compressedSize);
+        }
+
+        long offset = _written;
+        write(buf, header.getWriteIndex());
+        InputStream is = entry._spool.getWorksheetXMLInputStream();
+        try {
+            IOUtils.copy(is, _out);
+        } finally {
+            is.close();
+        }
+        _written += entry._compressedSize;
+
+        _entries.add(new CentralEntry(name, entry._crc, entry._size, entry._compressedSize, offset));
+    }
+
+    private void write(byte[] buf, int len) throws IOException {
+        _out.write(buf, 0, len);
+        _written += len;
+    }
+
+    /**
+     * Writes the central directory and closes the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (_closed) {
+            return;
+        }
+        _closed = true;
+        try {
+            writeCentralDirectory();
+        } finally {
+            _out.close();
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long cdOffset = _written;
+        for (CentralEntry ce : _entries) {
+            boolean size64 = ce.size >= ZIP32_MAX;
+            boolean csize64 = ce.compressedSize >= ZIP32_MAX;
+            boolean offset64 = ce.offset >= ZIP32_MAX;
+            int extraLen = (size64 ? 8 : 0) + (csize64 ? 8 : 0) + (offset64 ? 8 : 0);
+            boolean zip64 = extraLen > 0;
+
+            byte[] buf = new byte[46 + ce.name.length + 28];
+            LittleEndianByteArrayOutputStream header = new LittleEndianByteArrayOutputStream(buf, 0);
+            header.writeInt(CENTRAL_HEADER_SIG);
+            header.writeShort(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+            header.writeShort(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+            header.writeShort(FLAG_UTF8);
+            header.writeShort(METHOD_DEFLATED);
+            header.writeShort(_dosTime);
+            header.writeShort(_dosDate);
+            header.writeInt((int)ce.crc);
+            header.writeInt((int)(csize64 ? ZIP32_MAX : ce.compressedSize));
+            header.writeInt((int)(size64 ? ZIP32_MAX : ce.size));
+            header.writeShort(ce.name.length);
+            header.writeShort(zip64 ? extraLen + 4 : 0);
+            // comment length, disk number, internal and external attributes
+            header.writeShort(0);
+            header.writeShort(0);
+            header.writeShort(0);
+            header.writeInt(0);
+            header.writeInt((int)(offset64 ? ZIP32_MAX : ce.offset));
+            header.write(ce.name);
+            if (zip64) {
+                header.writeShort(ZIP64_EXTRA_ID);
+                header.writeShort(extraLen);
+                if (size64) {
+                    header.writeLong(ce.size);
+                }
+                if (csize64) {
+                    header.writeLong(ce.compressedSize);
+                }
+                if (offset64) {
+                    header.writeLong(ce.offset);
+                }
+            }
+            write(buf, header.getWriteIndex());
+        }
+        long cdSize = _written - cdOffset;
+        int count = _entries.size();
+
+        byte[] buf = new byte[56 + 20 + 22];
+        LittleEndianByteArrayOutputStream end = new LittleEndianByteArrayOutputStream(buf, 0);
+        boolean zip64 = count >= ZIP16_MAX || cdOffset >= ZIP32_MAX || cdSize >= ZIP32_MAX;
+        if (zip64) {
+            long zip64EndOffset = _written;
+            end.writeInt(ZIP64_END_SIG);
+            // size of the remaining zip64 end of central directory record
+            end.writeLong(44);
+            end.writeShort(VERSION_ZIP64);
+            end.writeShort(VERSION_ZIP64);
+            end.writeInt(0);
+            end.writeInt(0);
+            end.writeLong(count);
+            end.writeLong(count);
+            end.writeLong(cdSize);
+            end.writeLong(cdOffset);
+
+            end.writeInt(ZIP64_LOCATOR_SIG);
+            end.writeInt(0);
+            end.writeLong(zip64EndOffset);
+            end.writeInt(1);
+        }
+        end.writeInt(END_SIG);
+        end.writeShort(0);
+        end.writeShort(0);
+        end.writeShort(Math.min(count, ZIP16_MAX));
+        end.writeShort(Math.min(count, ZIP16_MAX));
+        end.writeInt((int)Math.min(cdSize, ZIP32_MAX));
+        end.writeInt((int)Math.min(cdOffset, ZIP32_MAX));
+        end.writeShort(0);
+        write(buf, end.getWriteIndex());
+        _out.flush();
+    }
+}
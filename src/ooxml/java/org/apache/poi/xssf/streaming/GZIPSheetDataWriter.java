@@ -47,6 +47,14 @@ public class GZIPSheetDataWriter extends SheetDataWriter {
         super(sharedStringsTable);
     }
 
+    /**
+     * @param sharedStringsTable the shared strings table, or null if inline text is used
+     * @param useUtf8ByteWriter whether the rows are encoded straight into a UTF-8 byte buffer
+     */
+    public GZIPSheetDataWriter(SharedStringsTable sharedStringsTable, boolean useUtf8ByteWriter) throws IOException {
+        super(sharedStringsTable, useUtf8ByteWriter);
+    }
+
     /**
      * @return temp file to write sheet data
      */
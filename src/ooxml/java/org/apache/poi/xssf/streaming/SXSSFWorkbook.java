@@ -17,19 +17,28 @@
 
 package org.apache.poi.xssf.streaming;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -109,6 +118,16 @@ public class SXSSFWorkbook implements Workbook {
      */
     private boolean _compressTmpFiles;
 
+    /**
+     * whether sheet data should be encoded straight into UTF-8 byte buffers
+     */
+    private boolean _useUtf8ByteWriter;
+
+    /**
+     * executor for compressing the sheet data concurrently when writing, or null
+     */
+    private Executor _writeExecutor;
+
     /**
      * shared string table - a cache of strings in this workbook
      */
@@ -312,6 +331,68 @@ public class SXSSFWorkbook implements Workbook {
         _compressTmpFiles = compress;
     }
     
+    /**
+     * Get whether the sheet data is encoded straight into UTF-8 byte buffers.
+     *
+     * @return whether to use the byte-level sheet data writer
+     * @since POI 3.16 beta 2
+     */
+    public boolean isUseUtf8ByteWriter() {
+        return _useUtf8ByteWriter;
+    }
+
+    /**
+     * Set whether the sheet data should be encoded straight into UTF-8 byte buffers.
+     * <p>
+     *   By default each flushed cell is formatted into Strings and passed through
+     *   a character encoder. With this option enabled the rows are written into a reusable
+     *   byte buffer without creating intermediate Strings, which reduces the CPU time and
+     *   garbage produced for large exports. The generated XML is identical in both modes.
+     * </p>
+     * <p>
+     *   This only applies to sheets created after changing the option.
+     * </p>
+     * @param useUtf8ByteWriter whether to use the byte-level sheet data writer
+     * @since POI 3.16 beta 2
+     */
+    public void setUseUtf8ByteWriter(boolean useUtf8ByteWriter) {
+        _useUtf8ByteWriter = useUtf8ByteWriter;
+    }
+
+    /**
+     * Get the executor which is used to compress the sheets concurrently when writing.
+     *
+     * @return the executor, or {@code null} if the workbook is written on the calling thread
+     * @since POI 3.16 beta 2
+     */
+    public Executor getWriteExecutor() {
+        return _writeExecutor;
+    }
+
+    /**
+     * Set an executor to compress the sheets concurrently when writing.
+     * <p>
+     *   By default {@link #write(OutputStream)} copies every part of the package through a
+     *   single zip stream and thus deflates the data of all sheets one after the other.
+     *   With an executor, each part is deflated in its own task into a temporary file and the
+     *   precompressed entries are then stitched into the output in the original order.
+     *   This needs additional temporary disk space of about the size of the compressed workbook.
+     *   The temporary files are created by {@link #createSheetDataWriter()}, so they are
+     *   stored like the sheet data, e.g. encrypted by an overridden writer or gzipped again,
+     *   if the temp files are {@link #setCompressTempFiles(boolean) compressed}.
+     * </p>
+     * <p>
+     *   The executor is not shut down by the workbook. Each {@link SXSSFSheet} is only accessed
+     *   by one task, but the sheets must not be modified while the workbook is written.
+     * </p>
+     *
+     * @param executor the executor, or {@code null} to write on the calling thread
+     * @since POI 3.16 beta 2
+     */
+    public void setWriteExecutor(Executor executor) {
+        _writeExecutor = executor;
+    }
+
     @Internal
     protected SharedStringsTable getSharedStringSource() {
         return _sharedStringSource;
@@ -319,10 +400,10 @@ public class SXSSFWorkbook implements Workbook {
 
     protected SheetDataWriter createSheetDataWriter() throws IOException {
         if(_compressTmpFiles) {
-            return new GZIPSheetDataWriter(_sharedStringSource);
+            return new GZIPSheetDataWriter(_sharedStringSource, _useUtf8ByteWriter);
         }
         
-        return new SheetDataWriter(_sharedStringSource);
+        return new SheetDataWriter(_sharedStringSource, _useUtf8ByteWriter);
     }
 
     XSSFSheet getXSSFSheet(SXSSFSheet sheet)
@@ -369,6 +450,10 @@ public class SXSSFWorkbook implements Workbook {
     }
 
     protected void injectData(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
+        if (_writeExecutor != null) {
+            injectDataConcurrently(zipEntrySource, out);
+            return;
+        }
         try {
             ZipOutputStream zos = new ZipOutputStream(out);
             try {
@@ -399,6 +484,166 @@ public class SXSSFWorkbook implements Workbook {
         }
     }
 
+    private void injectDataConcurrently(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
+        final List<DeflatedZipWriter.Entry> entries = new ArrayList<DeflatedZipWriter.Entry>();
+        final List<EntryTask> tasks = new ArrayList<EntryTask>();
+        try {
+            try {
+                Enumeration<? extends ZipEntry> en = zipEntrySource.getEntries();
+                while (en.hasMoreElements()) {
+                    ZipEntry ze = en.nextElement();
+                    final DeflatedZipWriter.Entry entry = new DeflatedZipWriter.Entry(ze.getName(), createSheetDataWriter());
+                    entries.add(entry);
+                    InputStream is = zipEntrySource.getInputStream(ze);
+                    try {
+                        XSSFSheet xSheet=getSheetFromZipEntryName(ze.getName());
+                        if(xSheet!=null) {
+                            // the template part is small, the entry source might not be thread-safe
+                            final byte[] template = IOUtils.toByteArray(is);
+                            final SXSSFSheet sxSheet=getSXSSFSheet(xSheet);
+                            EntryTask task = new EntryTask(new Callable<DeflatedZipWriter.Entry>() {
+                                @Override
+                                public DeflatedZipWriter.Entry call() throws IOException {
+                                    OutputStream os = entry.openStream();
+                                    try {
+                                        InputStream xis = sxSheet.getWorksheetXMLInputStream();
+                                        try {
+                                            copyStreamAndInjectWorksheet(new ByteArrayInputStream(template), os, xis);
+                                        } finally {
+                                            xis.close();
+                                        }
+                                    } finally {
+                                        os.close();
+                                    }
+                                    return entry;
+                                }
+                            });
+                            tasks.add(task);
+                            _writeExecutor.execute(task);
+                        } else {
+                            OutputStream os = entry.openStream();
+                            try {
+                                IOUtils.copy(is, os);
+                            } finally {
+                                os.close();
+                            }
+                            EntryTask done = new EntryTask(new Callable<DeflatedZipWriter.Entry>() {
+                                @Override
+                                public DeflatedZipWriter.Entry call() {
+                                    return entry;
+                                }
+                            });
+                            done.run();
+                            tasks.add(done);
+                        }
+                    } finally {
+                        is.close();
+                    }
+                }
+            } finally {
+                zipEntrySource.close();
+            }
+
+            DeflatedZipWriter zw = new DeflatedZipWriter(out);
+            try {
+                for (EntryTask task : tasks) {
+                    DeflatedZipWriter.Entry entry = getDeflatedEntry(task);
+                    zw.putEntry(entry);
+                    if (!entry.dispose()) {
+                        logger.log(POILogger.WARN, "Could not delete temporary file of entry " + entry.getName());
+                    }
+                }
+            } finally {
+                zw.close();
+            }
+        } finally {
+            // skip the tasks which haven't started yet, but don't delete the files
+            // of the running tasks before they are finished
+            for (EntryTask task : tasks) {
+                task.cancelIfNotStarted();
+            }
+            for (EntryTask task : tasks) {
+                task.awaitQuietly();
+            }
+            for (DeflatedZipWriter.Entry entry : entries) {
+                entry.dispose();
+            }
+        }
+    }
+
+    /**
+     * The task writing a zip entry, which can only be cancelled before it is started
+     */
+    private static final class EntryTask extends FutureTask<DeflatedZipWriter.Entry> {
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        EntryTask(Callable<DeflatedZipWriter.Entry> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            if (started.compareAndSet(false, true)) {
+                super.run();
+            }
+        }
+
+        void cancelIfNotStarted() {
+            if (started.compareAndSet(false, true)) {
+                cancel(false);
+            }
+        }
+
+        /**
+         * Waits until the task is finished or cancelled, and ignores its failure
+         */
+        void awaitQuietly() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        get();
+                        return;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        // the first failure has already been reported
+                        return;
+                    } catch (CancellationException e) {
+                        return;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static DeflatedZipWriter.Entry getDeflatedEntry(EntryTask task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException iioe = new InterruptedIOException("Interrupted while compressing the sheet data");
+            iioe.initCause(e);
+            throw iioe;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     private static void copyStreamAndInjectWorksheet(InputStream in, OutputStream out, InputStream worksheetData) throws IOException {
         InputStreamReader inReader=new InputStreamReader(in,"UTF-8"); //TODO: Is it always UTF-8 or do we need to read the xml encoding declaration in the file? If not, we should perhaps use a SAX reader instead.
         OutputStreamWriter outWriter=new OutputStreamWriter(out,"UTF-8");
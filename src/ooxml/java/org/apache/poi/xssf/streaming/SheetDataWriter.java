@@ -39,7 +39,6 @@ import org.apache.poi.util.POILogFactory;
 import org.apache.poi.util.POILogger;
 import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.model.SharedStringsTable;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 
 /**
@@ -53,6 +52,11 @@ public class SheetDataWriter {
     
     private final File _fd;
     private final Writer _out;
+    /**
+     * the byte-level writer, same instance as {@link #_out},
+     * or {@code null} if the sheet data is written through the {@link #createWriter(File) Writer}
+     */
+    private final Utf8XmlWriter _utf8Out;
     private int _rownum;
     private int _numberOfFlushedRows;
     private int _lowestIndexOfFlushedRows; // meaningful only of _numberOfFlushedRows>0
@@ -66,12 +70,28 @@ public class SheetDataWriter {
     private SharedStringsTable _sharedStringSource;
 
     public SheetDataWriter() throws IOException {
-        _fd = createTempFile();
-        _out = createWriter(_fd);
+        this(null, false);
     }
 
     public SheetDataWriter(SharedStringsTable sharedStringsTable) throws IOException {
-        this();
+        this(sharedStringsTable, false);
+    }
+
+    /**
+     * @param sharedStringsTable the shared strings table, or null if inline text is used
+     * @param useUtf8ByteWriter if {@code true}, the rows are encoded straight into a reusable
+     *  UTF-8 byte buffer instead of being written through {@link #createWriter(File)}.
+     *  The produced XML is the same in both modes.
+     */
+    public SheetDataWriter(SharedStringsTable sharedStringsTable, boolean useUtf8ByteWriter) throws IOException {
+        _fd = createTempFile();
+        if (useUtf8ByteWriter) {
+            _utf8Out = new Utf8XmlWriter(createOutputStream(_fd));
+            _out = _utf8Out;
+        } else {
+            _utf8Out = null;
+            _out = createWriter(_fd);
+        }
         this._sharedStringSource = sharedStringsTable;
     }
     /**
@@ -92,16 +112,31 @@ public class SheetDataWriter {
      * @param  fd the file to write to
      */
     public Writer createWriter(File fd) throws IOException {
+        return new BufferedWriter(
+                new OutputStreamWriter(createOutputStream(fd), "UTF-8"));
+    }
+
+    /**
+     * Create the (decorated) output stream for the sheet data.
+     *
+     * @param  fd the file to write to
+     * @see #decorateOutputStream(FileOutputStream)
+     */
+    protected OutputStream createOutputStream(File fd) throws IOException {
         FileOutputStream fos = new FileOutputStream(fd);
-        OutputStream decorated;
         try {
-            decorated = decorateOutputStream(fos);
+            return decorateOutputStream(fos);
         } catch (final IOException e) {
             fos.close();
             throw e;
         }
-        return new BufferedWriter(
-                new OutputStreamWriter(decorated, "UTF-8"));
+    }
+
+    /**
+     * @return true, if the rows are encoded straight into a UTF-8 byte buffer
+     */
+    public boolean isUtf8ByteWriter() {
+        return _utf8Out != null;
     }
     
     /**
@@ -206,6 +241,10 @@ public class SheetDataWriter {
     }
 
     void beginRow(int rownum, SXSSFRow row) throws IOException {
+        if (_utf8Out != null) {
+            beginRowUtf8(rownum, row);
+            return;
+        }
         _out.write("<row r=\"" + (rownum + 1) + "\"");
         if (row.hasCustomHeight())
             _out.write(" customHeight=\"true\"  ht=\"" + row.getHeightInPoints() + "\"");
@@ -230,13 +269,54 @@ public class SheetDataWriter {
     }
 
     void endRow() throws IOException {
+        if (_utf8Out != null) {
+            _utf8Out.writeAscii("</row>\n");
+            return;
+        }
         _out.write("</row>\n");
     }
 
+    private void beginRowUtf8(int rownum, SXSSFRow row) throws IOException {
+        final Utf8XmlWriter out = _utf8Out;
+        out.writeAscii("<row r=\"");
+        out.writeLong(rownum + 1);
+        out.writeAscii("\"");
+        if (row.hasCustomHeight()) {
+            out.writeAscii(" customHeight=\"true\"  ht=\"");
+            out.writeAscii(Float.toString(row.getHeightInPoints()));
+            out.writeAscii("\"");
+        }
+        if (row.getZeroHeight())
+            out.writeAscii(" hidden=\"true\"");
+        if (row.isFormatted()) {
+            out.writeAscii(" s=\"");
+            out.writeLong(row.getRowStyleIndex());
+            out.writeAscii("\" customFormat=\"1\"");
+        }
+        if (row.getOutlineLevel() != 0) {
+            out.writeAscii(" outlineLevel=\"");
+            out.writeLong(row.getOutlineLevel());
+            out.writeAscii("\"");
+        }
+        if(row.getHidden() != null) {
+            out.writeAscii(row.getHidden() ? " hidden=\"1\"" : " hidden=\"0\"");
+        }
+        if(row.getCollapsed() != null) {
+            out.writeAscii(row.getCollapsed() ? " collapsed=\"1\"" : " collapsed=\"0\"");
+        }
+
+        out.writeAscii(">\n");
+        this._rownum = rownum;
+    }
+
     public void writeCell(int columnIndex, Cell cell) throws IOException {
         if (cell == null) {
             return;
         }
+        if (_utf8Out != null) {
+            writeCellUtf8(columnIndex, cell);
+            return;
+        }
         String ref = new CellReference(_rownum, columnIndex).formatAsString();
         _out.write("<c r=\"" + ref + "\"");
         CellStyle cellStyle = cell.getCellStyle();
@@ -271,8 +351,7 @@ public class SheetDataWriter {
             }
             case STRING: {
                 if (_sharedStringSource != null) {
-                    XSSFRichTextString rt = new XSSFRichTextString(cell.getStringCellValue());
-                    int sRef = _sharedStringSource.addEntry(rt.getCTRst());
+                    int sRef = _sharedStringSource.addEntry(cell.getStringCellValue());
 
                     _out.write(" t=\"" + STCellType.S.toString() + "\">");
                     _out.write("<v>");
@@ -315,6 +394,84 @@ public class SheetDataWriter {
     }
 
 
+    private void writeCellUtf8(int columnIndex, Cell cell) throws IOException {
+        final Utf8XmlWriter out = _utf8Out;
+        out.writeAscii("<c r=\"");
+        out.writeCellReference(_rownum, columnIndex);
+        out.writeAscii("\"");
+        CellStyle cellStyle = cell.getCellStyle();
+        if (cellStyle.getIndex() != 0) {
+            // need to convert the short to unsigned short as the indexes can be up to 64k
+            out.writeAscii(" s=\"");
+            out.writeLong(cellStyle.getIndex() & 0xffff);
+            out.writeAscii("\"");
+        }
+        CellType cellType = cell.getCellTypeEnum();
+        switch (cellType) {
+            case BLANK: {
+                out.writeAscii(">");
+                break;
+            }
+            case FORMULA: {
+                out.writeAscii("><f>");
+                outputQuotedString(cell.getCellFormula());
+                out.writeAscii("</f>");
+                switch (cell.getCachedFormulaResultTypeEnum()) {
+                    case NUMERIC:
+                        double nval = cell.getNumericCellValue();
+                        if (!Double.isNaN(nval)) {
+                            out.writeAscii("<v>");
+                            out.writeDouble(nval);
+                            out.writeAscii("</v>");
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                break;
+            }
+            case STRING: {
+                if (_sharedStringSource != null) {
+                    int sRef = _sharedStringSource.addEntry(cell.getStringCellValue());
+
+                    out.writeAscii(" t=\"s\"><v>");
+                    out.writeLong(sRef);
+                    out.writeAscii("</v>");
+                } else {
+                    String value = cell.getStringCellValue();
+                    out.writeAscii(hasLeadingTrailingSpaces(value)
+                            ? " t=\"inlineStr\"><is><t xml:space=\"preserve\">"
+                            : " t=\"inlineStr\"><is><t>");
+                    outputQuotedString(value);
+                    out.writeAscii("</t></is>");
+                }
+                break;
+            }
+            case NUMERIC: {
+                out.writeAscii(" t=\"n\"><v>");
+                out.writeDouble(cell.getNumericCellValue());
+                out.writeAscii("</v>");
+                break;
+            }
+            case BOOLEAN: {
+                out.writeAscii(cell.getBooleanCellValue() ? " t=\"b\"><v>1</v>" : " t=\"b\"><v>0</v>");
+                break;
+            }
+            case ERROR: {
+                FormulaError error = FormulaError.forInt(cell.getErrorCellValue());
+
+                out.writeAscii(" t=\"e\"><v>");
+                out.writeAscii(error.getString());
+                out.writeAscii("</v>");
+                break;
+            }
+            default: {
+                throw new IllegalStateException("Invalid cell type: " + cellType);
+            }
+        }
+        out.writeAscii("</c>");
+    }
+
     /**
      * @return  whether the string has leading / trailing spaces that
      *  need to be preserved with the xml:space=\"preserve\" attribute
@@ -328,11 +485,20 @@ public class SheetDataWriter {
         return false;
     }
 
+    /**
+     * Writes the string XML-escaped. Used by both the {@link Writer} and the byte-level
+     * mode, so subclasses can customize the escaping in either mode.
+     */
     //Taken from jdk1.3/src/javax/swing/text/html/HTMLWriter.java
      protected void outputQuotedString(String s) throws IOException {
         if (s == null || s.length() == 0) {
             return;
         }
+        if (_utf8Out != null) {
+            // same escaping, but encoded straight into the byte buffer
+            _utf8Out.writeQuoted(s);
+            return;
+        }
 
         char[] chars = s.toCharArray();
         int last = 0;
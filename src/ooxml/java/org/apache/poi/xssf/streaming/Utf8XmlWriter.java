@@ -0,0 +1,349 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+
+/**
+ * A {@link Writer} which encodes straight into a reusable UTF-8 byte buffer
+ * instead of going through a charset encoder.
+ * <p>
+ * Besides the usual {@link Writer} methods it offers a few allocation-free
+ * helpers used by {@link SheetDataWriter} to emit the sheet XML: ASCII markup,
+ * integers, doubles, column letters and escaped text.
+ * The text produced by these helpers is identical to the String based
+ * output of the {@link SheetDataWriter}.
+ */
+class Utf8XmlWriter extends Writer {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_COLUMNS = SpreadsheetVersion.EXCEL2007.getMaxColumns();
+
+    /** column letters of all columns, packed into three bytes per column */
+    private static final byte[] COLUMN_LETTERS = new byte[MAX_COLUMNS * 3];
+
+    static {
+        for (int col = 0; col < MAX_COLUMNS; col++) {
+            int len = columnLettersLength(col);
+            int rem = col + 1;
+            for (int i = len - 1; i >= 0; i--) {
+                int mod = (rem - 1) % 26;
+                COLUMN_LETTERS[col * 3 + i] = (byte) ('A' + mod);
+                rem = (rem - mod) / 26;
+            }
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = new double[16];
+
+    static {
+        double p = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = p;
+            p *= 10;
+        }
+    }
+
+    /**
+     * Doubles with up to 15 significant digits are printed without going
+     * through {@link Double#toString(double)}, larger ones use the JDK.
+     */
+    private static final double MAX_FAST_DIGITS = 1e15;
+
+    private final OutputStream _out;
+    private final byte[] _buf;
+    private int _pos;
+    private int _pendingHighSurrogate = -1;
+
+    Utf8XmlWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    Utf8XmlWriter(OutputStream out, int bufferSize) {
+        // room for the longest single value emitted in one go (a long in decimal)
+        if (bufferSize < 32) {
+            throw new IllegalArgumentException("buffer size must be at least 32 bytes, but was " + bufferSize);
+        }
+        _out = out;
+        _buf = new byte[bufferSize];
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensure(4);
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            ensure(4);
+            encode(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            ensure(4);
+            encode(str.charAt(i));
+        }
+    }
+
+    private void encode(char c) {
+        if (_pendingHighSurrogate != -1) {
+            int high = _pendingHighSurrogate;
+            _pendingHighSurrogate = -1;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint((char) high, c);
+                _buf[_pos++] = (byte) (0xf0 | (cp >> 18));
+                _buf[_pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                _buf[_pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                _buf[_pos++] = (byte) (0x80 | (cp & 0x3f));
+                return;
+            }
+            // unpaired surrogate - same replacement as the JDK encoder,
+            // the 4 bytes checked by the caller leave room for the current char
+            _buf[_pos++] = '?';
+        }
+        if (c < 0x80) {
+            _buf[_pos++] = (byte) c;
+        } else if (c < 0x800) {
+            _buf[_pos++] = (byte) (0xc0 | (c >> 6));
+            _buf[_pos++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c)) {
+            _pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            _buf[_pos++] = '?';
+        } else {
+            _buf[_pos++] = (byte) (0xe0 | (c >> 12));
+            _buf[_pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            _buf[_pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    /**
+     * Appends a string which is known to consist of ASCII characters only,
+     * e.g. XML markup
+     */
+    void writeAscii(String str) throws IOException {
+        int len = str.length();
+        int off = 0;
+        while (off < len) {
+            if (_pos == _buf.length) {
+                flushBuffer();
+            }
+            int n = Math.min(len - off, _buf.length - _pos);
+            for (int i = 0; i < n; i++) {
+                _buf[_pos++] = (byte) str.charAt(off + i);
+            }
+            off += n;
+        }
+    }
+
+    /**
+     * Appends the decimal representation of the given value,
+     * as {@link String#valueOf(long)} would produce it
+     */
+    void writeLong(long value) throws IOException {
+        ensure(20);
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            _buf[_pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        _pos += digits;
+        int p = _pos;
+        do {
+            _buf[--p] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+    }
+
+    /**
+     * Appends the given value, as {@link Double#toString(double)} would produce it
+     */
+    void writeDouble(double value) throws IOException {
+        double abs = Math.abs(value);
+        // Double.toString() uses the plain notation within this range
+        if (abs == 0 || (abs >= 1e-3 && abs < 1e7)) {
+            for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+                double scaled = abs * POWERS_OF_TEN[scale];
+                if (scaled >= MAX_FAST_DIGITS) {
+                    break;
+                }
+                long digits = (long) Math.rint(scaled);
+                // the shortest decimal which parses back to the same double
+                if (digits / POWERS_OF_TEN[scale] == abs) {
+                    writePlainDecimal(Double.doubleToRawLongBits(value) < 0, digits, scale);
+                    return;
+                }
+            }
+        }
+        writeAscii(Double.toString(value));
+    }
+
+    private void writePlainDecimal(boolean negative, long digits, int scale) throws IOException {
+        ensure(20);
+        if (negative) {
+            _buf[_pos++] = '-';
+        }
+        long unit = (long) POWERS_OF_TEN[scale];
+        writeLong(digits / unit);
+        ensure(20);
+        _buf[_pos++] = '.';
+        if (scale == 0) {
+            _buf[_pos++] = '0';
+            return;
+        }
+        long fraction = digits % unit;
+        _pos += scale;
+        int p = _pos;
+        for (int i = 0; i < scale; i++) {
+            _buf[--p] = (byte) ('0' + (fraction % 10));
+            fraction /= 10;
+        }
+    }
+
+    /**
+     * Appends the A1-style reference of the given cell,
+     * as {@link org.apache.poi.ss.util.CellReference#formatAsString()} would
+     * produce it for a relative reference
+     */
+    void writeCellReference(int row, int col) throws IOException {
+        if (col < 0 || col >= MAX_COLUMNS) {
+            throw new IllegalArgumentException("Invalid column index (" + col
+                    + ").  Allowable column range for " + SpreadsheetVersion.EXCEL2007.name()
+                    + " is (0.." + (MAX_COLUMNS - 1) + ")");
+        }
+        ensure(3);
+        int len = columnLettersLength(col);
+        System.arraycopy(COLUMN_LETTERS, col * 3, _buf, _pos, len);
+        _pos += len;
+        writeLong(row + 1);
+    }
+
+    private static int columnLettersLength(int col) {
+        return col < 26 ? 1 : col < 26 + 26 * 26 ? 2 : 3;
+    }
+
+    /**
+     * Appends the given string with the escaping rules of
+     * {@link SheetDataWriter#outputQuotedString(String)}
+     */
+    void writeQuoted(String s) throws IOException {
+        if (s == null) {
+            return;
+        }
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            // the longest replacement is "&#65533;"
+            ensure(8);
+            char c = s.charAt(i);
+            switch (c) {
+                case '<':
+                    putAscii("&lt;");
+                    break;
+                case '>':
+                    putAscii("&gt;");
+                    break;
+                case '&':
+                    putAscii("&amp;");
+                    break;
+                case '"':
+                    putAscii("&quot;");
+                    break;
+                // Special characters
+                case '\n':
+                case '\r':
+                    putAscii("&#xa;");
+                    break;
+                case '\t':
+                    putAscii("&#x9;");
+                    break;
+                case 0xa0:
+                    putAscii("&#xa0;");
+                    break;
+                default:
+                    if (c < ' ' || Character.isLowSurrogate(c) || Character.isHighSurrogate(c) ||
+                            ('\uFFFE' <= c && c <= '\uFFFF')) {
+                        _buf[_pos++] = '?';
+                    } else if (c > 127) {
+                        _buf[_pos++] = '&';
+                        _buf[_pos++] = '#';
+                        writeLong(c);
+                        _buf[_pos++] = ';';
+                    } else {
+                        _buf[_pos++] = (byte) c;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /** copies a short ASCII string, the caller has to make sure there's enough room */
+    private void putAscii(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            _buf[_pos++] = (byte) str.charAt(i);
+        }
+    }
+
+    private void ensure(int len) throws IOException {
+        if (_pos + len > _buf.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (_pos > 0) {
+            _out.write(_buf, 0, _pos);
+            _pos = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        _out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (_pendingHighSurrogate != -1) {
+                _pendingHighSurrogate = -1;
+                ensure(1);
+                _buf[_pos++] = '?';
+            }
+            flushBuffer();
+        } finally {
+            _out.close();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationName;
 import org.apache.poi.ss.formula.EvaluationWorkbook;
 import org.apache.poi.ss.formula.FormulaParser;
@@ -70,6 +71,14 @@ public abstract class BaseXSSFEvaluationWorkbook implements FormulaRenderingWork
     public void clearAllCachedResultValues() {
         _tableCache = null;
     }
+
+    /* (non-JavaDoc), inherit JavaDoc from EvaluationWorkbook
+     * @since POI 3.16 beta 2
+     */
+    @Override
+    public void notifyUpdateCell(EvaluationCell cell) {
+        // nothing to do
+    }
     
     private int convertFromExternalSheetIndex(int externSheetIndex) {
         return externSheetIndex;
@@ -17,12 +17,21 @@
 
 package org.apache.poi.xssf.usermodel;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationSheet;
 import org.apache.poi.ss.formula.FormulaParser;
 import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.SharedFormula;
 import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.util.Internal;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
 
 /**
  * Internal POI use only
@@ -30,6 +39,19 @@ import org.apache.poi.util.Internal;
 @Internal
 public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     private XSSFEvaluationSheet[] _sheetCache;
+
+    /**
+     * Parsed formula tokens by cell, dropped via {@link #notifyUpdateCell(EvaluationCell)}
+     * or {@link #clearAllCachedResultValues()}
+     */
+    private final Map<XSSFCell, Ptg[]> _formulaCache = new IdentityHashMap<XSSFCell, Ptg[]>();
+
+    /**
+     * Parsed tokens of the master formulas of shared formula groups.
+     * The sheets keep detached copies of the master formulas, which are replaced
+     * instead of modified, so the identity of the copy is used as key.
+     */
+    private final Map<CTCellFormula, Ptg[]> _sharedFormulaCache = new IdentityHashMap<CTCellFormula, Ptg[]>();
     
     public static XSSFEvaluationWorkbook create(XSSFWorkbook book) {
         if (book == null) {
@@ -49,6 +71,16 @@ public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     public void clearAllCachedResultValues() {
         super.clearAllCachedResultValues();
         _sheetCache = null;
+        _formulaCache.clear();
+        _sharedFormulaCache.clear();
+    }
+
+    /* (non-JavaDoc), inherit JavaDoc from EvaluationWorkbook
+     * @since POI 3.16 beta 2
+     */
+    @Override
+    public void notifyUpdateCell(EvaluationCell cell) {
+        _formulaCache.remove(((XSSFEvaluationCell)cell).getXSSFCell());
     }
     
     @Override
@@ -77,11 +109,43 @@ public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
         return _sheetCache[sheetIndex];
     }
 
+    /**
+     * Returns the parsed formula of the cell. The tokens are cached until the cell
+     * is reported as changed via {@link #notifyUpdateCell(EvaluationCell)}.
+     * Cells of a shared formula group are not parsed on their own, but relocated
+     * from the parsed master formula.
+     */
     @Override    
     public Ptg[] getFormulaTokens(EvaluationCell evalCell) {
         final XSSFCell cell = ((XSSFEvaluationCell)evalCell).getXSSFCell();
-        final int sheetIndex = _uBook.getSheetIndex(cell.getSheet());
+        Ptg[] ptgs = _formulaCache.get(cell);
+        if (ptgs == null) {
+            ptgs = parseFormula(cell);
+            _formulaCache.put(cell, ptgs);
+        }
+        return ptgs;
+    }
+
+    private Ptg[] parseFormula(XSSFCell cell) {
+        final XSSFSheet sheet = cell.getSheet();
+        final int sheetIndex = _uBook.getSheetIndex(sheet);
         final int rowIndex = cell.getRowIndex();
+
+        CTCellFormula f = cell.getCTCell().getF();
+        if (f != null && f.getT() == STCellFormulaType.SHARED && cell.getCellTypeEnum() == CellType.FORMULA) {
+            CTCellFormula master = sheet.getSharedFormula((int)f.getSi());
+            if (master != null) {
+                CellRangeAddress ref = CellRangeAddress.valueOf(master.getRef());
+                Ptg[] masterPtgs = _sharedFormulaCache.get(master);
+                if (masterPtgs == null) {
+                    masterPtgs = FormulaParser.parse(master.getStringValue(), this, FormulaType.CELL, sheetIndex, ref.getFirstRow());
+                    _sharedFormulaCache.put(master, masterPtgs);
+                }
+                SharedFormula sf = new SharedFormula(SpreadsheetVersion.EXCEL2007);
+                return sf.convertSharedFormulas(masterPtgs,
+                        rowIndex - ref.getFirstRow(), cell.getColumnIndex() - ref.getFirstColumn());
+            }
+        }
         return FormulaParser.parse(cell.getCellFormula(this), this, FormulaType.CELL, sheetIndex, rowIndex);
     }
 }
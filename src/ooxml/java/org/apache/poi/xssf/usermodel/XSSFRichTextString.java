@@ -469,7 +469,8 @@ public class XSSFRichTextString implements RichTextString {
      *
      * @param xs    the string to check
      */
-    protected static void preserveSpaces(STXstring xs) {
+    @Internal
+    public static void preserveSpaces(STXstring xs) {
         String text = xs.getStringValue();
         if (text != null && text.length() > 0) {
             char firstChar = text.charAt(0);
@@ -48,7 +48,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
     /**
      * the xml bean containing all cell definitions for this row
      */
-    private final CTRow _row;
+    private CTRow _row;
 
     /**
      * Cells of this row keyed by their column indexes.
@@ -514,6 +514,22 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
     	return _row;
     }
 
+    /**
+     * Binds this row and its cells to a new CTRow with the same content, e.g. when
+     * the sheet reorders its rows, as XMLBeans replaces the beans of an array.
+     * The cells in the CTRow need to be ordered, see {@link #onDocumentWrite()}.
+     *
+     * @param row the xml bean, which replaces the current one
+     */
+    protected void setCTRow(CTRow row) {
+        _row = row;
+        CTCell[] cArray = row.getCArray();
+        int i = 0;
+        for (XSSFCell cell : _cells.values()) {
+            cell.setCTCell(cArray[i++]);
+        }
+    }
+
     /**
      * Fired when the document is written to an output stream.
      *
@@ -120,6 +120,11 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
     protected CTWorksheet worksheet;
 
     private final SortedMap<Integer, XSSFRow> _rows = new TreeMap<Integer, XSSFRow>();
+    /**
+     * true, if the CTRows in the sheet data aren't in the order of {@link #_rows},
+     * i.e. rows were created out of order. They are sorted by {@link #sortRows()}.
+     */
+    private boolean _rowsUnsorted;
     private List<XSSFHyperlink> hyperlinks;
     private ColumnHelper columnHelper;
     private CommentsTable sheetComments;
@@ -178,6 +183,41 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
         }
     }
 
+    /**
+     * @return true, if the worksheet is parsed, false if the sheet is loaded on demand
+     *  and wasn't accessed yet or if it was unloaded
+     *
+     * @see XSSFWorkbook#XSSFWorkbook(org.apache.poi.openxml4j.opc.OPCPackage, boolean)
+     */
+    boolean isLoaded() {
+        return worksheet != null;
+    }
+
+    /**
+     * Parses the worksheet, if it isn't loaded yet
+     */
+    void load() {
+        if (!isLoaded()) {
+            onDocumentRead();
+        }
+    }
+
+    /**
+     * Discards the parsed worksheet, it's parsed again from the package part on the next access.
+     * Changes, which weren't written yet, are lost.
+     */
+    void unload() {
+        worksheet = null;
+        _rows.clear();
+        _rowsUnsorted = false;
+        hyperlinks = null;
+        columnHelper = null;
+        sheetComments = null;
+        tables = null;
+        sharedFormulas = null;
+        arrayFormulas = null;
+    }
+
     protected void read(InputStream is) throws IOException {
         try {
             worksheet = WorksheetDocument.Factory.parse(is, DEFAULT_XML_OPTIONS).getWorksheet();
@@ -196,7 +236,8 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
             if(p instanceof XSSFTable) {
                tables.put( rp.getRelationship().getId(), (XSSFTable)p );
             }
-            if(p instanceof XSSFPivotTable) {
+            // the pivot tables are already known, if the sheet was unloaded before
+            if(p instanceof XSSFPivotTable && !getWorkbook().getPivotTables().contains(p)) {
                 getWorkbook().getPivotTables().add((XSSFPivotTable) p);
             }
         }
@@ -221,10 +262,14 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
         tables = new TreeMap<String, XSSFTable>();
         sharedFormulas = new HashMap<Integer, CTCellFormula>();
         arrayFormulas = new ArrayList<CellRangeAddress>();
+        _rowsUnsorted = false;
         for (CTRow row : worksheetParam.getSheetData().getRowArray()) {
             XSSFRow r = new XSSFRow(row, this);
             // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
             final Integer rownumI = new Integer(r.getRowNum()); // NOSONAR
+            if (!_rows.isEmpty() && r.getRowNum() <= _rows.lastKey()) {
+                _rowsUnsorted = true;
+            }
             _rows.put(rownumI, r);
         }
     }
@@ -725,15 +770,12 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
             ctRow = prev.getCTRow();
             ctRow.set(CTRow.Factory.newInstance());
         } else {
-            if(_rows.isEmpty() || rownum > _rows.lastKey()) {
-                // we can append the new row at the end
-                ctRow = worksheet.getSheetData().addNewRow();
-            } else {
-                // get number of rows where row index < rownum
-                // --> this tells us where our row should go
-                int idx = _rows.headMap(rownumI).size();
-                ctRow = worksheet.getSheetData().insertNewRow(idx);
+            if(!_rows.isEmpty() && rownum < _rows.lastKey()) {
+                // inserting the CTRow at its position is linear in the number of rows,
+                // so the row is appended and the rows are sorted when needed
+                _rowsUnsorted = true;
             }
+            ctRow = worksheet.getSheetData().addNewRow();
         }
         XSSFRow r = new XSSFRow(ctRow, this);
         r.setRowNum(rownum);
@@ -1955,6 +1997,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
         // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
         final int rowNum = row.getRowNum();
         final Integer rowNumI = new Integer(rowNum); // NOSONAR
+        sortRows();
         // this is not the physical row number!
         final int idx = _rows.headMap(rowNumI).size();
         _rows.remove(rowNumI);
@@ -2975,6 +3018,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
         XSSFVMLDrawing vml = getVMLDrawing(false);
 
         // first remove all rows which will be overwritten
+        sortRows();
         for (Iterator<Row> it = rowIterator() ; it.hasNext() ; ) {
             XSSFRow row = (XSSFRow)it.next();
             int rownum = row.getRowNum();
@@ -3446,8 +3490,44 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
         }
     }
 
+    /**
+     * Orders the CTRows in the sheet data like the rows, if rows were created out of order.
+     * The CTRows are replaced by copies, so the rows and cells are bound to the new beans.
+     */
+    private void sortRows() {
+        if (!_rowsUnsorted) {
+            return;
+        }
+        CTRow[] ctRows = new CTRow[_rows.size()];
+        int i = 0;
+        for (XSSFRow row : _rows.values()) {
+            // order the cells, so that they match the cells of the copy by position
+            row.onDocumentWrite();
+            ctRows[i++] = (CTRow)row.getCTRow().copy();
+        }
+        CTSheetData sheetData = worksheet.getSheetData();
+        sheetData.setRowArray(ctRows);
+        ctRows = sheetData.getRowArray();
+        i = 0;
+        for (XSSFRow row : _rows.values()) {
+            row.setCTRow(ctRows[i++]);
+        }
+        _rowsUnsorted = false;
+    }
+
+    @Override
+    protected void prepareForCommit() {
+        // a sheet, which isn't loaded, keeps the content of its package part
+        if (isLoaded()) {
+            super.prepareForCommit();
+        }
+    }
+
     @Override
     protected void commit() throws IOException {
+        if (!isLoaded()) {
+            return;
+        }
         PackagePart part = getPackagePart();
         OutputStream out = part.getOutputStream();
         write(out);
@@ -3500,6 +3580,8 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
             }
         }
 
+        sortRows();
+
         int minCell=Integer.MAX_VALUE, maxCell=Integer.MIN_VALUE;
         for(XSSFRow row : _rows.values()){
             // first perform the normal write actions for the row
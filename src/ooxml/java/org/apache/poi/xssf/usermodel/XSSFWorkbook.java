@@ -151,6 +151,11 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
      */
     private List<XSSFSheet> sheets;
 
+    /**
+     * true, if the sheets are parsed on their first access instead of when the workbook is read
+     */
+    private boolean loadSheetsOnDemand;
+
     /**
      * this holds the XSSFName objects attached to this workbook, keyed by lower-case name
      */
@@ -258,8 +263,30 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
      * @param pkg the OpenXML4J <code>OPC Package</code> object.
      */
     public XSSFWorkbook(OPCPackage pkg) throws IOException {
+        this(pkg, false);
+    }
+
+    /**
+     * Constructs a XSSFWorkbook object given a OpenXML4J <code>Package</code> object,
+     *  optionally without parsing the sheets up front.
+     *
+     * <p>If the sheets are loaded on demand, a sheet is parsed when it is accessed the first
+     * time via {@link #getSheetAt(int)}, {@link #getSheet(String)} or {@link #sheetIterator()}.
+     * Workbook operations, which need the content of all sheets, e.g. renaming a sheet,
+     * load the remaining sheets. Sheets, which were never loaded, are written unchanged.
+     * Loaded sheets can be unloaded again via {@link #unloadSheetAt(int)}.
+     *
+     * <p>This reduces the time and memory needed to read a few sheets of a large workbook.
+     *
+     * @param pkg the OpenXML4J <code>OPC Package</code> object.
+     * @param loadSheetsOnDemand true to parse the sheets on their first access
+     *
+     * @since POI 3.16 beta 2
+     */
+    public XSSFWorkbook(OPCPackage pkg, boolean loadSheetsOnDemand) throws IOException {
         super(pkg);
-        
+        this.loadSheetsOnDemand = loadSheetsOnDemand;
+
         beforeDocumentRead();
         
         // Build a tree of POIXMLDocumentParts, this workbook being the root
@@ -435,7 +462,9 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
             return;
         }
         sh.sheet = ctSheet;
-        sh.onDocumentRead();
+        if (!loadSheetsOnDemand) {
+            sh.onDocumentRead();
+        }
         sheets.add(sh);
     }
 
@@ -581,7 +610,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
      */
     public XSSFSheet cloneSheet(int sheetNum, String newName) {
         validateSheetIndex(sheetNum);
-        XSSFSheet srcSheet = sheets.get(sheetNum);
+        XSSFSheet srcSheet = getSheetAt(sheetNum);
 
         if (newName == null) {
             String srcName = srcSheet.getSheetName();
@@ -1115,6 +1144,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
     public XSSFSheet getSheet(String name) {
         for (XSSFSheet sheet : sheets) {
             if (name.equalsIgnoreCase(sheet.getSheetName())) {
+                sheet.load();
                 return sheet;
             }
         }
@@ -1132,7 +1162,47 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
     @Override
     public XSSFSheet getSheetAt(int index) {
         validateSheetIndex(index);
-        return sheets.get(index);
+        XSSFSheet sheet = sheets.get(index);
+        sheet.load();
+        return sheet;
+    }
+
+    /**
+     * Checks, if the sheet is parsed. This is always the case, unless the sheets
+     * are loaded on demand or the sheet was unloaded.
+     *
+     * @param index of the sheet number (0-based physical &amp; logical)
+     * @return true, if the sheet is parsed
+     *
+     * @see #XSSFWorkbook(OPCPackage, boolean)
+     * @since POI 3.16 beta 2
+     */
+    public boolean isSheetLoaded(int index) {
+        validateSheetIndex(index);
+        return sheets.get(index).isLoaded();
+    }
+
+    /**
+     * Discards the parsed content of a sheet to free its memory. The sheet is parsed
+     * again from its package part, when it's accessed the next time.
+     *
+     * <p>This is meant for sheets, which were only read: changes of the sheet,
+     * which weren't written yet, are lost. Don't use any references to the sheet,
+     * its rows or cells after unloading it, but get the sheet again via {@link #getSheetAt(int)}.
+     *
+     * @param index of the sheet number (0-based physical &amp; logical)
+     * @throws IllegalStateException if the sheet was created and has no content to reload
+     *
+     * @see #XSSFWorkbook(OPCPackage, boolean)
+     * @since POI 3.16 beta 2
+     */
+    public void unloadSheetAt(int index) {
+        validateSheetIndex(index);
+        XSSFSheet sheet = sheets.get(index);
+        if (sheet.getPackagePart().getSize() == 0) {
+            throw new IllegalStateException("The sheet '" + sheet.getSheetName() + "' was never written and can't be unloaded");
+        }
+        sheet.unload();
     }
 
     /**
@@ -1229,7 +1299,9 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
         }
         @Override
         public T next() throws NoSuchElementException {
-            return it.next();
+            T sheet = it.next();
+            ((XSSFSheet)sheet).load();
+            return sheet;
         }
         /**
          * Unexpected behavior may occur if sheets are reordered after iterator
@@ -1643,6 +1715,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
     public void setSelectedTab(int index) {
         int idx = 0;
         for (XSSFSheet sh : sheets) {
+            sh.load();
             sh.setSelected(idx == index);
             idx++;
         }
@@ -2424,6 +2497,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook {
     public XSSFTable getTable(String name) {
         if (name != null && sheets != null) {
             for (XSSFSheet sheet : sheets) {
+                sheet.load();
                 for (XSSFTable tbl : sheet.getTables()) {
                     if (name.equalsIgnoreCase(tbl.getName())) {
                         return tbl;
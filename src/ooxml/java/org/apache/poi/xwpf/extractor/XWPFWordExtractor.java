@@ -87,22 +87,41 @@ public class XWPFWordExtractor extends POIXMLTextExtractor {
     }
 
     public String getText() {
+        StringBuilder text = new StringBuilder();
+        try {
+            writeText(text);
+        } catch (IOException e) {
+            // not thrown by a StringBuilder
+            throw new IllegalStateException(e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the text of the headers, the body elements and the footers.
+     * The text is written per body element, i.e. paragraph or table.
+     */
+    @Override
+    public void writeText(Appendable out) throws IOException {
         StringBuffer text = new StringBuffer();
         XWPFHeaderFooterPolicy hfPolicy = document.getHeaderFooterPolicy();
 
         // Start out with all headers
         extractHeaders(text, hfPolicy);
+        out.append(text);
+        text.setLength(0);
 
         // Process all body elements
         for (IBodyElement e : document.getBodyElements()) {
             appendBodyElementText(text, e);
             text.append('\n');
+            out.append(text);
+            text.setLength(0);
         }
 
         // Finish up with all the footers
         extractFooters(text, hfPolicy);
-
-        return text.toString();
+        out.append(text);
     }
 
     public void appendBodyElementText(StringBuffer text, IBodyElement e) {
@@ -27,6 +27,12 @@ import static org.junit.Assert.fail;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.POIOLE2TextExtractor;
@@ -1011,6 +1017,58 @@ public class TestExtractorFactory {
         }
     }
 
+    @Test
+    public void testExtractTextInParallel() throws Exception {
+        List<File> files = Arrays.asList(xls, xlsx, docx, ppt, xlsEmb, docEmb, txt);
+        final Map<String,StringBuilder> texts = new HashMap<String,StringBuilder>();
+        final Map<String,ExtractionResult<File>> results = new HashMap<String,ExtractionResult<File>>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ExtractorFactory.extractText(files, executor, new DocumentTextSink<File>() {
+                public synchronized Appendable startDocument(File source, String path) {
+                    StringBuilder sb = new StringBuilder();
+                    texts.put(source.getName() + path, sb);
+                    return sb;
+                }
+
+                public synchronized void endDocument(ExtractionResult<File> result) {
+                    results.put(result.getSource().getName() + result.getPath(), result);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        for (File file : Arrays.asList(xls, xlsx, docx, ppt)) {
+            POITextExtractor ext = ExtractorFactory.createExtractor(file);
+            assertEquals(ext.getText(), texts.get(file.getName()).toString());
+            ext.close();
+
+            ExtractionResult<File> result = results.get(file.getName());
+            assertTrue(result.isSuccessful());
+            assertFalse(result.isEmbedded());
+            assertEquals(0, result.getEmbeddedCount());
+            assertEquals(texts.get(file.getName()).length(), result.getTextLength());
+        }
+
+        assertEquals(6, results.get(xlsEmb.getName()).getEmbeddedCount());
+        assertEquals(4, results.get(docEmb.getName()).getEmbeddedCount());
+        for (int i = 0; i < 6; i++) {
+            ExtractionResult<File> result = results.get(xlsEmb.getName() + "/" + i);
+            assertTrue(result.isSuccessful());
+            assertTrue(result.isEmbedded());
+            assertTrue(texts.get(xlsEmb.getName() + "/" + i).length() > 20);
+        }
+
+        // failures are reported and don't stop the batch
+        ExtractionResult<File> failed = results.get(txt.getName());
+        assertFalse(failed.isSuccessful());
+        assertTrue(failed.getException() instanceof IllegalArgumentException);
+
+        assertEquals(7 + 6 + 4, results.size());
+    }
+
     @Test
     public void testGetEmbeddedFromXMLExtractor() {
         try {
@@ -17,14 +17,17 @@
 
 package org.apache.poi.openxml4j.opc;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,6 +35,9 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.POITextExtractor;
@@ -41,11 +47,16 @@ import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.openxml4j.OpenXML4JTestDataSamples;
 import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
 import org.apache.poi.openxml4j.exceptions.ODFNotOfficeXmlFileException;
+import org.apache.poi.openxml4j.exceptions.OLE2NotOfficeXmlFileException;
 import org.apache.poi.sl.usermodel.SlideShow;
 import org.apache.poi.sl.usermodel.SlideShowFactory;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.openxml4j.util.TempFileZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipInputStreamZipEntrySource;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.xwpf.usermodel.XWPFRelation;
 import org.apache.xmlbeans.XmlException;
 import org.junit.Test;
@@ -79,6 +90,105 @@ public class TestZipPackage {
         is.close();
     }
 
+    @Test
+    public void unmodifiedImagesAreStored() throws Exception {
+        File file = XSSFTestDataSamples.getSampleFile("picture.xlsx");
+        String image = "xl/media/10000000000006450000032120C875D8.jpg";
+        ZipFile zip = new ZipFile(file);
+        byte[] imageData = IOUtils.toByteArray(zip.getInputStream(zip.getEntry(image)));
+        zip.close();
+
+        for (boolean fromStream : new boolean[] { false, true }) {
+            OPCPackage pkg;
+            if (fromStream) {
+                InputStream is = new FileInputStream(file);
+                pkg = OPCPackage.open(is);
+                is.close();
+            } else {
+                pkg = OPCPackage.open(file);
+            }
+            XSSFWorkbook wb = new XSSFWorkbook(pkg);
+            wb.getSheetAt(0).createRow(20).createCell(0).setCellValue("modified");
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            wb.write(bos);
+            pkg.revert();
+
+            boolean foundImage = false;
+            ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()));
+            for (ZipEntry entry; (entry = zis.getNextEntry()) != null; ) {
+                byte[] data = IOUtils.toByteArray(zis);
+                if (entry.getName().equals(image)) {
+                    // the image isn't compressed again
+                    assertEquals(ZipEntry.STORED, entry.getMethod());
+                    assertArrayEquals(imageData, data);
+                    foundImage = true;
+                } else {
+                    assertEquals(entry.getName(), ZipEntry.DEFLATED, entry.getMethod());
+                }
+            }
+            zis.close();
+            assertTrue(foundImage);
+
+            XSSFWorkbook wb2 = new XSSFWorkbook(new ByteArrayInputStream(bos.toByteArray()));
+            assertEquals("modified", wb2.getSheetAt(0).getRow(20).getCell(0).getStringCellValue());
+            assertEquals(1, wb2.getAllPictures().size());
+            assertArrayEquals(imageData, wb2.getAllPictures().get(0).getData());
+            wb2.close();
+        }
+    }
+
+    @Test
+    public void spoolLargeStreamsToTempFile() throws Exception {
+        File file = XSSFTestDataSamples.getSampleFile("picture.xlsx");
+        try {
+            // larger than the threshold
+            TempFileZipEntrySource.setThresholdBytes(1000);
+            ZipPackage pkg = new ZipPackage(new FileInputStream(file), PackageAccess.READ);
+            assertTrue(pkg.getZipArchive() instanceof TempFileZipEntrySource);
+            File tmpFile = ((TempFileZipEntrySource)pkg.getZipArchive()).getTmpFile();
+            assertEquals(file.length(), tmpFile.length());
+
+            XSSFWorkbook wb = new XSSFWorkbook(pkg);
+            assertEquals(1, wb.getAllPictures().size());
+            assertEquals(431439, wb.getAllPictures().get(0).getData().length);
+            wb.close();
+            assertTrue(pkg.getZipArchive().isClosed());
+            assertFalse(tmpFile.exists());
+
+            // smaller than the threshold
+            TempFileZipEntrySource.setThresholdBytes(file.length());
+            pkg = new ZipPackage(new FileInputStream(file), PackageAccess.READ);
+            assertTrue(pkg.getZipArchive() instanceof ZipInputStreamZipEntrySource);
+            assertEquals(14, pkg.getParts().size());
+            pkg.close();
+
+            // a workbook opened read-write from a stream releases the spooled file on close
+            TempFileZipEntrySource.setThresholdBytes(0);
+            InputStream is = new FileInputStream(file);
+            try {
+                wb = new XSSFWorkbook(is);
+            } finally {
+                is.close();
+            }
+            pkg = (ZipPackage)wb.getPackage();
+            tmpFile = ((TempFileZipEntrySource)pkg.getZipArchive()).getTmpFile();
+            assertTrue(tmpFile.exists());
+            wb.close();
+            assertTrue(pkg.getZipArchive().isClosed());
+            assertFalse(tmpFile.exists());
+
+            // the header is checked before the stream is spooled
+            try {
+                new ZipPackage(HSSFTestDataSamples.openSampleFileStream("SampleSS.xls"), PackageAccess.READ);
+                fail("Shouldn't work");
+            } catch (OLE2NotOfficeXmlFileException e) {
+                // expected
+            }
+        } finally {
+            TempFileZipEntrySource.setThresholdBytes(-1);
+        }
+    }
+
     @Test
     public void testZipEntityExpansionTerminates() throws IOException {
         try {
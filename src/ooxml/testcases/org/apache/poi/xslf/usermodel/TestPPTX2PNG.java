@@ -100,4 +100,18 @@ public class TestPPTX2PNG {
         };
         PPTX2PNG.main(args);
     }
+
+    @Test
+    public void renderParallel() throws Exception {
+        assumeFalse("ignore HSLF / .ppt files in no-scratchpad run", xslfOnly && pptFile.toLowerCase(Locale.ROOT).endsWith("ppt"));
+
+        String[] args = {
+            "-format", "null",
+            "-slide", "-1",
+            "-threads", "4",
+            "-quiet",
+            (basedir == null ? samples.getFile(pptFile) : new File(basedir, pptFile)).getAbsolutePath()
+        };
+        PPTX2PNG.main(args);
+    }
 }
@@ -0,0 +1,207 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+public final class TestColumnarSheet {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    public void sameAsUsermodel() throws Exception {
+        String[] samples = {
+            "SampleSS.xlsx", "sample.xlsx", "WithVariousData.xlsx", "Formatting.xlsx",
+            "InlineStrings.xlsx", "shared_formulas.xlsx", "FormulaEvalTestData_Copy.xlsx",
+            "noSharedStringTable.xlsx"
+        };
+        DataFormatter formatter = new DataFormatter(LocaleUtil.getUserLocale());
+        for (String sample : samples) {
+            XSSFWorkbook wb = XSSFTestDataSamples.openSampleWorkbook(sample);
+            OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream(sample));
+            try {
+                ColumnarWorkbook cwb = new ColumnarWorkbook(pkg);
+                assertEquals(sample, wb.getNumberOfSheets(), cwb.getNumberOfSheets());
+                assertEquals(sample, wb.isDate1904(), cwb.isDate1904());
+                for (int s = 0; s < wb.getNumberOfSheets(); s++) {
+                    assertSheet(sample, wb.getSheetAt(s), cwb.getSheetAt(s), formatter);
+                }
+            } finally {
+                pkg.revert();
+                wb.close();
+            }
+        }
+    }
+
+    private static void assertSheet(String sample, Sheet expected, ColumnarSheet actual, DataFormatter formatter) {
+        String msg = sample + " " + expected.getSheetName();
+        assertEquals(msg, expected.getSheetName(), actual.getSheetName());
+        assertEquals(msg, expected.getPhysicalNumberOfRows(), actual.getPhysicalNumberOfRows());
+        if (expected.getPhysicalNumberOfRows() > 0) {
+            assertEquals(msg, expected.getFirstRowNum(), actual.getFirstRowNum());
+            assertEquals(msg, expected.getLastRowNum(), actual.getLastRowNum());
+        }
+
+        Iterator<ColumnarSheet.Row> rows = actual.rowIterator();
+        for (Row row : expected) {
+            ColumnarSheet.Row crow = rows.next();
+            assertEquals(msg, row.getRowNum(), crow.getRowNum());
+            assertEquals(msg, row.getFirstCellNum(), crow.getFirstCellNum());
+            assertEquals(msg, row.getLastCellNum(), crow.getLastCellNum());
+            assertEquals(msg, row.getPhysicalNumberOfCells(), crow.getPhysicalNumberOfCells());
+
+            Iterator<ColumnarSheet.Cell> cells = crow.cellIterator();
+            for (Cell cell : row) {
+                ColumnarSheet.Cell ccell = cells.next();
+                assertCell(msg, cell, ccell, formatter);
+                assertEquals(ccell.getReference(), crow.getCell(cell.getColumnIndex()).getReference());
+            }
+            assertFalse(msg, cells.hasNext());
+        }
+        assertFalse(msg, rows.hasNext());
+    }
+
+    private static void assertCell(String sheetMsg, Cell expected, ColumnarSheet.Cell actual, DataFormatter formatter) {
+        String msg = sheetMsg + " " + actual.getReference();
+        assertEquals(msg, expected.getRowIndex(), actual.getRowIndex());
+        assertEquals(msg, expected.getColumnIndex(), actual.getColumnIndex());
+        assertEquals(msg, expected.getCellTypeEnum(), actual.getCellTypeEnum());
+        assertEquals(msg, expected.getCellStyle().getIndex(), actual.getStyleIndex());
+
+        CellType type = expected.getCellTypeEnum();
+        if (type == CellType.FORMULA) {
+            // the formulas of shared formula cells aren't translated
+            if (actual.getCellFormula() != null) {
+                assertEquals(msg, expected.getCellFormula(), actual.getCellFormula());
+            }
+            type = expected.getCachedFormulaResultTypeEnum();
+            assertEquals(msg, type, actual.getCachedFormulaResultTypeEnum());
+        } else {
+            assertNull(msg, actual.getCellFormula());
+            // numbers are formatted like in the event model, which differs in rounding
+            String formatted = (type == CellType.NUMERIC)
+                ? formatter.formatRawCellContents(expected.getNumericCellValue(),
+                    expected.getCellStyle().getDataFormat(), expected.getCellStyle().getDataFormatString(),
+                    ((XSSFWorkbook)expected.getSheet().getWorkbook()).isDate1904())
+                : formatter.formatCellValue(expected);
+            assertEquals(msg, formatted, actual.getFormattedValue(formatter));
+        }
+
+        switch (type) {
+            case NUMERIC:
+                assertEquals(msg, expected.getNumericCellValue(), actual.getNumericCellValue(), 0);
+                break;
+            case STRING:
+                assertEquals(msg, expected.getStringCellValue(), actual.getStringCellValue());
+                break;
+            case BOOLEAN:
+                assertEquals(msg, expected.getBooleanCellValue(), actual.getBooleanCellValue());
+                break;
+            case ERROR:
+                assertEquals(msg, expected.getErrorCellValue(), actual.getErrorCellValue());
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Test
+    public void rowsAndCellsWithoutReference() throws Exception {
+        String xml =
+            "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row><c><v>1.5</v></c><c t=\"b\"><v>1</v></c></row>" +
+            "<row r=\"4\"><c r=\"C4\" t=\"inlineStr\"><is><t>inline</t></is></c><c t=\"e\"><v>#DIV/0!</v></c></row>" +
+            "<row><c t=\"str\" s=\"1\"><f>\"a\"&amp;\"b\"</f><v>ab</v></c></row>" +
+            "</sheetData></worksheet>";
+        ColumnarSheet sheet = new ColumnarSheet("Sheet1",
+            new ByteArrayInputStream(xml.getBytes("UTF-8")), null, null, false);
+
+        assertEquals(3, sheet.getPhysicalNumberOfRows());
+        assertEquals(5, sheet.getPhysicalNumberOfCells());
+        assertEquals(0, sheet.getFirstRowNum());
+        assertEquals(4, sheet.getLastRowNum());
+        assertNull(sheet.getRow(1));
+
+        ColumnarSheet.Row row = sheet.getRow(0);
+        assertNotNull(row);
+        assertEquals(1.5, row.getCell(0).getNumericCellValue(), 0);
+        assertTrue(row.getCell(1).getBooleanCellValue());
+        assertNull(row.getCell(2));
+
+        row = sheet.getRow(3);
+        assertEquals(2, row.getFirstCellNum());
+        assertEquals(4, row.getLastCellNum());
+        assertEquals("inline", row.getCell(2).getStringCellValue());
+        assertEquals(CellType.ERROR, row.getCell(3).getCellTypeEnum());
+        assertEquals("D4", row.getCell(3).getReference());
+
+        ColumnarSheet.Cell cell = sheet.getRow(4).getCell(0);
+        assertEquals(CellType.FORMULA, cell.getCellTypeEnum());
+        assertEquals(CellType.STRING, cell.getCachedFormulaResultTypeEnum());
+        assertEquals("\"a\"&\"b\"", cell.getCellFormula());
+        assertEquals("ab", cell.getStringCellValue());
+        assertEquals(1, cell.getStyleIndex());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void typeMismatch() throws Exception {
+        String xml =
+            "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row r=\"1\"><c r=\"A1\"><v>1</v></c></row>" +
+            "</sheetData></worksheet>";
+        ColumnarSheet sheet = new ColumnarSheet("Sheet1",
+            new ByteArrayInputStream(xml.getBytes("UTF-8")), null, null, false);
+        sheet.getRow(0).getCell(0).getStringCellValue();
+    }
+
+    @Test
+    public void typeMismatchAfterEmptyRow() throws Exception {
+        String xml =
+            "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row r=\"1\"><c r=\"A1\"><v>1</v></c></row><row r=\"2\"/>" +
+            "<row r=\"3\"><c r=\"C3\" t=\"inlineStr\"><is><t>x</t></is></c></row>" +
+            "</sheetData></worksheet>";
+        ColumnarSheet sheet = new ColumnarSheet("Sheet1",
+            new ByteArrayInputStream(xml.getBytes("UTF-8")), null, null, false);
+        try {
+            sheet.getRow(2).getCell(2).getNumericCellValue();
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Cannot get a NUMERIC value from a STRING cell C3", e.getMessage());
+        }
+    }
+}
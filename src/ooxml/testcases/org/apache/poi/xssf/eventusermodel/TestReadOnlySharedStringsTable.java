@@ -19,18 +19,30 @@
 
 package org.apache.poi.xssf.eventusermodel;
 
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
 import junit.framework.TestCase;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.util.StringUtil;
+import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
 import org.xml.sax.SAXException;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -60,6 +72,98 @@ public final class TestReadOnlySharedStringsTable extends TestCase {
 
 	}
     
+    public void testOffHeap() throws Exception {
+        for (String sample : new String[] { "SampleSS.xlsx", "sample.xlsx", "WithVariousData.xlsx" }) {
+            OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream(sample));
+            ReadOnlySharedStringsTable expected = new ReadOnlySharedStringsTable(pkg);
+            for (boolean useTempFile : new boolean[] { false, true }) {
+                OffHeapSharedStringsTable sst = new OffHeapSharedStringsTable(pkg, useTempFile);
+                assertEquals(useTempFile, sst.isTempFileBacked());
+                assertEquals(expected.getCount(), sst.getCount());
+                assertEquals(expected.getUniqueCount(), sst.getUniqueCount());
+                assertEquals(expected.getItems(), sst.getItems());
+                for (int i = expected.getItems().size() - 1; i >= 0; i--) {
+                    assertEquals(expected.getEntryAt(i), sst.getEntryAt(i));
+                }
+                sst.close();
+                assertEquals(0, sst.getItems().size());
+            }
+            pkg.close();
+        }
+    }
+
+    public void testOffHeapLargeStrings() throws Exception {
+        StringBuilder sb = new StringBuilder("<sst xmlns=\"" + NS_SPREADSHEETML + "\">");
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 200; i++) {
+            // strings crossing the buffers, partly with multi-byte characters
+            StringBuilder str = new StringBuilder();
+            for (int j = 0; j < i * 997; j++) {
+                str.append((char)((i % 3 == 0 ? 'a' : '\u3040') + j % 26));
+            }
+            expected.add(str.toString());
+            sb.append("<si><t>").append(str).append("</t></si>");
+        }
+        sb.append("</sst>");
+        byte[] xml = sb.toString().getBytes(StringUtil.UTF8);
+
+        for (boolean useTempFile : new boolean[] { false, true }) {
+            OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("noSharedStringTable.xlsx"));
+            OffHeapSharedStringsTable sst = new OffHeapSharedStringsTable(pkg, useTempFile);
+            assertNull(sst.getItems());
+            sst.readFrom(new ByteArrayInputStream(xml));
+            assertEquals(expected, sst.getItems());
+            // read again, which replaces the strings
+            sst.readFrom(new ByteArrayInputStream(xml));
+            assertEquals(expected.size(), sst.getItems().size());
+            assertEquals(expected.get(199), sst.getEntryAt(199));
+            assertEquals(expected.get(0), sst.getEntryAt(0));
+            sst.close();
+            pkg.close();
+        }
+    }
+
+    public void testOffHeapClosedOnParseFailure() throws Exception {
+        // enough strings to be written to the temporary file, but no end tag
+        StringBuilder sb = new StringBuilder("<sst xmlns=\"" + NS_SPREADSHEETML + "\">");
+        for (int i = 0; i < 10000; i++) {
+            sb.append("<si><t>string number ").append(i).append(" with some more text</t></si>");
+        }
+        sb.append("<si><t>broken");
+
+        OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("noSharedStringTable.xlsx"));
+        PackagePart part = pkg.createPart(PackagingURIHelper.createPartName("/xl/sharedStrings.xml"),
+                XSSFRelation.SHARED_STRINGS.getContentType());
+        OutputStream os = part.getOutputStream();
+        os.write(sb.toString().getBytes(StringUtil.UTF8));
+        os.close();
+
+        File tmpDir = new File(System.getProperty(TempFile.JAVA_IO_TMPDIR), "poifiles");
+        Set<String> tempFiles = listSharedStringsFiles(tmpDir);
+        try {
+            new OffHeapSharedStringsTable(part, true);
+            fail("expected a SAXException");
+        } catch (SAXException e) {
+            // expected
+        }
+        // the temporary file of the partially read strings is deleted
+        assertEquals(tempFiles, listSharedStringsFiles(tmpDir));
+        pkg.revert();
+    }
+
+    private static Set<String> listSharedStringsFiles(File dir) {
+        Set<String> names = new HashSet<String>();
+        String[] files = dir.list();
+        if (files != null) {
+            for (String name : files) {
+                if (name.startsWith("poi-sharedstrings")) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
     public void testEmptySSTOnPackageObtainedViaWorkbook() throws Exception {
         XSSFWorkbook wb = new XSSFWorkbook(_ssTests.openResourceAsStream("noSharedStringTable.xlsx"));
         OPCPackage pkg = wb.getPackage();
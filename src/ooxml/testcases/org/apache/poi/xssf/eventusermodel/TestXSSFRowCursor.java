@@ -0,0 +1,200 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+public final class TestXSSFRowCursor {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    public void sameAsUsermodel() throws Exception {
+        String[] samples = {
+            "SampleSS.xlsx", "sample.xlsx", "WithVariousData.xlsx", "Formatting.xlsx",
+            "InlineStrings.xlsx", "shared_formulas.xlsx", "FormulaEvalTestData_Copy.xlsx",
+            "noSharedStringTable.xlsx"
+        };
+        DataFormatter formatter = new DataFormatter(LocaleUtil.getUserLocale());
+        for (String sample : samples) {
+            XSSFWorkbook wb = XSSFTestDataSamples.openSampleWorkbook(sample);
+            OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream(sample));
+            try {
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                XSSFReader reader = new XSSFReader(pkg);
+                StylesTable styles = reader.getStylesTable();
+                XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator)reader.getSheetsData();
+                int sheetIdx = 0;
+                while (iter.hasNext()) {
+                    XSSFRowCursor cursor = new XSSFRowCursor(iter.next(), strings, styles, wb.isDate1904());
+                    try {
+                        assertSheet(sample, wb.getSheetAt(sheetIdx++), cursor, formatter);
+                    } finally {
+                        cursor.close();
+                    }
+                }
+                assertEquals(sample, wb.getNumberOfSheets(), sheetIdx);
+            } finally {
+                pkg.revert();
+                wb.close();
+            }
+        }
+    }
+
+    private static void assertSheet(String sample, Sheet expected, XSSFRowCursor cursor,
+            DataFormatter formatter) throws Exception {
+        String msg = sample + " " + expected.getSheetName();
+        for (Row row : expected) {
+            assertTrue(msg, cursor.nextRow());
+            assertEquals(msg, row.getRowNum(), cursor.getRowNum());
+            assertEquals(msg, row.getPhysicalNumberOfCells(), cursor.getCellCount());
+
+            Iterator<Cell> cells = row.cellIterator();
+            for (int i = 0; i < cursor.getCellCount(); i++) {
+                assertCell(msg, cells.next(), cursor, i, formatter);
+            }
+        }
+        assertFalse(msg, cursor.nextRow());
+        assertFalse(msg, cursor.nextRow());
+    }
+
+    private static void assertCell(String sheetMsg, Cell expected, XSSFRowCursor cursor, int i,
+            DataFormatter formatter) {
+        String msg = sheetMsg + " " + cursor.getReference(i);
+        assertEquals(msg, new CellReference(expected.getRowIndex(), expected.getColumnIndex()).formatAsString(), cursor.getReference(i));
+        assertEquals(msg, expected.getColumnIndex(), cursor.getColumnIndex(i));
+        assertEquals(msg, expected.getCellTypeEnum(), cursor.getCellTypeEnum(i));
+        assertEquals(msg, expected.getCellStyle().getIndex(), cursor.getStyleIndex(i));
+
+        CellType type = expected.getCellTypeEnum();
+        if (type == CellType.FORMULA) {
+            // the formulas of shared formula cells aren't translated
+            if (cursor.getCellFormula(i) != null) {
+                assertEquals(msg, expected.getCellFormula(), cursor.getCellFormula(i));
+            }
+            type = expected.getCachedFormulaResultTypeEnum();
+            assertEquals(msg, type, cursor.getCachedFormulaResultTypeEnum(i));
+        } else {
+            assertNull(msg, cursor.getCellFormula(i));
+            // numbers are formatted like in the event model, which differs in rounding
+            String formatted = (type == CellType.NUMERIC)
+                ? formatter.formatRawCellContents(expected.getNumericCellValue(),
+                    expected.getCellStyle().getDataFormat(), expected.getCellStyle().getDataFormatString(),
+                    ((XSSFWorkbook)expected.getSheet().getWorkbook()).isDate1904())
+                : formatter.formatCellValue(expected);
+            assertEquals(msg, formatted, cursor.getFormattedValue(i, formatter));
+        }
+
+        switch (type) {
+            case NUMERIC:
+                assertEquals(msg, expected.getNumericCellValue(), cursor.getNumericCellValue(i), 0);
+                break;
+            case STRING:
+                assertEquals(msg, expected.getStringCellValue(), cursor.getStringCellValue(i));
+                break;
+            case BOOLEAN:
+                assertEquals(msg, expected.getBooleanCellValue(), cursor.getBooleanCellValue(i));
+                break;
+            case ERROR:
+                assertEquals(msg, expected.getErrorCellValue(), cursor.getErrorCellValue(i));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Test
+    public void rowsAreReused() throws Exception {
+        String xml =
+            "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row><c><v>1.5</v></c><c t=\"b\"><v>1</v></c><c r=\"E1\" t=\"s\"><v>3</v></c></row>" +
+            "<row r=\"4\"><c r=\"C4\" t=\"inlineStr\"><is><r><t>in</t></r><r><t>line</t></r>" +
+            "<rPh sb=\"0\" eb=\"1\"><t>x</t></rPh></is></c><c t=\"e\"><v>#DIV/0!</v></c></row>" +
+            "<row><c t=\"str\" s=\"1\"><f>\"a\"&amp;\"b\"</f><v>ab</v></c><c/></row>" +
+            "</sheetData><mergeCells count=\"0\"/></worksheet>";
+        XSSFRowCursor cursor = new XSSFRowCursor(new ByteArrayInputStream(xml.getBytes("UTF-8")), null, null, false);
+        try {
+            assertTrue(cursor.nextRow());
+            assertEquals(0, cursor.getRowNum());
+            assertEquals(3, cursor.getCellCount());
+            assertEquals(1.5, cursor.getNumericCellValue(0), 0);
+            assertTrue(cursor.getBooleanCellValue(1));
+            assertEquals(4, cursor.getColumnIndex(2));
+            // the shared string isn't resolved
+            assertEquals(3, cursor.getSharedStringIndex(2));
+            assertEquals(-1, cursor.getSharedStringIndex(0));
+
+            assertTrue(cursor.nextRow());
+            assertEquals(3, cursor.getRowNum());
+            assertEquals(2, cursor.getCellCount());
+            assertEquals("inline", cursor.getStringCellValue(0));
+            assertEquals(-1, cursor.getSharedStringIndex(0));
+            assertEquals(CellType.ERROR, cursor.getCellTypeEnum(1));
+            assertEquals("D4", cursor.getReference(1));
+
+            assertTrue(cursor.nextRow());
+            assertEquals(4, cursor.getRowNum());
+            assertEquals(CellType.FORMULA, cursor.getCellTypeEnum(0));
+            assertEquals(CellType.STRING, cursor.getCachedFormulaResultTypeEnum(0));
+            assertEquals("\"a\"&\"b\"", cursor.getCellFormula(0));
+            assertEquals("ab", cursor.getStringCellValue(0));
+            assertEquals(1, cursor.getStyleIndex(0));
+            assertEquals(CellType.BLANK, cursor.getCellTypeEnum(1));
+            assertNull(cursor.getCellFormula(1));
+
+            assertFalse(cursor.nextRow());
+            assertEquals(0, cursor.getCellCount());
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void typeMismatch() throws Exception {
+        String xml =
+            "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row r=\"1\"><c r=\"A1\"><v>1</v></c></row>" +
+            "</sheetData></worksheet>";
+        XSSFRowCursor cursor = new XSSFRowCursor(new ByteArrayInputStream(xml.getBytes("UTF-8")), null, null, false);
+        try {
+            assertTrue(cursor.nextRow());
+            cursor.getStringCellValue(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.StringWriter;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -349,6 +350,36 @@ public class TestXSSFEventBasedExcelExtractor {
         }
     }
 
+    @Test
+    public void testWriteText() throws Exception {
+        XSSFEventBasedExcelExtractor extractor = getExtractor("SampleSS.xlsx");
+        String text = extractor.getText();
+
+        // the cells are buffered per sheet for the headers
+        final int[] appends = { 0 };
+        StringWriter out = new StringWriter() {
+            @Override
+            public StringWriter append(CharSequence csq) {
+                appends[0]++;
+                return super.append(csq);
+            }
+        };
+        extractor.writeText(out);
+        assertEquals(text, out.toString());
+
+        // written row by row without headers
+        extractor.setIncludeHeadersFooters(false);
+        text = extractor.getText();
+        int sheetAppends = appends[0];
+        appends[0] = 0;
+        out.getBuffer().setLength(0);
+        extractor.writeText(out);
+        assertEquals(text, out.toString());
+        assertTrue(appends[0] > sheetAppends);
+
+        extractor.close();
+    }
+
     @Test
 	public void test59021() throws Exception {
 		XSSFEventBasedExcelExtractor ex =
@@ -18,6 +18,8 @@
 package org.apache.poi.xssf.model;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -113,6 +115,46 @@ public final class TestSharedStringsTable extends TestCase {
         assertEquals("Second string", new XSSFRichTextString(sst.getEntryAt(2)).toString());
     }
 
+    public void testPlainStrings() throws IOException {
+        SharedStringsTable sst = new SharedStringsTable();
+
+        assertEquals(0, sst.addEntry("plain"));
+        assertEquals(0, sst.addEntry(new XSSFRichTextString("plain").getCTRst()));
+        assertEquals(1, sst.addEntry(" with spaces "));
+
+        // a rich string with the same text is a separate entry after the pending ones
+        CTRst rich = CTRst.Factory.newInstance();
+        CTRElt r = rich.addNewR();
+        r.addNewRPr().addNewB().setVal(true);
+        r.setT("plain");
+        assertEquals(2, sst.addEntry(rich));
+        assertEquals(2, sst.addEntry(rich));
+
+        assertEquals(3, sst.addEntry("after rich"));
+        assertEquals(1, sst.addEntry(" with spaces "));
+        assertEquals(7, sst.getCount());
+        assertEquals(4, sst.getUniqueCount());
+
+        assertEquals("after rich", sst.getEntryAt(3).getT());
+        assertEquals(4, sst.addEntry("last"));
+        assertEquals(5, sst.getItems().size());
+        assertEquals("plain", sst.getEntryAt(0).getT());
+        assertTrue(sst.getEntryAt(1).xmlText().contains("xml:space=\"preserve\""));
+        assertEquals(1, sst.getEntryAt(2).sizeOfRArray());
+        assertEquals("last", sst.getEntryAt(4).getT());
+
+        // read back, plain and rich strings are still distinguished
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        sst.writeTo(bos);
+        SharedStringsTable sst2 = new SharedStringsTable();
+        sst2.readFrom(new ByteArrayInputStream(bos.toByteArray()));
+        assertEquals(5, sst2.getUniqueCount());
+        assertEquals(" with spaces ", sst2.getEntryAt(1).getT());
+        assertEquals(0, sst2.addEntry("plain"));
+        assertEquals(2, sst2.addEntry(rich));
+        assertEquals(5, sst2.addEntry("new"));
+    }
+
     public void testReadWrite() throws IOException {
         XSSFWorkbook wb1 = XSSFTestDataSamples.openSampleWorkbook("sample.xlsx");
         SharedStringsTable sst1 = wb1.getSharedStringSource();
@@ -34,7 +34,12 @@ import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.xssf.XSSFTestDataSamples;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellFill;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFill;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFont;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STPatternType;
 
 public final class TestStylesTable {
     private static final String testFile = "Formatting.xlsx";
@@ -356,4 +361,63 @@ public final class TestStylesTable {
             wb.close();
         }
     }
+
+    @Test
+    public void putReusesEqualEntries() throws IOException {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        StylesTable st = wb.getStylesSource();
+
+        // fills are compared by value
+        int fillCount = st.getFills().size();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fillCount + i, st.putFill(createFill(i)));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fillCount + i, st.putFill(createFill(i)));
+        }
+        assertEquals(fillCount + 100, st.getFills().size());
+
+        // a font which is modified after its registration doesn't match its old value anymore
+        XSSFFont font = wb.createFont();
+        int fontIdx = font.getIndex();
+        XSSFFont equalFont = new XSSFFont((CTFont)font.getCTFont().copy());
+        assertEquals(fontIdx, st.putFont(equalFont));
+        font.setBold(true);
+        int equalFontIdx = st.putFont(equalFont);
+        assertEquals(st.getFonts().size() - 1, equalFontIdx);
+        assertEquals(equalFontIdx, st.putFont(equalFont));
+
+        // ... but it matches its new value, without a lookup of the old value in between
+        XSSFFont italicFont = wb.createFont();
+        italicFont.setFontHeightInPoints((short)17);
+        int italicFontIdx = italicFont.getIndex();
+        assertEquals(italicFontIdx, st.putFont(new XSSFFont((CTFont)italicFont.getCTFont().copy())));
+        italicFont.setItalic(true);
+        int fontCount = st.getFonts().size();
+        assertEquals(italicFontIdx, st.putFont(new XSSFFont((CTFont)italicFont.getCTFont().copy())));
+        assertEquals(fontCount, st.getFonts().size());
+
+        // forced registration adds duplicates, the first one is found
+        assertEquals(st.getFonts().size(), st.putFont(font, true));
+        assertEquals(fontIdx, st.putFont(font));
+
+        // styles are compared by identity
+        XSSFCellStyle style = wb.createCellStyle();
+        assertEquals(style.getIndex(), st.putStyle(style));
+        assertEquals(style.getIndex(), st.putStyle(style));
+
+        XSSFCellStyle cloned = wb.createCellStyle();
+        cloned.cloneStyleFrom(style);
+        assertEquals(cloned.getIndex(), st.putStyle(cloned));
+        assertEquals(style.getIndex(), st.putStyle(style));
+
+        wb.close();
+    }
+
+    private static XSSFCellFill createFill(int rgb) {
+        CTFill fill = CTFill.Factory.newInstance();
+        fill.addNewPatternFill().setPatternType(STPatternType.SOLID);
+        fill.getPatternFill().addNewFgColor().setRgb(new byte[] { (byte)0xff, 0, (byte)(rgb >> 8), (byte)rgb });
+        return new XSSFCellFill(fill);
+    }
 }
@@ -30,8 +30,25 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.POITestCase;
@@ -46,7 +63,9 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.NullOutputStream;
+import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.SXSSFITestDataProvider;
 import org.apache.poi.xssf.XSSFTestDataSamples;
 import org.apache.poi.xssf.model.SharedStringsTable;
@@ -238,6 +257,167 @@ public final class TestSXSSFWorkbook extends BaseTestXWorkbook {
     	wb1.close();
     }
 
+    @Test
+    public void writeWithExecutor() throws IOException, InvalidFormatException {
+        SXSSFWorkbook wb = createMultiSheetWorkbook();
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        wb.write(serial);
+        assertTrue(wb.dispose());
+        wb.close();
+
+        wb = createMultiSheetWorkbook();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        try {
+            wb.setWriteExecutor(executor);
+            assertTrue(executor == wb.getWriteExecutor());
+            wb.write(parallel);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(wb.dispose());
+        wb.close();
+
+        // same entries and contents, only the compression differs
+        Map<String,byte[]> expected = readZipEntries(serial.toByteArray());
+        Map<String,byte[]> actual = readZipEntries(parallel.toByteArray());
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String,byte[]> me : expected.entrySet()) {
+            assertTrue(me.getKey(), Arrays.equals(me.getValue(), actual.get(me.getKey())));
+        }
+
+        // the central directory is read when opening from a file
+        File file = TempFile.createTempFile("writeWithExecutor", ".xlsx");
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write(parallel.toByteArray());
+        } finally {
+            fos.close();
+        }
+        ZipFile zf = new ZipFile(file);
+        try {
+            assertEquals(expected.size(), zf.size());
+        } finally {
+            zf.close();
+        }
+
+        XSSFWorkbook xwb = new XSSFWorkbook(file);
+        assertEquals(6, xwb.getNumberOfSheets());
+        for (int s = 0; s < 6; s++) {
+            Sheet sheet = xwb.getSheetAt(s);
+            assertEquals(499, sheet.getLastRowNum());
+            assertEquals("sheet " + s + " row 321", sheet.getRow(321).getCell(0).getStringCellValue());
+            assertEquals(s * 1000 + 499, sheet.getRow(499).getCell(1).getNumericCellValue(), 0);
+        }
+        xwb.close();
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void writeWithExecutorWaitsForRunningTasksOnFailure() throws IOException, InterruptedException {
+        final Thread writingThread = Thread.currentThread();
+        // the spool streams opened by the tasks, which aren't closed yet
+        final AtomicInteger openSpools = new AtomicInteger();
+        final List<File> spoolFiles = Collections.synchronizedList(new ArrayList<File>());
+        final CountDownLatch tasksStarted = new CountDownLatch(2);
+        final List<SheetDataWriter> sheetWriters = new ArrayList<SheetDataWriter>();
+        SXSSFWorkbook wb = new SXSSFWorkbook(10) {
+            @Override
+            protected SheetDataWriter createSheetDataWriter() throws IOException {
+                SheetDataWriter writer = new SheetDataWriter(getSharedStringSource()) {
+                    @Override
+                    protected OutputStream createOutputStream(File fd) throws IOException {
+                        OutputStream os = super.createOutputStream(fd);
+                        if (Thread.currentThread() == writingThread) {
+                            return os;
+                        }
+                        spoolFiles.add(fd);
+                        openSpools.incrementAndGet();
+                        tasksStarted.countDown();
+                        return new FilterOutputStream(os) {
+                            @Override
+                            public void close() throws IOException {
+                                super.close();
+                                openSpools.decrementAndGet();
+                            }
+                        };
+                    }
+
+                    @Override
+                    public InputStream getWorksheetXMLInputStream() throws IOException {
+                        if (Thread.currentThread() == writingThread) {
+                            return super.getWorksheetXMLInputStream();
+                        }
+                        try {
+                            if (this == sheetWriters.get(0)) {
+                                // fail, when the task of the other sheet is running
+                                assertTrue(tasksStarted.await(10, TimeUnit.SECONDS));
+                                throw new IOException("sheet data not readable");
+                            }
+                            Thread.sleep(500);
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException();
+                        }
+                        return super.getWorksheetXMLInputStream();
+                    }
+                };
+                sheetWriters.add(writer);
+                return writer;
+            }
+        };
+        for (int s = 0; s < 2; s++) {
+            wb.createSheet("S" + s).createRow(0).createCell(0).setCellValue(s);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            wb.setWriteExecutor(executor);
+            wb.write(new NullOutputStream());
+            fail("expected the failure of the first sheet");
+        } catch (IOException e) {
+            assertEquals("sheet data not readable", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+
+        // the other task has finished before its temporary file was deleted
+        assertEquals(0, openSpools.get());
+        assertEquals(2, spoolFiles.size());
+        for (File f : spoolFiles) {
+            assertFalse(f.getName(), f.exists());
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        wb.dispose();
+        wb.close();
+    }
+
+    private static SXSSFWorkbook createMultiSheetWorkbook() {
+        SXSSFWorkbook wb = new SXSSFWorkbook(10);
+        for (int s = 0; s < 6; s++) {
+            SXSSFSheet sheet = wb.createSheet("S" + s);
+            for (int r = 0; r < 500; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("sheet " + s + " row " + r);
+                row.createCell(1).setCellValue(s * 1000 + r);
+            }
+        }
+        return wb;
+    }
+
+    private static Map<String,byte[]> readZipEntries(byte[] data) throws IOException {
+        Map<String,byte[]> entries = new LinkedHashMap<String,byte[]>();
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(data));
+        try {
+            ZipEntry ze;
+            while ((ze = zis.getNextEntry()) != null) {
+                entries.put(ze.getName(), IOUtils.toByteArray(zis));
+            }
+        } finally {
+            zis.close();
+        }
+        return entries;
+    }
+
     @Test
     public void sheetdataWriter() throws IOException{
         SXSSFWorkbook wb = new SXSSFWorkbook();
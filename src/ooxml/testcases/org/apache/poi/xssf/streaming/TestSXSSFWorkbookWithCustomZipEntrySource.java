@@ -32,6 +32,8 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.security.GeneralSecurityException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
@@ -133,4 +135,36 @@ public final class TestSXSSFWorkbookWithCustomZipEntrySource {
         workbook.dispose();
         assertFalse("tempFile deleted after dispose?", tempFile.exists());
     }
+
+    // the parts which are compressed concurrently are spooled through the encrypting writers too
+    @Test
+    public void validateTempFilesAreEncryptedWithExecutor() throws IOException {
+        TempFileRecordingSXSSFWorkbookWithCustomZipEntrySource workbook = new TempFileRecordingSXSSFWorkbookWithCustomZipEntrySource();
+        SXSSFSheet sheet1 = workbook.createSheet(sheetName);
+        SXSSFRow row1 = sheet1.createRow(1);
+        SXSSFCell cell1 = row1.createCell(1);
+        cell1.setCellValue(cellValue);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ByteArrayOutputStream os = new ByteArrayOutputStream(8192);
+        try {
+            workbook.setWriteExecutor(executor);
+            workbook.write(os);
+        } finally {
+            executor.shutdown();
+        }
+        workbook.close();
+        List<File> tempFiles = workbook.getTempFiles();
+        // the sheet data and one spool file per package part
+        assertTrue(tempFiles.size() > 2);
+        assertTrue("sheet tempFile exists?", tempFiles.get(0).exists());
+        for (File spoolFile : tempFiles.subList(1, tempFiles.size())) {
+            assertFalse("spool file deleted after write?", spoolFile.exists());
+        }
+        workbook.dispose();
+        assertFalse("tempFile deleted after dispose?", tempFiles.get(0).exists());
+
+        XSSFWorkbook xwb = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()));
+        assertEquals(cellValue, xwb.getSheet(sheetName).getRow(1).getCell(1).getStringCellValue());
+        xwb.close();
+    }
 }
\ No newline at end of file
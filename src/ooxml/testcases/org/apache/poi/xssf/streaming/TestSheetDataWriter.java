@@ -0,0 +1,208 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.streaming;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.junit.Test;
+
+public final class TestSheetDataWriter {
+
+    @Test
+    public void utf8ByteWriterProducesSameXml() throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(-1);
+        try {
+            SXSSFSheet sheet = wb.createSheet();
+            CellStyle style = wb.createCellStyle();
+            style.setWrapText(true);
+
+            Random rnd = new Random(4711);
+            for (int r = 0; r < 200; r++) {
+                SXSSFRow row = sheet.createRow(r * 3);
+                if (r % 7 == 0) {
+                    row.setHeightInPoints(21.5f);
+                }
+                if (r % 11 == 0) {
+                    row.setRowStyle(style);
+                }
+                for (int c = 0; c < 30; c++) {
+                    SXSSFCell cell = row.createCell(c * 37);
+                    switch (c % 8) {
+                        case 0: cell.setCellValue(rnd.nextInt(2000000) - 1000000); break;
+                        case 1: cell.setCellValue(Math.round(rnd.nextDouble() * 1e6) / 100.0); break;
+                        case 2: cell.setCellValue((rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(40) - 20)); break;
+                        case 3: cell.setCellValue(" <a&b> \"q\"\t\u00e4\u00a0\u20ac\u0019\ud83d\ude00 "); break;
+                        case 4: cell.setCellValue(rnd.nextBoolean()); break;
+                        case 5: cell.setCellErrorValue(FormulaError.DIV0.getCode()); break;
+                        case 6: cell.setCellFormula("SUM(A1:B" + (r + 1) + ")&\"<x>\""); break;
+                        default: cell.setCellStyle(style); break;
+                    }
+                }
+            }
+            sheet.getRow(3).getCell(37 * 6).setCellValue(Double.NaN);
+            sheet.getRow(6).getCell(0).setCellValue(-0.0);
+
+            assertArrayEquals(writeRows(sheet, null, false), writeRows(sheet, null, true));
+
+            SharedStringsTable sst1 = new SharedStringsTable();
+            SharedStringsTable sst2 = new SharedStringsTable();
+            assertArrayEquals(writeRows(sheet, sst1, false), writeRows(sheet, sst2, true));
+            assertEquals(sst1.getUniqueCount(), sst2.getUniqueCount());
+        } finally {
+            wb.dispose();
+            wb.close();
+        }
+    }
+
+    @Test
+    public void overriddenQuotingInBothModes() throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(-1);
+        try {
+            SXSSFRow row = wb.createSheet().createRow(0);
+            row.createCell(0).setCellValue("<text>");
+            row.createCell(1).setCellFormula("\"a\"&\"b\"");
+            for (boolean useUtf8ByteWriter : new boolean[] { false, true }) {
+                SheetDataWriter writer = new SheetDataWriter(null, useUtf8ByteWriter) {
+                    @Override
+                    protected void outputQuotedString(String s) throws IOException {
+                        super.outputQuotedString(s.toUpperCase(Locale.ROOT));
+                    }
+                };
+                String xml = new String(writeRows(row.getSheet(), writer), "UTF-8");
+                assertTrue(xml, xml.contains("<t>&lt;TEXT&gt;</t>"));
+                assertTrue(xml, xml.contains("<f>&quot;A&quot;&amp;&quot;B&quot;</f>"));
+            }
+        } finally {
+            wb.dispose();
+            wb.close();
+        }
+    }
+
+    private static byte[] writeRows(SXSSFSheet sheet, SharedStringsTable sst, boolean useUtf8ByteWriter) throws IOException {
+        SheetDataWriter writer = new SheetDataWriter(sst, useUtf8ByteWriter);
+        assertEquals(useUtf8ByteWriter, writer.isUtf8ByteWriter());
+        return writeRows(sheet, writer);
+    }
+
+    private static byte[] writeRows(SXSSFSheet sheet, SheetDataWriter writer) throws IOException {
+        try {
+            for (int r = 0; r <= sheet.getLastRowNum(); r++) {
+                SXSSFRow row = sheet.getRow(r);
+                if (row != null) {
+                    writer.writeRow(r, row);
+                }
+            }
+            writer.close();
+            InputStream is = writer.getWorksheetXMLInputStream();
+            try {
+                return IOUtils.toByteArray(is);
+            } finally {
+                is.close();
+            }
+        } finally {
+            assertTrue(writer.dispose());
+        }
+    }
+
+    @Test
+    public void workbookOption() throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook();
+        assertFalse(wb.isUseUtf8ByteWriter());
+        assertFalse(wb.createSheet().getSheetDataWriter().isUtf8ByteWriter());
+        wb.setUseUtf8ByteWriter(true);
+        assertTrue(wb.createSheet().getSheetDataWriter().isUtf8ByteWriter());
+        wb.setCompressTempFiles(true);
+        SheetDataWriter wr = wb.createSheet().getSheetDataWriter();
+        assertTrue(wr instanceof GZIPSheetDataWriter);
+        assertTrue(wr.isUtf8ByteWriter());
+        assertTrue(wb.dispose());
+        wb.close();
+    }
+
+    @Test
+    public void writeDouble() throws IOException {
+        Random rnd = new Random(1234);
+        checkDouble(0.0);
+        checkDouble(-0.0);
+        checkDouble(1e-3);
+        checkDouble(9999999.999);
+        checkDouble(1e7);
+        checkDouble(0.1 + 0.2);
+        checkDouble(Double.MAX_VALUE);
+        checkDouble(Double.MIN_VALUE);
+        checkDouble(Double.NaN);
+        checkDouble(Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < 200000; i++) {
+            checkDouble(Math.round(rnd.nextDouble() * 1e8) / Math.pow(10, rnd.nextInt(9)));
+            checkDouble(rnd.nextDouble() * Math.pow(10, rnd.nextInt(14) - 5));
+            checkDouble(Double.longBitsToDouble(rnd.nextLong()));
+        }
+    }
+
+    private static void checkDouble(double value) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Utf8XmlWriter out = new Utf8XmlWriter(bos, 32);
+        out.writeDouble(value);
+        out.close();
+        assertEquals(Double.toString(value), new String(bos.toByteArray(), "ASCII"));
+    }
+
+    @Test
+    public void writeCellReference() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Utf8XmlWriter out = new Utf8XmlWriter(bos, 32);
+        StringBuilder expected = new StringBuilder();
+        for (int col = 0; col < 16384; col += 7) {
+            int row = col * 61;
+            out.writeCellReference(row, col);
+            expected.append(new CellReference(row, col).formatAsString());
+        }
+        out.close();
+        assertEquals(expected.toString(), new String(bos.toByteArray(), "ASCII"));
+    }
+
+    @Test
+    public void writeUtf8() throws IOException {
+        String text = "a\u00e4\u20ac\ud83d\ude00z";
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Utf8XmlWriter out = new Utf8XmlWriter(bos, 32);
+        for (int i = 0; i < 10; i++) {
+            out.write(text);
+        }
+        out.close();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            expected.append(text);
+        }
+        assertArrayEquals(expected.toString().getBytes("UTF-8"), bos.toByteArray());
+    }
+}
@@ -24,6 +24,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.ss.usermodel.BaseTestFormulaEvaluator;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
@@ -683,6 +687,64 @@ public final class TestXSSFFormulaEvaluation extends BaseTestFormulaEvaluator {
         assertEquals(1, value.getNumberValue(), 0.001);
     }
     
+    @Test
+    public void cachedFormulaTokensMatchParsedFormulas() throws IOException {
+        for (String file : new String[] { "shared_formulas.xlsx", "49872.xlsx", "TestShiftRowSharedFormula.xlsx", "FormulaEvalTestData_Copy.xlsx" }) {
+            XSSFWorkbook wb = XSSFTestDataSamples.openSampleWorkbook(file);
+            XSSFEvaluationWorkbook cached = XSSFEvaluationWorkbook.create(wb);
+            XSSFEvaluationWorkbook fpb = XSSFEvaluationWorkbook.create(wb);
+            for (int si = 0; si < wb.getNumberOfSheets(); si++) {
+                XSSFSheet sheet = wb.getSheetAt(si);
+                for (Row row : sheet) {
+                    for (Cell c : row) {
+                        if (c.getCellTypeEnum() != CellType.FORMULA) {
+                            continue;
+                        }
+                        XSSFCell cell = (XSSFCell)c;
+                        XSSFEvaluationCell evalCell = new XSSFEvaluationCell(cell);
+                        Ptg[] expected = FormulaParser.parse(cell.getCellFormula(fpb), fpb, FormulaType.CELL, si, cell.getRowIndex());
+                        Ptg[] actual = cached.getFormulaTokens(evalCell);
+                        String ref = file + "!" + sheet.getSheetName() + "!" + cell.getReference();
+                        assertEquals(ref, FormulaRenderer.toFormulaString(fpb, expected), FormulaRenderer.toFormulaString(fpb, actual));
+                        assertEquals(ref, expected.length, actual.length);
+                        for (int i = 0; i < expected.length; i++) {
+                            assertEquals(ref, expected[i].getClass(), actual[i].getClass());
+                            assertEquals(ref, expected[i].getPtgClass(), actual[i].getPtgClass());
+                        }
+                        assertSame(ref, actual, cached.getFormulaTokens(evalCell));
+                    }
+                }
+            }
+            wb.close();
+        }
+    }
+
+    @Test
+    public void cachedFormulaTokensAreInvalidated() throws IOException {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        XSSFSheet sheet = wb.createSheet();
+        XSSFRow row = sheet.createRow(0);
+        row.createCell(0).setCellValue(2);
+        XSSFCell cell = row.createCell(1);
+        cell.setCellFormula("A1*3");
+
+        XSSFFormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+        assertEquals(6, evaluator.evaluate(cell).getNumberValue(), 0);
+
+        cell.setCellFormula("A1*4");
+        evaluator.notifySetFormula(cell);
+        assertEquals(8, evaluator.evaluate(cell).getNumberValue(), 0);
+
+        cell.setCellFormula("A1*5");
+        evaluator.notifyUpdateCell(cell);
+        assertEquals(10, evaluator.evaluate(cell).getNumberValue(), 0);
+
+        cell.setCellFormula("A1*6");
+        evaluator.clearAllCachedResultValues();
+        assertEquals(12, evaluator.evaluate(cell).getNumberValue(), 0);
+        wb.close();
+    }
+
     @Test
     public void evaluateInCellReturnsSameDataType() throws IOException {
         XSSFWorkbook wb = new XSSFWorkbook();
@@ -32,6 +32,7 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -965,20 +966,28 @@ public final class TestXSSFSheet extends BaseTestXSheet {
         CTRow[] xrow = sheetData.getRowArray();
         assertEquals(3, xrow.length);
 
-        //rows are sorted: {0, 1, 2}
-        assertEquals(4, xrow[0].sizeOfCArray());
-        assertEquals(1, xrow[0].getR());
-        assertTrue(xrow[0].equals(row3.getCTRow()));
+        //rows are in the order of creation until the sheet is written: {2, 1, 0}
+        assertEquals(2, xrow[0].sizeOfCArray());
+        assertEquals(3, xrow[0].getR());
+        assertTrue(xrow[0].equals(row1.getCTRow()));
 
         assertEquals(3, xrow[1].sizeOfCArray());
         assertEquals(2, xrow[1].getR());
         assertTrue(xrow[1].equals(row2.getCTRow()));
 
-        assertEquals(2, xrow[2].sizeOfCArray());
-        assertEquals(3, xrow[2].getR());
-        assertTrue(xrow[2].equals(row1.getCTRow()));
+        assertEquals(4, xrow[2].sizeOfCArray());
+        assertEquals(1, xrow[2].getR());
+        assertTrue(xrow[2].equals(row3.getCTRow()));
 
-        CTCell[] xcell = xrow[0].getCArray();
+        //the sheet API is ordered anyway
+        assertEquals(0, sheet.getFirstRowNum());
+        assertEquals(2, sheet.getLastRowNum());
+        Iterator<Row> it = sheet.rowIterator();
+        assertSame(row3, it.next());
+        assertSame(row2, it.next());
+        assertSame(row1, it.next());
+
+        CTCell[] xcell = xrow[2].getCArray();
         assertEquals("D1", xcell[0].getR());
         assertEquals("A1", xcell[1].getR());
         assertEquals("C1", xcell[2].getR());
@@ -1018,6 +1027,42 @@ public final class TestXSSFSheet extends BaseTestXSheet {
         wb2.close();
     }
 
+    @Test
+    public void createRowsInReverseOrder() throws IOException {
+        XSSFWorkbook wb1 = new XSSFWorkbook();
+        XSSFSheet sheet = wb1.createSheet();
+        for (int i = 99; i >= 0; i--) {
+            XSSFRow row = sheet.createRow(i);
+            row.createCell(1).setCellFormula("A" + (i+1) + "*2");
+            row.createCell(0).setCellValue(i);
+        }
+        // the physical position of the removed row is looked up in the sorted rows
+        sheet.removeRow(sheet.getRow(50));
+        assertEquals(99, sheet.getCTWorksheet().getSheetData().sizeOfRowArray());
+
+        XSSFWorkbook wb2 = XSSFTestDataSamples.writeOutAndReadBack(wb1);
+
+        // the rows and cells are still usable after they were sorted on write
+        XSSFRow row = sheet.getRow(10);
+        row.getCell(0).setCellValue("ten");
+        assertEquals("A11*2", row.getCell(1).getCellFormula());
+        assertEquals(11, row.getCTRow().getR());
+        wb1.close();
+
+        sheet = wb2.getSheetAt(0);
+        CTRow[] xrow = sheet.getCTWorksheet().getSheetData().getRowArray();
+        assertEquals(99, xrow.length);
+        for (int i = 0; i < xrow.length; i++) {
+            int rownum = (i < 50) ? i : i+1;
+            assertEquals(rownum+1, xrow[i].getR());
+            assertEquals("A" + (rownum+1), xrow[i].getCArray(0).getR());
+            assertEquals(rownum, sheet.getRow(rownum).getCell(0).getNumericCellValue(), 0);
+            assertEquals("A" + (rownum+1) + "*2", sheet.getRow(rownum).getCell(1).getCellFormula());
+        }
+        assertNull(sheet.getRow(50));
+        wb2.close();
+    }
+
     @Test
     public void setAutoFilter() throws IOException {
         XSSFWorkbook wb = new XSSFWorkbook();
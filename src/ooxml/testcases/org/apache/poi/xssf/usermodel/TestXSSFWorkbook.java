@@ -1172,4 +1172,65 @@ public final class TestXSSFWorkbook extends BaseTestXWorkbook {
 
         wb.close();
     }
+
+    @Test
+    public void loadSheetsOnDemand() throws IOException, InvalidFormatException {
+        XSSFWorkbook expected = XSSFTestDataSamples.openSampleWorkbook("SampleSS.xlsx");
+        OPCPackage pkg = OPCPackage.open(HSSFTestDataSamples.openSampleFileStream("SampleSS.xlsx"));
+        XSSFWorkbook wb = new XSSFWorkbook(pkg, true);
+        assertEquals(3, wb.getNumberOfSheets());
+        assertEquals(expected.getSheetName(2), wb.getSheetName(2));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(wb.isSheetLoaded(i));
+        }
+
+        // only the accessed sheet is parsed
+        XSSFSheet sheet = wb.getSheetAt(1);
+        assertTrue(wb.isSheetLoaded(1));
+        assertFalse(wb.isSheetLoaded(0));
+        assertFalse(wb.isSheetLoaded(2));
+        assertEquals(expected.getSheetAt(1).getPhysicalNumberOfRows(), sheet.getPhysicalNumberOfRows());
+        assertEquals(expected.getSheetAt(1).getRow(0).getCell(0).getStringCellValue(),
+                sheet.getRow(0).getCell(0).getStringCellValue());
+        sheet.createRow(10).createCell(0).setCellValue("modified");
+
+        // unloaded sheets are written unchanged
+        XSSFWorkbook wb2 = XSSFTestDataSamples.writeOutAndReadBack(wb);
+        assertFalse(wb.isSheetLoaded(0));
+        assertEquals("modified", wb2.getSheetAt(1).getRow(10).getCell(0).getStringCellValue());
+        assertEquals(expected.getSheetAt(0).getLastRowNum(), wb2.getSheetAt(0).getLastRowNum());
+        assertEquals(10, wb2.getSheetAt(1).getLastRowNum());
+        assertEquals(expected.getSheetAt(2).getLastRowNum(), wb2.getSheetAt(2).getLastRowNum());
+        assertEquals(expected.getSheetAt(0).getRow(0).getCell(0).getStringCellValue(),
+                wb2.getSheetAt(0).getRow(0).getCell(0).getStringCellValue());
+        wb2.close();
+
+        // the sheet is parsed again after unloading it
+        wb.unloadSheetAt(0);
+        assertFalse(wb.isSheetLoaded(0));
+        assertNotNull(wb.getSheet(wb.getSheetName(0)));
+        assertTrue(wb.isSheetLoaded(0));
+        assertEquals(expected.getSheetAt(0).getRow(0).getCell(0).getStringCellValue(),
+                wb.getSheetAt(0).getRow(0).getCell(0).getStringCellValue());
+
+        // the iterator loads the sheets
+        for (Sheet sh : wb) {
+            assertTrue(sh.getPhysicalNumberOfRows() >= 0);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(wb.isSheetLoaded(i));
+        }
+
+        // new sheets can't be unloaded
+        wb.createSheet("new");
+        try {
+            wb.unloadSheetAt(3);
+            fail("a new sheet has no content to reload");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        pkg.revert();
+        expected.close();
+    }
 }
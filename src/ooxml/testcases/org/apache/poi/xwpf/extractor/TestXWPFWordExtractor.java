@@ -18,6 +18,7 @@
 package org.apache.poi.xwpf.extractor;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -60,6 +61,26 @@ public class TestXWPFWordExtractor extends TestCase {
         extractor.close();
     }
 
+    public void testWriteText() throws IOException {
+        XWPFDocument doc = XWPFTestDataSamples.openSampleDocument("IllustrativeCases.docx");
+        XWPFWordExtractor extractor = new XWPFWordExtractor(doc);
+
+        final int[] appends = { 0 };
+        StringWriter out = new StringWriter() {
+            @Override
+            public StringWriter append(CharSequence csq) {
+                appends[0]++;
+                return super.append(csq);
+            }
+        };
+        extractor.writeText(out);
+        assertEquals(extractor.getText(), out.toString());
+        // one append for the headers and footers and one per body element
+        assertEquals(doc.getBodyElements().size() + 2, appends[0]);
+
+        extractor.close();
+    }
+
     /**
      * Tests getting the text out of a complex file
      *
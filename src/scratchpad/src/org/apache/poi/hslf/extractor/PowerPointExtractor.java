@@ -221,6 +221,32 @@ public final class PowerPointExtractor extends POIOLE2TextExtractor {
 	}
 
 	public String getText(boolean getSlideText, boolean getNoteText, boolean getCommentText, boolean getMasterText) {
+		StringBuilder text = new StringBuilder();
+		try {
+			writeText(text, getSlideText, getNoteText, getCommentText, getMasterText);
+		} catch (IOException e) {
+			// not thrown by a StringBuilder
+			throw new IllegalStateException(e);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Writes the same text as {@link #getText()}, slide by slide
+	 */
+	@Override
+	public void writeText(Appendable out) throws IOException {
+		writeText(out, _slidesByDefault, _notesByDefault, _commentsByDefault, _masterByDefault);
+	}
+
+	/**
+	 * Writes the same text as {@link #getText(boolean, boolean, boolean, boolean)},
+	 * the text of each slide, master and notes is written when it's complete
+	 *
+	 * @since POI 3.16 beta 2
+	 */
+	public void writeText(Appendable out, boolean getSlideText, boolean getNoteText, boolean getCommentText, boolean getMasterText)
+	throws IOException {
 		StringBuffer ret = new StringBuffer();
 
 		if (getSlideText) {
@@ -251,6 +277,7 @@ public final class PowerPointExtractor extends POIOLE2TextExtractor {
                             }
                         }
                     }
+                    flush(ret, out);
                 }
             }
 
@@ -288,6 +315,7 @@ public final class PowerPointExtractor extends POIOLE2TextExtractor {
 						ret.append(comment.getAuthor() + " - " + comment.getText() + "\n");
 					}
 				}
+				flush(ret, out);
 			}
 			if (getNoteText) {
 				ret.append('\n');
@@ -331,10 +359,16 @@ public final class PowerPointExtractor extends POIOLE2TextExtractor {
 
 				// Repeat the notes footer, if set
 				ret.append(footerText);
+				flush(ret, out);
 			}
 		}
 
-		return ret.toString();
+		flush(ret, out);
+	}
+
+	private static void flush(StringBuffer text, Appendable out) throws IOException {
+		out.append(text);
+		text.setLength(0);
 	}
 	
 	private static String safeLine(String text) {
@@ -802,7 +802,7 @@ public final class HSLFSlideShowImpl extends POIDocument implements Closeable {
      *
      * @return offset of this picture in the Pictures stream
      */
-    public int addPicture(HSLFPictureData img) {
+    public synchronized int addPicture(HSLFPictureData img) {
         // Process any existing pictures if we haven't yet
         if (_pictures == null) {
             try {
@@ -855,7 +855,7 @@ public final class HSLFSlideShowImpl extends POIDocument implements Closeable {
      * @return list with the read pictures or an empty list if the
      * presentation doesn't contain pictures.
      */
-    public List<HSLFPictureData> getPictureData() {
+    public synchronized List<HSLFPictureData> getPictureData() {
         if (_pictures == null) {
             try {
                 readPictures();
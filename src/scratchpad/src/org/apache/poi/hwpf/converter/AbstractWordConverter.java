@@ -188,6 +188,17 @@ public abstract class AbstractWordConverter
         // by default no such actions needed
     }
 
+    /**
+     * Called after a paragraph or a table was added to the given flow
+     * element. The flow element may be a part of a table that is not added to
+     * the document yet. Implementations may use this to write out the
+     * finished blocks, see {@link StreamingHtmlDocumentFacade}.
+     */
+    protected void afterBlock( Element flow )
+    {
+        // by default no such actions needed
+    }
+
     protected Triplet getCharacterRunTriplet( CharacterRun characterRun )
     {
         Triplet original = new Triplet();
@@ -1072,6 +1083,7 @@ public abstract class AbstractWordConverter
 
                 Table table = range.getTable( paragraph );
                 processTable( wordDocument, flow, table );
+                afterBlock( flow );
 
                 p += table.numParagraphs();
                 p--;
@@ -1112,6 +1124,7 @@ public abstract class AbstractWordConverter
                 processParagraph( wordDocument, flow, currentTableLevel,
                         paragraph, AbstractWordUtils.EMPTY );
             }
+            afterBlock( flow );
         }
 
     }
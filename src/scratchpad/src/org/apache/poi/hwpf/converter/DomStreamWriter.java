@@ -0,0 +1,308 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Writes a DOM document to a {@link XMLStreamWriter} while it's being built.
+ * <p>
+ * The content before an element that is still being filled, i.e. its
+ * preceding siblings and the ones of its ancestors, is considered to be
+ * complete. It is written and removed from the document, the start tags of
+ * the element and its ancestors are written and the element is kept "open"
+ * until content outside of it is written.
+ */
+final class DomStreamWriter
+{
+    private final XMLStreamWriter writer;
+
+    /**
+     * Names of the elements which are written as empty elements if they have
+     * no content, <code>null</code> for all elements
+     */
+    private final Set<String> emptyElements;
+
+    private final List<Element> openElements = new ArrayList<Element>();
+
+    /**
+     * Namespace prefixes declared by each element which is currently written
+     */
+    private final List<Map<String, String>> namespaceScopes = new ArrayList<Map<String, String>>();
+
+    private boolean started;
+
+    DomStreamWriter( XMLStreamWriter writer, Set<String> emptyElements )
+    {
+        this.writer = writer;
+        this.emptyElements = emptyElements;
+    }
+
+    /**
+     * @return <code>true</code> if any content was written
+     */
+    boolean isStarted()
+    {
+        return started;
+    }
+
+    /**
+     * @return <code>true</code> if the element is a part of its document
+     */
+    static boolean isAttached( Element element )
+    {
+        Node node = element;
+        while ( node.getParentNode() != null )
+        {
+            node = node.getParentNode();
+        }
+        return node.getNodeType() == Node.DOCUMENT_NODE;
+    }
+
+    /**
+     * Writes all children of the given element except the last one, which
+     * may still be changed, and removes them from the document. Elements
+     * which are not attached to the document are skipped.
+     */
+    void flush( Element parent ) throws XMLStreamException
+    {
+        if ( !isAttached( parent ) )
+            return;
+
+        List<Element> path = new ArrayList<Element>();
+        for ( Node node = parent; node instanceof Element; node = node
+                .getParentNode() )
+        {
+            path.add( 0, (Element) node );
+        }
+
+        int common = 0;
+        while ( common < openElements.size() && common < path.size()
+                && openElements.get( common ) == path.get( common ) )
+        {
+            common++;
+        }
+        closeElements( common );
+        for ( int i = common; i < path.size(); i++ )
+        {
+            openElement( path.get( i ) );
+        }
+
+        Node last = parent.getLastChild();
+        while ( parent.getFirstChild() != last )
+        {
+            Node child = parent.getFirstChild();
+            writeNode( child );
+            parent.removeChild( child );
+        }
+    }
+
+    /**
+     * Writes the remaining content of the document and closes all open
+     * elements
+     */
+    void finish( Document document ) throws XMLStreamException
+    {
+        Element root = document.getDocumentElement();
+        if ( openElements.isEmpty() && root != null )
+        {
+            openElement( root );
+        }
+        closeElements( 0 );
+        writer.flush();
+    }
+
+    private void openElement( Element element ) throws XMLStreamException
+    {
+        Node parent = element.getParentNode();
+        while ( parent.getFirstChild() != element )
+        {
+            Node sibling = parent.getFirstChild();
+            writeNode( sibling );
+            parent.removeChild( sibling );
+        }
+        writeStartElement( element, false );
+        openElements.add( element );
+    }
+
+    private void closeElements( int depth ) throws XMLStreamException
+    {
+        while ( openElements.size() > depth )
+        {
+            Element element = openElements.remove( openElements.size() - 1 );
+            while ( element.hasChildNodes() )
+            {
+                Node child = element.getFirstChild();
+                writeNode( child );
+                element.removeChild( child );
+            }
+            writeEndElement();
+            element.getParentNode().removeChild( element );
+        }
+    }
+
+    private void writeNode( Node node ) throws XMLStreamException
+    {
+        switch ( node.getNodeType() )
+        {
+        case Node.ELEMENT_NODE:
+            Element element = (Element) node;
+            if ( !element.hasChildNodes()
+                    && ( emptyElements == null || emptyElements
+                            .contains( element.getTagName() ) ) )
+            {
+                writeStartElement( element, true );
+                // empty elements don't have a scope of their own
+                namespaceScopes.remove( namespaceScopes.size() - 1 );
+                break;
+            }
+
+            writeStartElement( element, false );
+            for ( Node child = element.getFirstChild(); child != null; child = child
+                    .getNextSibling() )
+            {
+                writeNode( child );
+            }
+            writeEndElement();
+            break;
+        case Node.TEXT_NODE:
+        case Node.CDATA_SECTION_NODE:
+            started = true;
+            writer.writeCharacters( node.getNodeValue() );
+            break;
+        case Node.COMMENT_NODE:
+            started = true;
+            writer.writeComment( node.getNodeValue() );
+            break;
+        default:
+            // nothing to write
+            break;
+        }
+    }
+
+    private void writeStartElement( Element element, boolean empty )
+            throws XMLStreamException
+    {
+        started = true;
+        namespaceScopes.add( null );
+
+        String namespace = element.getNamespaceURI();
+        if ( namespace == null )
+        {
+            if ( empty )
+                writer.writeEmptyElement( element.getTagName() );
+            else
+                writer.writeStartElement( element.getTagName() );
+        }
+        else
+        {
+            String prefix = getPrefix( element );
+            if ( empty )
+                writer.writeEmptyElement( prefix, element.getLocalName(),
+                        namespace );
+            else
+                writer.writeStartElement( prefix, element.getLocalName(),
+                        namespace );
+            declareNamespace( prefix, namespace );
+        }
+
+        NamedNodeMap attributes = element.getAttributes();
+        for ( int i = 0; i < attributes.getLength(); i++ )
+        {
+            Attr attribute = (Attr) attributes.item( i );
+            String attributeNamespace = attribute.getNamespaceURI();
+            if ( XMLConstants.XMLNS_ATTRIBUTE_NS_URI
+                    .equals( attributeNamespace )
+                    || attribute.getName().equals(
+                            XMLConstants.XMLNS_ATTRIBUTE )
+                    || attribute.getName().startsWith(
+                            XMLConstants.XMLNS_ATTRIBUTE + ":" ) )
+            {
+                // namespaces are declared where they are used
+                continue;
+            }
+
+            if ( attributeNamespace == null )
+            {
+                writer.writeAttribute( attribute.getName(),
+                        attribute.getValue() );
+            }
+            else
+            {
+                String prefix = getPrefix( attribute );
+                declareNamespace( prefix, attributeNamespace );
+                writer.writeAttribute( prefix, attributeNamespace,
+                        attribute.getLocalName(), attribute.getValue() );
+            }
+        }
+    }
+
+    private void writeEndElement() throws XMLStreamException
+    {
+        writer.writeEndElement();
+        namespaceScopes.remove( namespaceScopes.size() - 1 );
+    }
+
+    private void declareNamespace( String prefix, String namespace )
+            throws XMLStreamException
+    {
+        if ( XMLConstants.XML_NS_PREFIX.equals( prefix )
+                || namespace.equals( getNamespace( prefix ) ) )
+            return;
+
+        if ( prefix.length() == 0 )
+            writer.writeDefaultNamespace( namespace );
+        else
+            writer.writeNamespace( prefix, namespace );
+
+        int current = namespaceScopes.size() - 1;
+        if ( namespaceScopes.get( current ) == null )
+            namespaceScopes.set( current, new HashMap<String, String>() );
+        namespaceScopes.get( current ).put( prefix, namespace );
+    }
+
+    private String getNamespace( String prefix )
+    {
+        for ( int i = namespaceScopes.size() - 1; i >= 0; i-- )
+        {
+            Map<String, String> scope = namespaceScopes.get( i );
+            if ( scope != null && scope.containsKey( prefix ) )
+                return scope.get( prefix );
+        }
+        return null;
+    }
+
+    private static String getPrefix( Node node )
+    {
+        return node.getPrefix() == null ? "" : node.getPrefix();
+    }
+}
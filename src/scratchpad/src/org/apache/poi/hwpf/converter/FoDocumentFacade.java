@@ -230,6 +230,16 @@ public class FoDocumentFacade
         return document.createTextNode( data );
     }
 
+    /**
+     * Called by the converter after a block or a table was added to the given
+     * element. This implementation keeps the complete content in the DOM
+     * document.
+     */
+    public void flush( Element flow )
+    {
+        // the whole document is kept
+    }
+
     public Document getDocument()
     {
         return document;
@@ -35,7 +35,7 @@ public class HtmlDocumentFacade
     /**
      * Map from tag name, to map linking known styles and css class names
      */
-    private Map<String, Map<String, String>> stylesheet = new LinkedHashMap<String, Map<String, String>>();
+    protected final Map<String, Map<String, String>> stylesheet = new LinkedHashMap<String, Map<String, String>>();
     private Element stylesheetElement;
 
     protected Element title;
@@ -233,6 +233,16 @@ public class HtmlDocumentFacade
         return document.createElement( "ul" );
     }
 
+    /**
+     * Called by the converter after a paragraph or a table was added to the
+     * given element. This implementation keeps the complete content in the
+     * DOM document.
+     */
+    public void flush( Element flow )
+    {
+        // the whole document is kept
+    }
+
     public Element getBody()
     {
         return body;
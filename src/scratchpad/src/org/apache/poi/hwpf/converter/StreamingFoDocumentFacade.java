@@ -0,0 +1,132 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.poi.util.Beta;
+import org.apache.poi.util.XMLHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * {@link FoDocumentFacade} which writes the XSL FO document to a
+ * {@link XMLStreamWriter} while it's converted, instead of keeping the whole
+ * document in memory.
+ * <p>
+ * Each block or table is kept in the DOM document until the next one is
+ * added, then it's written and removed. Thus the memory needed depends on the
+ * size of the largest paragraph or table and not on the size of the document.
+ * The layout master set and the declarations are written together with the
+ * first block, so they can't be changed afterwards.
+ * <p>
+ * The document is complete after {@link #close()} was called.
+ *
+ * <pre>
+ * StreamingFoDocumentFacade facade = new StreamingFoDocumentFacade( out );
+ * WordToFoConverter converter = new WordToFoConverter( facade );
+ * converter.processDocument( hwpfDocument );
+ * facade.close();
+ * </pre>
+ */
+@Beta
+public class StreamingFoDocumentFacade extends FoDocumentFacade implements
+        Closeable
+{
+    private final XMLStreamWriter writer;
+
+    private final boolean closeWriter;
+
+    private final DomStreamWriter domWriter;
+
+    /**
+     * Creates a facade which writes the UTF-8 encoded document, including the
+     * XML declaration, to the given stream. The stream isn't closed by
+     * {@link #close()}.
+     */
+    public StreamingFoDocumentFacade( OutputStream out )
+            throws ParserConfigurationException, XMLStreamException
+    {
+        this( XMLHelper.getDocumentBuilderFactory().newDocumentBuilder()
+                .newDocument(), XMLOutputFactory.newInstance()
+                .createXMLStreamWriter( out, "UTF-8" ), true );
+        writer.writeStartDocument( "UTF-8", "1.0" );
+    }
+
+    /**
+     * @param document
+     *            the XML DOM Document which holds the content that is not
+     *            written yet. Shall support namespaces
+     * @param writer
+     *            the writer to write the XSL FO document to, it isn't closed
+     *            by {@link #close()}
+     */
+    public StreamingFoDocumentFacade( Document document, XMLStreamWriter writer )
+    {
+        this( document, writer, false );
+    }
+
+    private StreamingFoDocumentFacade( Document document,
+            XMLStreamWriter writer, boolean closeWriter )
+    {
+        super( document );
+        this.writer = writer;
+        this.closeWriter = closeWriter;
+        this.domWriter = new DomStreamWriter( writer, null );
+    }
+
+    @Override
+    public void flush( Element flow )
+    {
+        try
+        {
+            domWriter.flush( flow );
+        }
+        catch ( XMLStreamException e )
+        {
+            throw new IllegalStateException( "Unable to write FO document", e );
+        }
+    }
+
+    /**
+     * Writes the remaining content and ends the document.
+     */
+    public void close() throws IOException
+    {
+        try
+        {
+            domWriter.finish( document );
+            writer.writeEndDocument();
+            if ( closeWriter )
+                writer.close();
+            else
+                writer.flush();
+        }
+        catch ( XMLStreamException e )
+        {
+            throw new IOException( e );
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hwpf.converter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.poi.util.Beta;
+import org.apache.poi.util.XMLHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * {@link HtmlDocumentFacade} which writes the HTML document to a
+ * {@link XMLStreamWriter} while it's converted, instead of keeping the whole
+ * document in memory.
+ * <p>
+ * Each paragraph or table is kept in the DOM document until the next one is
+ * added, then it's written and removed. Thus the memory needed depends on the
+ * size of the largest paragraph or table and not on the size of the document.
+ * The head, including the stylesheet of the CSS classes known at that time,
+ * is written together with the first paragraph. CSS classes which are created
+ * later on are written to <tt>style</tt> elements in front of the paragraphs
+ * which use them.
+ * <p>
+ * The document is complete after {@link #close()} was called.
+ *
+ * <pre>
+ * StreamingHtmlDocumentFacade facade = new StreamingHtmlDocumentFacade( out );
+ * WordToHtmlConverter converter = new WordToHtmlConverter( facade );
+ * converter.processDocument( hwpfDocument );
+ * facade.close();
+ * </pre>
+ */
+@Beta
+public class StreamingHtmlDocumentFacade extends HtmlDocumentFacade implements
+        Closeable
+{
+    /**
+     * HTML elements without an end tag
+     */
+    private static final Set<String> VOID_ELEMENTS = new HashSet<String>(
+            Arrays.asList( "area", "base", "br", "col", "hr", "img", "input",
+                    "link", "meta", "param" ) );
+
+    private final XMLStreamWriter writer;
+
+    private final boolean closeWriter;
+
+    private final DomStreamWriter domWriter;
+
+    /**
+     * CSS classes which are not written yet, after the head was written
+     */
+    private final Map<String, Map<String, String>> pendingStyles = new LinkedHashMap<String, Map<String, String>>();
+
+    /**
+     * Creates a facade which writes the UTF-8 encoded document to the given
+     * stream. The stream isn't closed by {@link #close()}.
+     */
+    public StreamingHtmlDocumentFacade( OutputStream out )
+            throws ParserConfigurationException, XMLStreamException
+    {
+        this( XMLHelper.getDocumentBuilderFactory().newDocumentBuilder()
+                .newDocument(), XMLOutputFactory.newInstance()
+                .createXMLStreamWriter( out, "UTF-8" ), true );
+    }
+
+    /**
+     * @param document
+     *            the XML DOM Document which holds the content that is not
+     *            written yet
+     * @param writer
+     *            the writer to write the HTML document to, it isn't closed by
+     *            {@link #close()}
+     */
+    public StreamingHtmlDocumentFacade( Document document,
+            XMLStreamWriter writer )
+    {
+        this( document, writer, false );
+    }
+
+    private StreamingHtmlDocumentFacade( Document document,
+            XMLStreamWriter writer, boolean closeWriter )
+    {
+        super( document );
+        this.writer = writer;
+        this.closeWriter = closeWriter;
+        this.domWriter = new DomStreamWriter( writer, VOID_ELEMENTS );
+    }
+
+    @Override
+    public String getOrCreateCssClass( String classNamePrefix, String style )
+    {
+        Map<String, String> styleToClassName = stylesheet
+                .get( classNamePrefix );
+        boolean known = styleToClassName != null
+                && styleToClassName.containsKey( style );
+
+        String className = super.getOrCreateCssClass( classNamePrefix, style );
+
+        // called by the super constructor before the fields are initialized
+        if ( !known && domWriter != null && domWriter.isStarted() )
+        {
+            Map<String, String> pending = pendingStyles.get( classNamePrefix );
+            if ( pending == null )
+            {
+                pending = new LinkedHashMap<String, String>();
+                pendingStyles.put( classNamePrefix, pending );
+            }
+            pending.put( style, className );
+        }
+        return className;
+    }
+
+    @Override
+    public void flush( Element flow )
+    {
+        if ( !DomStreamWriter.isAttached( flow ) )
+            return;
+
+        try
+        {
+            if ( !domWriter.isStarted() )
+            {
+                // the head is written in front of the first content
+                updateStylesheet();
+            }
+            else
+            {
+                addPendingStyles( flow, flow.getFirstChild() != null );
+            }
+            domWriter.flush( flow );
+        }
+        catch ( XMLStreamException e )
+        {
+            throw new IllegalStateException( "Unable to write HTML document",
+                    e );
+        }
+    }
+
+    /**
+     * Writes the remaining content and ends the document.
+     */
+    public void close() throws IOException
+    {
+        try
+        {
+            if ( !domWriter.isStarted() )
+                updateStylesheet();
+            else
+                addPendingStyles( body, false );
+
+            domWriter.finish( document );
+            writer.writeEndDocument();
+            if ( closeWriter )
+                writer.close();
+            else
+                writer.flush();
+        }
+        catch ( XMLStreamException e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    private void addPendingStyles( Element parent, boolean first )
+    {
+        if ( pendingStyles.isEmpty() )
+            return;
+
+        Element style = document.createElement( "style" );
+        style.setAttribute( "type", "text/css" );
+        style.setTextContent( buildStylesheet( pendingStyles ) );
+        if ( first )
+            parent.insertBefore( style, parent.getFirstChild() );
+        else
+            parent.appendChild( style );
+        pendingStyles.clear();
+    }
+}
@@ -111,6 +111,11 @@ public class WordToFoConverter extends AbstractWordConverter
 
     private boolean outputCharactersLanguage = false;
 
+    /**
+     * Names of the page masters of the sections of the current document part
+     */
+    private List<String> sectionPageMasters = new ArrayList<String>( 0 );
+
     private Set<String> usedIds = new LinkedHashSet<String>();
 
     /**
@@ -131,6 +136,12 @@ public class WordToFoConverter extends AbstractWordConverter
         this.foDocumentFacade = foDocumentFacade;
     }
 
+    @Override
+    protected void afterBlock( Element flow )
+    {
+        foDocumentFacade.flush( flow );
+    }
+
     protected Element createNoteInline( String noteIndexText )
     {
         Element inline = foDocumentFacade.createInline();
@@ -271,6 +282,31 @@ public class WordToFoConverter extends AbstractWordConverter
             foDocumentFacade.setDescription( summaryInformation.getComments() );
     }
 
+    @Override
+    protected void processDocumentPart( HWPFDocumentCore wordDocument,
+            Range range )
+    {
+        /*
+         * The layout master set precedes all page sequences, so the page
+         * masters are created before the content of the first section. This
+         * allows StreamingFoDocumentFacade to write the layout master set
+         * before the content.
+         */
+        for ( int s = 0; s < range.numSections(); s++ )
+        {
+            sectionPageMasters.add( createPageMaster( range.getSection( s ),
+                    "page", s ) );
+        }
+        try
+        {
+            super.processDocumentPart( wordDocument, range );
+        }
+        finally
+        {
+            sectionPageMasters.clear();
+        }
+    }
+
     @Override
     protected void processDrawnObject( HWPFDocument doc,
             CharacterRun characterRun, OfficeDrawing officeDrawing,
@@ -468,7 +504,9 @@ public class WordToFoConverter extends AbstractWordConverter
     protected void processSection( HWPFDocumentCore wordDocument,
             Section section, int sectionCounter )
     {
-        String regularPage = createPageMaster( section, "page", sectionCounter );
+        String regularPage = sectionCounter < sectionPageMasters.size() ? sectionPageMasters
+                .get( sectionCounter ) : createPageMaster( section, "page",
+                sectionCounter );
 
         Element pageSequence = foDocumentFacade.addPageSequence( regularPage );
         Element flow = foDocumentFacade.addFlowToPageSequence( pageSequence,
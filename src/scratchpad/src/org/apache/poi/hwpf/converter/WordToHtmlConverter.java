@@ -177,6 +177,12 @@ public class WordToHtmlConverter extends AbstractWordConverter
         this.htmlDocumentFacade = htmlDocumentFacade;
     }
 
+    @Override
+    protected void afterBlock( Element flow )
+    {
+        htmlDocumentFacade.flush( flow );
+    }
+
     @Override
     protected void afterProcess()
     {
@@ -17,6 +17,7 @@
 package org.apache.poi.hwpf.converter;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.util.List;
@@ -52,6 +53,7 @@ import org.apache.poi.util.POILogger;
 import org.apache.poi.util.XMLHelper;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 @Beta
 public class WordToTextConverter extends AbstractWordConverter
@@ -132,6 +134,20 @@ public class WordToTextConverter extends AbstractWordConverter
 
     private final TextDocumentFacade textDocumentFacade;
 
+    /**
+     * Target of the text of the completed blocks, <code>null</code> to keep
+     * the text in the document
+     */
+    private Appendable textOutput;
+
+    /**
+     * <code>true</code>, when {@link #processDocument(HWPFDocumentCore)} was
+     * called, i.e. the document information is processed before the blocks
+     */
+    private boolean documentStarted = false;
+
+    private boolean headWritten = false;
+
     /**
      * Creates new instance of {@link WordToTextConverter}. Can be used for
      * output several {@link HWPFDocument}s into single text document.
@@ -163,6 +179,21 @@ public class WordToTextConverter extends AbstractWordConverter
         this.textDocumentFacade = textDocumentFacade;
     }
 
+    @Override
+    protected void afterBlock( Element flow )
+    {
+        if ( !isStreaming() )
+            return;
+
+        Node last = flow.getLastChild();
+        while ( flow.getFirstChild() != last )
+        {
+            Node child = flow.getFirstChild();
+            writeText( child );
+            flow.removeChild( child );
+        }
+    }
+
     @Override
     protected void afterProcess()
     {
@@ -192,6 +223,97 @@ public class WordToTextConverter extends AbstractWordConverter
         return stringWriter.toString();
     }
 
+    /**
+     * Writes the text of each paragraph and table to the given target as soon
+     * as it's complete, instead of keeping it in the document. The text is
+     * only written from {@link #processDocument(HWPFDocumentCore)} on, after
+     * the document information. The text processed before, e.g. the headers,
+     * is kept until then and written after the document information. The
+     * notes are kept until {@link #flushText()} is called after the document
+     * was processed.
+     * <p>
+     * If the target fails, an {@link IllegalStateException} with the
+     * {@link IOException} as cause is thrown by the processing methods.
+     * 
+     * @param textOutput
+     *            the target of the text, <code>null</code> to keep the text
+     *            in the document
+     */
+    public void setTextOutput( Appendable textOutput )
+    {
+        this.textOutput = textOutput;
+    }
+
+    /**
+     * Writes the text which is still kept in the document, i.e. the notes,
+     * to the text output and removes it from the document.
+     */
+    public void flushText() throws IOException
+    {
+        if ( textOutput == null )
+            throw new IllegalStateException( "No text output set" );
+
+        try
+        {
+            writeHeadAndKeptText();
+            Element body = textDocumentFacade.getBody();
+            while ( body.hasChildNodes() )
+            {
+                Node child = body.getFirstChild();
+                writeText( child );
+                body.removeChild( child );
+            }
+        }
+        catch ( IllegalStateException exc )
+        {
+            if ( exc.getCause() instanceof IOException )
+                throw (IOException) exc.getCause();
+            throw exc;
+        }
+    }
+
+    private boolean isStreaming()
+    {
+        return textOutput != null && documentStarted;
+    }
+
+    /**
+     * Writes the document information and the blocks processed before the
+     * document, except the notes
+     */
+    private void writeHeadAndKeptText()
+    {
+        if ( headWritten )
+            return;
+
+        headWritten = true;
+        writeText( textDocumentFacade.getHead() );
+        Node child = textDocumentFacade.getBody().getFirstChild();
+        while ( child != null )
+        {
+            Node next = child.getNextSibling();
+            if ( child != notes )
+            {
+                writeText( child );
+                textDocumentFacade.getBody().removeChild( child );
+            }
+            child = next;
+        }
+    }
+
+    private void writeText( Node node )
+    {
+        writeHeadAndKeptText();
+        try
+        {
+            textOutput.append( node.getTextContent() );
+        }
+        catch ( IOException exc )
+        {
+            throw new IllegalStateException( "Unable to write text", exc );
+        }
+    }
+
     public boolean isOutputSummaryInformation()
     {
         return outputSummaryInformation;
@@ -236,6 +358,13 @@ public class WordToTextConverter extends AbstractWordConverter
         }
     }
 
+    @Override
+    public void processDocument( HWPFDocumentCore wordDocument )
+    {
+        documentStarted = true;
+        super.processDocument( wordDocument );
+    }
+
     @Override
     public void processDocumentPart( HWPFDocumentCore wordDocument, Range range )
     {
@@ -423,7 +552,10 @@ public class WordToTextConverter extends AbstractWordConverter
         processParagraphes( wordDocument, sectionElement, section,
                 Integer.MIN_VALUE );
         sectionElement.appendChild( textDocumentFacade.createText( "\n" ) );
-        textDocumentFacade.body.appendChild( sectionElement );
+        if ( isStreaming() )
+            writeText( sectionElement );
+        else
+            textDocumentFacade.body.appendChild( sectionElement );
     }
 
     protected void processTable( HWPFDocumentCore wordDocument, Element flow,
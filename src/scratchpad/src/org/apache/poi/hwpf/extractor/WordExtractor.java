@@ -21,6 +21,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import javax.xml.parsers.ParserConfigurationException;
+
 import org.apache.poi.POIOLE2TextExtractor;
 import org.apache.poi.hwpf.HWPFDocument;
 import org.apache.poi.hwpf.converter.WordToTextConverter;
@@ -251,33 +253,7 @@ public final class WordExtractor extends POIOLE2TextExtractor {
     public String getText() {
         try {
             WordToTextConverter wordToTextConverter = new WordToTextConverter();
-
-            HeaderStories hs = new HeaderStories(doc);
-
-            if (hs.getFirstHeaderSubrange() != null)
-                wordToTextConverter.processDocumentPart(doc,
-                        hs.getFirstHeaderSubrange());
-            if (hs.getEvenHeaderSubrange() != null)
-                wordToTextConverter.processDocumentPart(doc,
-                        hs.getEvenHeaderSubrange());
-            if (hs.getOddHeaderSubrange() != null)
-                wordToTextConverter.processDocumentPart(doc,
-                        hs.getOddHeaderSubrange());
-
-            wordToTextConverter.processDocument(doc);
-            wordToTextConverter.processDocumentPart(doc,
-                    doc.getMainTextboxRange());
-
-            if (hs.getFirstFooterSubrange() != null)
-                wordToTextConverter.processDocumentPart(doc,
-                        hs.getFirstFooterSubrange());
-            if (hs.getEvenFooterSubrange() != null)
-                wordToTextConverter.processDocumentPart(doc,
-                        hs.getEvenFooterSubrange());
-            if (hs.getOddFooterSubrange() != null)
-                wordToTextConverter.processDocumentPart(doc,
-                        hs.getOddFooterSubrange());
-
+            processDocument(wordToTextConverter);
             return wordToTextConverter.getText();
         } catch (RuntimeException e) {
             throw e;
@@ -286,6 +262,56 @@ public final class WordExtractor extends POIOLE2TextExtractor {
         }
     }
 
+    /**
+     * Writes the same text as {@link #getText()}, but paragraph by
+     * paragraph while the document is processed, so the text isn't
+     * collected in memory.
+     */
+    @Override
+    public void writeText(Appendable out) throws IOException {
+        try {
+            WordToTextConverter wordToTextConverter = new WordToTextConverter();
+            wordToTextConverter.setTextOutput(out);
+            processDocument(wordToTextConverter);
+            wordToTextConverter.flushText();
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+            throw e;
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private void processDocument(WordToTextConverter wordToTextConverter) {
+        HeaderStories hs = new HeaderStories(doc);
+
+        if (hs.getFirstHeaderSubrange() != null)
+            wordToTextConverter.processDocumentPart(doc,
+                    hs.getFirstHeaderSubrange());
+        if (hs.getEvenHeaderSubrange() != null)
+            wordToTextConverter.processDocumentPart(doc,
+                    hs.getEvenHeaderSubrange());
+        if (hs.getOddHeaderSubrange() != null)
+            wordToTextConverter.processDocumentPart(doc,
+                    hs.getOddHeaderSubrange());
+
+        wordToTextConverter.processDocument(doc);
+        wordToTextConverter.processDocumentPart(doc,
+                doc.getMainTextboxRange());
+
+        if (hs.getFirstFooterSubrange() != null)
+            wordToTextConverter.processDocumentPart(doc,
+                    hs.getFirstFooterSubrange());
+        if (hs.getEvenFooterSubrange() != null)
+            wordToTextConverter.processDocumentPart(doc,
+                    hs.getEvenFooterSubrange());
+        if (hs.getOddFooterSubrange() != null)
+            wordToTextConverter.processDocumentPart(doc,
+                    hs.getOddFooterSubrange());
+    }
+
     /**
      * Removes any fields (eg macros, page markers etc) from the string.
      */
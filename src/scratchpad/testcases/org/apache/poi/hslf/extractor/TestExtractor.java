@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.util.List;
 
 import org.apache.poi.POIDataSamples;
@@ -97,6 +98,26 @@ public final class TestExtractor {
         ppe2.close();
     }
 
+    @Test
+    public void testWriteText() throws IOException {
+        PowerPointExtractor ppe = openExtractor("basic_test_ppt_file.ppt");
+        ppe.setNotesByDefault(true);
+
+        final int[] appends = { 0 };
+        StringWriter out = new StringWriter() {
+            @Override
+            public StringWriter append(CharSequence csq) {
+                appends[0]++;
+                return super.append(csq);
+            }
+        };
+        ppe.writeText(out);
+        assertEquals(ppe.getText(), out.toString());
+        // one append per slide and per notes page, and the rest
+        assertEquals(5, appends[0]);
+        ppe.close();
+    }
+
     @Test
     public void testReadNoteText() throws IOException {
         // Basic 2 page example
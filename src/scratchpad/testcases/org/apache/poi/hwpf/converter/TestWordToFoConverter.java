@@ -19,9 +19,13 @@
 package org.apache.poi.hwpf.converter;
 
 import static org.apache.poi.POITestCase.assertContains;
+import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
 
+import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
@@ -30,8 +34,10 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.HWPFDocumentCore;
 import org.apache.poi.util.XMLHelper;
 import org.junit.Test;
+import org.w3c.dom.Document;
 
 /**
  * Test cases for {@link WordToFoConverter}
@@ -61,6 +67,53 @@ public class TestWordToFoConverter
         return result;
     }
 
+    private static String parse( byte[] data ) throws Exception
+    {
+        DocumentBuilderFactory factory = XMLHelper.getDocumentBuilderFactory();
+        factory.setNamespaceAware( true );
+        return toString( factory.newDocumentBuilder().parse(
+                new ByteArrayInputStream( data ) ) );
+    }
+
+    private static String toString( Document document ) throws Exception
+    {
+        StringWriter stringWriter = new StringWriter();
+        TransformerFactory.newInstance().newTransformer().transform(
+                new DOMSource( document ), new StreamResult( stringWriter ) );
+        return stringWriter.toString();
+    }
+
+    @Test
+    public void testStreaming() throws Exception
+    {
+        String[] sampleFileNames = { "documentProperties.doc",
+                "endingnote.doc", "innertable.doc", "pageref.doc",
+                "Bug47286.doc", "page-break.doc", "Bug53453Section.doc",
+                "Word6_sections.doc" };
+        for ( String sampleFileName : sampleFileNames )
+        {
+            HWPFDocumentCore hwpfDocument = WordToFoUtils.loadDoc( POIDataSamples
+                    .getDocumentInstance().openResourceAsStream(
+                            sampleFileName ) );
+
+            WordToFoConverter wordToFoConverter = new WordToFoConverter(
+                    XMLHelper.getDocumentBuilderFactory().newDocumentBuilder()
+                            .newDocument() );
+            wordToFoConverter.processDocument( hwpfDocument );
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            StreamingFoDocumentFacade facade = new StreamingFoDocumentFacade(
+                    out );
+            new WordToFoConverter( facade ).processDocument( hwpfDocument );
+            facade.close();
+
+            // compare the parsed documents, which declare the namespaces as attributes
+            assertEquals( sampleFileName, parse( toString( wordToFoConverter
+                    .getDocument() ).getBytes( "UTF-8" ) ), parse( out
+                    .toByteArray() ) );
+        }
+    }
+
     @Test
     public void testDocumentProperties() throws Exception
     {
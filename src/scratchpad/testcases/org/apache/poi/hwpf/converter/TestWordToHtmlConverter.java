@@ -17,9 +17,15 @@
 package org.apache.poi.hwpf.converter;
 
 import static org.apache.poi.POITestCase.assertContains;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
 
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
@@ -33,6 +39,7 @@ import org.apache.poi.hwpf.usermodel.PictureType;
 import org.apache.poi.util.XMLHelper;
 import org.junit.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
 
 /**
  * Test cases for {@link WordToHtmlConverter}
@@ -85,6 +92,66 @@ public class TestWordToHtmlConverter
         return stringWriter.toString();
     }
 
+    /**
+     * Removes the style elements and returns their rules
+     */
+    private static Set<String> removeStylesheets( Document document )
+    {
+        Set<String> rules = new TreeSet<String>();
+        NodeList styles = document.getElementsByTagName( "style" );
+        while ( styles.getLength() > 0 )
+        {
+            rules.addAll( Arrays.asList( styles.item( 0 ).getTextContent()
+                    .split( "\n" ) ) );
+            styles.item( 0 ).getParentNode().removeChild( styles.item( 0 ) );
+        }
+        return rules;
+    }
+
+    private static String toString( Document document ) throws Exception
+    {
+        StringWriter stringWriter = new StringWriter();
+        TransformerFactory.newInstance().newTransformer().transform(
+                new DOMSource( document ), new StreamResult( stringWriter ) );
+        return stringWriter.toString();
+    }
+
+    @Test
+    public void testStreaming() throws Exception
+    {
+        String[] sampleFileNames = { "AIOOB-Tap.doc", "Bug47286.doc",
+                "documentProperties.doc", "endingnote.doc", "innertable.doc",
+                "lists-margins.doc", "pageref.doc", "table-merges.doc",
+                "Bug53453Section.doc" };
+        for ( String sampleFileName : sampleFileNames )
+        {
+            HWPFDocument hwpfDocument = new HWPFDocument( POIDataSamples
+                    .getDocumentInstance().openResourceAsStream(
+                            sampleFileName ) );
+
+            WordToHtmlConverter wordToHtmlConverter = new WordToHtmlConverter(
+                    XMLHelper.getDocumentBuilderFactory().newDocumentBuilder()
+                            .newDocument() );
+            wordToHtmlConverter.processDocument( hwpfDocument );
+            Document expected = wordToHtmlConverter.getDocument();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            StreamingHtmlDocumentFacade facade = new StreamingHtmlDocumentFacade(
+                    out );
+            new WordToHtmlConverter( facade ).processDocument( hwpfDocument );
+            facade.close();
+            Document actual = XMLHelper.getDocumentBuilderFactory()
+                    .newDocumentBuilder()
+                    .parse( new ByteArrayInputStream( out.toByteArray() ) );
+
+            // the CSS rules are split into several style elements
+            assertEquals( sampleFileName, removeStylesheets( expected ),
+                    removeStylesheets( actual ) );
+            assertEquals( sampleFileName, toString( expected ),
+                    toString( actual ) );
+        }
+    }
+
     @Test
     public void testAIOOBTap() throws Exception
     {
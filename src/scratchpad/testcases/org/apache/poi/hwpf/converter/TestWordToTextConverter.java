@@ -16,9 +16,12 @@
 ==================================================================== */
 package org.apache.poi.hwpf.converter;
 
+import java.io.StringWriter;
+
 import junit.framework.TestCase;
 import org.apache.poi.hwpf.HWPFDocument;
 import org.apache.poi.hwpf.HWPFTestDataSamples;
+import org.apache.poi.hwpf.usermodel.HeaderStories;
 
 public class TestWordToTextConverter extends TestCase
 {
@@ -51,6 +54,42 @@ public class TestWordToTextConverter extends TestCase
         assertTrue( result.contains( "2.101\tHeader 2.101" ) );
     }
 
+    /**
+     * The text written to a text output must contain the document information
+     * in front of the header text, which is processed before the document
+     */
+    public void testTextOutputWithSummaryInformation() throws Exception
+    {
+        HWPFDocument doc = HWPFTestDataSamples
+                .openSampleFile( "Bug51686.doc" );
+        String author = doc.getSummaryInformation().getAuthor();
+        assertEquals( "Keith Bennett", author );
+
+        WordToTextConverter converter = new WordToTextConverter();
+        converter.setOutputSummaryInformation( true );
+        processWithHeader( converter, doc );
+        String expected = converter.getText();
+
+        converter = new WordToTextConverter();
+        converter.setOutputSummaryInformation( true );
+        StringWriter out = new StringWriter();
+        converter.setTextOutput( out );
+        processWithHeader( converter, doc );
+        converter.flushText();
+
+        assertEquals( expected, out.toString() );
+        assertTrue( out.toString().startsWith( "Author: " + author ) );
+    }
+
+    private static void processWithHeader( WordToTextConverter converter,
+            HWPFDocument doc )
+    {
+        HeaderStories hs = new HeaderStories( doc );
+        assertNotNull( hs.getOddHeaderSubrange() );
+        converter.processDocumentPart( doc, hs.getOddHeaderSubrange() );
+        converter.processDocument( doc );
+    }
+
     public void testBug53380_3() throws Exception
     {
         HWPFDocument doc = HWPFTestDataSamples
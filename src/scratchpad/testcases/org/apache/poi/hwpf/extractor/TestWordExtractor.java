@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.POITextExtractor;
@@ -122,6 +123,25 @@ public final class TestWordExtractor {
 		extractor.close();
     }
 
+    @Test
+    public void testWriteText() throws IOException {
+        for (String name : new String[] { "test2.doc", "ThreeColHeadFoot.doc", "footnote.doc", "endingnote.doc" }) {
+            WordExtractor extractor = openExtractor(name);
+            final int[] appends = { 0 };
+            StringWriter out = new StringWriter() {
+                @Override
+                public StringWriter append(CharSequence csq) {
+                    appends[0]++;
+                    return super.append(csq);
+                }
+            };
+            extractor.writeText(out);
+            assertEquals(name, extractor.getText(), out.toString());
+            assertTrue(name, appends[0] > 2);
+            extractor.close();
+        }
+    }
+
 	/**
 	 * Test textPieces based extraction
 	 */
@@ -35,6 +35,34 @@ import org.junit.Test;
 public final class TestRecordFactory {
 
 
+	/**
+	 * Every record class known to the factory is created for its sid, all other sids
+	 * result in {@link UnknownRecord}s
+	 */
+	@Test
+	public void testKnownRecordClasses() {
+		int known = 0;
+		for (int sid = 0; sid <= 0xFFFF; sid++) {
+			Class<? extends Record> recClass = RecordFactory.getRecordClass(sid);
+			Record record;
+			try {
+				record = RecordFactory.createSingleRecord(TestcaseRecordInputStream.create(sid, new byte[0]));
+			} catch (RuntimeException e) {
+				// only the known records fail to parse the empty data
+				assertNotNull("sid 0x" + Integer.toHexString(sid), recClass);
+				known++;
+				continue;
+			}
+			if (recClass == null) {
+				assertTrue("sid 0x" + Integer.toHexString(sid), record instanceof UnknownRecord);
+			} else {
+				assertTrue("sid 0x" + Integer.toHexString(sid), recClass.isInstance(record));
+				known++;
+			}
+		}
+		assertEquals(RecordFactory.getAllKnownRecordSIDs().length, known);
+	}
+
 	/**
 	 * TEST NAME:  Test Basic Record Construction <P>
 	 * OBJECTIVE:  Test that the RecordFactory given the required parameters for know
@@ -28,13 +28,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
 import org.apache.poi.hssf.record.common.UnicodeString;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.util.HexRead;
 import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.LocaleUtil;
@@ -78,9 +84,13 @@ public final class TestSSTRecord {
      * @param rawData serialization of one {@link SSTRecord} and zero or more {@link ContinueRecord}s
      */
     private static SSTRecord createSSTFromRawData(byte[] rawData) {
+        return createSSTFromRawData(rawData, false);
+    }
+
+    private static SSTRecord createSSTFromRawData(byte[] rawData, boolean lazyStringDecoding) {
         RecordInputStream in = new RecordInputStream(new ByteArrayInputStream(rawData));
         in.nextRecord();
-        SSTRecord result = new SSTRecord(in);
+        SSTRecord result = new SSTRecord(in, lazyStringDecoding);
         assertEquals(0, in.remaining());
         assertTrue(!in.hasNextRecord());
         return result;
@@ -1510,6 +1520,104 @@ public final class TestSSTRecord {
         assertRecordEquals(src, dst);
     }
 
+    @Test
+    public void lazyStringDecoding() throws IOException {
+        confirmLazyStringDecoding(concatHexDumps("BigSSTRecord", "BigSSTRecordCR"));
+        confirmLazyStringDecoding(concatHexDumps("BigSSTRecord2", "BigSSTRecord2CR1", "BigSSTRecord2CR2",
+                "BigSSTRecord2CR3", "BigSSTRecord2CR4", "BigSSTRecord2CR5", "BigSSTRecord2CR6", "BigSSTRecord2CR7"));
+        confirmLazyStringDecoding(HexRead.readFromString(data_50779_1));
+        confirmLazyStringDecoding(HexRead.readFromString(data_50779_2));
+
+        // strings which are continued in several records, partly compressed
+        SSTRecord record = new SSTRecord();
+        char[] data = new char[9000];
+        Arrays.fill(data, '\u2122');
+        record.addString(new UnicodeString(new String(data)));
+        record.addString(new UnicodeString("short"));
+        Arrays.fill(data, 'x');
+        record.addString(new UnicodeString(new String(data)));
+        data = new char[16998];
+        Arrays.fill(data, 'y');
+        data[9000] = '\u2122';
+        record.addString(new UnicodeString(new String(data)));
+        confirmLazyStringDecoding(record.serialize());
+    }
+
+    @Test
+    public void lazyStringDecodingAddString() throws IOException {
+        byte[] origData = concatHexDumps("BigSSTRecord", "BigSSTRecordCR");
+        SSTRecord record = createSSTFromRawData(origData, true);
+        UnicodeString first = record.getString(0);
+        assertEquals(688, record.countStrings());
+        assertEquals(687, record.addString(record.getString(687)));
+        assertEquals(688, record.addString(new UnicodeString("new string")));
+        assertEquals(689, record.countStrings());
+        assertEquals(first, record.getString(0));
+        assertEquals("new string", record.getString(688).getString());
+    }
+
+    @Test
+    public void lazyStringDecodingEvents() throws IOException {
+        for (String sample : new String[] { "duprich1.xls", "StringContinueRecords.xls", "45784.xls" }) {
+            List<String> eager = readLabelStrings(sample, false);
+            List<String> lazy = readLabelStrings(sample, true);
+            assertTrue(sample, eager.size() > 0);
+            assertEquals(sample, eager, lazy);
+        }
+    }
+
+    /**
+     * @return the strings of all {@link LabelSSTRecord}s of the sample, looked up by an event listener
+     */
+    private static List<String> readLabelStrings(String sample, boolean lazyStringDecoding) throws IOException {
+        final List<String> strings = new ArrayList<String>();
+        HSSFRequest req = new HSSFRequest();
+        HSSFListener listener = new HSSFListener() {
+            private SSTRecord sst;
+
+            @Override
+            public void processRecord(Record record) {
+                if (record instanceof SSTRecord) {
+                    sst = (SSTRecord) record;
+                } else if (record instanceof LabelSSTRecord) {
+                    strings.add(sst.getString(((LabelSSTRecord) record).getSSTIndex()).getString());
+                }
+            }
+        };
+        req.addListener(listener, SSTRecord.sid);
+        req.addListener(listener, LabelSSTRecord.sid);
+
+        HSSFEventFactory factory = new HSSFEventFactory();
+        factory.setLazySSTStringDecoding(lazyStringDecoding);
+        NPOIFSFileSystem fs = new NPOIFSFileSystem(HSSFTestDataSamples.openSampleFileStream(sample));
+        try {
+            factory.processWorkbookEvents(req, fs.getRoot());
+        } finally {
+            fs.close();
+        }
+        return strings;
+    }
+
+    /**
+     * Reads the data once with all strings decoded at once and once with lazily decoded
+     * strings and compares the results
+     */
+    private static void confirmLazyStringDecoding(byte[] rawData) {
+        SSTRecord eager = createSSTFromRawData(rawData);
+        SSTRecord lazy = createSSTFromRawData(rawData, true);
+        assertEquals(eager.getNumStrings(), lazy.getNumStrings());
+        assertEquals(eager.getNumUniqueStrings(), lazy.getNumUniqueStrings());
+        assertEquals(eager.countStrings(), lazy.countStrings());
+        assertEquals(eager.calcExtSSTRecordSize(), lazy.calcExtSSTRecordSize());
+        // backwards, so that the strings are decoded in a different order than they are stored
+        for (int i = eager.countStrings() - 1; i >= 0; i--) {
+            assertEquals("String at idx=" + i, eager.getString(i), lazy.getString(i));
+        }
+        // the first strings have already been evicted from the decoded strings
+        assertEquals(eager.getString(0), lazy.getString(0));
+        assertArrayEquals(eager.serialize(), lazy.serialize());
+    }
+
     @Test
     public void test57456() {
         byte[] bytes = HexRead.readFromString("FC, 00, 08, 00, 00, 00, 00, 00, E1, 06, 00, 00");
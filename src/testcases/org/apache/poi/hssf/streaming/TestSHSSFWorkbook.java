@@ -0,0 +1,160 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.streaming;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.util.TempFile;
+import org.junit.Test;
+
+public final class TestSHSSFWorkbook {
+
+    @Test
+    public void sameBytesAsHSSFWorkbook() throws IOException {
+        HSSFWorkbook expected = new HSSFWorkbook();
+        SHSSFWorkbook actual = new SHSSFWorkbook(10);
+        fill(expected, 1000);
+        fill(actual, 1000);
+
+        HSSFSheet sheet = actual.getSheetAt(0);
+        // 30 blocks of 32 rows are flushed
+        assertEquals(1918, sheet.getLastFlushedRowNum());
+        assertNull(sheet.getRow(0));
+        assertNull(sheet.getRow(1918));
+        assertNotNull(sheet.getRow(1920));
+        assertEquals(1000, sheet.getPhysicalNumberOfRows());
+        assertEquals(0, sheet.getFirstRowNum());
+        assertEquals(1998, sheet.getLastRowNum());
+
+        assertArrayEquals(expected.getBytes(), actual.getBytes());
+
+        actual.close();
+        expected.close();
+    }
+
+    @Test
+    public void writeAndReadBack() throws IOException {
+        SHSSFWorkbook wb = new SHSSFWorkbook();
+        fill(wb, 5000);
+        wb.createSheet("empty");
+
+        HSSFWorkbook wbBack = HSSFTestDataSamples.writeOutAndReadBack(wb);
+        HSSFSheet sheet = wbBack.getSheet("data");
+        assertEquals(5000, sheet.getPhysicalNumberOfRows());
+        for (int i = 0; i < 5000; i++) {
+            HSSFRow row = sheet.getRow(i * 2);
+            assertEquals(i, row.getCell(0).getNumericCellValue(), 0);
+            assertEquals("Row " + i, row.getCell(1).getStringCellValue());
+            assertEquals(i % 2 == 0, row.getCell(2).getBooleanCellValue());
+            assertEquals("A" + (i * 2 + 1) + "*2", row.getCell(3).getCellFormula());
+            assertEquals(CellType.BLANK, row.getCell(5).getCellTypeEnum());
+            assertNull(sheet.getRow(i * 2 + 1));
+        }
+        assertEquals(0, wbBack.getSheet("empty").getPhysicalNumberOfRows());
+        wbBack.close();
+
+        assertTrue(wb.dispose());
+        wb.close();
+    }
+
+    @Test
+    public void writeToFile() throws IOException {
+        SHSSFWorkbook wb = new SHSSFWorkbook(50);
+        fill(wb, 3000);
+        File file = TempFile.createTempFile("TestSHSSFWorkbook", ".xls");
+        try {
+            wb.write(file);
+            wb.close();
+
+            HSSFWorkbook wbBack = new HSSFWorkbook(new NPOIFSFileSystem(file, true));
+            HSSFSheet sheet = wbBack.getSheet("data");
+            assertEquals(3000, sheet.getPhysicalNumberOfRows());
+            assertEquals("Row 2999", sheet.getRow(5998).getCell(1).getStringCellValue());
+            wbBack.close();
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void rowsBeforeFlushedRows() throws IOException {
+        SHSSFWorkbook wb = new SHSSFWorkbook(1);
+        HSSFSheet sheet = wb.createSheet();
+        for (int i = 0; i < 40; i++) {
+            sheet.createRow(i);
+        }
+        assertEquals(31, sheet.getLastFlushedRowNum());
+        try {
+            sheet.createRow(31);
+            fail("Rows before the last flushed row can't be created");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        sheet.createRow(32);
+        assertEquals(40, sheet.getPhysicalNumberOfRows());
+        wb.close();
+    }
+
+    @Test
+    public void flushRowsOfHSSFWorkbook() throws IOException {
+        HSSFWorkbook expected = new HSSFWorkbook();
+        HSSFWorkbook actual = new HSSFWorkbook();
+        fill(expected, 100);
+        fill(actual, 100);
+
+        HSSFSheet sheet = actual.getSheetAt(0);
+        sheet.flushRows();
+        // only complete blocks of 32 rows are flushed
+        assertEquals(190, sheet.getLastFlushedRowNum());
+        assertEquals(100, sheet.getPhysicalNumberOfRows());
+        assertNotNull(sheet.getRow(192));
+
+        assertArrayEquals(expected.getBytes(), actual.getBytes());
+        assertTrue(sheet.disposeFlushedRows());
+        actual.close();
+        expected.close();
+    }
+
+    private static void fill(HSSFWorkbook wb, int rowCount) {
+        HSSFSheet sheet = wb.createSheet("data");
+        for (int i = 0; i < rowCount; i++) {
+            // every other row, to check the row numbers of the INDEX and DBCELL records
+            HSSFRow row = sheet.createRow(i * 2);
+            row.createCell(0).setCellValue(i);
+            row.createCell(1).setCellValue("Row " + i);
+            row.createCell(2).setCellValue(i % 2 == 0);
+            row.createCell(3).setCellFormula("A" + (i * 2 + 1) + "*2");
+            row.createCell(5);
+            row.createCell(6);
+        }
+    }
+}
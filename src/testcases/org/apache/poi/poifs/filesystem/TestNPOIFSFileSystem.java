@@ -140,6 +140,35 @@ public final class TestNPOIFSFileSystem {
       fsB.close();
    }
 
+   /**
+    * Memory mapped read-only files return the same contents as the other ones
+    */
+   @Test
+   public void readMemoryMapped() throws IOException {
+      for (String name : new String[] { "BlockSize512.zvi", "BlockSize4096.zvi" }) {
+         NPOIFSFileSystem mapped = new NPOIFSFileSystem(_inst.getFile(name), true, true);
+         NPOIFSFileSystem read = new NPOIFSFileSystem(_inst.openResourceAsStream(name));
+         try {
+            assertEquals(read.getBigBlockSize(), mapped.getBigBlockSize());
+            assertEquals(read.getRoot().getEntryCount(), mapped.getRoot().getEntryCount());
+            Iterator<Entry> entries = read.getRoot().getEntries();
+            while (entries.hasNext()) {
+               Entry entry = entries.next();
+               if (!(entry instanceof DocumentEntry)) {
+                  continue;
+               }
+               DocumentInputStream inp = read.createDocumentInputStream(entry.getName());
+               byte[] expected = IOUtils.toByteArray(inp);
+               inp.close();
+               assertContentsMatches(expected, (DocumentEntry)mapped.getRoot().getEntry(entry.getName()));
+            }
+         } finally {
+            mapped.close();
+            read.close();
+         }
+      }
+   }
+
    @Test
    public void propertiesAndFatOnRead() throws IOException {
       NPOIFSFileSystem fsA, fsB;
@@ -54,6 +54,32 @@ public class TestDataSource extends TestCase
       }
    }
 
+   public void testFileMemoryMapped() throws Exception {
+      File f = data.getFile("Notes.ole2");
+
+      FileBackedDataSource ds = new FileBackedDataSource(f, true, true);
+      try {
+          assertTrue(ds.isMemoryMapped());
+          checkDataSource(ds, false);
+
+          // blocks are read-only slices of the mapping
+          ByteBuffer bs = ds.read(512, 0x400);
+          assertTrue(bs.isDirect());
+          assertTrue(bs.isReadOnly());
+          assertEquals(512, bs.remaining());
+          assertEquals((byte) 'R', bs.get(0));
+      } finally {
+          ds.close();
+      }
+
+      ds = new FileBackedDataSource(f);
+      try {
+          assertFalse(ds.isMemoryMapped());
+      } finally {
+          ds.close();
+      }
+   }
+
    public void testFileWritable() throws Exception {
        File temp = TempFile.createTempFile("TestDataSource", ".test");
        try {
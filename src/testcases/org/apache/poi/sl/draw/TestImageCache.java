@@ -0,0 +1,104 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.sl.draw;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.apache.poi.POIDataSamples;
+import org.junit.Test;
+
+public class TestImageCache {
+    private static final POIDataSamples samples = POIDataSamples.getSlideShowInstance();
+
+    @Test
+    public void decodeOnce() throws IOException {
+        byte[] data = samples.readFile("tomcat.png");
+        ImageCache cache = new ImageCache();
+
+        BitmapImageRenderer renderer1 = new BitmapImageRenderer(cache);
+        renderer1.loadImage(data, "image/png");
+        BitmapImageRenderer renderer2 = new BitmapImageRenderer(cache);
+        renderer2.loadImage(new ByteArrayInputStream(data), "image/png");
+
+        BufferedImage img = renderer1.getImage();
+        assertNotNull(img);
+        assertSame(img, renderer2.getImage());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getImageCount());
+        assertEquals(4L * img.getWidth() * img.getHeight(), cache.getSize());
+
+        // scaled images are cached by their dimension
+        Dimension dim = new Dimension(20, 10);
+        BufferedImage scaled = renderer1.getImage(dim);
+        assertSame(scaled, renderer2.getImage(dim));
+        assertNotSame(scaled, renderer1.getImage(new Dimension(10, 20)));
+        assertEquals(3, cache.getImageCount());
+
+        // images with alpha aren't looked up
+        renderer2.setAlpha(0.5);
+        assertNotSame(scaled, renderer2.getImage(dim));
+        assertEquals(3, cache.getImageCount());
+
+        // without cache, the data is decoded each time
+        BitmapImageRenderer renderer3 = new BitmapImageRenderer();
+        renderer3.loadImage(data, "image/png");
+        assertNotSame(img, renderer3.getImage());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        // room for two 10x10 images
+        ImageCache cache = new ImageCache(800);
+        ImageCache.Key key1 = ImageCache.createKey(new byte[]{1}, "image/png");
+        ImageCache.Key key2 = ImageCache.createKey(new byte[]{2}, "image/png");
+        ImageCache.Key key3 = ImageCache.createKey(new byte[]{3}, "image/png");
+        BufferedImage img1 = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage img2 = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage img3 = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+
+        cache.put(key1, img1);
+        cache.put(key2, img2);
+        assertSame(img1, cache.get(key1));
+        cache.put(key3, img3);
+
+        assertEquals(2, cache.getImageCount());
+        assertEquals(800, cache.getSize());
+        assertSame(img1, cache.get(key1));
+        assertNull(cache.get(key2));
+        assertSame(img3, cache.get(key3));
+
+        // too big to be cached at all
+        cache.put(key2, new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB));
+        assertNull(cache.get(key2));
+        assertEquals(2, cache.getImageCount());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get(key1));
+    }
+}
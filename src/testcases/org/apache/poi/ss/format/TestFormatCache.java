@@ -0,0 +1,57 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.format;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public final class TestFormatCache {
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        FormatCache<String,String> cache = new FormatCache<String,String>(2);
+        assertEquals("a", cache.putIfAbsent("0", "a"));
+        assertEquals("b", cache.putIfAbsent("0.00", "b"));
+        // the existing format wins
+        assertEquals("a", cache.putIfAbsent("0", "c"));
+        assertEquals("a", cache.get("0"));
+
+        cache.putIfAbsent("0%", "d");
+        assertEquals(2, cache.size());
+        assertNull(cache.get("0.00"));
+        assertEquals("a", cache.get("0"));
+        assertEquals("d", cache.get("0%"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void cellFormatsAreShared() {
+        assertSame(CellFormat.getInstance("#,##0.00;[Red]-#,##0.00"),
+            CellFormat.getInstance("#,##0.00;[Red]-#,##0.00"));
+        assertSame(CellFormat.GENERAL_FORMAT, CellFormat.getInstance("General"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSize() {
+        new FormatCache<String,String>(0);
+    }
+}
@@ -33,6 +33,7 @@ import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
 import org.apache.poi.ss.formula.eval.MissingArgEval;
 import org.apache.poi.ss.formula.eval.NumberEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
@@ -123,6 +124,39 @@ public class TestWorkbookEvaluator {
     }
 
 
+    /**
+     * The operand stack is shared by nested evaluations - make sure deep recursions
+     * and aborted evaluations don't mix up the operands of the outer formulas
+     */
+    @Test
+    public void testNestedEvaluations() throws IOException {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = wb.createSheet("Sheet1");
+        sheet.createRow(0).createCell(0).setCellValue(1);
+        for (int i = 1; i < 300; i++) {
+            sheet.createRow(i).createCell(0).setCellFormula("IF(A" + i + ">0,SUM(A" + i + ",1,0),-1)");
+        }
+        HSSFCell failing = sheet.getRow(0).createCell(1);
+        failing.setCellFormula("SUM(1,2,INFO(\"osversion\"))");
+        HSSFCell outer = sheet.getRow(0).createCell(2);
+        outer.setCellFormula("MAX(A300,2,3)+MIN(4,A150,6)*2");
+
+        HSSFFormulaEvaluator fe = new HSSFFormulaEvaluator(wb);
+        try {
+            fe.evaluate(failing);
+            fail("expected NotImplementedException");
+        } catch (NotImplementedException e) {
+            // expected
+        }
+        confirmEvaluation(308, fe, outer);
+        confirmEvaluation(300, fe, sheet.getRow(299).getCell(0));
+
+        // the same again after the cached values have been discarded
+        fe.clearAllCachedResultValues();
+        confirmEvaluation(308, fe, outer);
+        wb.close();
+    }
+
     @Test
     public void testEvaluateMultipleWorkbooks() {
         HSSFWorkbook wbA = HSSFTestDataSamples.openSampleWorkbook("multibookFormulaA.xls");
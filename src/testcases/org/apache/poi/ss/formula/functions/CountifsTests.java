@@ -50,6 +50,25 @@ public class CountifsTests extends TestCase {
         assertEquals(1.0d, evaluate.getNumberValue());
     }
 
+    /**
+     * The criteria must match in the same row, not just somewhere in their range
+     */
+    public void testCallFunction_sameRow() {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+        Sheet sheet = workbook.createSheet("test");
+        double[][] values = { { 1, 2 }, { 1, 3 }, { 2, 2 } };
+        for (int r = 0; r < values.length; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(1).setCellValue(values[r][0]);
+            row.createCell(2).setCellValue(values[r][1]);
+        }
+        Cell cellA1 = sheet.getRow(0).createCell(0, CellType.FORMULA);
+        cellA1.setCellFormula("COUNTIFS(B1:B3,1, C1:C3,2)");
+        FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        CellValue evaluate = evaluator.evaluate(cellA1);
+        assertEquals(1.0d, evaluate.getNumberValue());
+    }
+
     public void testCallFunction_invalidArgs() {
         HSSFWorkbook workbook = new HSSFWorkbook();
         Sheet sheet = workbook.createSheet("test");
@@ -0,0 +1,165 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ColumnarAreaValues} used by SUMIFS, COUNTIFS and AVERAGEIFS
+ * when they are evaluated through the workbook evaluator
+ */
+public final class TestColumnarAreaValues {
+
+    private HSSFWorkbook wb;
+    private HSSFSheet sheet;
+    private HSSFFormulaEvaluator fe;
+
+    @Before
+    public void setUp() {
+        wb = new HSSFWorkbook();
+        sheet = wb.createSheet("Data");
+        // A: mixed criteria values, B: second criteria column, C: values to aggregate
+        Object[] values = { 1d, "1", 2d, "abc", "ABD", Boolean.TRUE, Boolean.FALSE, "", null,
+                FormulaError.NA, FormulaError.DIV0, "TRUE", " 2 ", "b", 0d, -3.5, "1*1" };
+        for (int i = 0; i < values.length; i++) {
+            HSSFRow row = sheet.createRow(i);
+            Object value = values[i];
+            if (value instanceof Double) {
+                row.createCell(0).setCellValue((Double) value);
+            } else if (value instanceof String) {
+                row.createCell(0).setCellValue((String) value);
+            } else if (value instanceof Boolean) {
+                row.createCell(0).setCellValue((Boolean) value);
+            } else if (value instanceof FormulaError) {
+                row.createCell(0).setCellErrorValue((FormulaError) value);
+            }
+            row.createCell(1).setCellValue(i % 2 == 0 ? "even" : "odd");
+            if (i % 5 != 4) {
+                row.createCell(2).setCellValue(i + 1);
+            } else {
+                row.createCell(2).setCellValue("n/a");
+            }
+        }
+        fe = new HSSFFormulaEvaluator(wb);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Test
+    public void criteriaMatchLikeCountif() {
+        String[] criteria = { "1", "\"1\"", "\">1\"", "\"<1\"", "\"<>1\"", "\"=1\"", "\"<>\"", "\"=\"", "\"\"",
+                "\"a*\"", "\"<>a*\"", "\"?b?\"", "\">=b\"", "\"<abd\"", "TRUE", "\"<>TRUE\"", "\"FALSE\"",
+                "\"#N/A\"", "\"<>#N/A\"", "\"2\"", "\"<>2\"", "\"1~*1\"", "-3.5", "\">-4\"", "\"<=0\"" };
+        for (String crit : criteria) {
+            double expected = evaluate("COUNTIF(A1:A17," + crit + ")").getNumberValue();
+            confirmNumber(expected, "COUNTIFS(A1:A17," + crit + ")");
+        }
+    }
+
+    @Test
+    public void aggregates() {
+        // rows 1, 3 (the numbers 1 and 2 which are even rows)
+        confirmNumber(2, "COUNTIFS(A1:A17,\">0\",B1:B17,\"even\")");
+        confirmNumber(1 + 3, "SUMIFS(C1:C17,A1:A17,\">0\",B1:B17,\"even\")");
+        confirmNumber(2, "AVERAGEIFS(C1:C17,A1:A17,\">0\",B1:B17,\"even\")");
+        // the strings in A2, A4, A8, A12 and A14 and C below 10
+        confirmNumber(3, "COUNTIFS(A1:A17,\"<>\",B1:B17,\"odd\",C1:C17,\"<10\")");
+        // "n/a" in C10 is ignored by the average
+        confirmNumber(2 + 4 + 6 + 8 + 12 + 14 + 16, "SUMIFS(C1:C17,B1:B17,\"odd\")");
+        confirmNumber((2 + 4 + 6 + 8 + 12 + 14 + 16) / 7d, "AVERAGEIFS(C1:C17,B1:B17,\"odd\")");
+        assertEquals(FormulaError.DIV0.getCode(),
+                evaluate("AVERAGEIFS(C1:C17,B1:B17,\"none\")").getErrorValue());
+        assertEquals(FormulaError.DIV0.getCode(),
+                evaluate("AVERAGEIFS(C1:C17,C1:C17,\"n/a\")").getErrorValue());
+        assertEquals(FormulaError.VALUE.getCode(),
+                evaluate("AVERAGEIFS(C1:C17,B1:B16,\"odd\")").getErrorValue());
+        // a blank criteria matches nothing
+        confirmNumber(0, "COUNTIFS(A1:A17,Z1)");
+    }
+
+    @Test
+    public void valuesFollowCellUpdates() {
+        HSSFCell count = sheet.createRow(20).createCell(0);
+        count.setCellFormula("COUNTIFS(A1:A17,\">=1\",B1:B17,\"even\")");
+        HSSFCell sum = sheet.getRow(20).createCell(1);
+        sum.setCellFormula("SUMIFS(C1:C17,A1:A17,\">=1\")");
+        assertEquals(2, fe.evaluate(count).getNumberValue(), 0);
+        assertEquals(1 + 3, fe.evaluate(sum).getNumberValue(), 0);
+
+        HSSFCell a9 = sheet.getRow(8).createCell(0);
+        a9.setCellValue(5);
+        fe.notifyUpdateCell(a9);
+        assertEquals(3, fe.evaluate(count).getNumberValue(), 0);
+        assertEquals(1 + 3 + 9, fe.evaluate(sum).getNumberValue(), 0);
+
+        HSSFCell c1 = sheet.getRow(0).getCell(2);
+        c1.setCellFormula("10*10");
+        fe.notifyUpdateCell(c1);
+        assertEquals(3, fe.evaluate(count).getNumberValue(), 0);
+        assertEquals(100 + 3 + 9, fe.evaluate(sum).getNumberValue(), 0);
+    }
+
+    @Test
+    public void evaluatedOnce() {
+        // the areas aren't indexed on their first request, so the cells are scanned
+        HSSFRow row = sheet.createRow(20);
+        HSSFCell count = row.createCell(0);
+        count.setCellFormula("COUNTIFS(A1:A17,\">0\",B1:B17,\"even\")");
+        HSSFCell sum = row.createCell(1);
+        sum.setCellFormula("SUMIFS(C1:C17,A1:A17,\">0\",B1:B17,\"even\")");
+        assertEquals(2, new HSSFFormulaEvaluator(wb).evaluate(count).getNumberValue(), 0);
+        assertEquals(1 + 3, new HSSFFormulaEvaluator(wb).evaluate(sum).getNumberValue(), 0);
+    }
+
+    private void confirmNumber(double expected, String formula) {
+        CellValue cv = evaluate(formula);
+        assertEquals(formula, expected, cv.getNumberValue(), 0);
+    }
+
+    /**
+     * Evaluates the formula twice, at first by scanning the cells and then
+     * with the indexes of the areas, which are built on their second request
+     */
+    private CellValue evaluate(String formula) {
+        HSSFRow row = sheet.createRow(30);
+        HSSFCell scanned = row.createCell(0);
+        scanned.setCellFormula(formula);
+        HSSFCell indexed = row.createCell(1);
+        indexed.setCellFormula(formula);
+        fe.clearAllCachedResultValues();
+        CellValue cv = fe.evaluate(scanned);
+        assertEquals(formula, cv.formatAsString(), fe.evaluate(indexed).formatAsString());
+        return cv;
+    }
+}
@@ -0,0 +1,229 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the cached {@link LookupIndex} used by VLOOKUP, HLOOKUP and MATCH
+ * when they are evaluated through the workbook evaluator
+ */
+public final class TestLookupIndex {
+
+    private HSSFWorkbook wb;
+    private HSSFSheet sheet;
+    private HSSFFormulaEvaluator fe;
+
+    @Before
+    public void setUp() {
+        wb = new HSSFWorkbook();
+        sheet = wb.createSheet("Data");
+        // A: keys, B: values, D1:H1 horizontal keys
+        String[] keys = { "apple", "Banana", "cherry", "banana", "10", "*" };
+        for (int i = 0; i < keys.length; i++) {
+            HSSFRow row = sheet.createRow(i);
+            row.createCell(0).setCellValue(keys[i]);
+            row.createCell(1).setCellValue(i + 1);
+        }
+        HSSFRow row = sheet.createRow(6);
+        row.createCell(0).setCellValue(10);
+        row.createCell(1).setCellValue(7);
+        row = sheet.createRow(7);
+        row.createCell(0).setCellValue(true);
+        row.createCell(1).setCellValue(8);
+        // row 8 (A9) is blank
+        sheet.createRow(8).createCell(1).setCellValue(9);
+        row = sheet.createRow(9);
+        row.createCell(0).setCellFormula("5*2");
+        row.createCell(1).setCellValue(10);
+
+        HSSFRow hrow = sheet.getRow(0);
+        for (int c = 0; c < 5; c++) {
+            hrow.createCell(3 + c).setCellValue(c * 10);
+            sheet.getRow(1).createCell(3 + c).setCellValue("h" + c);
+        }
+        fe = new HSSFFormulaEvaluator(wb);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Test
+    public void exactLookups() {
+        confirmNumber(2, "VLOOKUP(\"BANANA\",A1:B10,2,FALSE)");
+        confirmNumber(2, "MATCH(\"banana\",A3:A10,0)");
+        confirmBoolean(true, "VLOOKUP(\"b*\",A2:B10,1,FALSE)=\"Banana\"");
+        confirmNumber(3, "MATCH(\"c?erry\",A1:A10,0)");
+        confirmNumber(5, "VLOOKUP(\"10\",A1:B10,2,FALSE)");
+        confirmNumber(7, "VLOOKUP(10,A1:B10,2,FALSE)");
+        confirmNumber(8, "VLOOKUP(TRUE,A1:B10,2,FALSE)");
+        confirmNumber(7, "MATCH(10,A1:A10,0)");
+        confirmError("VLOOKUP(0,A1:B10,2,FALSE)");
+        confirmError("VLOOKUP(\"durian\",A1:B10,2,FALSE)");
+        confirmNumber(3, "HLOOKUP(20,D1:H2,1,FALSE)/10+1");
+        confirmString("h2", "HLOOKUP(20,D1:H2,2,FALSE)");
+        confirmString("h3", "HLOOKUP(35,D1:H2,2,TRUE)");
+        confirmNumber(4, "MATCH(35,D1:H1,1)");
+    }
+
+    @Test
+    public void indexFollowsCellUpdates() {
+        HSSFCell lookup = sheet.createRow(20).createCell(0);
+        lookup.setCellFormula("VLOOKUP(\"cherry\",A1:B10,2,FALSE)");
+        HSSFCell match = sheet.getRow(20).createCell(1);
+        match.setCellFormula("MATCH(0,A1:A10,0)");
+        HSSFCell vlookupFormula = sheet.getRow(20).createCell(2);
+        vlookupFormula.setCellFormula("VLOOKUP(42,A1:B10,2,FALSE)");
+
+        // the areas are indexed, when they are requested the second time
+        for (int i = 0; i < 2; i++) {
+            fe.notifySetFormula(lookup);
+            fe.notifySetFormula(match);
+            fe.notifySetFormula(vlookupFormula);
+            assertEquals(3, fe.evaluate(lookup).getNumberValue(), 0);
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(match).getErrorValue());
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(vlookupFormula).getErrorValue());
+        }
+
+        // the key of the first row changes - the cached index must not be used anymore
+        HSSFCell a1 = sheet.getRow(0).getCell(0);
+        a1.setCellValue("cherry");
+        fe.notifyUpdateCell(a1);
+        assertEquals(1, fe.evaluate(lookup).getNumberValue(), 0);
+
+        // blank cell gets a value
+        HSSFCell a9 = sheet.getRow(8).createCell(0);
+        a9.setCellValue(0);
+        fe.notifyUpdateCell(a9);
+        assertEquals(9, fe.evaluate(match).getNumberValue(), 0);
+
+        // formula cell in the key column changes
+        HSSFCell a10 = sheet.getRow(9).getCell(0);
+        a10.setCellFormula("6*7");
+        fe.notifyUpdateCell(a10);
+        assertEquals(10, fe.evaluate(vlookupFormula).getNumberValue(), 0);
+
+        // cell outside of the index doesn't matter
+        HSSFCell c1 = sheet.getRow(0).createCell(2);
+        c1.setCellValue("cherry");
+        fe.notifyUpdateCell(c1);
+        assertEquals(1, fe.evaluate(lookup).getNumberValue(), 0);
+    }
+
+    @Test
+    public void manyLookups() {
+        HSSFSheet table = wb.createSheet("Table");
+        int size = 2000;
+        for (int i = 0; i < size; i++) {
+            HSSFRow row = table.createRow(i);
+            row.createCell(0).setCellValue("key" + (size - i));
+            row.createCell(1).setCellValue(i);
+            row.createCell(2).setCellValue(i * 2);
+        }
+        HSSFSheet lookups = wb.createSheet("Lookups");
+        for (int i = 0; i < size; i++) {
+            HSSFRow row = lookups.createRow(i);
+            row.createCell(0).setCellFormula("VLOOKUP(\"KEY" + (i + 1) + "\",Table!$A$1:$C$" + size + ",3,FALSE)");
+            row.createCell(1).setCellFormula("VLOOKUP(" + i + ",Table!$B$1:$C$" + size + ",2,TRUE)");
+        }
+        for (int i = 0; i < size; i++) {
+            HSSFRow row = lookups.getRow(i);
+            assertEquals((size - i - 1) * 2, fe.evaluate(row.getCell(0)).getNumberValue(), 0);
+            assertEquals(i * 2, fe.evaluate(row.getCell(1)).getNumberValue(), 0);
+        }
+    }
+
+    @Test
+    public void expandingRanges() {
+        HSSFSheet data = wb.createSheet("Expanding");
+        int size = 200;
+        for (int i = 0; i < size; i++) {
+            HSSFRow row = data.createRow(i);
+            row.createCell(0).setCellValue(i % 10);
+            // the first occurrence of the value in the rows above
+            row.createCell(1).setCellFormula("MATCH(A" + (i + 1) + ",$A$1:A" + (i + 1) + ",0)");
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals((i % 10) + 1, fe.evaluate(data.getRow(i).getCell(1)).getNumberValue(), 0);
+        }
+    }
+
+    @Test
+    public void areasRequestedOnce() {
+        // each function using IndexableEval.getIndex must read the area itself,
+        // when it's requested the first time and no index is returned
+        String[] formulas = {
+            "VLOOKUP(\"cherry\",A1:B10,2,FALSE)", "HLOOKUP(20,D1:H2,2,FALSE)", "MATCH(\"banana\",A1:A10,0)",
+            "COUNTIFS(A1:A10,\"b*\")", "SUMIFS(B1:B10,A1:A10,\"b*\")", "AVERAGEIFS(B1:B10,A1:A10,\"b*\")"
+        };
+        String[] expected = { "3.0", "\"h2\"", "2.0", "2.0", "6.0", "3.0" };
+        HSSFRow row = sheet.createRow(30);
+        for (int i = 0; i < formulas.length; i++) {
+            HSSFCell cell = row.createCell(i);
+            cell.setCellFormula(formulas[i]);
+            HSSFFormulaEvaluator evaluator = new HSSFFormulaEvaluator(wb);
+            assertEquals(formulas[i], expected[i], evaluator.evaluate(cell).formatAsString());
+        }
+    }
+
+    private void confirmNumber(double expected, String formula) {
+        CellValue cv = evaluate(formula);
+        assertEquals(formula, expected, cv.getNumberValue(), 0);
+    }
+
+    private void confirmBoolean(boolean expected, String formula) {
+        assertEquals(formula, expected, evaluate(formula).getBooleanValue());
+    }
+
+    private void confirmString(String expected, String formula) {
+        assertEquals(formula, expected, evaluate(formula).getStringValue());
+    }
+
+    private void confirmError(String formula) {
+        assertEquals(formula, FormulaError.NA.getCode(), evaluate(formula).getErrorValue());
+    }
+
+    /**
+     * Evaluates the formula with the plain scan and then with the index of its areas
+     */
+    private CellValue evaluate(String formula) {
+        HSSFCell cell = sheet.createRow(30).createCell(0);
+        cell.setCellFormula(formula);
+        fe.clearAllCachedResultValues();
+        CellValue scanned = fe.evaluate(cell);
+        fe.notifySetFormula(cell);
+        CellValue indexed = fe.evaluate(cell);
+        assertEquals(formula, scanned.formatAsString(), indexed.formatAsString());
+        return indexed;
+    }
+}
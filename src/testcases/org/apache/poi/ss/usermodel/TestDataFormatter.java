@@ -28,9 +28,15 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
@@ -841,4 +847,51 @@ public class TestDataFormatter {
         assertEquals("08:51", dfUS.formatRawCellContents(42605.368761574071, -1, "hh:mm"));
         assertEquals("51:01", dfUS.formatRawCellContents(42605.368761574071, -1, "mm:ss"));
     }
+
+    /**
+     * The compiled formats are shared by all formatters and threads
+     */
+    @Test
+    public void formatConcurrently() throws Exception {
+        final String[] formats = {
+            "#,##0.00", "0.000E+00", "yyyy-mm-dd hh:mm:ss", "[h]:mm:ss", "# ?/?",
+            "0.00%", "[>=100]0;[<0]-0.0;0.00", "\\$#,##0.00_);[Red]\\(\\$#,##0.00\\)"
+        };
+        final double[] values = { 0, 0.5, 1.25, 42605.368761574071, -1234.5678, 99.99, 1e7 };
+
+        // the expected values of a single thread
+        DataFormatter single = new DataFormatter(Locale.US);
+        final String[][] expected = new String[formats.length][values.length];
+        for (int f = 0; f < formats.length; f++) {
+            for (int v = 0; v < values.length; v++) {
+                expected[f][v] = single.formatRawCellContents(values[v], -1, formats[f]);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        DataFormatter df = new DataFormatter(Locale.US);
+                        for (int i = 0; i < 200; i++) {
+                            for (int f = 0; f < formats.length; f++) {
+                                for (int v = 0; v < values.length; v++) {
+                                    assertEquals(formats[f], expected[f][v],
+                                        df.formatRawCellContents(values[v], -1, formats[f]));
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }